@@ -0,0 +1,69 @@
+package com.akgarg.urlshortener.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// building blocks of the binary cache codecs. Strings and lists are prefixed with (length + 1) as a varint, 0 marks null
+public final class BinaryCodecs {
+
+    private BinaryCodecs() {
+    }
+
+    public static byte[] bytes(final String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    public static int sizeOf(final byte[] value) {
+        final var length = value != null ? value.length + 1 : 0;
+        return varIntSize(length) + (value != null ? value.length : 0);
+    }
+
+    public static void put(final ByteBuffer buffer, final byte[] value) {
+        putVarInt(buffer, value != null ? value.length + 1 : 0);
+        if (value != null) {
+            buffer.put(value);
+        }
+    }
+
+    public static String getString(final ByteBuffer buffer) {
+        final var length = getVarInt(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+        final var value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    public static int varIntSize(final int value) {
+        var size = 1;
+        var remaining = value >>> 7;
+        while (remaining != 0) {
+            size++;
+            remaining >>>= 7;
+        }
+        return size;
+    }
+
+    public static void putVarInt(final ByteBuffer buffer, final int value) {
+        var remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            buffer.put((byte) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    public static int getVarInt(final ByteBuffer buffer) {
+        var value = 0;
+        var shift = 0;
+        byte current;
+        do {
+            current = buffer.get();
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return value;
+    }
+
+}
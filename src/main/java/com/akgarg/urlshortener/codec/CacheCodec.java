@@ -0,0 +1,12 @@
+package com.akgarg.urlshortener.codec;
+
+// converts cached values to and from the bytes stored in redis
+public interface CacheCodec<T> {
+
+    byte[] encode(T value);
+
+    // returns null for values it cannot read, such as values written by another codec version, so that they are treated
+    // as cache misses
+    T decode(byte[] value);
+
+}
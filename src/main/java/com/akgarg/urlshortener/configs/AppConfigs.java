@@ -1,19 +1,34 @@
 package com.akgarg.urlshortener.configs;
 
+import com.akgarg.urlshortener.encoding.Base62EncoderService;
+import com.akgarg.urlshortener.encoding.EncoderService;
+import com.akgarg.urlshortener.encoding.SortableBase62EncoderService;
+import com.akgarg.urlshortener.events.AsyncStatisticsEventService;
 import com.akgarg.urlshortener.events.KafkaStatisticsEventService;
 import com.akgarg.urlshortener.events.StatisticsEventService;
+import com.akgarg.urlshortener.events.StatisticsEventSpillFile;
 import com.akgarg.urlshortener.events.VoidStatisticsEventService;
 import com.akgarg.urlshortener.numbergenerator.InMemoryNumberGeneratorService;
+import com.akgarg.urlshortener.numbergenerator.LockFreeTimestampedNumberGenerator;
 import com.akgarg.urlshortener.numbergenerator.NumberGeneratorService;
 import com.akgarg.urlshortener.numbergenerator.TimestampedNumberGenerator;
+import com.akgarg.urlshortener.shortcode.InlineShortCodeService;
+import com.akgarg.urlshortener.shortcode.PooledShortCodeService;
+import com.akgarg.urlshortener.shortcode.ShortCodeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
 import org.springframework.kafka.core.KafkaTemplate;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Objects;
 
 @Slf4j
@@ -28,6 +43,13 @@ public class AppConfigs {
                 environment.getProperty("process.node.id"),
                 "Please provide 'process.node.id' property value"
         );
+        if (environment.getProperty("process.number-generator.lock-free", Boolean.class, true)) {
+            return new LockFreeTimestampedNumberGenerator(
+                    Integer.parseInt(nodeId),
+                    environment.getProperty("process.number-generator.max-clock-borrow", Long.class, 10L),
+                    environment.getProperty("process.number-generator.max-clock-wait", Long.class, 1000L)
+            );
+        }
         return new TimestampedNumberGenerator(Integer.parseInt(nodeId));
     }
 
@@ -38,8 +60,41 @@ public class AppConfigs {
         return new InMemoryNumberGeneratorService();
     }
 
+    @Bean
+    public EncoderService encoderService(final Environment environment) {
+        if (environment.getProperty("process.short-code.sortable", Boolean.class, false)) {
+            log.info("Configuring sortable base62 encoder service");
+            return new SortableBase62EncoderService();
+        }
+        log.info("Configuring base62 encoder service");
+        return new Base62EncoderService();
+    }
+
+    @Bean
+    public ShortCodeService shortCodeService(
+            final NumberGeneratorService numberGeneratorService,
+            final EncoderService encoderService,
+            final MeterRegistry meterRegistry,
+            final Environment environment
+    ) {
+        final var inlineShortCodeService = new InlineShortCodeService(numberGeneratorService, encoderService);
+
+        if (!environment.getProperty("process.short-code-pool.enabled", Boolean.class, false)) {
+            return inlineShortCodeService;
+        }
+
+        log.info("Configuring pooled short code service");
+        return new PooledShortCodeService(
+                inlineShortCodeService,
+                environment.getProperty("process.short-code-pool.low-water-mark", Integer.class, 1_000),
+                environment.getProperty("process.short-code-pool.high-water-mark", Integer.class, 10_000),
+                meterRegistry
+        );
+    }
+
     @Bean
     @Profile("prod")
+    @Qualifier("statisticsEventPublisher")
     public StatisticsEventService kafkaStatisticsEventService(final KafkaTemplate<String, String> kafkaTemplate, final ObjectMapper objectMapper) {
         log.info("Configuring kafka statistics event service");
         return new KafkaStatisticsEventService(kafkaTemplate, objectMapper);
@@ -47,9 +102,51 @@ public class AppConfigs {
 
     @Bean
     @Profile("dev")
+    @Qualifier("statisticsEventPublisher")
     public StatisticsEventService voidStatisticsEventService() {
         log.info("Configuring void statistics event service");
         return new VoidStatisticsEventService();
     }
 
+    @Bean
+    @Primary
+    public StatisticsEventService statisticsEventService(
+            @Qualifier("statisticsEventPublisher") final StatisticsEventService statisticsEventPublisher,
+            final ObjectMapper objectMapper,
+            final MeterRegistry meterRegistry,
+            final Environment environment
+    ) {
+        if (!environment.getProperty("statistics.events.async.enabled", Boolean.class, true)) {
+            return statisticsEventPublisher;
+        }
+
+        log.info("Configuring async statistics event publisher");
+        final var overflowPolicy = environment.getProperty(
+                "statistics.events.async.overflow-policy",
+                AsyncStatisticsEventService.OverflowPolicy.class,
+                AsyncStatisticsEventService.OverflowPolicy.DROP
+        );
+        final var spillFile = overflowPolicy == AsyncStatisticsEventService.OverflowPolicy.SPILL ?
+                new StatisticsEventSpillFile(
+                        Path.of(environment.getProperty("statistics.events.async.spill-directory", System.getProperty("java.io.tmpdir") + "/urlshortener-statistics")),
+                        objectMapper
+                ) :
+                null;
+
+        final var publisherThreadFactory = Threading.VIRTUAL.isActive(environment) ?
+                Thread.ofVirtual().name("statistics-publisher-", 0).factory() :
+                Thread.ofPlatform().name("statistics-publisher-", 0).daemon(true).factory();
+
+        return new AsyncStatisticsEventService(
+                statisticsEventPublisher,
+                environment.getProperty("statistics.events.async.queue-capacity", Integer.class, 10_000),
+                environment.getProperty("statistics.events.async.publisher-threads", Integer.class, 2),
+                overflowPolicy,
+                Duration.ofMillis(environment.getProperty("statistics.events.async.block-timeout", Long.class, 50L)),
+                spillFile,
+                meterRegistry,
+                publisherThreadFactory
+        );
+    }
+
 }
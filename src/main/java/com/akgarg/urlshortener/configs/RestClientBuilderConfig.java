@@ -1,25 +1,46 @@
 package com.akgarg.urlshortener.configs;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+import java.util.concurrent.Executors;
+
+@Slf4j
 @Configuration
 public class RestClientBuilderConfig {
 
     @Bean
     @LoadBalanced
-    public RestClient.Builder statisticsServiceRestClientBuilder() {
-        return RestClient.builder()
+    public RestClient.Builder statisticsServiceRestClientBuilder(final Environment environment) {
+        return restClientBuilder(environment)
                 .baseUrl("http://urlshortener-statistics-service");
     }
 
     @Bean
     @LoadBalanced
-    public RestClient.Builder subscriptionServiceRestClientBuilder() {
-        return RestClient.builder()
+    public RestClient.Builder subscriptionServiceRestClientBuilder(final Environment environment) {
+        return restClientBuilder(environment)
                 .baseUrl("http://urlshortener-subscription-service");
     }
 
+    // with virtual threads the http client runs its exchanges on virtual threads as well instead of its cached pool
+    private static RestClient.Builder restClientBuilder(final Environment environment) {
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            return RestClient.builder();
+        }
+
+        log.info("Configuring rest client with virtual thread http client executor");
+        final var httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        return RestClient.builder().requestFactory(new JdkClientHttpRequestFactory(httpClient));
+    }
+
 }
@@ -0,0 +1,66 @@
+package com.akgarg.urlshortener.configs;
+
+import com.akgarg.urlshortener.codec.CacheCodec;
+import com.akgarg.urlshortener.v1.subscription.cache.CachedSubscription;
+import com.akgarg.urlshortener.v1.subscription.cache.JsonSubscriptionCacheCodec;
+import com.akgarg.urlshortener.v1.subscription.cache.RedisSubscriptionCache;
+import com.akgarg.urlshortener.v1.subscription.cache.SubscriptionCache;
+import com.akgarg.urlshortener.v1.subscription.cache.SubscriptionCacheCodec;
+import com.akgarg.urlshortener.v1.subscription.cache.TieredSubscriptionCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+
+@Slf4j
+@Profile("prod")
+@Configuration
+public class SubscriptionCacheConfigs {
+
+    @Bean
+    public CacheCodec<CachedSubscription> subscriptionCacheCodec(final ObjectMapper objectMapper, final Environment environment) {
+        if ("json".equalsIgnoreCase(environment.getProperty("subscription.cache.codec", "binary"))) {
+            log.info("Configuring json subscription cache codec");
+            return new JsonSubscriptionCacheCodec(objectMapper);
+        }
+        return new SubscriptionCacheCodec();
+    }
+
+    @Bean
+    @Primary
+    public SubscriptionCache subscriptionCache(
+            final RedisSubscriptionCache redisSubscriptionCache,
+            final RedisTemplate<String, String> redisTemplate,
+            final RedisMessageListenerContainer redisMessageListenerContainer,
+            final MeterRegistry meterRegistry,
+            final Environment environment
+    ) {
+        if (!environment.getProperty("subscription.cache.local.enabled", Boolean.class, true)) {
+            return redisSubscriptionCache;
+        }
+
+        log.info("Configuring local subscription cache");
+        // a local copy is never kept longer than a redis entry
+        final var ttl = Math.min(
+                environment.getProperty("subscription.cache.local.ttl", Long.class, 10000L),
+                environment.getProperty("subscription.cache.ttl", Long.class, 60000L)
+        );
+        return new TieredSubscriptionCache(
+                redisSubscriptionCache,
+                redisTemplate,
+                redisMessageListenerContainer,
+                environment.getProperty("subscription.cache.local.max-size", Long.class, 100_000L),
+                Duration.ofMillis(ttl),
+                meterRegistry
+        );
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.akgarg.urlshortener.configs;
+
+import com.akgarg.urlshortener.v1.db.GroupCommitUrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.MongoUrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.ReactiveMongoUrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.SingleFlightUrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.UrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.cache.BloomFilterUrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.cache.CachingUrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.cache.RedisCachingUrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.cache.ShortUrlBroadcaster;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Configuration
+public class UrlDatabaseConfigs {
+
+    @Bean
+    @Primary
+    public UrlDatabaseService urlDatabaseService(
+            @Qualifier("urlStorage") final UrlDatabaseService urlStorage,
+            final ShortUrlBroadcaster shortUrlBroadcaster,
+            final ObjectProvider<RedisTemplate<String, byte[]>> binaryRedisTemplate,
+            final ObjectProvider<ReactiveMongoTemplate> reactiveMongoTemplateProvider,
+            final MeterRegistry meterRegistry,
+            final Environment environment
+    ) {
+        var urlDatabaseService = urlStorage;
+        final var redisTemplate = binaryRedisTemplate.getIfAvailable();
+        final var reactiveMongoTemplate = reactiveMongoTemplateProvider.getIfAvailable();
+
+        if (urlStorage instanceof MongoUrlDatabaseService mongoUrlDatabaseService && reactiveMongoTemplate != null &&
+                environment.getProperty("url.storage.reactive.enabled", Boolean.class, true)) {
+            log.info("Configuring reactive mongo url storage");
+            urlDatabaseService = new ReactiveMongoUrlDatabaseService(mongoUrlDatabaseService, reactiveMongoTemplate);
+        }
+
+        if (environment.getProperty("url.storage.group-commit.enabled", Boolean.class, false)) {
+            log.info("Configuring group commit url writes");
+            urlDatabaseService = new GroupCommitUrlDatabaseService(
+                    urlDatabaseService,
+                    environment.getProperty("url.storage.group-commit.max-batch-size", Integer.class, 256),
+                    Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(
+                            environment.getProperty("url.storage.group-commit.max-wait-micros", Long.class, 300L)
+                    )),
+                    meterRegistry
+            );
+        }
+
+        // the bloom filter stays below the redis url cache even though its definite misses then cost a redis lookup: other
+        // instances only add their short urls to this filter through pub/sub, which drops messages while the connection is
+        // down, whereas redis is written when the url is saved. Above redis, a lost broadcast would answer a valid short
+        // url with 404 until the next rebuild
+        if (environment.getProperty("url.cache.bloom.enabled", Boolean.class, true)) {
+            log.info("Configuring short url bloom filter");
+            final var bloomFilterUrlDatabaseService = new BloomFilterUrlDatabaseService(
+                    urlDatabaseService,
+                    shortUrlBroadcaster,
+                    environment.getProperty("url.cache.bloom.expected-insertions", Long.class, 10_000_000L),
+                    environment.getProperty("url.cache.bloom.false-positive-probability", Double.class, 0.01),
+                    Duration.ofMillis(environment.getProperty("url.cache.negative.ttl", Long.class, 10000L)),
+                    environment.getProperty("url.cache.negative.max-size", Long.class, 100_000L),
+                    meterRegistry
+            );
+            bloomFilterUrlDatabaseService.scheduleRebuilds(
+                    Duration.ofMillis(environment.getProperty("url.cache.bloom.rebuild-interval", Long.class, 3600000L))
+            );
+            urlDatabaseService = bloomFilterUrlDatabaseService;
+        }
+
+        if (redisTemplate != null && environment.getProperty("url.cache.redis.enabled", Boolean.class, true)) {
+            log.info("Configuring redis url cache");
+            // the jedis client blocks: the async paths run its commands on virtual threads, never on the event loop or on
+            // the thread that completed the storage future
+            final var redisExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("redis-url-cache-", 0).factory());
+            urlDatabaseService = new RedisCachingUrlDatabaseService(
+                    urlDatabaseService,
+                    redisTemplate,
+                    Duration.ofMillis(environment.getProperty("url.cache.redis.ttl", Long.class, 86400000L)),
+                    meterRegistry,
+                    redisExecutor
+            );
+        }
+
+        if (environment.getProperty("url.lookup.single-flight.enabled", Boolean.class, true)) {
+            log.info("Configuring single flight url lookups");
+            urlDatabaseService = new SingleFlightUrlDatabaseService(urlDatabaseService, meterRegistry);
+        }
+
+        if (environment.getProperty("url.cache.local.enabled", Boolean.class, true)) {
+            log.info("Configuring local url cache");
+            urlDatabaseService = new CachingUrlDatabaseService(
+                    urlDatabaseService,
+                    environment.getProperty("url.cache.local.max-weight", Long.class, 64L * 1024 * 1024),
+                    Duration.ofMillis(environment.getProperty("url.cache.local.ttl", Long.class, 600000L)),
+                    meterRegistry
+            );
+        }
+
+        return urlDatabaseService;
+    }
+
+}
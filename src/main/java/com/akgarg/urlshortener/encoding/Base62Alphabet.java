@@ -0,0 +1,53 @@
+package com.akgarg.urlshortener.encoding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+final class Base62Alphabet {
+
+    static final int BASE = 62;
+    static final int MAX_ENCODED_LENGTH = 11; // 62 ^ 11 > Long.MAX_VALUE
+
+    private final byte[] digits;
+    private final byte[] values = new byte[128];
+
+    Base62Alphabet(final String digits) {
+        if (digits.length() != BASE) {
+            throw new IllegalArgumentException("Base62 alphabet should have 62 digits");
+        }
+
+        this.digits = digits.getBytes(StandardCharsets.ISO_8859_1);
+        Arrays.fill(values, (byte) -1);
+
+        for (int i = 0; i < BASE; i++) {
+            values[this.digits[i]] = (byte) i;
+        }
+    }
+
+    byte digit(final int value) {
+        return digits[value];
+    }
+
+    int value(final char digit) {
+        final var value = digit < values.length ? values[digit] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid base62 character: " + digit);
+        }
+        return value;
+    }
+
+    // decimal * 62 + value, rejecting values that overflow a long
+    static long append(final long decimal, final int value, final String encoded) {
+        if (decimal > (Long.MAX_VALUE - value) / BASE) {
+            throw new IllegalArgumentException("Encoded value is too large: " + encoded);
+        }
+        return decimal * BASE + value;
+    }
+
+    static void validateEncodedLength(final String encoded, final int maxLength) {
+        if (encoded == null || encoded.isEmpty() || encoded.length() > maxLength) {
+            throw new IllegalArgumentException("Invalid encoded value: " + encoded);
+        }
+    }
+
+}
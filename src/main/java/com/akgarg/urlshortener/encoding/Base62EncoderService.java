@@ -1,40 +1,36 @@
 package com.akgarg.urlshortener.encoding;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Service;
 
-@Service
+import java.nio.charset.StandardCharsets;
+
+import static com.akgarg.urlshortener.encoding.Base62Alphabet.MAX_ENCODED_LENGTH;
+
+// variable length, least significant digit first
 @Slf4j
 public class Base62EncoderService implements EncoderService {
 
-    private static final char[] base62Mapping = new char[]{
-            '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j', 'k', 'l', 'm', 'n', 'o', 'p', 'q', 'r', 's', 't', 'u', 'v', 'w', 'x', 'y', 'z', 'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J', 'K', 'L', 'M', 'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z'
-    };
+    private static final Base62Alphabet base62Alphabet = new Base62Alphabet(
+            "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ"
+    );
 
     @Override
     public String encode(final long number) {
-        if (log.isDebugEnabled()) {
-            log.debug("Encoding number {}", number);
-        }
-
         if (number <= 0) {
             log.error("Number {} is not valid for encoding", number);
             throw new IllegalArgumentException("Invalid number to encode: " + number);
         }
 
-        final var base62Representation = new StringBuilder();
+        final var base62Representation = new byte[Base62Alphabet.MAX_ENCODED_LENGTH];
+        var length = 0;
         var decimal = number;
 
         while (decimal > 0) {
-            final var remainder = (int) (decimal % 62);
-            if (log.isDebugEnabled()) {
-                log.debug("{} % 62 = {}", decimal, remainder);
-            }
-            base62Representation.append(base62Mapping[remainder]);
-            decimal /= 62;
+            base62Representation[length++] = base62Alphabet.digit((int) (decimal % Base62Alphabet.BASE));
+            decimal /= Base62Alphabet.BASE;
         }
 
-        final var base62RepresentationString = base62Representation.toString();
+        final var base62RepresentationString = new String(base62Representation, 0, length, StandardCharsets.ISO_8859_1);
 
         if (log.isDebugEnabled()) {
             log.debug("Base62 representation of {} is {}", number, base62RepresentationString);
@@ -43,4 +39,22 @@ public class Base62EncoderService implements EncoderService {
         return base62RepresentationString;
     }
 
+    @Override
+    public long decode(final String encoded) {
+        Base62Alphabet.validateEncodedLength(encoded, MAX_ENCODED_LENGTH);
+
+        // a trailing zero digit is a leading zero of the number, encode never writes one so each number has one code
+        if (base62Alphabet.value(encoded.charAt(encoded.length() - 1)) == 0) {
+            throw new IllegalArgumentException("Encoded value has a leading zero digit: " + encoded);
+        }
+
+        var decimal = 0L;
+
+        for (int i = encoded.length() - 1; i >= 0; i--) {
+            decimal = Base62Alphabet.append(decimal, base62Alphabet.value(encoded.charAt(i)), encoded);
+        }
+
+        return decimal;
+    }
+
 }
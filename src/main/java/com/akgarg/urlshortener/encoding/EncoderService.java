@@ -4,4 +4,6 @@ public interface EncoderService {
 
     String encode(long number);
 
+    long decode(String encoded);
+
 }
@@ -0,0 +1,61 @@
+package com.akgarg.urlshortener.encoding;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.akgarg.urlshortener.encoding.Base62Alphabet.MAX_ENCODED_LENGTH;
+
+// fixed width, most significant digit first with digits in ascii order, so codes sort like the numbers they encode
+@Slf4j
+public class SortableBase62EncoderService implements EncoderService {
+
+    private static final Base62Alphabet base62Alphabet = new Base62Alphabet(
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz"
+    );
+
+    @Override
+    public String encode(final long number) {
+        if (number <= 0) {
+            log.error("Number {} is not valid for encoding", number);
+            throw new IllegalArgumentException("Invalid number to encode: " + number);
+        }
+
+        final var base62Representation = new byte[Base62Alphabet.MAX_ENCODED_LENGTH];
+        var decimal = number;
+
+        for (int i = MAX_ENCODED_LENGTH - 1; i >= 0; i--) {
+            base62Representation[i] = base62Alphabet.digit((int) (decimal % Base62Alphabet.BASE));
+            decimal /= Base62Alphabet.BASE;
+        }
+
+        final var base62RepresentationString = new String(base62Representation, 0, MAX_ENCODED_LENGTH, StandardCharsets.ISO_8859_1);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Sortable base62 representation of {} is {}", number, base62RepresentationString);
+        }
+
+        return base62RepresentationString;
+    }
+
+    @Override
+    public long decode(final String encoded) {
+        // codes are always zero padded to the full width, a shorter code would decode to the same number as its padded form
+        if (encoded == null || encoded.length() != MAX_ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Invalid encoded value: " + encoded);
+        }
+
+        var decimal = 0L;
+
+        for (int i = 0; i < encoded.length(); i++) {
+            decimal = Base62Alphabet.append(decimal, base62Alphabet.value(encoded.charAt(i)), encoded);
+        }
+
+        if (decimal == 0) {
+            throw new IllegalArgumentException("Invalid encoded value: " + encoded);
+        }
+
+        return decimal;
+    }
+
+}
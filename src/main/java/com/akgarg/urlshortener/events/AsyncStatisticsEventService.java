@@ -0,0 +1,237 @@
+package com.akgarg.urlshortener.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class AsyncStatisticsEventService implements StatisticsEventService, AutoCloseable {
+
+    private static final long IDLE_POLL_MILLIS = 50;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+    private static final int SPILL_BATCH_SIZE = 1_000;
+
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK,
+        SPILL
+    }
+
+    private final StatisticsEventService delegate;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final StatisticsEventSpillFile spillFile;
+    private final BlockingQueue<StatisticsEvent> queue;
+    private final BlockingQueue<StatisticsEvent> spillQueue;
+    private final List<Thread> publisherThreads;
+    private final Thread spillThread;
+    private final Counter droppedCounter;
+    private final Counter spilledCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running = true;
+
+    public AsyncStatisticsEventService(
+            final StatisticsEventService delegate,
+            final int queueCapacity,
+            final int publisherThreads,
+            final OverflowPolicy overflowPolicy,
+            final Duration blockTimeout,
+            final StatisticsEventSpillFile spillFile,
+            final MeterRegistry meterRegistry
+    ) {
+        this(
+                delegate,
+                queueCapacity,
+                publisherThreads,
+                overflowPolicy,
+                blockTimeout,
+                spillFile,
+                meterRegistry,
+                Thread.ofPlatform().name("statistics-publisher-", 0).daemon(true).factory()
+        );
+    }
+
+    public AsyncStatisticsEventService(
+            final StatisticsEventService delegate,
+            final int queueCapacity,
+            final int publisherThreads,
+            final OverflowPolicy overflowPolicy,
+            final Duration blockTimeout,
+            final StatisticsEventSpillFile spillFile,
+            final MeterRegistry meterRegistry,
+            final ThreadFactory publisherThreadFactory
+    ) {
+        if (overflowPolicy == OverflowPolicy.SPILL && spillFile == null) {
+            throw new IllegalArgumentException("Spill file is required for spill overflow policy");
+        }
+
+        log.info("Initializing async statistics publisher with queue capacity {}, {} publisher threads and {} overflow policy", queueCapacity, publisherThreads, overflowPolicy);
+        this.delegate = delegate;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.spillFile = spillFile;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.spillQueue = overflowPolicy == OverflowPolicy.SPILL ? new LinkedBlockingQueue<>(queueCapacity) : null;
+
+        Gauge.builder("statistics.events.queue.depth", queue, BlockingQueue::size)
+                .description("Statistics events waiting to be published")
+                .register(meterRegistry);
+        Gauge.builder("statistics.events.queue.capacity", this, service -> service.queueCapacity)
+                .description("Maximum statistics events waiting to be published")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("statistics.events.dropped")
+                .description("Statistics events dropped because the publish queue was full")
+                .register(meterRegistry);
+        this.spilledCounter = Counter.builder("statistics.events.spilled")
+                .description("Statistics events written to disk because the publish queue was full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("statistics.events.failed")
+                .description("Statistics events that failed to publish")
+                .register(meterRegistry);
+
+        this.publisherThreads = new ArrayList<>(publisherThreads);
+
+        for (int i = 0; i < publisherThreads; i++) {
+            final var thread = publisherThreadFactory.newThread(this::publishQueuedEvents);
+            this.publisherThreads.add(thread);
+            thread.start();
+        }
+
+        // events are serialized and written to the spill file on their own thread, so neither the request threads nor
+        // publishers stuck on a slow delegate wait for the disk
+        this.spillThread = spillQueue == null ? null : Thread.ofPlatform()
+                .name("statistics-spill")
+                .daemon(true)
+                .start(this::spillQueuedEvents);
+    }
+
+    @Override
+    public void publishEvent(final StatisticsEvent statisticsEvent) {
+        if (!running) {
+            delegate.publishEvent(statisticsEvent);
+            return;
+        }
+
+        if (queue.offer(statisticsEvent) || (overflowPolicy == OverflowPolicy.BLOCK && offerWithinBlockTimeout(statisticsEvent))) {
+            return;
+        }
+
+        if (overflowPolicy == OverflowPolicy.SPILL && spillQueue.offer(statisticsEvent)) {
+            return;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Statistics queue full, dropping '{}' event for {}", statisticsEvent.eventType(), statisticsEvent.shortUrl());
+        }
+        droppedCounter.increment();
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+
+        final var threads = new ArrayList<>(publisherThreads);
+        if (spillThread != null) {
+            threads.add(spillThread);
+        }
+
+        for (final var thread : threads) {
+            try {
+                thread.join(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (spillFile != null) {
+            spillFile.close();
+        }
+
+        log.info("Async statistics publisher stopped with {} unpublished events", queue.size());
+    }
+
+    private boolean offerWithinBlockTimeout(final StatisticsEvent statisticsEvent) {
+        try {
+            return queue.offer(statisticsEvent, blockTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // idle publishers wait in poll, the timeout only bounds how long a stop or newly spilled events go unnoticed
+    private void publishQueuedEvents() {
+        while (running || !queue.isEmpty()) {
+            final StatisticsEvent statisticsEvent;
+
+            try {
+                statisticsEvent = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (statisticsEvent != null) {
+                publish(statisticsEvent);
+            } else if (running && spillFile != null && spillFile.hasSpilledEvents()) {
+                spillFile.replay(this::publish);
+            }
+        }
+    }
+
+    private void spillQueuedEvents() {
+        final var statisticsEvents = new ArrayList<StatisticsEvent>(SPILL_BATCH_SIZE);
+
+        while (running || !spillQueue.isEmpty()) {
+            final StatisticsEvent statisticsEvent;
+
+            try {
+                statisticsEvent = spillQueue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (statisticsEvent == null) {
+                continue;
+            }
+
+            statisticsEvents.add(statisticsEvent);
+            spillQueue.drainTo(statisticsEvents, SPILL_BATCH_SIZE - 1);
+
+            if (spillFile.append(statisticsEvents)) {
+                spilledCounter.increment(statisticsEvents.size());
+            } else {
+                droppedCounter.increment(statisticsEvents.size());
+            }
+            statisticsEvents.clear();
+        }
+    }
+
+    private void publish(final StatisticsEvent statisticsEvent) {
+        try {
+            delegate.publishEvent(statisticsEvent);
+        } catch (Exception e) {
+            log.error("Error publishing '{}' statistics event: {}", statisticsEvent.eventType(), e.getMessage());
+            failedCounter.increment();
+        }
+    }
+
+}
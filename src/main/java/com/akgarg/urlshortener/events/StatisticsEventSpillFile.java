@@ -0,0 +1,171 @@
+package com.akgarg.urlshortener.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// newline delimited json file holding events that did not fit into the publish queue. The number of replayed lines is
+// checkpointed after every event, so a replay interrupted by a crash resumes after the last published event
+@Slf4j
+public class StatisticsEventSpillFile {
+
+    private static final String SPILL_FILE_NAME = "statistics-events.ndjson";
+    private static final String REPLAY_FILE_NAME = "statistics-events.replay.ndjson";
+    private static final String CHECKPOINT_FILE_NAME = "statistics-events.replay.checkpoint";
+
+    private final Path spillPath;
+    private final Path replayPath;
+    private final Path checkpointPath;
+    private final ObjectMapper objectMapper;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock replayLock = new ReentrantLock();
+
+    private BufferedWriter writer;
+    private volatile boolean spilledEvents;
+
+    public StatisticsEventSpillFile(final Path spillDirectory, final ObjectMapper objectMapper) {
+        try {
+            Files.createDirectories(spillDirectory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't create statistics spill directory " + spillDirectory, e);
+        }
+
+        this.spillPath = spillDirectory.resolve(SPILL_FILE_NAME);
+        this.replayPath = spillDirectory.resolve(REPLAY_FILE_NAME);
+        this.checkpointPath = spillDirectory.resolve(CHECKPOINT_FILE_NAME);
+        this.objectMapper = objectMapper;
+        // events left behind by a previous run are replayed as well
+        this.spilledEvents = Files.exists(spillPath) || Files.exists(replayPath);
+    }
+
+    // the events are written with a single flush
+    public boolean append(final List<StatisticsEvent> statisticsEvents) {
+        writeLock.lock();
+        try {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(spillPath, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (final var statisticsEvent : statisticsEvents) {
+                writer.write(objectMapper.writeValueAsString(statisticsEvent));
+                writer.newLine();
+            }
+            writer.flush();
+            spilledEvents = true;
+            return true;
+        } catch (IOException e) {
+            log.error("Error spilling {} statistics events to {}: {}", statisticsEvents.size(), spillPath, e.getMessage());
+            return false;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean hasSpilledEvents() {
+        return spilledEvents;
+    }
+
+    public void replay(final Consumer<StatisticsEvent> consumer) {
+        if (!replayLock.tryLock()) {
+            return;
+        }
+
+        try {
+            if (!Files.exists(replayPath)) {
+                // a checkpoint without its replay file belongs to a replay that finished before a crash
+                Files.deleteIfExists(checkpointPath);
+                rotateSpillFile();
+            }
+
+            if (Files.exists(replayPath)) {
+                replayFile(consumer);
+                Files.delete(replayPath);
+                Files.deleteIfExists(checkpointPath);
+            }
+        } catch (Exception e) {
+            log.error("Error replaying spilled statistics events from {}", replayPath, e);
+            spilledEvents = true;
+        } finally {
+            replayLock.unlock();
+        }
+    }
+
+    public void close() {
+        writeLock.lock();
+        try {
+            closeWriter();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void rotateSpillFile() throws IOException {
+        writeLock.lock();
+        try {
+            closeWriter();
+            if (Files.exists(spillPath)) {
+                Files.move(spillPath, replayPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+            spilledEvents = false;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void replayFile(final Consumer<StatisticsEvent> consumer) throws IOException {
+        try (final var checkpoint = new RandomAccessFile(checkpointPath.toFile(), "rw");
+             final var reader = Files.newBufferedReader(replayPath, StandardCharsets.UTF_8)) {
+            final var replayedLines = checkpoint.length() >= Long.BYTES ? checkpoint.readLong() : 0;
+            var lineNumber = 0L;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (++lineNumber <= replayedLines) {
+                    continue;
+                }
+
+                if (!line.isBlank()) {
+                    final var statisticsEvent = readEvent(line);
+                    if (statisticsEvent != null) {
+                        consumer.accept(statisticsEvent);
+                    }
+                }
+
+                checkpoint.seek(0);
+                checkpoint.writeLong(lineNumber);
+            }
+        }
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.error("Error closing statistics spill file {}: {}", spillPath, e.getMessage());
+        }
+        writer = null;
+    }
+
+    private StatisticsEvent readEvent(final String line) {
+        try {
+            return objectMapper.readValue(line, StatisticsEvent.class);
+        } catch (IOException e) {
+            log.error("Skipping invalid spilled statistics event: {}", e.getMessage());
+            return null;
+        }
+    }
+
+}
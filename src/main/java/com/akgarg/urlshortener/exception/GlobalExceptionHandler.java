@@ -8,15 +8,21 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.MethodNotAllowedException;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.server.UnsupportedMediaTypeStatusException;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 
 import java.util.Arrays;
 
 import static com.akgarg.urlshortener.response.ApiErrorResponse.*;
+import static com.akgarg.urlshortener.utils.UrlShortenerUtil.validationFailedException;
 
 @Slf4j
 @RestControllerAdvice
@@ -44,6 +50,12 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(badRequestErrorResponse(e));
     }
 
+    // the reactive runtime validates request bodies before the controller is called
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ApiErrorResponse> handleWebExchangeBindException(final WebExchangeBindException e) {
+        return ResponseEntity.badRequest().body(badRequestErrorResponse(validationFailedException(e)));
+    }
+
     @ExceptionHandler(UrlShortenerException.class)
     public ResponseEntity<ApiErrorResponse> handleUrlShortenerException(final UrlShortenerException e) {
         return ResponseEntity.status(e.getErrorCode()).body(parseException(e));
@@ -59,6 +71,19 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(e.getStatusCode()).body(parseException(e));
     }
 
+    // the reactive exception does not carry the request method, it is read from the request
+    @ExceptionHandler(org.springframework.web.reactive.resource.NoResourceFoundException.class)
+    public ResponseEntity<Object> handleReactiveNoResourceFoundException(
+            final org.springframework.web.reactive.resource.NoResourceFoundException e,
+            final ServerHttpRequest request
+    ) {
+        if (log.isDebugEnabled()) {
+            log.error("Handling exception", e);
+        }
+
+        return noResourceFoundResponse(request.getMethod());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleGenericException(final Exception e) {
         if (log.isDebugEnabled()) {
@@ -66,11 +91,7 @@ public class GlobalExceptionHandler {
         }
 
         if (e instanceof NoResourceFoundException resourceFoundException) {
-            if (resourceFoundException.getHttpMethod().equals(HttpMethod.GET)) {
-                return new ResponseEntity<>(redirectHeaders, HttpStatus.FOUND);
-            } else {
-                return new ResponseEntity<>(methodNotAllowedHeaders, HttpStatus.METHOD_NOT_ALLOWED);
-            }
+            return noResourceFoundResponse(resourceFoundException.getHttpMethod());
         }
 
         final ApiErrorResponse errorResponse = switch (e) {
@@ -80,6 +101,12 @@ public class GlobalExceptionHandler {
                     badRequestErrorResponse("Media type " + ex.getContentType() + " is not supported");
             case HttpMessageNotReadableException ignored ->
                     badRequestErrorResponse("Please provide valid request body");
+            case MethodNotAllowedException ex ->
+                    methodNotAllowedErrorResponse("Request HTTP method '" + ex.getHttpMethod() + "' is not allowed. Allowed: " + ex.getSupportedMethods());
+            case UnsupportedMediaTypeStatusException ex ->
+                    badRequestErrorResponse("Media type " + ex.getContentType() + " is not supported");
+            case ServerWebInputException ignored ->
+                    badRequestErrorResponse("Please provide valid request body");
             case null, default -> internalServerErrorResponse();
         };
 
@@ -87,4 +114,11 @@ public class GlobalExceptionHandler {
                 .body(errorResponse);
     }
 
+    private ResponseEntity<Object> noResourceFoundResponse(final HttpMethod method) {
+        if (HttpMethod.GET.equals(method)) {
+            return new ResponseEntity<>(redirectHeaders, HttpStatus.FOUND);
+        }
+        return new ResponseEntity<>(methodNotAllowedHeaders, HttpStatus.METHOD_NOT_ALLOWED);
+    }
+
 }
@@ -0,0 +1,52 @@
+package com.akgarg.urlshortener.filter;
+
+import com.akgarg.urlshortener.utils.RequestIdContext;
+import jakarta.annotation.Nonnull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.UUID;
+
+import static com.akgarg.urlshortener.utils.UrlShortenerUtil.REQUEST_ID_HEADER;
+
+// RequestIdFilter for the reactive runtime: the request id is written to the subscriber context, which reactor restores
+// into the thread context on the event loop and scheduler threads that continue the request. A generated id is added to
+// the request headers, so the request metadata read by the controller carries the same id as the log lines
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRequestIdFilter implements WebFilter {
+
+    public ReactiveRequestIdFilter() {
+        RequestIdContext.registerThreadLocalAccessor();
+        Hooks.enableAutomaticContextPropagation();
+    }
+
+    @Override
+    @Nonnull
+    public Mono<Void> filter(@Nonnull final ServerWebExchange exchange, @Nonnull final WebFilterChain chain) {
+        final String requestId;
+        final ServerWebExchange filteredExchange;
+
+        if (exchange.getRequest().getHeaders().getFirst(REQUEST_ID_HEADER) == null) {
+            requestId = UUID.randomUUID().toString().replace("-", "");
+            filteredExchange = exchange.mutate()
+                    .request(request -> request.header(REQUEST_ID_HEADER, requestId))
+                    .build();
+        } else {
+            requestId = exchange.getRequest().getHeaders().getFirst(REQUEST_ID_HEADER);
+            filteredExchange = exchange;
+        }
+
+        return chain.filter(filteredExchange).contextWrite(Context.of(RequestIdContext.REQUEST_ID_KEY, requestId));
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.akgarg.urlshortener.filter;
+
+import com.akgarg.urlshortener.request.RequestMetadata;
+import com.akgarg.urlshortener.v1.api.UrlService;
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+
+// answers GET /{shortUrl} for short urls held in the local url cache without going through the dispatcher servlet,
+// everything else (cache misses, expired urls, lookup errors) continues down the chain to UrlController
+@Slf4j
+@Component
+@Order(RequestIdFilter.ORDER + 1)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RedirectFastPathFilter extends OncePerRequestFilter {
+
+    private final UrlService urlService;
+    private final boolean enabled;
+    private final Set<String> reservedPaths;
+
+    public RedirectFastPathFilter(
+            final UrlService urlService,
+            @Value("${url.redirect.fast-path.enabled:false}") final boolean enabled,
+            @Value("${springdoc.swagger-ui.path:/swagger-ui.html}") final String swaggerUiPath,
+            @Value("${springdoc.api-docs.path:/v3/api-docs}") final String apiDocsPath,
+            @Value("${management.endpoints.web.base-path:/actuator}") final String actuatorBasePath,
+            @Value("${server.error.path:/error}") final String errorPath
+    ) {
+        this.urlService = urlService;
+        this.enabled = enabled;
+        // paths mapped by other handlers, which take precedence over /{shortUrl} in Spring MVC: only the single segment
+        // ones could be taken for a short url
+        this.reservedPaths = Set.copyOf(List.of(swaggerUiPath, apiDocsPath, actuatorBasePath, errorPath));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@Nonnull final HttpServletRequest request) {
+        return !enabled || extractShortUrl(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @Nonnull final HttpServletRequest request,
+            @Nonnull final HttpServletResponse response,
+            @Nonnull final FilterChain filterChain) throws ServletException, IOException {
+        final var shortUrl = extractShortUrl(request);
+        URI redirectUri = null;
+
+        try {
+            redirectUri = urlService.getCachedRedirectUri(RequestMetadata.from(request), shortUrl);
+        } catch (Exception e) {
+            log.warn("Fast path lookup failed for '{}', falling back to the controller", shortUrl, e);
+        }
+
+        if (redirectUri == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setStatus(HttpStatus.FOUND.value());
+        response.setHeader(HttpHeaders.LOCATION, redirectUri.toASCIIString());
+    }
+
+    // the short url of a GET request for a single, plain path segment, null for any other request
+    private String extractShortUrl(final HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return null;
+        }
+
+        final var path = request.getRequestURI().substring(request.getContextPath().length());
+
+        if (path.length() < 2 || path.indexOf('/', 1) != -1 || reservedPaths.contains(path)) {
+            return null;
+        }
+
+        // encoded, dotted and matrix parameter paths are left to Spring MVC's path decoding
+        for (int i = 1; i < path.length(); i++) {
+            final var c = path.charAt(i);
+            if (c == '%' || c == '.' || c == ';') {
+                return null;
+            }
+        }
+
+        return path.substring(1);
+    }
+
+}
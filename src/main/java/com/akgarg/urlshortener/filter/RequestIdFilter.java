@@ -6,6 +6,9 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.logging.log4j.ThreadContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -15,8 +18,13 @@ import java.util.UUID;
 import static com.akgarg.urlshortener.utils.UrlShortenerUtil.REQUEST_ID_HEADER;
 
 @Component
+@Order(RequestIdFilter.ORDER)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class RequestIdFilter extends OncePerRequestFilter {
 
+    // after Spring Boot's character encoding and observation filters, ahead of the filters that log
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+
     @Override
     protected void doFilterInternal(
             @Nonnull final HttpServletRequest request,
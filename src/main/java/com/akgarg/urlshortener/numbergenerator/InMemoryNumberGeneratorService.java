@@ -2,12 +2,17 @@ package com.akgarg.urlshortener.numbergenerator;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 @Slf4j
 public class InMemoryNumberGeneratorService implements NumberGeneratorService {
 
+    private final AtomicLong previousNumber = new AtomicLong();
+
     @Override
     public long generateNextNumber() {
-        final var number = System.currentTimeMillis();
+        // current time in millis, bumped past the previous number so that numbers generated in the same millisecond stay unique
+        final var number = previousNumber.updateAndGet(previous -> Math.max(previous + 1, System.currentTimeMillis()));
         if (log.isDebugEnabled()) {
             log.debug("Globally unique number generated: {}", number);
         }
@@ -0,0 +1,143 @@
+package com.akgarg.urlshortener.numbergenerator;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+import static com.akgarg.urlshortener.numbergenerator.TimestampedNumberGenerator.*;
+
+// same id layout as TimestampedNumberGenerator (41 bit timestamp, 10 bit node id, 12 bit sequence) without a monitor
+@Slf4j
+public class LockFreeTimestampedNumberGenerator implements NumberGeneratorService {
+
+    private static final long CLOCK_WAIT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long CLOCK_WARNING_INTERVAL_MILLIS = 1_000;
+    private static final long DEFAULT_MAX_CLOCK_WAIT_MILLIS = 1_000;
+
+    @Getter
+    private final int nodeId;
+
+    private final long nodeIdBits;
+    private final long maxClockBorrowMillis;
+    private final long maxClockWaitNanos;
+    private final LongSupplier clock;
+
+    // (timestamp << SEQUENCE_BITS) | sequence of the last generated id, a sequence overflow carries into the next millisecond
+    private final AtomicLong state = new AtomicLong();
+    private volatile long lastClockWarningTimestamp;
+
+    public LockFreeTimestampedNumberGenerator(final int nodeId, final long maxClockBorrowMillis) {
+        this(nodeId, maxClockBorrowMillis, DEFAULT_MAX_CLOCK_WAIT_MILLIS, System::currentTimeMillis);
+    }
+
+    public LockFreeTimestampedNumberGenerator(final int nodeId, final long maxClockBorrowMillis, final long maxClockWaitMillis) {
+        this(nodeId, maxClockBorrowMillis, maxClockWaitMillis, System::currentTimeMillis);
+    }
+
+    public LockFreeTimestampedNumberGenerator(final int nodeId, final long maxClockBorrowMillis, final LongSupplier clock) {
+        this(nodeId, maxClockBorrowMillis, DEFAULT_MAX_CLOCK_WAIT_MILLIS, clock);
+    }
+
+    public LockFreeTimestampedNumberGenerator(final int nodeId,
+                                              final long maxClockBorrowMillis,
+                                              final long maxClockWaitMillis,
+                                              final LongSupplier clock) {
+        log.info("Initializing lock-free number generator service with nodeId: {}, max clock borrow: {} ms and max clock wait: {} ms",
+                nodeId, maxClockBorrowMillis, maxClockWaitMillis);
+
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            log.error("Node ID cannot be greater than {} or less than 0: {}", MAX_NODE_ID, nodeId);
+            throw new IllegalArgumentException("Node ID cannot be greater than " + MAX_NODE_ID + " or less than 0");
+        }
+
+        if (maxClockBorrowMillis < 1) {
+            throw new IllegalArgumentException("Max clock borrow should be at least 1 ms");
+        }
+
+        if (maxClockWaitMillis < 0) {
+            throw new IllegalArgumentException("Max clock wait cannot be negative");
+        }
+
+        this.nodeId = nodeId;
+        this.nodeIdBits = (long) nodeId << SEQUENCE_BITS;
+        this.maxClockBorrowMillis = maxClockBorrowMillis;
+        this.maxClockWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxClockWaitMillis);
+        this.clock = clock;
+    }
+
+    @Override
+    public long generateNextNumber() {
+        return toNumber(reserve(1));
+    }
+
+    // reserved one millisecond worth of sequence at a time, so a block never borrows more than the next millisecond
+    @Override
+    public long[] generateNextNumbers(final int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Number count should be at least 1: " + count);
+        }
+
+        final var numbers = new long[count];
+        for (int offset = 0; offset < count; offset += MAX_SEQUENCE + 1) {
+            final var chunkSize = Math.min(count - offset, MAX_SEQUENCE + 1);
+            final var firstState = reserve(chunkSize);
+            for (int i = 0; i < chunkSize; i++) {
+                numbers[offset + i] = toNumber(firstState + i);
+            }
+        }
+        return numbers;
+    }
+
+    // reserves count consecutive states with a single compare and set and returns the first one
+    private long reserve(final int count) {
+        var waitStartNanos = 0L;
+
+        while (true) {
+            final var currentTimestamp = timestamp();
+            final var previousState = state.get();
+            final var previousTimestamp = previousState >>> SEQUENCE_BITS;
+
+            // same millisecond or clock moved backwards: keep counting from the last issued id, borrowing future milliseconds
+            final var firstState = currentTimestamp > previousTimestamp ? currentTimestamp << SEQUENCE_BITS : previousState + 1;
+            final var lastState = firstState + count - 1;
+
+            if ((lastState >>> SEQUENCE_BITS) - currentTimestamp > maxClockBorrowMillis) {
+                // measured on the monotonic clock, the wall clock is the one that cannot be trusted here
+                if (waitStartNanos == 0L) {
+                    waitStartNanos = System.nanoTime();
+                } else if (System.nanoTime() - waitStartNanos > maxClockWaitNanos) {
+                    log.error("System clock did not catch up with the last generated id within {} ms", TimeUnit.NANOSECONDS.toMillis(maxClockWaitNanos));
+                    throw new IllegalStateException("Invalid System Clock! Current timestamp: %d and previous timestamp: %d".formatted(currentTimestamp, previousTimestamp));
+                }
+                waitForClock(previousTimestamp, currentTimestamp);
+                continue;
+            }
+
+            if (state.compareAndSet(previousState, lastState)) {
+                return firstState;
+            }
+        }
+    }
+
+    private long toNumber(final long state) {
+        return ((state >>> SEQUENCE_BITS) << (NODE_ID_BITS + SEQUENCE_BITS)) | nodeIdBits | (state & MAX_SEQUENCE);
+    }
+
+    private long timestamp() {
+        return clock.getAsLong() - CUSTOM_EPOCH_TIMESTAMP_MILLIS;
+    }
+
+    private void waitForClock(final long previousTimestamp, final long currentTimestamp) {
+        if (previousTimestamp - currentTimestamp > maxClockBorrowMillis &&
+                currentTimestamp - lastClockWarningTimestamp >= CLOCK_WARNING_INTERVAL_MILLIS) {
+            lastClockWarningTimestamp = currentTimestamp;
+            log.warn("System clock is {} ms behind the last generated id, waiting for it to catch up", previousTimestamp - currentTimestamp);
+        }
+        LockSupport.parkNanos(CLOCK_WAIT_PARK_NANOS);
+    }
+
+}
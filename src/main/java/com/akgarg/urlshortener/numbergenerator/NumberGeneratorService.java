@@ -4,4 +4,12 @@ public interface NumberGeneratorService {
 
     long generateNextNumber();
 
+    default long[] generateNextNumbers(final int count) {
+        final var numbers = new long[count];
+        for (int i = 0; i < count; i++) {
+            numbers[i] = generateNextNumber();
+        }
+        return numbers;
+    }
+
 }
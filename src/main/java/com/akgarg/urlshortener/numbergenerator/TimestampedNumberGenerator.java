@@ -4,20 +4,24 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 public class TimestampedNumberGenerator implements NumberGeneratorService {
 
-    private static final int NODE_ID_BITS = 10; // node id or machine id bits (2 ^ 10 = 1024)
-    private static final int SEQUENCE_BITS = 12; // local counter bits (2 ^ 12 = 4096)
+    static final int NODE_ID_BITS = 10; // node id or machine id bits (2 ^ 10 = 1024)
+    static final int SEQUENCE_BITS = 12; // local counter bits (2 ^ 12 = 4096)
 
-    private static final int MAX_NODE_ID = (int) (Math.pow(2, NODE_ID_BITS) - 1); // 0 - 1023
-    private static final int MAX_SEQUENCE = (int) (Math.pow(2, SEQUENCE_BITS) - 1); // 0 - 4095
-    private static final long CUSTOM_EPOCH_TIMESTAMP_MILLIS = 1704067200000L; // 01-01-2024 00:00:00
+    static final int MAX_NODE_ID = (int) (Math.pow(2, NODE_ID_BITS) - 1); // 0 - 1023
+    static final int MAX_SEQUENCE = (int) (Math.pow(2, SEQUENCE_BITS) - 1); // 0 - 4095
+    static final long CUSTOM_EPOCH_TIMESTAMP_MILLIS = 1704067200000L; // 01-01-2024 00:00:00
 
     @Getter
     private final int nodeId;
 
+    // a monitor would pin a virtual thread to its carrier while it spins for the next millisecond
+    private final ReentrantLock lock = new ReentrantLock();
+
     private long previousTimestamp = -1L;
     private long currentSequence = 0L;
     private long nodeIdSequenceBitResult = -1L;
@@ -43,30 +47,36 @@ public class TimestampedNumberGenerator implements NumberGeneratorService {
     }
 
     @Override
-    public synchronized long generateNextNumber() {
-        var currentTimestamp = timestamp();
+    public long generateNextNumber() {
+        lock.lock();
 
-        if (currentTimestamp < previousTimestamp) {
-            throw new IllegalStateException("Invalid System Clock! Current timestamp: %d and previous timestamp: %d".formatted(currentTimestamp, previousTimestamp));
-        }
+        try {
+            var currentTimestamp = timestamp();
+
+            if (currentTimestamp < previousTimestamp) {
+                throw new IllegalStateException("Invalid System Clock! Current timestamp: %d and previous timestamp: %d".formatted(currentTimestamp, previousTimestamp));
+            }
 
-        if (currentTimestamp == previousTimestamp) {
-            currentSequence = (currentSequence + 1) & MAX_SEQUENCE;
+            if (currentTimestamp == previousTimestamp) {
+                currentSequence = (currentSequence + 1) & MAX_SEQUENCE;
 
-            if (currentSequence == 0) {
-                currentTimestamp = waitNextMillis(currentTimestamp);
+                if (currentSequence == 0) {
+                    currentTimestamp = waitNextMillis(currentTimestamp);
+                }
+            } else {
+                currentSequence = 0;
             }
-        } else {
-            currentSequence = 0;
-        }
 
-        previousTimestamp = currentTimestamp;
+            previousTimestamp = currentTimestamp;
 
-        var id = currentTimestamp << (NODE_ID_BITS + SEQUENCE_BITS);
-        id |= nodeIdSequenceBitResult;
-        id |= currentSequence;
+            var id = currentTimestamp << (NODE_ID_BITS + SEQUENCE_BITS);
+            id |= nodeIdSequenceBitResult;
+            id |= currentSequence;
 
-        return id;
+            return id;
+        } finally {
+            lock.unlock();
+        }
     }
 
     // Block and wait till next millisecond
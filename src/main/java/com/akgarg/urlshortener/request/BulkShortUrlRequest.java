@@ -0,0 +1,16 @@
+package com.akgarg.urlshortener.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record BulkShortUrlRequest(
+
+        @JsonProperty("urls")
+        @NotEmpty(message = "urls should not be empty")
+        List<@Valid ShortUrlRequest> urls
+
+) {
+}
@@ -0,0 +1,29 @@
+package com.akgarg.urlshortener.request;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import static com.akgarg.urlshortener.utils.UrlShortenerUtil.*;
+
+// the parts of a servlet or reactive request used by the url service, captured up front so that they can be read from any thread
+public record RequestMetadata(String requestId, String userId, String clientIp, String userAgent) {
+
+    public static RequestMetadata from(final HttpServletRequest httpRequest) {
+        return new RequestMetadata(
+                extractRequestIdFromRequest(httpRequest),
+                extractUserIdFromRequest(httpRequest),
+                extractClientIpFromRequest(httpRequest),
+                extractUserAgentFromRequest(httpRequest)
+        );
+    }
+
+    public static RequestMetadata from(final ServerHttpRequest httpRequest) {
+        return new RequestMetadata(
+                extractRequestIdFromRequest(httpRequest),
+                extractUserIdFromRequest(httpRequest),
+                extractClientIpFromRequest(httpRequest),
+                extractUserAgentFromRequest(httpRequest)
+        );
+    }
+
+}
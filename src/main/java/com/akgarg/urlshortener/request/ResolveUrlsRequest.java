@@ -0,0 +1,19 @@
+package com.akgarg.urlshortener.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record ResolveUrlsRequest(
+
+        @JsonProperty("short_urls")
+        @NotEmpty(message = "short_urls should not be empty")
+        List<@NotBlank(message = "short_urls should not contain blank values") String> shortUrls,
+
+        @JsonProperty("skip_events")
+        boolean skipEvents
+
+) {
+}
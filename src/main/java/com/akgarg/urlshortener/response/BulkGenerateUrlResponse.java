@@ -0,0 +1,20 @@
+package com.akgarg.urlshortener.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class BulkGenerateUrlResponse {
+
+    @JsonProperty("status_code")
+    private int statusCode;
+
+    private List<GenerateUrlResponse> results;
+
+}
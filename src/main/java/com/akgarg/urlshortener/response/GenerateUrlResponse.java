@@ -10,6 +10,8 @@ import lombok.Setter;
 @Builder
 public class GenerateUrlResponse {
 
+    private Long line;
+
     @JsonProperty("short_url")
     private String shortUrl;
 
@@ -19,4 +21,6 @@ public class GenerateUrlResponse {
     @JsonProperty("status_code")
     private int statusCode;
 
+    private String error;
+
 }
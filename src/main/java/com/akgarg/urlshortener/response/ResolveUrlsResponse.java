@@ -0,0 +1,18 @@
+package com.akgarg.urlshortener.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class ResolveUrlsResponse {
+
+    @JsonProperty("status_code")
+    private final int statusCode;
+
+    private final List<ResolvedUrlResponse> results;
+
+}
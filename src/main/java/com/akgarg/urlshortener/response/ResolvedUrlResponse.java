@@ -0,0 +1,23 @@
+package com.akgarg.urlshortener.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ResolvedUrlResponse {
+
+    @JsonProperty("short_url")
+    private final String shortUrl;
+
+    @JsonProperty("redirect_url")
+    private final String redirectUrl;
+
+    @JsonProperty("expires_at")
+    private final Long expiresAt;
+
+    @JsonProperty("status_code")
+    private final int statusCode;
+
+}
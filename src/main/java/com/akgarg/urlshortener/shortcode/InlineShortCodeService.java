@@ -0,0 +1,60 @@
+package com.akgarg.urlshortener.shortcode;
+
+import com.akgarg.urlshortener.encoding.EncoderService;
+import com.akgarg.urlshortener.numbergenerator.NumberGeneratorService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@RequiredArgsConstructor
+public class InlineShortCodeService implements ShortCodeService {
+
+    private final NumberGeneratorService numberGeneratorService;
+    private final EncoderService encoderService;
+
+    @Override
+    public String nextShortCode() {
+        final var shortUrlNumber = numberGeneratorService.generateNextNumber();
+
+        if (log.isDebugEnabled()) {
+            log.debug("Number generated for short code is {}", shortUrlNumber);
+        }
+
+        if (shortUrlNumber <= 0) {
+            log.error("Failed to generate unique number");
+            return null;
+        }
+
+        final var shortCode = encoderService.encode(shortUrlNumber);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Encoded string for {} is {}", shortUrlNumber, shortCode);
+        }
+
+        return shortCode;
+    }
+
+    @Override
+    public List<String> nextShortCodes(final int count) {
+        final var shortUrlNumbers = numberGeneratorService.generateNextNumbers(count);
+        final var shortCodes = new ArrayList<String>(count);
+
+        for (final var shortUrlNumber : shortUrlNumbers) {
+            if (shortUrlNumber <= 0) {
+                log.error("Failed to generate unique number");
+                return null;
+            }
+            shortCodes.add(encoderService.encode(shortUrlNumber));
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Generated {} short codes", count);
+        }
+
+        return shortCodes;
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.akgarg.urlshortener.shortcode;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+@Slf4j
+public class PooledShortCodeService implements ShortCodeService, AutoCloseable {
+
+    private static final long REFILL_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000;
+
+    private final ShortCodeService delegate;
+    private final int lowWaterMark;
+    private final int highWaterMark;
+    private final Queue<String> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger poolSize = new AtomicInteger();
+    private final Counter exhaustedCounter;
+    private final Counter refillCounter;
+    private final Thread refillThread;
+
+    private volatile boolean running = true;
+
+    public PooledShortCodeService(
+            final ShortCodeService delegate,
+            final int lowWaterMark,
+            final int highWaterMark,
+            final MeterRegistry meterRegistry
+    ) {
+        if (lowWaterMark < 0 || highWaterMark <= lowWaterMark) {
+            throw new IllegalArgumentException("High water mark should be greater than low water mark");
+        }
+
+        log.info("Initializing short code pool with low water mark {} and high water mark {}", lowWaterMark, highWaterMark);
+        this.delegate = delegate;
+        this.lowWaterMark = lowWaterMark;
+        this.highWaterMark = highWaterMark;
+
+        Gauge.builder("short.code.pool.size", poolSize, AtomicInteger::get)
+                .description("Pre-generated short codes available to the create path")
+                .register(meterRegistry);
+        this.exhaustedCounter = Counter.builder("short.code.pool.exhausted")
+                .description("Short codes generated on the request thread because the pool was empty")
+                .register(meterRegistry);
+        this.refillCounter = Counter.builder("short.code.pool.refills")
+                .description("Times the short code pool was refilled up to its high water mark")
+                .register(meterRegistry);
+
+        this.refillThread = Thread.ofPlatform().name("short-code-pool-refill").daemon(true).start(this::refillPool);
+    }
+
+    @Override
+    public String nextShortCode() {
+        final var shortCode = pool.poll();
+
+        if (shortCode == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Short code pool exhausted, generating short code inline");
+            }
+            exhaustedCounter.increment();
+            return delegate.nextShortCode();
+        }
+
+        if (poolSize.decrementAndGet() <= lowWaterMark) {
+            LockSupport.unpark(refillThread);
+        }
+
+        return shortCode;
+    }
+
+    @Override
+    public List<String> nextShortCodes(final int count) {
+        final var shortCodes = new ArrayList<String>(count);
+        String shortCode;
+
+        while (shortCodes.size() < count && (shortCode = pool.poll()) != null) {
+            shortCodes.add(shortCode);
+        }
+
+        if (!shortCodes.isEmpty() && poolSize.addAndGet(-shortCodes.size()) <= lowWaterMark) {
+            LockSupport.unpark(refillThread);
+        }
+
+        if (shortCodes.size() < count) {
+            exhaustedCounter.increment();
+            final var remainingShortCodes = delegate.nextShortCodes(count - shortCodes.size());
+            if (remainingShortCodes == null) {
+                return null;
+            }
+            shortCodes.addAll(remainingShortCodes);
+        }
+
+        return shortCodes;
+    }
+
+    public int poolSize() {
+        return poolSize.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(refillThread);
+
+        try {
+            refillThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void refillPool() {
+        while (running) {
+            if (poolSize.get() <= lowWaterMark) {
+                fillToHighWaterMark();
+            }
+            LockSupport.parkNanos(REFILL_CHECK_INTERVAL_NANOS);
+        }
+    }
+
+    private void fillToHighWaterMark() {
+        try {
+            while (running && poolSize.get() < highWaterMark) {
+                final var shortCode = delegate.nextShortCode();
+
+                if (shortCode == null) {
+                    log.error("Failed to generate short code for pool, retrying later");
+                    return;
+                }
+
+                pool.offer(shortCode);
+                poolSize.incrementAndGet();
+            }
+            refillCounter.increment();
+        } catch (Exception e) {
+            log.error("Error refilling short code pool", e);
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.akgarg.urlshortener.shortcode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public interface ShortCodeService {
+
+    // returns null when no unique short code could be generated
+    String nextShortCode();
+
+    // returns null when the short codes could not be generated
+    default List<String> nextShortCodes(final int count) {
+        final var shortCodes = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            final var shortCode = nextShortCode();
+            if (shortCode == null) {
+                return null;
+            }
+            shortCodes.add(shortCode);
+        }
+        return shortCodes;
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.akgarg.urlshortener.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// adds a message listener for the given topics to the listener container on a background thread, retrying until redis
+// is available, so that an unavailable redis does not fail startup
+@Slf4j
+public final class RedisTopicSubscriber {
+
+    private static final long SUBSCRIBE_RETRY_INTERVAL_MILLIS = 5_000;
+
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final MessageListener messageListener;
+    private final List<ChannelTopic> topics;
+    private final String topicNames;
+    private final ScheduledExecutorService subscribeExecutor;
+    private volatile boolean subscribed;
+
+    public RedisTopicSubscriber(
+            final RedisMessageListenerContainer redisMessageListenerContainer,
+            final MessageListener messageListener,
+            final String threadName,
+            final ChannelTopic... topics
+    ) {
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+        this.messageListener = messageListener;
+        this.topics = List.of(topics);
+        this.topicNames = this.topics.stream().map(ChannelTopic::getTopic).collect(Collectors.joining(", "));
+        this.subscribeExecutor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name(threadName).daemon(true).factory()
+        );
+    }
+
+    public void subscribe() {
+        subscribeExecutor.execute(this::subscribeToTopics);
+    }
+
+    public boolean isSubscribed() {
+        return subscribed;
+    }
+
+    private void subscribeToTopics() {
+        try {
+            redisMessageListenerContainer.addMessageListener(messageListener, topics);
+            subscribed = true;
+            log.info("Subscribed to {}", topicNames);
+            subscribeExecutor.shutdown();
+        } catch (Exception e) {
+            log.error("Error subscribing to {}, retrying in {} ms: {}", topicNames, SUBSCRIBE_RETRY_INTERVAL_MILLIS, e.getMessage());
+            subscribeExecutor.schedule(this::subscribeToTopics, SUBSCRIBE_RETRY_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+}
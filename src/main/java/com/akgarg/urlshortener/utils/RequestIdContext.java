@@ -0,0 +1,53 @@
+package com.akgarg.urlshortener.utils;
+
+import io.micrometer.context.ContextRegistry;
+import org.apache.logging.log4j.ThreadContext;
+
+import java.util.concurrent.Executor;
+
+// carries the request id of the log lines from the thread that received a request to the threads that continue its work
+public final class RequestIdContext {
+
+    public static final String REQUEST_ID_KEY = "requestId";
+
+    private RequestIdContext() {
+    }
+
+    // runs the tasks of the executor with the calling thread's request id. The id is read when this method is called, not
+    // when a task is submitted, since continuations are submitted from the storage and driver threads that complete them
+    public static Executor withCurrentRequestId(final Executor executor) {
+        final var requestId = ThreadContext.get(REQUEST_ID_KEY);
+
+        if (requestId == null) {
+            return executor;
+        }
+
+        return task -> executor.execute(() -> runWithRequestId(requestId, task));
+    }
+
+    // lets reactor restore the request id written to a subscriber context on whichever thread delivers a signal
+    public static void registerThreadLocalAccessor() {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(
+                REQUEST_ID_KEY,
+                () -> ThreadContext.get(REQUEST_ID_KEY),
+                requestId -> ThreadContext.put(REQUEST_ID_KEY, requestId),
+                () -> ThreadContext.remove(REQUEST_ID_KEY)
+        );
+    }
+
+    private static void runWithRequestId(final String requestId, final Runnable task) {
+        final var previousRequestId = ThreadContext.get(REQUEST_ID_KEY);
+        ThreadContext.put(REQUEST_ID_KEY, requestId);
+
+        try {
+            task.run();
+        } finally {
+            if (previousRequestId == null) {
+                ThreadContext.remove(REQUEST_ID_KEY);
+            } else {
+                ThreadContext.put(REQUEST_ID_KEY, previousRequestId);
+            }
+        }
+    }
+
+}
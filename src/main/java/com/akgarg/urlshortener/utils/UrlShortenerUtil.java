@@ -3,14 +3,19 @@ package com.akgarg.urlshortener.utils;
 import com.akgarg.urlshortener.exception.BadRequestException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.validation.BindingResult;
 
+import java.net.URI;
+import java.util.Locale;
+
 public final class UrlShortenerUtil {
 
     public static final String REQUEST_ID_HEADER = "X-Request-ID";
     public static final String USER_ID_HEADER_NAME = "X-USER-ID";
     private static final String X_FORWARDED_FOR_HEADER_NAME = "X-Forwarded-For";
     private static final String USER_AGENT_HEADER_NAME = "USER-AGENT";
+    private static final String DEFAULT_REDIRECT_SCHEME = "https://";
 
     private UrlShortenerUtil() {
         throw new IllegalStateException("Can't initialize utility class");
@@ -20,16 +25,20 @@ public final class UrlShortenerUtil {
             final BindingResult validationResult
     ) {
         if (validationResult.hasFieldErrors()) {
-            final String[] errors = validationResult.getFieldErrors()
-                    .stream()
-                    .map(DefaultMessageSourceResolvable::getDefaultMessage)
-                    .toList()
-                    .toArray(String[]::new);
-
-            throw new BadRequestException(errors, "Request Validation Failed");
+            throw validationFailedException(validationResult);
         }
     }
 
+    public static BadRequestException validationFailedException(final BindingResult validationResult) {
+        final String[] errors = validationResult.getFieldErrors()
+                .stream()
+                .map(DefaultMessageSourceResolvable::getDefaultMessage)
+                .toList()
+                .toArray(String[]::new);
+
+        return new BadRequestException(errors, "Request Validation Failed");
+    }
+
     public static String extractClientIpFromRequest(final HttpServletRequest httpRequest) {
         final var xForwardedFor = httpRequest.getHeader(X_FORWARDED_FOR_HEADER_NAME);
 
@@ -44,17 +53,91 @@ public final class UrlShortenerUtil {
         return httpRequest.getRemoteAddr();
     }
 
+    public static String extractClientIpFromRequest(final ServerHttpRequest httpRequest) {
+        final var xForwardedFor = httpRequest.getHeaders().getFirst(X_FORWARDED_FOR_HEADER_NAME);
+
+        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+            final var ips = xForwardedFor.split(",");
+
+            if (ips.length > 0) {
+                return ips[0].trim();
+            }
+        }
+
+        final var remoteAddress = httpRequest.getRemoteAddress();
+        return remoteAddress != null && remoteAddress.getAddress() != null ? remoteAddress.getAddress().getHostAddress() : null;
+    }
+
     public static String extractRequestIdFromRequest(final HttpServletRequest httpRequest) {
         final var requestId = httpRequest.getHeader(REQUEST_ID_HEADER);
         return requestId != null ? requestId : String.valueOf(System.nanoTime());
     }
 
+    public static String extractRequestIdFromRequest(final ServerHttpRequest httpRequest) {
+        final var requestId = httpRequest.getHeaders().getFirst(REQUEST_ID_HEADER);
+        return requestId != null ? requestId : String.valueOf(System.nanoTime());
+    }
+
     public static String extractUserIdFromRequest(final HttpServletRequest httpRequest) {
         return httpRequest.getHeader(USER_ID_HEADER_NAME);
     }
 
+    public static String extractUserIdFromRequest(final ServerHttpRequest httpRequest) {
+        return httpRequest.getHeaders().getFirst(USER_ID_HEADER_NAME);
+    }
+
     public static String extractUserAgentFromRequest(final HttpServletRequest httpRequest) {
         return httpRequest.getHeader(USER_AGENT_HEADER_NAME);
     }
 
+    public static String extractUserAgentFromRequest(final ServerHttpRequest httpRequest) {
+        return httpRequest.getHeaders().getFirst(USER_AGENT_HEADER_NAME);
+    }
+
+    // canonical redirect target: https is assumed when no scheme is given and scheme and host are lower-cased. User info,
+    // path, query and fragment are kept as given, dot segments included, so the target is the one the user submitted
+    public static String normalizeRedirectUrl(final String originalUrl) {
+        if (originalUrl == null || originalUrl.isBlank()) {
+            throw new IllegalArgumentException("Redirect url can't be empty");
+        }
+
+        final var trimmedUrl = originalUrl.trim();
+        final var lowerCaseUrl = trimmedUrl.toLowerCase(Locale.ROOT);
+        final var candidateUrl = lowerCaseUrl.startsWith("http://") || lowerCaseUrl.startsWith("https://") ?
+                trimmedUrl :
+                DEFAULT_REDIRECT_SCHEME + trimmedUrl;
+
+        final var uri = URI.create(candidateUrl);
+
+        if (uri.getHost() == null) {
+            throw new IllegalArgumentException("Redirect url has no host: " + originalUrl);
+        }
+
+        final var redirectUrl = new StringBuilder(candidateUrl.length())
+                .append(uri.getScheme().toLowerCase(Locale.ROOT))
+                .append("://");
+
+        if (uri.getRawUserInfo() != null) {
+            redirectUrl.append(uri.getRawUserInfo()).append('@');
+        }
+
+        redirectUrl.append(uri.getHost().toLowerCase(Locale.ROOT));
+
+        if (uri.getPort() != -1) {
+            redirectUrl.append(':').append(uri.getPort());
+        }
+
+        redirectUrl.append(uri.getRawPath());
+
+        if (uri.getRawQuery() != null) {
+            redirectUrl.append('?').append(uri.getRawQuery());
+        }
+
+        if (uri.getRawFragment() != null) {
+            redirectUrl.append('#').append(uri.getRawFragment());
+        }
+
+        return redirectUrl.toString();
+    }
+
 }
@@ -0,0 +1,125 @@
+package com.akgarg.urlshortener.v1.api;
+
+import com.akgarg.urlshortener.request.BulkShortUrlRequest;
+import com.akgarg.urlshortener.request.RequestMetadata;
+import com.akgarg.urlshortener.request.ResolveUrlsRequest;
+import com.akgarg.urlshortener.request.ShortUrlRequest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+// same routes as UrlController for the reactive runtime: create and redirect never block the event loop, bulk create,
+// resolve and import use the blocking storage paths and run on the bounded elastic scheduler
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Tag(name = "URL Shortener", description = "API for shortening and expanding URLs")
+public class ReactiveUrlController {
+
+    private static final String IMPORT_MEDIA_TYPE = "application/x-ndjson";
+    private static final int IMPORT_READ_DEMAND = 4;
+
+    private final UrlService urlService;
+    private final UrlImportService urlImportService;
+
+    @Operation(summary = "Generate a Short URL", description = "This endpoint accepts a long URL and generates a shortened URL.")
+    @PostMapping("/api/v1/urlshortener")
+    public CompletableFuture<ResponseEntity<Object>> generateShortUrl(
+            @Parameter(description = "HTTP Request Object", required = true) final ServerHttpRequest httpRequest,
+
+            @Parameter(description = "Request body containing the URL to shorten", required = true)
+            @Valid @RequestBody final ShortUrlRequest request
+    ) {
+        return urlService.generateShortUrlAsync(RequestMetadata.from(httpRequest), request)
+                .thenApply(response -> ResponseEntity.status(response.statusCode()).body(response.data()));
+    }
+
+    @Operation(summary = "Generate Short URLs in bulk", description = "This endpoint accepts a batch of long URLs and generates a shortened URL for each of them.")
+    @PostMapping("/api/v1/urlshortener/bulk")
+    public Mono<ResponseEntity<Object>> generateShortUrls(
+            @Parameter(description = "HTTP Request Object", required = true) final ServerHttpRequest httpRequest,
+
+            @Parameter(description = "Request body containing the URLs to shorten", required = true)
+            @Valid @RequestBody final BulkShortUrlRequest request
+    ) {
+        final var requestMetadata = RequestMetadata.from(httpRequest);
+        return Mono.fromCallable(() -> urlService.generateShortUrls(requestMetadata, request))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(response -> ResponseEntity.status(response.statusCode()).body(response.data()));
+    }
+
+    @Operation(summary = "Import Short URLs from NDJSON", description = "This endpoint streams newline-delimited JSON URL requests and streams back one result per line.")
+    @PostMapping(value = "/api/v1/urlshortener/import", consumes = IMPORT_MEDIA_TYPE, produces = IMPORT_MEDIA_TYPE)
+    public Mono<Void> importShortUrls(
+            @Parameter(description = "HTTP Request Object", required = true) final ServerHttpRequest httpRequest,
+            @Parameter(description = "HTTP Response Object", required = true) final ServerHttpResponse httpResponse
+    ) {
+        final var requestMetadata = RequestMetadata.from(httpRequest);
+        // the import reads and writes blocking streams, they are bridged to the request and response body publishers
+        final var input = DataBufferUtils.subscriberInputStream(httpRequest.getBody(), IMPORT_READ_DEMAND);
+        final var results = DataBufferUtils.outputStreamPublisher(
+                output -> {
+                    try {
+                        urlImportService.importUrls(requestMetadata, input, output);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                },
+                httpResponse.bufferFactory(),
+                Schedulers.boundedElastic()::schedule
+        );
+
+        httpResponse.setStatusCode(HttpStatus.OK);
+        httpResponse.getHeaders().setContentType(MediaType.parseMediaType(IMPORT_MEDIA_TYPE));
+        return httpResponse.writeWith(results);
+    }
+
+    @Operation(summary = "Resolve Short URLs", description = "This endpoint resolves a list of shortened URLs to their redirect targets in one call.")
+    @PostMapping("/api/v1/urlshortener/resolve")
+    public Mono<ResponseEntity<Object>> resolveShortUrls(
+            @Parameter(description = "HTTP Request Object", required = true) final ServerHttpRequest httpRequest,
+
+            @Parameter(description = "Request body containing the short URLs to resolve", required = true)
+            @Valid @RequestBody final ResolveUrlsRequest request
+    ) {
+        final var requestMetadata = RequestMetadata.from(httpRequest);
+        return Mono.fromCallable(() -> urlService.resolveUrls(requestMetadata, request))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(response -> ResponseEntity.status(response.statusCode()).body(response.data()));
+    }
+
+    @Operation(summary = "Redirect to the original URL", description = "This endpoint accepts a shortened URL and redirects to the original URL.")
+    @GetMapping("/{shortUrl}")
+    public CompletableFuture<ResponseEntity<Object>> getAndRedirectToOriginalUrl(
+            @Parameter(description = "Short URL code to redirect to the original URL", required = true)
+            @PathVariable final String shortUrl,
+            @Parameter(description = "HTTP Request Object", required = true) final ServerHttpRequest httpRequest
+    ) {
+        return urlService.getOriginalUrlAsync(RequestMetadata.from(httpRequest), shortUrl).thenApply(response -> {
+            if (response.statusCode() == HttpStatus.OK.value()) {
+                return ResponseEntity.status(HttpStatus.FOUND)
+                        .location((URI) response.data())
+                        .build();
+            }
+            return ResponseEntity.status(response.statusCode()).body(response.data());
+        });
+    }
+
+}
@@ -1,31 +1,42 @@
 package com.akgarg.urlshortener.v1.api;
 
+import com.akgarg.urlshortener.request.BulkShortUrlRequest;
+import com.akgarg.urlshortener.request.RequestMetadata;
+import com.akgarg.urlshortener.request.ResolveUrlsRequest;
 import com.akgarg.urlshortener.request.ShortUrlRequest;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 import static com.akgarg.urlshortener.utils.UrlShortenerUtil.checkValidationResultAndThrowExceptionOnFailedValidation;
 
 @RestController
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Tag(name = "URL Shortener", description = "API for shortening and expanding URLs")
 public class UrlController {
 
+    private static final String IMPORT_MEDIA_TYPE = "application/x-ndjson";
+
     private final UrlService urlService;
+    private final UrlImportService urlImportService;
 
     @Operation(summary = "Generate a Short URL", description = "This endpoint accepts a long URL and generates a shortened URL.")
     @PostMapping("/api/v1/urlshortener")
-    public ResponseEntity<Object> generateShortUrl(
+    public CompletableFuture<ResponseEntity<Object>> generateShortUrl(
             @Parameter(description = "HTTP Request Object", required = true) final HttpServletRequest httpRequest,
 
             @Parameter(description = "Request body containing the URL to shorten", required = true)
@@ -33,24 +44,64 @@ public class UrlController {
             final BindingResult validationResult
     ) {
         checkValidationResultAndThrowExceptionOnFailedValidation(validationResult);
-        final var response = urlService.generateShortUrl(httpRequest, request);
+        return urlService.generateShortUrlAsync(RequestMetadata.from(httpRequest), request)
+                .thenApply(response -> ResponseEntity.status(response.statusCode()).body(response.data()));
+    }
+
+    @Operation(summary = "Generate Short URLs in bulk", description = "This endpoint accepts a batch of long URLs and generates a shortened URL for each of them.")
+    @PostMapping("/api/v1/urlshortener/bulk")
+    public ResponseEntity<Object> generateShortUrls(
+            @Parameter(description = "HTTP Request Object", required = true) final HttpServletRequest httpRequest,
+
+            @Parameter(description = "Request body containing the URLs to shorten", required = true)
+            @Valid @RequestBody final BulkShortUrlRequest request,
+            final BindingResult validationResult
+    ) {
+        checkValidationResultAndThrowExceptionOnFailedValidation(validationResult);
+        final var response = urlService.generateShortUrls(RequestMetadata.from(httpRequest), request);
+        return ResponseEntity.status(response.statusCode()).body(response.data());
+    }
+
+    @Operation(summary = "Import Short URLs from NDJSON", description = "This endpoint streams newline-delimited JSON URL requests and streams back one result per line.")
+    @PostMapping(value = "/api/v1/urlshortener/import", consumes = IMPORT_MEDIA_TYPE, produces = IMPORT_MEDIA_TYPE)
+    public void importShortUrls(
+            @Parameter(description = "HTTP Request Object", required = true) final HttpServletRequest httpRequest,
+            @Parameter(description = "HTTP Response Object", required = true) final HttpServletResponse httpResponse
+    ) throws IOException {
+        httpResponse.setStatus(HttpStatus.OK.value());
+        httpResponse.setContentType(IMPORT_MEDIA_TYPE);
+        urlImportService.importUrls(RequestMetadata.from(httpRequest), httpRequest.getInputStream(), httpResponse.getOutputStream());
+    }
+
+    @Operation(summary = "Resolve Short URLs", description = "This endpoint resolves a list of shortened URLs to their redirect targets in one call.")
+    @PostMapping("/api/v1/urlshortener/resolve")
+    public ResponseEntity<Object> resolveShortUrls(
+            @Parameter(description = "HTTP Request Object", required = true) final HttpServletRequest httpRequest,
+
+            @Parameter(description = "Request body containing the short URLs to resolve", required = true)
+            @Valid @RequestBody final ResolveUrlsRequest request,
+            final BindingResult validationResult
+    ) {
+        checkValidationResultAndThrowExceptionOnFailedValidation(validationResult);
+        final var response = urlService.resolveUrls(RequestMetadata.from(httpRequest), request);
         return ResponseEntity.status(response.statusCode()).body(response.data());
     }
 
     @Operation(summary = "Redirect to the original URL", description = "This endpoint accepts a shortened URL and redirects to the original URL.")
     @GetMapping("/{shortUrl}")
-    public ResponseEntity<Object> getAndRedirectToOriginalUrl(
+    public CompletableFuture<ResponseEntity<Object>> getAndRedirectToOriginalUrl(
             @Parameter(description = "Short URL code to redirect to the original URL", required = true)
             @PathVariable final String shortUrl,
             @Parameter(description = "HTTP Request Object", required = true) final HttpServletRequest httpRequest
     ) {
-        final var response = urlService.getOriginalUrl(httpRequest, shortUrl);
-        if (response.statusCode() == HttpStatus.OK.value()) {
-            return ResponseEntity.status(HttpStatus.FOUND)
-                    .location((URI) response.data())
-                    .build();
-        }
-        return ResponseEntity.status(response.statusCode()).body(response.data());
+        return urlService.getOriginalUrlAsync(RequestMetadata.from(httpRequest), shortUrl).thenApply(response -> {
+            if (response.statusCode() == HttpStatus.OK.value()) {
+                return ResponseEntity.status(HttpStatus.FOUND)
+                        .location((URI) response.data())
+                        .build();
+            }
+            return ResponseEntity.status(response.statusCode()).body(response.data());
+        });
     }
 
 }
@@ -0,0 +1,295 @@
+package com.akgarg.urlshortener.v1.api;
+
+import com.akgarg.urlshortener.request.BulkShortUrlRequest;
+import com.akgarg.urlshortener.request.RequestMetadata;
+import com.akgarg.urlshortener.request.ShortUrlRequest;
+import com.akgarg.urlshortener.response.ApiErrorResponse;
+import com.akgarg.urlshortener.response.BulkGenerateUrlResponse;
+import com.akgarg.urlshortener.response.GenerateUrlResponse;
+import com.akgarg.urlshortener.utils.RequestIdContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// parse -> validate happens on the request thread, code allocation and writes for up to maxInFlightBatches batches run on
+// the writer threads, results are streamed back in input order as soon as the oldest batch completes. Without quota
+// accounting each batch is checked against the usage of the batches before it, so they are written one at a time
+@Slf4j
+@Service
+public class UrlImportService implements AutoCloseable {
+
+    private final UrlService urlService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ExecutorService writerExecutor;
+    private final int batchSize;
+    private final int maxInFlightBatches;
+    private final int maxLineLength;
+
+    public UrlImportService(
+            final UrlService urlService,
+            final ObjectMapper objectMapper,
+            final Validator validator,
+            final Environment environment
+    ) {
+        this.urlService = urlService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        // a batch goes through the bulk create path and has to fit into its max size
+        this.batchSize = Math.min(
+                environment.getProperty("url.import.batch-size", Integer.class, 500),
+                environment.getProperty("url.bulk.max-size", Integer.class, 1000)
+        );
+        this.maxInFlightBatches = urlService.isQuotaAccountingEnabled() ?
+                environment.getProperty("url.import.max-in-flight-batches", Integer.class, 4) :
+                1;
+        this.maxLineLength = environment.getProperty("url.import.max-line-length", Integer.class, 16384);
+
+        final var writerThreads = environment.getProperty("url.import.writer-threads", Integer.class, 4);
+        log.info("Initializing url import with batch size {}, {} in-flight batches, {} writer threads and max line length {}",
+                batchSize, maxInFlightBatches, writerThreads, maxLineLength);
+        this.writerExecutor = Executors.newFixedThreadPool(
+                writerThreads,
+                Thread.ofPlatform().name("url-import-writer-", 0).daemon(true).factory()
+        );
+    }
+
+    // writer threads must not touch the container request, the request metadata used for events is captured up front
+    public void importUrls(final RequestMetadata requestMetadata, final InputStream input, final OutputStream output) throws IOException {
+        final var reader = new LineReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)), maxLineLength);
+        final Deque<ImportBatch> inFlightBatches = new ArrayDeque<>(maxInFlightBatches);
+        final var startTime = System.currentTimeMillis();
+
+        log.info("Received url import request");
+
+        var lineNumber = 0L;
+        var batch = new ImportBatch();
+        String line;
+
+        try {
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+
+                if (reader.tooLong) {
+                    batch.addRejected(lineNumber, "Line exceeds " + maxLineLength + " characters");
+                } else if (line.isBlank()) {
+                    continue;
+                } else {
+                    batch.add(lineNumber, line);
+                }
+
+                if (batch.size() == batchSize) {
+                    submit(requestMetadata, batch, inFlightBatches, output);
+                    batch = new ImportBatch();
+                }
+            }
+
+            if (batch.size() > 0) {
+                submit(requestMetadata, batch, inFlightBatches, output);
+            }
+
+            while (!inFlightBatches.isEmpty()) {
+                writeResults(inFlightBatches.poll(), output);
+            }
+        } finally {
+            // a client that went away does not stop batches that are already being written
+            inFlightBatches.forEach(inFlightBatch -> inFlightBatch.completion.join());
+        }
+
+        log.info("Url import of {} lines processed in {} ms", lineNumber, System.currentTimeMillis() - startTime);
+    }
+
+    @Override
+    public void close() {
+        writerExecutor.close();
+    }
+
+    private void submit(
+            final RequestMetadata requestMetadata,
+            final ImportBatch batch,
+            final Deque<ImportBatch> inFlightBatches,
+            final OutputStream output
+    ) throws IOException {
+        while (inFlightBatches.size() >= maxInFlightBatches) {
+            writeResults(inFlightBatches.poll(), output);
+        }
+
+        final var requests = parseAndValidate(batch);
+
+        batch.completion = requests.isEmpty() ?
+                CompletableFuture.completedFuture(null) :
+                CompletableFuture.runAsync(() -> createShortUrls(requestMetadata, batch, requests), RequestIdContext.withCurrentRequestId(writerExecutor));
+        inFlightBatches.add(batch);
+    }
+
+    private List<ShortUrlRequest> parseAndValidate(final ImportBatch batch) {
+        final var requests = new ArrayList<ShortUrlRequest>(batch.size());
+
+        for (int i = 0; i < batch.size(); i++) {
+            final var result = batch.results.get(i);
+            final ShortUrlRequest request;
+
+            if (result.getStatusCode() != 0) {
+                continue;
+            }
+
+            try {
+                request = objectMapper.readValue(batch.lines.get(i), ShortUrlRequest.class);
+            } catch (JsonProcessingException e) {
+                result.setStatusCode(HttpStatus.BAD_REQUEST.value());
+                result.setError("Invalid JSON");
+                continue;
+            }
+
+            result.setOriginalUrl(request.originalUrl());
+            final var violations = validator.validate(request);
+
+            if (!violations.isEmpty()) {
+                result.setStatusCode(HttpStatus.BAD_REQUEST.value());
+                result.setError(String.join(", ", violations.stream().map(ConstraintViolation::getMessage).sorted().toList()));
+                continue;
+            }
+
+            requests.add(request);
+        }
+
+        // parsed lines are not needed anymore, only the results are kept until the batch is streamed back
+        batch.lines = null;
+        return requests;
+    }
+
+    private void createShortUrls(final RequestMetadata requestMetadata, final ImportBatch batch, final List<ShortUrlRequest> requests) {
+        final var pendingResults = batch.results.stream().filter(result -> result.getStatusCode() == 0).toList();
+
+        try {
+            final var response = urlService.generateShortUrls(requestMetadata, new BulkShortUrlRequest(requests));
+
+            if (response.data() instanceof BulkGenerateUrlResponse bulkResponse) {
+                for (int i = 0; i < pendingResults.size(); i++) {
+                    final var result = bulkResponse.getResults().get(i);
+                    pendingResults.get(i).setShortUrl(result.getShortUrl());
+                    pendingResults.get(i).setStatusCode(result.getStatusCode());
+                    pendingResults.get(i).setError(result.getError());
+                }
+                return;
+            }
+
+            final var error = (ApiErrorResponse) response.data();
+            pendingResults.forEach(result -> {
+                result.setStatusCode(response.statusCode());
+                result.setError(error.getMessage());
+            });
+        } catch (Exception e) {
+            log.error("Error importing batch of {} urls", requests.size(), e);
+            pendingResults.forEach(result -> {
+                result.setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
+                result.setError("Failed to save short url");
+            });
+        }
+    }
+
+    private void writeResults(final ImportBatch batch, final OutputStream output) throws IOException {
+        try {
+            batch.completion.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for url import batch", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Url import batch failed", e.getCause());
+        }
+
+        for (final var result : batch.results) {
+            output.write(objectMapper.writeValueAsBytes(result));
+            output.write('\n');
+        }
+        output.flush();
+    }
+
+    private static final class ImportBatch {
+
+        private final List<GenerateUrlResponse> results = new ArrayList<>();
+        private List<String> lines = new ArrayList<>();
+        private CompletableFuture<Void> completion;
+
+        private void add(final long lineNumber, final String line) {
+            lines.add(line);
+            results.add(GenerateUrlResponse.builder().line(lineNumber).build());
+        }
+
+        private void addRejected(final long lineNumber, final String error) {
+            lines.add(null);
+            results.add(GenerateUrlResponse.builder()
+                    .line(lineNumber)
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .error(error)
+                    .build());
+        }
+
+        private int size() {
+            return results.size();
+        }
+
+    }
+
+    // a line longer than the max length is skipped up to its line break instead of being buffered
+    private static final class LineReader {
+
+        private final Reader reader;
+        private final int maxLineLength;
+        private final StringBuilder line = new StringBuilder();
+        private boolean tooLong;
+
+        private LineReader(final Reader reader, final int maxLineLength) {
+            this.reader = reader;
+            this.maxLineLength = maxLineLength;
+        }
+
+        // null at the end of the input
+        private String readLine() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+
+            int c;
+            while ((c = reader.read()) != -1 && c != '\n') {
+                if (line.length() < maxLineLength) {
+                    line.append((char) c);
+                } else {
+                    tooLong = true;
+                }
+            }
+
+            if (c == -1 && line.isEmpty() && !tooLong) {
+                return null;
+            }
+
+            if (!line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+                line.setLength(line.length() - 1);
+            }
+
+            return line.toString();
+        }
+
+    }
+
+}
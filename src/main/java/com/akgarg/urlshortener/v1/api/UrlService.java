@@ -1,25 +1,42 @@
 package com.akgarg.urlshortener.v1.api;
 
-import com.akgarg.urlshortener.encoding.EncoderService;
 import com.akgarg.urlshortener.events.EventType;
 import com.akgarg.urlshortener.events.StatisticsEvent;
 import com.akgarg.urlshortener.events.StatisticsEventService;
 import com.akgarg.urlshortener.exception.UrlShortenerException;
-import com.akgarg.urlshortener.numbergenerator.NumberGeneratorService;
+import com.akgarg.urlshortener.request.BulkShortUrlRequest;
+import com.akgarg.urlshortener.request.RequestMetadata;
+import com.akgarg.urlshortener.request.ResolveUrlsRequest;
 import com.akgarg.urlshortener.request.ShortUrlRequest;
 import com.akgarg.urlshortener.response.ApiErrorResponse;
+import com.akgarg.urlshortener.response.BulkGenerateUrlResponse;
 import com.akgarg.urlshortener.response.GenerateUrlResponse;
+import com.akgarg.urlshortener.response.ResolveUrlsResponse;
+import com.akgarg.urlshortener.response.ResolvedUrlResponse;
 import com.akgarg.urlshortener.response.UrlResponse;
+import com.akgarg.urlshortener.shortcode.ShortCodeService;
+import com.akgarg.urlshortener.utils.RequestIdContext;
 import com.akgarg.urlshortener.v1.db.Url;
 import com.akgarg.urlshortener.v1.db.UrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.UrlSaveStatus;
+import com.akgarg.urlshortener.v1.subscription.EntitlementResponse;
+import com.akgarg.urlshortener.v1.subscription.SubscriptionResponse;
 import com.akgarg.urlshortener.v1.subscription.SubscriptionService;
-import jakarta.servlet.http.HttpServletRequest;
+import com.akgarg.urlshortener.v1.subscription.quota.QuotaReservation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import static com.akgarg.urlshortener.utils.UrlShortenerUtil.*;
@@ -30,155 +47,313 @@ import static com.akgarg.urlshortener.utils.UrlShortenerUtil.*;
 @SuppressWarnings("DuplicatedCode")
 public class UrlService {
 
+    private static final UrlResponse URL_NOT_FOUND_RESPONSE = new UrlResponse(
+            HttpStatus.NOT_FOUND.value(),
+            ApiErrorResponse.builder()
+                    .message("Requested URL not found")
+                    .statusCode(HttpStatus.NOT_FOUND.value())
+                    .build()
+    );
+
     private final StatisticsEventService statisticsEventService;
-    private final NumberGeneratorService numberGeneratorService;
+    private final ShortCodeService shortCodeService;
     private final SubscriptionService subscriptionService;
     private final UrlDatabaseService urlDatabaseService;
-    private final EncoderService encoderService;
 
-    public UrlResponse generateShortUrl(final HttpServletRequest httpRequest, final ShortUrlRequest request) {
-        final var requestId = extractRequestIdFromRequest(httpRequest);
+    @Value("${url.bulk.max-size:1000}")
+    private int bulkMaxSize = 1000;
+
+    @Value("${url.resolve.max-size:1000}")
+    private int resolveMaxSize = 1000;
+
+    public UrlResponse generateShortUrl(final RequestMetadata requestMetadata, final ShortUrlRequest request) {
+        final var requestId = requestMetadata.requestId();
         final var startTime = System.currentTimeMillis();
 
         log.info("Received generate short url request: {}", request);
 
-        final var responseBuilder = GenerateUrlResponse.builder();
+        final var draft = draftShortUrl(requestMetadata.userId(), request);
 
-        final long expirationTime;
+        if (draft.url() == null) {
+            return draft.errorResponse();
+        }
 
-        if (request.expiresAt() != null) {
-            expirationTime = request.expiresAt();
-        } else {
-            expirationTime = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365 * 100L);
+        final var url = draft.url();
+
+        final var entitlements = subscriptionService.evaluateEntitlements(requestId, url.getUserId(), 1, url.isCustomAlias() ? 1 : 0);
+        final var subscriptionFailure = entitlementFailure(requestMetadata, request, url, entitlements, startTime);
+
+        if (subscriptionFailure != null) {
+            return subscriptionFailure;
         }
 
-        if (expirationTime < System.currentTimeMillis()) {
-            log.info("Invalid expiration time for generate short url request");
-            final var response = ApiErrorResponse.builder()
-                    .statusCode(400)
-                    .errors(new String[]{"Invalid expiration time"})
-                    .message("URL Expiration time is past date: " + expirationTime)
-                    .build();
-            return new UrlResponse(response.getStatusCode(), response);
+        var saved = false;
+
+        try {
+            assignShortUrl(url, request, requestMetadata, startTime);
+            saved = urlDatabaseService.saveUrl(url);
+        } finally {
+            settleQuota(entitlements.reservation(), saved);
         }
 
-        final var userIdFromRequest = extractUserIdFromRequest(httpRequest);
+        return savedUrlResponse(requestMetadata, request, url, saved, startTime);
+    }
+
+    // same steps as generateShortUrl, but the request thread only validates: the entitlement checks run on the
+    // subscription check threads and the save completes on the storage's async path
+    public CompletableFuture<UrlResponse> generateShortUrlAsync(final RequestMetadata requestMetadata, final ShortUrlRequest request) {
+        final var requestId = requestMetadata.requestId();
+        final var startTime = System.currentTimeMillis();
 
-        if (userIdFromRequest == null || !userIdFromRequest.equals(request.userId())) {
-            log.info("Invalid user id provided in generate short url request");
+        log.info("Received generate short url request: {}", request);
+
+        final var draft = draftShortUrl(requestMetadata.userId(), request);
+
+        if (draft.url() == null) {
+            return CompletableFuture.completedFuture(draft.errorResponse());
+        }
+
+        final var url = draft.url();
+        // the continuations run on the threads completing the checks and the save, with this request's id
+        final var requestIdExecutor = RequestIdContext.withCurrentRequestId(Runnable::run);
+        return subscriptionService.evaluateEntitlementsAsync(requestId, url.getUserId(), 1, url.isCustomAlias() ? 1 : 0)
+                .thenComposeAsync(entitlements -> {
+                    final var subscriptionFailure = entitlementFailure(requestMetadata, request, url, entitlements, startTime);
+                    if (subscriptionFailure != null) {
+                        return CompletableFuture.completedFuture(subscriptionFailure);
+                    }
+                    return saveUrlAsync(url, request, requestMetadata, startTime)
+                            .whenComplete((saved, e) -> settleQuota(entitlements.reservation(), e == null && saved))
+                            .thenApplyAsync(saved -> savedUrlResponse(requestMetadata, request, url, saved, startTime), requestIdExecutor);
+                }, requestIdExecutor);
+    }
+
+    public UrlResponse generateShortUrls(final RequestMetadata requestMetadata, final BulkShortUrlRequest request) {
+        final var requestId = requestMetadata.requestId();
+        final var startTime = System.currentTimeMillis();
+        final var requests = request.urls();
+
+        log.info("Received bulk generate short url request with {} urls", requests.size());
+
+        if (requests.size() > bulkMaxSize) {
+            log.info("Bulk generate short url request exceeds max size {}: {}", bulkMaxSize, requests.size());
             final var response = ApiErrorResponse.builder()
                     .statusCode(400)
-                    .errors(new String[]{"User id in header and request body mismatch"})
-                    .message("Invalid user id")
+                    .errors(new String[]{"Too many urls"})
+                    .message("At most " + bulkMaxSize + " urls can be shortened in one request")
                     .build();
             return new UrlResponse(response.getStatusCode(), response);
         }
 
-        final var userAllowedToCreateShortUrl = subscriptionService.isUserAllowedToCreateShortUrl(requestId, userIdFromRequest);
+        final var userIdFromRequest = requestMetadata.userId();
+        final var results = new ArrayList<GenerateUrlResponse>(requests.size());
+        final var urls = new ArrayList<Url>(requests.size());
+        final var customAliases = new HashSet<String>();
 
-        if (!userAllowedToCreateShortUrl.subscriptionFound()) {
-            generateStatisticsEvent(httpRequest, Url.fromShortUrl(request.originalUrl()), EventType.URL_CREATE_FAILED, startTime);
-            final var response = ApiErrorResponse.builder()
-                    .statusCode(HttpStatus.NOT_FOUND.value())
-                    .errors(new String[]{"Subscription not found"})
-                    .message("Failed to create short url")
+        // validate every item up front so that the quota check and id allocation happen once for the accepted ones
+        for (final var shortUrlRequest : requests) {
+            final var result = GenerateUrlResponse.builder()
+                    .originalUrl(shortUrlRequest.originalUrl())
                     .build();
-            return new UrlResponse(response.getStatusCode(), response);
+            results.add(result);
+
+            final var url = validateBulkItem(shortUrlRequest, userIdFromRequest, customAliases, result);
+
+            if (url != null) {
+                urls.add(url);
+            }
         }
 
-        if (!userAllowedToCreateShortUrl.actionAllowed()) {
-            generateStatisticsEvent(httpRequest, Url.fromShortUrl(request.originalUrl()), EventType.URL_CREATE_FAILED, startTime);
-            final var response = ApiErrorResponse.builder()
-                    .statusCode(HttpStatus.FORBIDDEN.value())
-                    .errors(new String[]{"Short url limit reached"})
-                    .message("You have exceeded the short url limit as per your subscription plan")
-                    .build();
-            return new UrlResponse(response.getStatusCode(), response);
+        if (urls.isEmpty()) {
+            return bulkResponse(results);
+        }
+
+        final var customAliasCount = (int) urls.stream().filter(Url::isCustomAlias).count();
+        final var entitlements = subscriptionService.evaluateEntitlements(requestId, userIdFromRequest, urls.size(), customAliasCount);
+        final var quotaFailure = bulkQuotaFailure(entitlements, urls.size(), customAliasCount);
+
+        if (quotaFailure != null) {
+            urls.forEach(url -> generateStatisticsEvent(requestMetadata, Url.fromShortUrl(url.getOriginalUrl()), EventType.URL_CREATE_FAILED, startTime));
+            return new UrlResponse(quotaFailure.getStatusCode(), quotaFailure);
         }
 
-        final var customAlias = request.customAlias() != null && !request.customAlias().isBlank();
+        final List<UrlSaveStatus> saveStatuses;
 
-        if (customAlias) {
-            final var userAllowedToCreateCustomAlias = subscriptionService.isUserAllowedToCreateCustomAlias(requestId, userIdFromRequest);
+        try {
+            final var shortCodes = shortCodeService.nextShortCodes(urls.size() - customAliasCount);
 
-            if (!userAllowedToCreateCustomAlias.subscriptionFound()) {
-                generateStatisticsEvent(httpRequest, Url.fromShortUrl(request.originalUrl()), EventType.URL_CREATE_FAILED, startTime);
-                final var response = ApiErrorResponse.builder()
-                        .statusCode(HttpStatus.NOT_FOUND.value())
-                        .errors(new String[]{"Subscription not found"})
-                        .message("Failed to create short url")
-                        .build();
+            if (shortCodes == null) {
+                log.error("Failed to generate {} short urls", urls.size() - customAliasCount);
+                subscriptionService.releaseQuota(entitlements.reservation());
+                urls.forEach(url -> generateStatisticsEvent(requestMetadata, Url.fromShortUrl(url.getOriginalUrl()), EventType.URL_CREATE_FAILED, startTime));
+                final var response = ApiErrorResponse.internalServerErrorResponse();
                 return new UrlResponse(response.getStatusCode(), response);
             }
 
-            if (!userAllowedToCreateCustomAlias.actionAllowed()) {
-                generateStatisticsEvent(httpRequest, Url.fromShortUrl(request.originalUrl()), EventType.URL_CREATE_FAILED, startTime);
-                final var response = ApiErrorResponse.builder()
-                        .statusCode(HttpStatus.FORBIDDEN.value())
-                        .errors(new String[]{"Custom alias limit reached"})
-                        .message("You have exceeded the custom alias limit as per your subscription plan")
-                        .build();
-                return new UrlResponse(response.getStatusCode(), response);
+            var shortCodeIndex = 0;
+            for (final var url : urls) {
+                if (!url.isCustomAlias()) {
+                    url.setShortUrl(shortCodes.get(shortCodeIndex++));
+                }
             }
+
+            saveStatuses = urlDatabaseService.saveUrls(urls);
+        } catch (RuntimeException e) {
+            subscriptionService.releaseQuota(entitlements.reservation());
+            throw e;
         }
 
-        final String shortUrl = customAlias ? request.customAlias() : getShortUrl(request, httpRequest, startTime);
+        settleBulkQuota(entitlements.reservation(), urls, saveStatuses);
 
-        final var url = new Url();
-        url.setShortUrl(shortUrl);
-        url.setUserId(request.userId());
-        url.setOriginalUrl(request.originalUrl());
-        url.setCreatedAt(System.currentTimeMillis());
-        url.setCustomAlias(customAlias);
-        url.setExpiresAt(expirationTime);
+        var urlIndex = 0;
+        for (final var result : results) {
+            if (result.getStatusCode() != 0) {
+                continue;
+            }
 
-        final var savedUrl = urlDatabaseService.saveUrl(url);
+            final var url = urls.get(urlIndex);
+            final var saveStatus = saveStatuses.get(urlIndex++);
 
-        if (!savedUrl) {
-            log.error("Fail to save short url: {}", shortUrl);
-            generateStatisticsEvent(httpRequest, Url.fromShortUrl(request.originalUrl()), EventType.URL_CREATE_FAILED, startTime);
-            final var response = ApiErrorResponse.internalServerErrorResponse();
-            return new UrlResponse(response.getStatusCode(), response);
+            if (saveStatus == UrlSaveStatus.SAVED) {
+                result.setShortUrl(url.getShortUrl());
+                result.setStatusCode(HttpStatus.CREATED.value());
+                generateStatisticsEvent(requestMetadata, url, EventType.URL_CREATE_SUCCESS, startTime);
+                continue;
+            }
+
+            if (saveStatus == UrlSaveStatus.DUPLICATE) {
+                result.setStatusCode(HttpStatus.CONFLICT.value());
+                result.setError("Short url already exists: " + url.getShortUrl());
+            } else {
+                result.setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
+                result.setError("Failed to save short url");
+            }
+
+            generateStatisticsEvent(requestMetadata, Url.fromShortUrl(url.getOriginalUrl()), EventType.URL_CREATE_FAILED, startTime);
         }
 
-        generateStatisticsEvent(httpRequest, url, EventType.URL_CREATE_SUCCESS, startTime);
+        log.info("Bulk generate short url request processed in {} ms", System.currentTimeMillis() - startTime);
 
-        log.info("Url shorten successfully: {}", url);
-        log.info("Short URL for {} is {}", request.originalUrl(), shortUrl);
+        return bulkResponse(results);
+    }
 
-        final var response = responseBuilder
-                .shortUrl(url.getShortUrl())
-                .originalUrl(request.originalUrl())
-                .statusCode(HttpStatus.CREATED.value())
-                .build();
-        return new UrlResponse(response.getStatusCode(), response);
+    public boolean isQuotaAccountingEnabled() {
+        return subscriptionService.isQuotaAccountingEnabled();
     }
 
-    public UrlResponse getOriginalUrl(final HttpServletRequest httpRequest, final String shortUrl) {
+    public UrlResponse getOriginalUrl(final RequestMetadata requestMetadata, final String shortUrl) {
         log.info("Received request to get original url for '{}'", shortUrl);
 
         final var startTime = System.currentTimeMillis();
-        final var urlMetadata = urlDatabaseService.getUrlByShortUrl(shortUrl);
+        return originalUrlResponse(requestMetadata, shortUrl, urlDatabaseService.getUrlByShortUrl(shortUrl), startTime);
+    }
+
+    public CompletableFuture<UrlResponse> getOriginalUrlAsync(final RequestMetadata requestMetadata, final String shortUrl) {
+        log.info("Received request to get original url for '{}'", shortUrl);
+
+        final var startTime = System.currentTimeMillis();
+        // the response is built on the thread completing the lookup, a single flight leader's for a joined lookup, so it
+        // restores this request's id
+        return urlDatabaseService.getUrlByShortUrlAsync(shortUrl).thenApplyAsync(
+                urlMetadata -> originalUrlResponse(requestMetadata, shortUrl, urlMetadata, startTime),
+                RequestIdContext.withCurrentRequestId(Runnable::run)
+        );
+    }
+
+    // redirect target of a short url held in the local url cache, null when it is not cached or expired so that the caller
+    // falls back to the regular lookup which also answers misses and expired urls
+    public URI getCachedRedirectUri(final RequestMetadata requestMetadata, final String shortUrl) {
+        final var startTime = System.currentTimeMillis();
+        final var url = urlDatabaseService.getCachedUrlByShortUrl(shortUrl).orElse(null);
+
+        if (url == null || (url.getExpiresAt() != null && url.getExpiresAt() <= startTime)) {
+            return null;
+        }
+
+        final var redirectUri = url.getRedirectUri();
+
+        generateStatisticsEvent(requestMetadata, url, EventType.URL_GET_SUCCESS, startTime);
 
         if (log.isDebugEnabled()) {
-            log.debug("Metadata fetched for {}: {}", shortUrl, urlMetadata.orElse(null));
+            log.debug("Original URI for {} served from local cache is {}", shortUrl, redirectUri);
         }
 
-        if (urlMetadata.isEmpty()) {
-            log.info("Original URL not found for '{}'", shortUrl);
-            generateStatisticsEvent(httpRequest, Url.fromShortUrl(shortUrl), EventType.URL_GET_FAILED, startTime);
+        return redirectUri;
+    }
+
+    public UrlResponse resolveUrls(final RequestMetadata requestMetadata, final ResolveUrlsRequest request) {
+        final var startTime = System.currentTimeMillis();
+        final var shortUrls = request.shortUrls();
+
+        log.info("Received request to resolve {} short urls", shortUrls.size());
+
+        if (shortUrls.size() > resolveMaxSize) {
+            log.info("Resolve request exceeds max size {}: {}", resolveMaxSize, shortUrls.size());
             final var response = ApiErrorResponse.builder()
-                    .message("Requested URL not found")
-                    .statusCode(HttpStatus.NOT_FOUND.value())
+                    .statusCode(400)
+                    .errors(new String[]{"Too many short urls"})
+                    .message("At most " + resolveMaxSize + " short urls can be resolved in one request")
                     .build();
             return new UrlResponse(response.getStatusCode(), response);
         }
 
+        final var urls = urlDatabaseService.getUrlsByShortUrls(new LinkedHashSet<>(shortUrls));
+        final var results = new ArrayList<ResolvedUrlResponse>(shortUrls.size());
+
+        for (final var shortUrl : shortUrls) {
+            final var url = urls.get(shortUrl);
+            final var result = ResolvedUrlResponse.builder().shortUrl(shortUrl);
+
+            if (url == null) {
+                results.add(result.statusCode(HttpStatus.NOT_FOUND.value()).build());
+                publishResolveEvent(requestMetadata, request, Url.fromShortUrl(shortUrl), EventType.URL_GET_FAILED, startTime);
+                continue;
+            }
+
+            result.expiresAt(url.getExpiresAt());
+
+            if (url.getExpiresAt() != null && url.getExpiresAt() <= System.currentTimeMillis()) {
+                results.add(result.statusCode(HttpStatus.GONE.value()).build());
+                publishResolveEvent(requestMetadata, request, Url.fromShortUrl(shortUrl), EventType.URL_GET_FAILED, startTime);
+                continue;
+            }
+
+            results.add(result.redirectUrl(url.getRedirectUri().toString()).statusCode(HttpStatus.OK.value()).build());
+            publishResolveEvent(requestMetadata, request, url, EventType.URL_GET_SUCCESS, startTime);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Resolved {} of {} short urls", urls.size(), shortUrls.size());
+        }
+
+        final var response = ResolveUrlsResponse.builder()
+                .statusCode(HttpStatus.OK.value())
+                .results(results)
+                .build();
+        return new UrlResponse(response.getStatusCode(), response);
+    }
+
+    private UrlResponse originalUrlResponse(
+            final RequestMetadata requestMetadata,
+            final String shortUrl,
+            final Optional<Url> urlMetadata,
+            final long startTime
+    ) {
+        if (log.isDebugEnabled()) {
+            log.debug("Metadata fetched for {}: {}", shortUrl, urlMetadata.orElse(null));
+        }
+
+        if (urlMetadata.isEmpty()) {
+            log.info("Original URL not found for '{}'", shortUrl);
+            generateStatisticsEvent(requestMetadata, Url.fromShortUrl(shortUrl), EventType.URL_GET_FAILED, startTime);
+            return URL_NOT_FOUND_RESPONSE;
+        }
+
         if (urlMetadata.get().getExpiresAt() != null && urlMetadata.get().getExpiresAt() <= System.currentTimeMillis()) {
             if (log.isDebugEnabled()) {
                 log.debug("URL expired at {}", urlMetadata.get().getExpiresAt());
             }
-            generateStatisticsEvent(httpRequest, Url.fromShortUrl(shortUrl), EventType.URL_GET_FAILED, startTime);
+            generateStatisticsEvent(requestMetadata, Url.fromShortUrl(shortUrl), EventType.URL_GET_FAILED, startTime);
             final var response = ApiErrorResponse.builder()
                     .message("Requested URL is expired")
                     .statusCode(HttpStatus.GONE.value())
@@ -186,16 +361,9 @@ public class UrlService {
             return new UrlResponse(response.getStatusCode(), response);
         }
 
-        final var originalUrl = urlMetadata.get().getOriginalUrl();
-        final URI originalUri;
-
-        if (!originalUrl.startsWith("http") && !originalUrl.startsWith("https")) {
-            originalUri = URI.create("https://" + originalUrl);
-        } else {
-            originalUri = URI.create(originalUrl);
-        }
+        final var originalUri = urlMetadata.get().getRedirectUri();
 
-        generateStatisticsEvent(httpRequest, urlMetadata.get(), EventType.URL_GET_SUCCESS, startTime);
+        generateStatisticsEvent(requestMetadata, urlMetadata.get(), EventType.URL_GET_SUCCESS, startTime);
 
         if (log.isDebugEnabled()) {
             log.debug("Original URI for {} is {}", shortUrl, originalUri);
@@ -204,42 +372,312 @@ public class UrlService {
         return new UrlResponse(HttpStatus.OK.value(), originalUri);
     }
 
-    private String getShortUrl(final ShortUrlRequest request, final HttpServletRequest httpRequest, final long startTime) {
-        final var shortUrlNumber = numberGeneratorService.generateNextNumber();
+    private String getShortUrl(final ShortUrlRequest request, final RequestMetadata requestMetadata, final long startTime) {
+        final var shortUrl = shortCodeService.nextShortCode();
+
+        if (shortUrl == null) {
+            log.error("Failed to generate short url");
+            generateStatisticsEvent(requestMetadata, Url.fromShortUrl(request.originalUrl()), EventType.URL_CREATE_FAILED, startTime);
+            throw new UrlShortenerException(new String[]{"Failed to process request"}, 500, "Internal Server Error");
+        }
 
         if (log.isDebugEnabled()) {
-            log.debug("Number generated for '{}' is {}", request.originalUrl(), shortUrlNumber);
+            log.debug("Short url for '{}' is {}", request.originalUrl(), shortUrl);
         }
 
-        if (shortUrlNumber <= 0) {
-            log.error("Failed to generate unique number");
-            generateStatisticsEvent(httpRequest, Url.fromShortUrl(request.originalUrl()), EventType.URL_CREATE_FAILED, startTime);
-            throw new UrlShortenerException(new String[]{"Failed to process request"}, 500, "Internal Server Error");
+        return shortUrl;
+    }
+
+    // validates the request and builds the url to save, everything except the short url is set on it. Single and bulk
+    // creates both draft their urls here, so they reject the same requests with the same status and error
+    private ShortUrlDraft draftShortUrl(final String userIdFromRequest, final ShortUrlRequest request) {
+        final long expirationTime;
+
+        if (request.expiresAt() != null) {
+            expirationTime = request.expiresAt();
+        } else {
+            expirationTime = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365 * 100L);
         }
 
-        final var shortUrl = encoderService.encode(shortUrlNumber);
+        if (expirationTime < System.currentTimeMillis()) {
+            log.info("Invalid expiration time for generate short url request");
+            return ShortUrlDraft.failed(
+                    HttpStatus.BAD_REQUEST.value(),
+                    "Invalid expiration time",
+                    "URL Expiration time is past date: " + expirationTime
+            );
+        }
 
-        if (log.isDebugEnabled()) {
-            log.debug("Encoded string for {} is {}", shortUrlNumber, shortUrl);
+        if (userIdFromRequest == null || !userIdFromRequest.equals(request.userId())) {
+            log.info("Invalid user id provided in generate short url request");
+            return ShortUrlDraft.failed(
+                    HttpStatus.BAD_REQUEST.value(),
+                    "User id in header and request body mismatch",
+                    "Invalid user id"
+            );
         }
 
-        return shortUrl;
+        final String redirectUrl;
+
+        try {
+            redirectUrl = normalizeRedirectUrl(request.originalUrl());
+        } catch (IllegalArgumentException e) {
+            log.info("Invalid original url provided in generate short url request: {}", e.getMessage());
+            return ShortUrlDraft.failed(
+                    HttpStatus.BAD_REQUEST.value(),
+                    "Invalid original url",
+                    "original_url should be a valid HTTP or HTTPS URL"
+            );
+        }
+
+        final var url = new Url();
+        url.setUserId(request.userId());
+        url.setOriginalUrl(request.originalUrl());
+        url.setRedirectUrl(redirectUrl);
+        url.setCustomAlias(request.customAlias() != null && !request.customAlias().isBlank());
+        url.setExpiresAt(expirationTime);
+        return new ShortUrlDraft(url, 0, null, null);
+    }
+
+    // null when the subscription allows creating the short url and, for a custom alias, the alias
+    private UrlResponse entitlementFailure(
+            final RequestMetadata requestMetadata,
+            final ShortUrlRequest request,
+            final Url url,
+            final EntitlementResponse entitlements,
+            final long startTime
+    ) {
+        final var subscriptionFailure = shortUrlSubscriptionFailure(requestMetadata, request, entitlements.shortUrlResponse(), startTime);
+        if (subscriptionFailure != null || !url.isCustomAlias()) {
+            return subscriptionFailure;
+        }
+        return customAliasSubscriptionFailure(requestMetadata, request, entitlements.customAliasResponse(), startTime);
+    }
+
+    // null when the subscription allows creating the short url
+    private UrlResponse shortUrlSubscriptionFailure(
+            final RequestMetadata requestMetadata,
+            final ShortUrlRequest request,
+            final SubscriptionResponse userAllowedToCreateShortUrl,
+            final long startTime
+    ) {
+        if (!userAllowedToCreateShortUrl.subscriptionFound()) {
+            generateStatisticsEvent(requestMetadata, Url.fromShortUrl(request.originalUrl()), EventType.URL_CREATE_FAILED, startTime);
+            final var response = ApiErrorResponse.builder()
+                    .statusCode(HttpStatus.NOT_FOUND.value())
+                    .errors(new String[]{"Subscription not found"})
+                    .message("Failed to create short url")
+                    .build();
+            return new UrlResponse(response.getStatusCode(), response);
+        }
+
+        if (!userAllowedToCreateShortUrl.actionAllowed()) {
+            generateStatisticsEvent(requestMetadata, Url.fromShortUrl(request.originalUrl()), EventType.URL_CREATE_FAILED, startTime);
+            final var response = ApiErrorResponse.builder()
+                    .statusCode(HttpStatus.FORBIDDEN.value())
+                    .errors(new String[]{"Short url limit reached"})
+                    .message("You have exceeded the short url limit as per your subscription plan")
+                    .build();
+            return new UrlResponse(response.getStatusCode(), response);
+        }
+
+        return null;
     }
 
-    private void generateStatisticsEvent(final HttpServletRequest httpRequest, final Url url, final EventType eventType, final long startTime) {
+    // null when the subscription allows creating the custom alias
+    private UrlResponse customAliasSubscriptionFailure(
+            final RequestMetadata requestMetadata,
+            final ShortUrlRequest request,
+            final SubscriptionResponse userAllowedToCreateCustomAlias,
+            final long startTime
+    ) {
+        if (!userAllowedToCreateCustomAlias.subscriptionFound()) {
+            generateStatisticsEvent(requestMetadata, Url.fromShortUrl(request.originalUrl()), EventType.URL_CREATE_FAILED, startTime);
+            final var response = ApiErrorResponse.builder()
+                    .statusCode(HttpStatus.NOT_FOUND.value())
+                    .errors(new String[]{"Subscription not found"})
+                    .message("Failed to create short url")
+                    .build();
+            return new UrlResponse(response.getStatusCode(), response);
+        }
+
+        if (!userAllowedToCreateCustomAlias.actionAllowed()) {
+            generateStatisticsEvent(requestMetadata, Url.fromShortUrl(request.originalUrl()), EventType.URL_CREATE_FAILED, startTime);
+            final var response = ApiErrorResponse.builder()
+                    .statusCode(HttpStatus.FORBIDDEN.value())
+                    .errors(new String[]{"Custom alias limit reached"})
+                    .message("You have exceeded the custom alias limit as per your subscription plan")
+                    .build();
+            return new UrlResponse(response.getStatusCode(), response);
+        }
+
+        return null;
+    }
+
+    private void assignShortUrl(final Url url, final ShortUrlRequest request, final RequestMetadata requestMetadata, final long startTime) {
+        url.setShortUrl(url.isCustomAlias() ? request.customAlias() : getShortUrl(request, requestMetadata, startTime));
+        url.setCreatedAt(System.currentTimeMillis());
+    }
+
+    private CompletableFuture<Boolean> saveUrlAsync(
+            final Url url,
+            final ShortUrlRequest request,
+            final RequestMetadata requestMetadata,
+            final long startTime
+    ) {
+        try {
+            assignShortUrl(url, request, requestMetadata, startTime);
+            return urlDatabaseService.saveUrlAsync(url);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // keeps the quota reserved for a saved url and gives it back when the url was not saved
+    private void settleQuota(final QuotaReservation reservation, final boolean saved) {
+        if (saved) {
+            subscriptionService.commitQuota(reservation);
+        } else {
+            subscriptionService.releaseQuota(reservation);
+        }
+    }
+
+    private void settleBulkQuota(final QuotaReservation reservation, final List<Url> urls, final List<UrlSaveStatus> saveStatuses) {
+        if (reservation == null) {
+            return;
+        }
+
+        var savedUrls = 0;
+        var savedCustomAliases = 0;
+
+        for (int i = 0; i < urls.size(); i++) {
+            if (saveStatuses.get(i) == UrlSaveStatus.SAVED) {
+                savedUrls++;
+                savedCustomAliases += urls.get(i).isCustomAlias() ? 1 : 0;
+            }
+        }
+
+        subscriptionService.commitQuota(reservation.withCounts(savedUrls, savedCustomAliases));
+        subscriptionService.releaseQuota(reservation.withCounts(
+                reservation.shortUrls() - savedUrls,
+                reservation.customAliases() - savedCustomAliases
+        ));
+    }
+
+    private UrlResponse savedUrlResponse(
+            final RequestMetadata requestMetadata,
+            final ShortUrlRequest request,
+            final Url url,
+            final boolean saved,
+            final long startTime
+    ) {
+        if (!saved) {
+            log.error("Fail to save short url: {}", url.getShortUrl());
+            generateStatisticsEvent(requestMetadata, Url.fromShortUrl(request.originalUrl()), EventType.URL_CREATE_FAILED, startTime);
+            final var response = ApiErrorResponse.internalServerErrorResponse();
+            return new UrlResponse(response.getStatusCode(), response);
+        }
+
+        generateStatisticsEvent(requestMetadata, url, EventType.URL_CREATE_SUCCESS, startTime);
+
+        log.info("Url shorten successfully: {}", url);
+        log.info("Short URL for {} is {}", request.originalUrl(), url.getShortUrl());
+
+        final var response = GenerateUrlResponse.builder()
+                .shortUrl(url.getShortUrl())
+                .originalUrl(request.originalUrl())
+                .statusCode(HttpStatus.CREATED.value())
+                .build();
+        return new UrlResponse(response.getStatusCode(), response);
+    }
+
+    // the single create validation, plus custom aliases have to be unique within the request
+    private Url validateBulkItem(
+            final ShortUrlRequest request,
+            final String userIdFromRequest,
+            final Set<String> customAliases,
+            final GenerateUrlResponse result
+    ) {
+        final var draft = draftShortUrl(userIdFromRequest, request);
+
+        if (draft.url() == null) {
+            result.setStatusCode(draft.statusCode());
+            result.setError(draft.error());
+            return null;
+        }
+
+        final var url = draft.url();
+
+        if (url.isCustomAlias() && !customAliases.add(request.customAlias())) {
+            result.setStatusCode(HttpStatus.CONFLICT.value());
+            result.setError("Short url already exists: " + request.customAlias());
+            return null;
+        }
+
+        url.setShortUrl(url.isCustomAlias() ? request.customAlias() : null);
+        url.setCreatedAt(System.currentTimeMillis());
+        return url;
+    }
+
+    private ApiErrorResponse bulkQuotaFailure(final EntitlementResponse entitlements, final int shortUrlCount, final int customAliasCount) {
+        if (!entitlements.subscriptionFound()) {
+            return ApiErrorResponse.builder()
+                    .statusCode(HttpStatus.NOT_FOUND.value())
+                    .errors(new String[]{"Subscription not found"})
+                    .message("Failed to create short urls")
+                    .build();
+        }
+
+        if (!entitlements.shortUrlsAllowed()) {
+            return ApiErrorResponse.builder()
+                    .statusCode(HttpStatus.FORBIDDEN.value())
+                    .errors(new String[]{"Short url limit reached"})
+                    .message("Creating " + shortUrlCount + " short urls exceeds the short url limit as per your subscription plan")
+                    .build();
+        }
+
+        if (!entitlements.customAliasesAllowed()) {
+            return ApiErrorResponse.builder()
+                    .statusCode(HttpStatus.FORBIDDEN.value())
+                    .errors(new String[]{"Custom alias limit reached"})
+                    .message("Creating " + customAliasCount + " custom aliases exceeds the custom alias limit as per your subscription plan")
+                    .build();
+        }
+
+        return null;
+    }
+
+    private UrlResponse bulkResponse(final List<GenerateUrlResponse> results) {
+        final var response = BulkGenerateUrlResponse.builder()
+                .statusCode(HttpStatus.OK.value())
+                .results(results)
+                .build();
+        return new UrlResponse(response.getStatusCode(), response);
+    }
+
+    private void publishResolveEvent(
+            final RequestMetadata requestMetadata,
+            final ResolveUrlsRequest request,
+            final Url url,
+            final EventType eventType,
+            final long startTime
+    ) {
+        if (!request.skipEvents()) {
+            generateStatisticsEvent(requestMetadata, url, eventType, startTime);
+        }
+    }
+
+    private void generateStatisticsEvent(final RequestMetadata requestMetadata, final Url url, final EventType eventType, final long startTime) {
         final var eventDuration = System.currentTimeMillis() - startTime;
-        final var requestId = extractRequestIdFromRequest(httpRequest);
-        final var clientIp = extractClientIpFromRequest(httpRequest);
-        final var userAgent = extractUserAgentFromRequest(httpRequest);
 
-        final var statisticsEvent = new StatisticsEvent(requestId,
+        final var statisticsEvent = new StatisticsEvent(requestMetadata.requestId(),
                 eventType,
                 url.getShortUrl(),
                 url.getOriginalUrl(),
                 url.isCustomAlias(),
                 url.getUserId(),
-                clientIp,
-                userAgent,
+                requestMetadata.clientIp(),
+                requestMetadata.userAgent(),
                 url.getCreatedAt(),
                 eventDuration,
                 System.currentTimeMillis());
@@ -247,4 +685,22 @@ public class UrlService {
         statisticsEventService.publishEvent(statisticsEvent);
     }
 
+    // either the url to save or why the request was rejected
+    private record ShortUrlDraft(Url url, int statusCode, String error, String message) {
+
+        private static ShortUrlDraft failed(final int statusCode, final String error, final String message) {
+            return new ShortUrlDraft(null, statusCode, error, message);
+        }
+
+        private UrlResponse errorResponse() {
+            final var response = ApiErrorResponse.builder()
+                    .statusCode(statusCode)
+                    .errors(new String[]{error})
+                    .message(message)
+                    .build();
+            return new UrlResponse(response.getStatusCode(), response);
+        }
+
+    }
+
 }
@@ -0,0 +1,248 @@
+package com.akgarg.urlshortener.v1.db;
+
+import com.akgarg.urlshortener.exception.UrlShortenerException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// concurrent saveUrl calls are collected for up to maxWait (or maxBatchSize urls) and written with one saveUrls call
+@Slf4j
+public class GroupCommitUrlDatabaseService implements UrlDatabaseService {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private final UrlDatabaseService delegate;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingSave> queue = new LinkedBlockingQueue<>();
+    private final DistributionSummary batchSizeSummary;
+    private final Timer flushTimer;
+    private final Thread flusherThread;
+    private final ExecutorService callbackExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("url-group-commit-callback-", 0).factory()
+    );
+
+    private volatile boolean running = true;
+
+    public GroupCommitUrlDatabaseService(
+            final UrlDatabaseService delegate,
+            final int maxBatchSize,
+            final Duration maxWait,
+            final MeterRegistry meterRegistry
+    ) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Max batch size should be at least 1");
+        }
+
+        log.info("Initializing group commit url writer with max batch size {} and max wait {}", maxBatchSize, maxWait);
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+
+        this.batchSizeSummary = DistributionSummary.builder("url.storage.group.commit.batch.size")
+                .description("Urls written by one group commit flush")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("url.storage.group.commit.flush.latency")
+                .description("Time taken by one group commit flush to write its urls")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        this.flusherThread = Thread.ofPlatform().name("url-group-commit").daemon(true).start(this::flushLoop);
+    }
+
+    @Override
+    public boolean saveUrl(final Url url) {
+        if (!running) {
+            return delegate.saveUrl(url);
+        }
+
+        try {
+            return saveUrlAsync(url).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    // the future completes on a virtual thread once the batch holding the url is written, the flusher only hands out
+    // the statuses
+    @Override
+    public CompletableFuture<Boolean> saveUrlAsync(final Url url) {
+        if (!running) {
+            return delegate.saveUrlAsync(url);
+        }
+
+        final var pendingSave = new PendingSave(url, new CompletableFuture<>());
+        queue.add(pendingSave);
+
+        return StorageFutures.continueOn(pendingSave.status, callbackExecutor).thenApply(status -> {
+            if (status == UrlSaveStatus.DUPLICATE) {
+                throw new UrlShortenerException(new String[]{}, 409, "Short url already exists");
+            }
+            return status == UrlSaveStatus.SAVED;
+        });
+    }
+
+    @Override
+    public List<UrlSaveStatus> saveUrls(final List<Url> urls) {
+        return delegate.saveUrls(urls);
+    }
+
+    @Override
+    public Optional<Url> getUrlByShortUrl(final String shortUrl) {
+        return delegate.getUrlByShortUrl(shortUrl);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Url>> getUrlByShortUrlAsync(final String shortUrl) {
+        return delegate.getUrlByShortUrlAsync(shortUrl);
+    }
+
+    @Override
+    public Map<String, Url> getUrlsByShortUrls(final Collection<String> shortUrls) {
+        return delegate.getUrlsByShortUrls(shortUrls);
+    }
+
+    @Override
+    public void forEachShortUrl(final Consumer<String> consumer) {
+        delegate.forEachShortUrl(consumer);
+    }
+
+    @Override
+    public void close() {
+        log.info("Closing group commit url writer");
+        running = false;
+
+        try {
+            flusherThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // saves that raced with shutdown after the flusher exited
+        final var remaining = new ArrayList<PendingSave>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+
+        callbackExecutor.close();
+        delegate.close();
+    }
+
+    private void flushLoop() {
+        final var batch = new ArrayList<PendingSave>(maxBatchSize);
+
+        try {
+            // saves queued before close are still flushed
+            while (running || !queue.isEmpty()) {
+                try {
+                    collectBatch(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                    batch.clear();
+                }
+            }
+        } finally {
+            // should the flusher ever stop, later saves go straight to the delegate instead of waiting on the queue
+            running = false;
+        }
+    }
+
+    private void collectBatch(final List<PendingSave> batch) throws InterruptedException {
+        final var first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+
+        if (first == null) {
+            return;
+        }
+
+        batch.add(first);
+        final var deadline = System.nanoTime() + maxWaitNanos;
+
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+
+            final var remainingNanos = deadline - System.nanoTime();
+
+            if (batch.size() >= maxBatchSize || remainingNanos <= 0) {
+                return;
+            }
+
+            final var next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+
+            if (next == null) {
+                return;
+            }
+
+            batch.add(next);
+        }
+    }
+
+    private void flush(final List<PendingSave> batch) {
+        final var urls = batch.stream().map(PendingSave::url).toList();
+        final var startTime = System.nanoTime();
+        List<UrlSaveStatus> statuses = null;
+        Throwable failure = null;
+
+        // any failure, errors included, fails the whole batch: the flusher has to survive it and every caller has to
+        // be released
+        try {
+            statuses = delegate.saveUrls(urls);
+            if (statuses == null || statuses.size() != batch.size()) {
+                failure = new IllegalStateException("Expected %d save statuses but got %s"
+                        .formatted(batch.size(), statuses == null ? null : statuses.size()));
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
+
+        if (failure != null) {
+            log.error("Error writing group commit batch of {} urls", batch.size(), failure);
+        }
+
+        // recorded before the callers are released so that the metrics cover every completed save
+        flushTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        batchSizeSummary.record(batch.size());
+
+        for (int i = 0; i < batch.size(); i++) {
+            if (failure != null) {
+                batch.get(i).status.completeExceptionally(failure);
+            } else {
+                batch.get(i).status.complete(statuses.get(i));
+            }
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Group commit flushed {} urls", batch.size());
+        }
+    }
+
+    private record PendingSave(Url url, CompletableFuture<UrlSaveStatus> status) {
+    }
+
+}
@@ -1,15 +1,22 @@
 package com.akgarg.urlshortener.v1.db;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Profile("dev")
 @Service
+@Qualifier("urlStorage")
 @Slf4j
 public class InMemoryUrlDatabaseService implements UrlDatabaseService {
 
@@ -29,6 +36,16 @@ public class InMemoryUrlDatabaseService implements UrlDatabaseService {
         return true;
     }
 
+    @Override
+    public List<UrlSaveStatus> saveUrls(final List<Url> urls) {
+        log.info("Going to save {} URLs in DB", urls.size());
+        final var statuses = new ArrayList<UrlSaveStatus>(urls.size());
+        for (final var url : urls) {
+            statuses.add(db.putIfAbsent(url.getShortUrl(), url) == null ? UrlSaveStatus.SAVED : UrlSaveStatus.DUPLICATE);
+        }
+        return statuses;
+    }
+
     @Override
     public Optional<Url> getUrlByShortUrl(final String shortUrl) {
         log.info("Fetching url metadata for {}", shortUrl);
@@ -39,4 +56,22 @@ public class InMemoryUrlDatabaseService implements UrlDatabaseService {
         return Optional.ofNullable(urlMetadata);
     }
 
+    @Override
+    public Map<String, Url> getUrlsByShortUrls(final Collection<String> shortUrls) {
+        log.info("Fetching url metadata for {} short urls", shortUrls.size());
+        final var urls = new HashMap<String, Url>(shortUrls.size());
+        for (final var shortUrl : shortUrls) {
+            final var urlMetadata = db.get(shortUrl);
+            if (urlMetadata != null) {
+                urls.put(shortUrl, urlMetadata);
+            }
+        }
+        return urls;
+    }
+
+    @Override
+    public void forEachShortUrl(final Consumer<String> consumer) {
+        db.keySet().forEach(consumer);
+    }
+
 }
@@ -1,24 +1,69 @@
 package com.akgarg.urlshortener.v1.db;
 
+import com.akgarg.urlshortener.encoding.EncoderService;
 import com.akgarg.urlshortener.exception.UrlShortenerException;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Profile("prod")
 @Service
+@Qualifier("urlStorage")
 @RequiredArgsConstructor
 @Slf4j
 public class MongoUrlDatabaseService implements UrlDatabaseService {
 
+    static final String URLS_COLLECTION = "urls";
+    static final String ID_FIELD = "_id";
+    static final String SHORT_URL_FIELD = "short_url";
+    private static final int SHORT_URL_SCAN_BATCH_SIZE = 10_000;
+
     private final MongoUrlRepository mongoUrlRepository;
+    private final MongoTemplate mongoTemplate;
+    private final EncoderService encoderService;
+
+    // short urls that decode as base62 numbers are stored with that number as _id so that lookups are point reads on the
+    // _id index; decoding is canonical, so the shape of a short url alone tells which index holds it
+    @Value("${url.storage.numeric-id.enabled:false}")
+    private boolean numericIdEnabled;
+
+    // also tries the short_url index when a numeric id is not found, for urls saved before numeric ids were enabled
+    @Value("${url.storage.numeric-id.fallback-lookup:false}")
+    private boolean numericIdFallbackLookup;
 
     @Override
     public boolean saveUrl(final Url url) {
+        final var numericId = numericIdOf(url.getShortUrl());
+
+        if (numericId != null) {
+            return saveUrlWithNumericId(url, numericId);
+        }
+
         try {
             mongoUrlRepository.save(url);
             if (log.isDebugEnabled()) {
@@ -34,10 +79,48 @@ public class MongoUrlDatabaseService implements UrlDatabaseService {
         }
     }
 
+    @Override
+    public List<UrlSaveStatus> saveUrls(final List<Url> urls) {
+        final var documents = urls.stream().map(this::toDocument).toList();
+        final var statuses = new ArrayList<>(Collections.nCopies(urls.size(), UrlSaveStatus.SAVED));
+
+        try {
+            mongoTemplate.getCollection(URLS_COLLECTION).insertMany(documents, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            for (final var writeError : e.getWriteErrors()) {
+                final var duplicate = ErrorCategory.fromErrorCode(writeError.getCode()) == ErrorCategory.DUPLICATE_KEY;
+                statuses.set(writeError.getIndex(), duplicate ? UrlSaveStatus.DUPLICATE : UrlSaveStatus.FAILED);
+            }
+            if (e.getWriteConcernError() != null) {
+                log.error("Write concern error saving {} urls to database: {}", urls.size(), e.getWriteConcernError().getMessage());
+            }
+        } catch (Exception e) {
+            log.error("Error saving {} urls to database", urls.size(), e);
+            Collections.fill(statuses, UrlSaveStatus.FAILED);
+        }
+
+        for (int i = 0; i < urls.size(); i++) {
+            if (statuses.get(i) == UrlSaveStatus.SAVED) {
+                urls.get(i).setId(String.valueOf(documents.get(i).get(ID_FIELD)));
+            }
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Saved {} url records with statuses {}", urls.size(), statuses);
+        }
+
+        return statuses;
+    }
+
     @Override
     public Optional<Url> getUrlByShortUrl(final String shortUrl) {
         try {
-            final var url = mongoUrlRepository.findByShortUrl(shortUrl);
+            final var numericId = numericIdOf(shortUrl);
+            final var url = numericId == null ?
+                    mongoUrlRepository.findByShortUrl(shortUrl) :
+                    numericIdFallbackLookup ?
+                            findUrlByNumericId(shortUrl, numericId).or(() -> mongoUrlRepository.findByShortUrl(shortUrl)) :
+                            findUrlByNumericId(shortUrl, numericId);
 
             if (log.isDebugEnabled()) {
                 log.debug("Url record for '{}' is: {}", shortUrl, url.orElse(null));
@@ -46,9 +129,127 @@ public class MongoUrlDatabaseService implements UrlDatabaseService {
             return url;
         } catch (Exception e) {
             log.error("Error fetching url from database", e);
+            throw e;
+        }
+    }
+
+    // at most two queries: an $in on _id for numeric ids and an $in on short_url for the rest
+    @Override
+    public Map<String, Url> getUrlsByShortUrls(final Collection<String> shortUrls) {
+        final var requestedShortUrls = new HashSet<>(shortUrls);
+        final var urls = new HashMap<String, Url>(requestedShortUrls.size());
+
+        try {
+            final var collection = mongoTemplate.getCollection(URLS_COLLECTION);
+
+            if (numericIdEnabled) {
+                final var numericIds = requestedShortUrls.stream().map(this::decodeShortUrl).filter(Objects::nonNull).toList();
+                if (!numericIds.isEmpty()) {
+                    readUrls(collection.find(Filters.in(ID_FIELD, numericIds)), requestedShortUrls, urls);
+                }
+            }
+
+            final var remainingShortUrls = requestedShortUrls.stream()
+                    .filter(shortUrl -> !urls.containsKey(shortUrl))
+                    .filter(shortUrl -> numericIdFallbackLookup || numericIdOf(shortUrl) == null)
+                    .toList();
+            if (!remainingShortUrls.isEmpty()) {
+                readUrls(collection.find(Filters.in(SHORT_URL_FIELD, remainingShortUrls)), requestedShortUrls, urls);
+            }
+
+            if (log.isDebugEnabled()) {
+                log.debug("Url records found for {} of {} short urls", urls.size(), requestedShortUrls.size());
+            }
+        } catch (Exception e) {
+            log.error("Error fetching {} urls from database", requestedShortUrls.size(), e);
+            throw e;
+        }
+
+        return urls;
+    }
+
+    @Override
+    public void forEachShortUrl(final Consumer<String> consumer) {
+        final var query = new Query().cursorBatchSize(SHORT_URL_SCAN_BATCH_SIZE);
+        query.fields().include(SHORT_URL_FIELD).exclude("_id");
+
+        try (final var documents = mongoTemplate.stream(query, Document.class, URLS_COLLECTION)) {
+            documents.map(document -> document.getString(SHORT_URL_FIELD)).forEach(consumer);
+        }
+    }
+
+    private boolean saveUrlWithNumericId(final Url url, final long numericId) {
+        final var document = toDocument(url);
+
+        try {
+            mongoTemplate.getCollection(URLS_COLLECTION).insertOne(document);
+            url.setId(String.valueOf(numericId));
+            if (log.isDebugEnabled()) {
+                log.debug("URL record saved successfully with numeric id {}", numericId);
+            }
+            return true;
+        } catch (MongoWriteException e) {
+            if (e.getError().getCategory() == ErrorCategory.DUPLICATE_KEY) {
+                throw new UrlShortenerException(new String[]{}, 409, "Short url already exists");
+            }
+            log.error("Error saving url to database", e);
+            throw e;
+        }
+    }
+
+    private Optional<Url> findUrlByNumericId(final String shortUrl, final long numericId) {
+        final var document = mongoTemplate.getCollection(URLS_COLLECTION)
+                .find(Filters.eq(ID_FIELD, numericId))
+                .first();
+
+        if (document == null || !shortUrl.equals(document.getString(SHORT_URL_FIELD))) {
+            return Optional.empty();
         }
 
-        return Optional.empty();
+        return Optional.of(mongoTemplate.getConverter().read(Url.class, document));
+    }
+
+    private void readUrls(final FindIterable<Document> documents, final Set<String> requestedShortUrls, final Map<String, Url> urls) {
+        for (final var document : documents) {
+            final var shortUrl = document.getString(SHORT_URL_FIELD);
+            if (requestedShortUrls.contains(shortUrl)) {
+                urls.put(shortUrl, mongoTemplate.getConverter().read(Url.class, document));
+            }
+        }
+    }
+
+    // _id is left to the driver unless the short url has a numeric id
+    Document toDocument(final Url url) {
+        final var document = new Document();
+        mongoTemplate.getConverter().write(url, document);
+
+        final var numericId = numericIdOf(url.getShortUrl());
+        if (numericId != null) {
+            document.put(ID_FIELD, numericId);
+        }
+
+        return document;
+    }
+
+    Url toUrl(final Document document) {
+        return mongoTemplate.getConverter().read(Url.class, document);
+    }
+
+    // null when numeric ids are disabled or the short url is not a canonical base62 code
+    Long numericIdOf(final String shortUrl) {
+        return numericIdEnabled ? decodeShortUrl(shortUrl) : null;
+    }
+
+    boolean isNumericIdFallbackLookup() {
+        return numericIdFallbackLookup;
+    }
+
+    private Long decodeShortUrl(final String shortUrl) {
+        try {
+            return encoderService.decode(shortUrl);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
 }
@@ -0,0 +1,138 @@
+package com.akgarg.urlshortener.v1.db;
+
+import com.akgarg.urlshortener.exception.UrlShortenerException;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.model.Filters;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static com.akgarg.urlshortener.v1.db.MongoUrlDatabaseService.*;
+
+// single url saves and lookups go through the reactive streams driver, their futures complete on virtual threads rather
+// than the driver's threads; bulk writes, multi-gets and scans stay on the blocking mongo storage
+@Slf4j
+public class ReactiveMongoUrlDatabaseService implements UrlDatabaseService {
+
+    private final MongoUrlDatabaseService mongoUrlDatabaseService;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ExecutorService callbackExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("mongo-url-callback-", 0).factory()
+    );
+
+    public ReactiveMongoUrlDatabaseService(
+            final MongoUrlDatabaseService mongoUrlDatabaseService,
+            final ReactiveMongoTemplate reactiveMongoTemplate
+    ) {
+        log.info("Initializing reactive mongo url storage");
+        this.mongoUrlDatabaseService = mongoUrlDatabaseService;
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public boolean saveUrl(final Url url) {
+        return mongoUrlDatabaseService.saveUrl(url);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> saveUrlAsync(final Url url) {
+        final var document = mongoUrlDatabaseService.toDocument(url);
+
+        final var saved = collection()
+                .flatMap(collection -> Mono.from(collection.insertOne(document)))
+                .map(result -> {
+                    url.setId(String.valueOf(document.get(ID_FIELD)));
+                    if (log.isDebugEnabled()) {
+                        log.debug("URL record saved successfully with id {}", url.getId());
+                    }
+                    return true;
+                })
+                .onErrorMap(MongoWriteException.class, e -> {
+                    if (e.getError().getCategory() == ErrorCategory.DUPLICATE_KEY) {
+                        return new UrlShortenerException(new String[]{}, 409, "Short url already exists");
+                    }
+                    log.error("Error saving url to database", e);
+                    return e;
+                })
+                .toFuture();
+
+        return StorageFutures.continueOn(saved, callbackExecutor);
+    }
+
+    @Override
+    public List<UrlSaveStatus> saveUrls(final List<Url> urls) {
+        return mongoUrlDatabaseService.saveUrls(urls);
+    }
+
+    @Override
+    public Optional<Url> getUrlByShortUrl(final String shortUrl) {
+        return mongoUrlDatabaseService.getUrlByShortUrl(shortUrl);
+    }
+
+    // same routing as the blocking storage: the _id point read for numeric ids, the short_url index for everything else
+    @Override
+    public CompletableFuture<Optional<Url>> getUrlByShortUrlAsync(final String shortUrl) {
+        final var numericId = mongoUrlDatabaseService.numericIdOf(shortUrl);
+        final var byShortUrl = Mono.defer(() -> findFirst(Filters.eq(SHORT_URL_FIELD, shortUrl)));
+
+        final Mono<Document> lookup;
+        if (numericId == null) {
+            lookup = byShortUrl;
+        } else {
+            final var byNumericId = findFirst(Filters.eq(ID_FIELD, numericId))
+                    .filter(found -> shortUrl.equals(found.getString(SHORT_URL_FIELD)));
+            lookup = mongoUrlDatabaseService.isNumericIdFallbackLookup() ? byNumericId.switchIfEmpty(byShortUrl) : byNumericId;
+        }
+
+        final var found = lookup
+                .map(document -> Optional.of(mongoUrlDatabaseService.toUrl(document)))
+                .defaultIfEmpty(Optional.empty())
+                .doOnNext(url -> {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Url record for '{}' is: {}", shortUrl, url.orElse(null));
+                    }
+                })
+                .doOnError(e -> log.error("Error fetching url from database", e))
+                .toFuture();
+
+        return StorageFutures.continueOn(found, callbackExecutor);
+    }
+
+    @Override
+    public Map<String, Url> getUrlsByShortUrls(final Collection<String> shortUrls) {
+        return mongoUrlDatabaseService.getUrlsByShortUrls(shortUrls);
+    }
+
+    @Override
+    public void forEachShortUrl(final Consumer<String> consumer) {
+        mongoUrlDatabaseService.forEachShortUrl(consumer);
+    }
+
+    @Override
+    public void close() {
+        callbackExecutor.close();
+        mongoUrlDatabaseService.close();
+    }
+
+    private Mono<Document> findFirst(final Bson filter) {
+        return collection().flatMap(collection -> Mono.from(collection.find(filter).first()));
+    }
+
+    private Mono<MongoCollection<Document>> collection() {
+        return reactiveMongoTemplate.getCollection(URLS_COLLECTION);
+    }
+
+}
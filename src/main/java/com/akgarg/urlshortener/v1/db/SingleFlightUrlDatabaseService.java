@@ -0,0 +1,137 @@
+package com.akgarg.urlshortener.v1.db;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+@Slf4j
+public class SingleFlightUrlDatabaseService implements UrlDatabaseService {
+
+    private final UrlDatabaseService delegate;
+    private final Map<String, CompletableFuture<Optional<Url>>> inFlightLookups = new ConcurrentHashMap<>();
+    private final Counter loadCounter;
+    private final Counter collapsedCounter;
+
+    public SingleFlightUrlDatabaseService(final UrlDatabaseService delegate, final MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.loadCounter = Counter.builder("url.lookup.single.flight.loads")
+                .description("Url lookups executed against the storage by the single flight leader")
+                .register(meterRegistry);
+        this.collapsedCounter = Counter.builder("url.lookup.single.flight.collapsed")
+                .description("Url lookups that waited on an in-flight lookup for the same short url")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean saveUrl(final Url url) {
+        return delegate.saveUrl(url);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> saveUrlAsync(final Url url) {
+        return delegate.saveUrlAsync(url);
+    }
+
+    @Override
+    public List<UrlSaveStatus> saveUrls(final List<Url> urls) {
+        return delegate.saveUrls(urls);
+    }
+
+    @Override
+    public Optional<Url> getUrlByShortUrl(final String shortUrl) {
+        final var lookup = new CompletableFuture<Optional<Url>>();
+        final var inFlightLookup = inFlightLookups.putIfAbsent(shortUrl, lookup);
+
+        if (inFlightLookup != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Joining in-flight lookup for {}", shortUrl);
+            }
+            collapsedCounter.increment();
+            return await(inFlightLookup);
+        }
+
+        loadCounter.increment();
+
+        try {
+            final var url = delegate.getUrlByShortUrl(shortUrl);
+            lookup.complete(url);
+            return url;
+        } catch (Throwable e) {
+            // errors complete the lookup too, followers would otherwise wait on it forever
+            lookup.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLookups.remove(shortUrl, lookup);
+        }
+    }
+
+    // followers get the leader's future, so neither side blocks a thread while the storage lookup is in flight
+    @Override
+    public CompletableFuture<Optional<Url>> getUrlByShortUrlAsync(final String shortUrl) {
+        final var lookup = new CompletableFuture<Optional<Url>>();
+        final var inFlightLookup = inFlightLookups.putIfAbsent(shortUrl, lookup);
+
+        if (inFlightLookup != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Joining in-flight async lookup for {}", shortUrl);
+            }
+            collapsedCounter.increment();
+            return inFlightLookup;
+        }
+
+        loadCounter.increment();
+
+        delegate.getUrlByShortUrlAsync(shortUrl).whenComplete((url, throwable) -> {
+            inFlightLookups.remove(shortUrl, lookup);
+            if (throwable != null) {
+                lookup.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null ?
+                        throwable.getCause() :
+                        throwable);
+            } else {
+                lookup.complete(url);
+            }
+        });
+
+        return lookup;
+    }
+
+    // multi-gets already turn many lookups into one query, they are not collapsed with single lookups
+    @Override
+    public Map<String, Url> getUrlsByShortUrls(final Collection<String> shortUrls) {
+        return delegate.getUrlsByShortUrls(shortUrls);
+    }
+
+    @Override
+    public void forEachShortUrl(final Consumer<String> consumer) {
+        delegate.forEachShortUrl(consumer);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private static Optional<Url> await(final CompletableFuture<Optional<Url>> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+}
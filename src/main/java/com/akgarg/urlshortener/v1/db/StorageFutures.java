@@ -0,0 +1,26 @@
+package com.akgarg.urlshortener.v1.db;
+
+import com.akgarg.urlshortener.utils.RequestIdContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+// storage futures that complete on the group commit flusher or the mongo driver's threads hand their callers' follow-on
+// work to another executor, so that it never runs on, and serializes behind, those threads
+final class StorageFutures {
+
+    private StorageFutures() {
+    }
+
+    // completes with the same result or failure as the future, on the executor and with the caller's request id
+    static <T> CompletableFuture<T> continueOn(final CompletableFuture<T> future, final Executor executor) {
+        return future.handleAsync((result, e) -> {
+            if (e != null) {
+                throw e instanceof CompletionException completionException ? completionException : new CompletionException(e);
+            }
+            return result;
+        }, RequestIdContext.withCurrentRequestId(executor));
+    }
+
+}
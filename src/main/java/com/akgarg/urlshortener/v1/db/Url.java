@@ -2,14 +2,20 @@ package com.akgarg.urlshortener.v1.db;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
+import java.net.URI;
+
+import static com.akgarg.urlshortener.utils.UrlShortenerUtil.normalizeRedirectUrl;
+
 @Document(collection = "urls")
 @Getter
 @Setter
@@ -29,6 +35,10 @@ public final class Url {
     @NotNull(message = "original_url can't be null")
     private String originalUrl;
 
+    @Field(name = "redirect_url")
+    @Setter(AccessLevel.NONE)
+    private String redirectUrl;
+
     @Field(name = "user_id")
     @NotNull(message = "user_id can't be null")
     private String userId;
@@ -44,6 +54,37 @@ public final class Url {
     @Field(name = "custom_alias")
     private boolean customAlias;
 
+    // parsed once per instance so that cached urls serve redirects without re-parsing
+    @Transient
+    @ToString.Exclude
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile URI redirectUri;
+
+    public void setRedirectUrl(final String redirectUrl) {
+        this.redirectUrl = redirectUrl;
+        this.redirectUri = null;
+    }
+
+    // urls saved before redirect_url existed are normalized from original_url on first use, and redirect to original_url
+    // as it was stored when it can't be normalized
+    public URI getRedirectUri() {
+        var uri = redirectUri;
+        if (uri == null) {
+            uri = redirectUrl != null ? URI.create(redirectUrl) : legacyRedirectUri();
+            redirectUri = uri;
+        }
+        return uri;
+    }
+
+    private URI legacyRedirectUri() {
+        try {
+            return URI.create(normalizeRedirectUrl(originalUrl));
+        } catch (IllegalArgumentException e) {
+            return URI.create(originalUrl.startsWith("http") ? originalUrl : "https://" + originalUrl);
+        }
+    }
+
     public static Url fromShortUrl(final String shortUrl) {
         final Url url = new Url();
         url.setShortUrl(shortUrl);
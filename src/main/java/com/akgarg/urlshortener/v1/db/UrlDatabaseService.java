@@ -1,11 +1,75 @@
 package com.akgarg.urlshortener.v1.db;
 
+import com.akgarg.urlshortener.exception.UrlShortenerException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
-public interface UrlDatabaseService {
+// decorators close their own resources and then their delegate, so closing the outermost service closes the chain
+public interface UrlDatabaseService extends AutoCloseable {
 
     boolean saveUrl(Url url);
 
+    // urls are saved independently of each other, statuses are returned in the order of the urls
+    default List<UrlSaveStatus> saveUrls(final List<Url> urls) {
+        final var statuses = new ArrayList<UrlSaveStatus>(urls.size());
+
+        for (final var url : urls) {
+            try {
+                statuses.add(saveUrl(url) ? UrlSaveStatus.SAVED : UrlSaveStatus.FAILED);
+            } catch (UrlShortenerException e) {
+                statuses.add(e.getErrorCode() == 409 ? UrlSaveStatus.DUPLICATE : UrlSaveStatus.FAILED);
+            } catch (Exception e) {
+                statuses.add(UrlSaveStatus.FAILED);
+            }
+        }
+
+        return statuses;
+    }
+
+    // storages without an async driver run the blocking call on the calling thread and return a completed future
+    default CompletableFuture<Boolean> saveUrlAsync(final Url url) {
+        try {
+            return CompletableFuture.completedFuture(saveUrl(url));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     Optional<Url> getUrlByShortUrl(String shortUrl);
 
+    default CompletableFuture<Optional<Url>> getUrlByShortUrlAsync(final String shortUrl) {
+        try {
+            return CompletableFuture.completedFuture(getUrlByShortUrl(shortUrl));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // urls found for the given short urls keyed by short url, short urls that are not found are left out
+    default Map<String, Url> getUrlsByShortUrls(final Collection<String> shortUrls) {
+        final var urls = new HashMap<String, Url>(shortUrls.size());
+        for (final var shortUrl : shortUrls) {
+            getUrlByShortUrl(shortUrl).ifPresent(url -> urls.put(shortUrl, url));
+        }
+        return urls;
+    }
+
+    // answered from an in-process cache only, never goes to a remote tier: storages without one have nothing cached
+    default Optional<Url> getCachedUrlByShortUrl(final String shortUrl) {
+        return Optional.empty();
+    }
+
+    void forEachShortUrl(Consumer<String> consumer);
+
+    @Override
+    default void close() {
+    }
+
 }
@@ -0,0 +1,9 @@
+package com.akgarg.urlshortener.v1.db;
+
+public enum UrlSaveStatus {
+
+    SAVED,
+    DUPLICATE,
+    FAILED
+
+}
@@ -0,0 +1,297 @@
+package com.akgarg.urlshortener.v1.db.cache;
+
+import com.akgarg.urlshortener.v1.db.Url;
+import com.akgarg.urlshortener.v1.db.UrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.UrlSaveStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// sits below the redis url cache, so a short url created on another instance whose broadcast was lost is still found
+// there. Registered short urls are kept in the negative cache as FALSE for the negative ttl, so that a lookup which
+// missed just before the registration cannot cache its miss afterwards
+@Slf4j
+public class BloomFilterUrlDatabaseService implements UrlDatabaseService {
+
+    private static final String NEGATIVE_CACHE_NAME = "urls-negative";
+
+    private final UrlDatabaseService delegate;
+    private final ShortUrlBroadcaster shortUrlBroadcaster;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+    private final Cache<String, Boolean> negativeCache;
+    private final Counter definiteMissCounter;
+    private final ScheduledExecutorService loaderExecutor;
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    // null until the first load completes, lookups pass through to the delegate till then
+    private volatile ShortUrlBloomFilter bloomFilter;
+    private volatile ShortUrlBloomFilter pendingBloomFilter;
+    private volatile long loadedShortUrls;
+    // false when the filter was loaded before broadcasts were received, its misses are then checked against the delegate
+    private volatile boolean bloomFilterComplete;
+
+    public BloomFilterUrlDatabaseService(
+            final UrlDatabaseService delegate,
+            final ShortUrlBroadcaster shortUrlBroadcaster,
+            final long expectedInsertions,
+            final double falsePositiveProbability,
+            final Duration negativeTtl,
+            final long negativeMaxSize,
+            final MeterRegistry meterRegistry
+    ) {
+        log.info("Initializing short url bloom filter for {} insertions with fpp {}", expectedInsertions, falsePositiveProbability);
+        this.delegate = delegate;
+        this.shortUrlBroadcaster = shortUrlBroadcaster;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.negativeCache = Caffeine.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(negativeTtl)
+                .recordStats()
+                .build();
+        this.loaderExecutor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("url-bloom-filter-loader").daemon(true).factory()
+        );
+
+        CaffeineCacheMetrics.monitor(meterRegistry, negativeCache, NEGATIVE_CACHE_NAME);
+        this.definiteMissCounter = Counter.builder("url.bloom.filter.definite.misses")
+                .description("Lookups answered as not found by the bloom filter without querying the database")
+                .register(meterRegistry);
+        Gauge.builder("url.bloom.filter.false.positive.probability", this, service -> {
+                    final var filter = service.bloomFilter;
+                    return filter != null ? filter.expectedFalsePositiveProbability() : Double.NaN;
+                })
+                .description("Expected false positive probability of the short url bloom filter")
+                .register(meterRegistry);
+        Gauge.builder("url.bloom.filter.memory", this, service -> {
+                    final var filter = service.bloomFilter;
+                    return filter != null ? filter.memoryBytes() : 0;
+                })
+                .baseUnit("bytes")
+                .description("Memory used by the short url bloom filter bit array")
+                .register(meterRegistry);
+        Gauge.builder("url.bloom.filter.short.urls", this, service -> service.loadedShortUrls)
+                .description("Short urls loaded into the bloom filter by the last rebuild")
+                .register(meterRegistry);
+
+        shortUrlBroadcaster.subscribe(this::registerShortUrl);
+    }
+
+    public void scheduleRebuilds(final Duration rebuildInterval) {
+        loaderExecutor.scheduleWithFixedDelay(
+                this::rebuildBloomFilter,
+                0,
+                rebuildInterval.toMillis(),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    public void rebuildBloomFilter() {
+        final var startTime = System.currentTimeMillis();
+        final var rebuiltBloomFilter = new ShortUrlBloomFilter(
+                Math.max(expectedInsertions, loadedShortUrls << 1),
+                falsePositiveProbability
+        );
+        final var counter = new long[1];
+        final var complete = shortUrlBroadcaster.isSubscribed();
+
+        pendingBloomFilter = rebuiltBloomFilter;
+
+        try {
+            delegate.forEachShortUrl(shortUrl -> {
+                rebuiltBloomFilter.put(shortUrl);
+                counter[0]++;
+            });
+            bloomFilterComplete = false;
+            bloomFilter = rebuiltBloomFilter;
+            bloomFilterComplete = complete;
+            loadedShortUrls = counter[0];
+            log.info("Loaded {} short urls into bloom filter in {} ms", counter[0], System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("Error loading short urls into bloom filter", e);
+        } finally {
+            pendingBloomFilter = null;
+            rebuildRequested.set(false);
+        }
+    }
+
+    @Override
+    public boolean saveUrl(final Url url) {
+        final var saved = delegate.saveUrl(url);
+        if (saved) {
+            registerShortUrl(url.getShortUrl());
+            shortUrlBroadcaster.broadcast(url.getShortUrl());
+        }
+        return saved;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> saveUrlAsync(final Url url) {
+        return delegate.saveUrlAsync(url).thenApply(saved -> {
+            if (saved) {
+                registerShortUrl(url.getShortUrl());
+                shortUrlBroadcaster.broadcast(url.getShortUrl());
+            }
+            return saved;
+        });
+    }
+
+    @Override
+    public List<UrlSaveStatus> saveUrls(final List<Url> urls) {
+        final var statuses = delegate.saveUrls(urls);
+        final var savedShortUrls = new ArrayList<String>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            if (statuses.get(i) == UrlSaveStatus.SAVED) {
+                registerShortUrl(urls.get(i).getShortUrl());
+                savedShortUrls.add(urls.get(i).getShortUrl());
+            }
+        }
+        shortUrlBroadcaster.broadcast(savedShortUrls);
+        return statuses;
+    }
+
+    @Override
+    public Optional<Url> getUrlByShortUrl(final String shortUrl) {
+        if (isKnownMissing(shortUrl)) {
+            return Optional.empty();
+        }
+
+        final var url = delegate.getUrlByShortUrl(shortUrl);
+
+        if (url.isEmpty()) {
+            cacheMiss(shortUrl);
+        }
+
+        return url;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Url>> getUrlByShortUrlAsync(final String shortUrl) {
+        if (isKnownMissing(shortUrl)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        return delegate.getUrlByShortUrlAsync(shortUrl).thenApply(url -> {
+            if (url.isEmpty()) {
+                cacheMiss(shortUrl);
+            }
+            return url;
+        });
+    }
+
+    @Override
+    public Map<String, Url> getUrlsByShortUrls(final Collection<String> shortUrls) {
+        final var filter = completeBloomFilter();
+        final var candidateShortUrls = shortUrls.stream()
+                .filter(shortUrl -> !Boolean.TRUE.equals(negativeCache.getIfPresent(shortUrl)))
+                .filter(shortUrl -> {
+                    if (filter != null && !filter.mightContain(shortUrl)) {
+                        definiteMissCounter.increment();
+                        return false;
+                    }
+                    return true;
+                })
+                .toList();
+
+        if (candidateShortUrls.isEmpty()) {
+            return Map.of();
+        }
+
+        final var urls = delegate.getUrlsByShortUrls(candidateShortUrls);
+
+        for (final var shortUrl : candidateShortUrls) {
+            if (!urls.containsKey(shortUrl)) {
+                cacheMiss(shortUrl);
+            }
+        }
+
+        return urls;
+    }
+
+    @Override
+    public void forEachShortUrl(final Consumer<String> consumer) {
+        delegate.forEachShortUrl(consumer);
+    }
+
+    @Override
+    public void close() {
+        loaderExecutor.shutdownNow();
+        delegate.close();
+    }
+
+    private boolean isKnownMissing(final String shortUrl) {
+        if (Boolean.TRUE.equals(negativeCache.getIfPresent(shortUrl))) {
+            if (log.isDebugEnabled()) {
+                log.debug("Negative cache hit for {}", shortUrl);
+            }
+            return true;
+        }
+
+        final var filter = completeBloomFilter();
+
+        if (filter != null && !filter.mightContain(shortUrl)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Bloom filter definite miss for {}", shortUrl);
+            }
+            definiteMissCounter.increment();
+            return true;
+        }
+
+        return false;
+    }
+
+    // null when no filter is loaded or it may miss broadcast short urls, then a rebuild is requested once broadcasts
+    // are received
+    private ShortUrlBloomFilter completeBloomFilter() {
+        final var filter = bloomFilter;
+
+        if (filter == null || bloomFilterComplete) {
+            return filter;
+        }
+
+        if (shortUrlBroadcaster.isSubscribed() && rebuildRequested.compareAndSet(false, true)) {
+            log.info("Reloading bloom filter loaded before short url broadcasts were received");
+            loaderExecutor.execute(this::rebuildBloomFilter);
+        }
+
+        return null;
+    }
+
+    private void cacheMiss(final String shortUrl) {
+        negativeCache.asMap().putIfAbsent(shortUrl, Boolean.TRUE);
+    }
+
+    // pending filter is read first: a rebuild publishes the new filter before clearing the pending one
+    private void registerShortUrl(final String shortUrl) {
+        final var pendingFilter = pendingBloomFilter;
+        if (pendingFilter != null) {
+            pendingFilter.put(shortUrl);
+        }
+
+        final var filter = bloomFilter;
+        if (filter != null) {
+            filter.put(shortUrl);
+        }
+
+        negativeCache.put(shortUrl, Boolean.FALSE);
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.akgarg.urlshortener.v1.db.cache;
+
+import com.akgarg.urlshortener.v1.db.Url;
+import com.akgarg.urlshortener.v1.db.UrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.UrlSaveStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+@Slf4j
+public class CachingUrlDatabaseService implements UrlDatabaseService {
+
+    private static final String CACHE_NAME = "urls";
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final UrlDatabaseService delegate;
+    private final Cache<String, Url> cache;
+
+    public CachingUrlDatabaseService(
+            final UrlDatabaseService delegate,
+            final long maximumWeight,
+            final Duration ttl,
+            final MeterRegistry meterRegistry
+    ) {
+        log.info("Initializing local url cache with maximum weight {} and ttl {}", maximumWeight, ttl);
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((String shortUrl, Url url) -> weigh(shortUrl, url))
+                .expireAfter(new UrlExpiry(ttl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @Override
+    public boolean saveUrl(final Url url) {
+        final var saved = delegate.saveUrl(url);
+        if (saved) {
+            cacheIfNotExpired(url);
+        }
+        return saved;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> saveUrlAsync(final Url url) {
+        return delegate.saveUrlAsync(url).thenApply(saved -> {
+            if (saved) {
+                cacheIfNotExpired(url);
+            }
+            return saved;
+        });
+    }
+
+    @Override
+    public List<UrlSaveStatus> saveUrls(final List<Url> urls) {
+        final var statuses = delegate.saveUrls(urls);
+        for (int i = 0; i < urls.size(); i++) {
+            if (statuses.get(i) == UrlSaveStatus.SAVED) {
+                cacheIfNotExpired(urls.get(i));
+            }
+        }
+        return statuses;
+    }
+
+    @Override
+    public Optional<Url> getUrlByShortUrl(final String shortUrl) {
+        final var cachedUrl = cache.getIfPresent(shortUrl);
+
+        if (cachedUrl != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Local cache hit for {}", shortUrl);
+            }
+            return Optional.of(cachedUrl);
+        }
+
+        final var url = delegate.getUrlByShortUrl(shortUrl);
+        url.ifPresent(this::cacheIfNotExpired);
+        return url;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Url>> getUrlByShortUrlAsync(final String shortUrl) {
+        final var cachedUrl = cache.getIfPresent(shortUrl);
+
+        if (cachedUrl != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Local cache hit for {}", shortUrl);
+            }
+            return CompletableFuture.completedFuture(Optional.of(cachedUrl));
+        }
+
+        return delegate.getUrlByShortUrlAsync(shortUrl).thenApply(url -> {
+            url.ifPresent(this::cacheIfNotExpired);
+            return url;
+        });
+    }
+
+    @Override
+    public Map<String, Url> getUrlsByShortUrls(final Collection<String> shortUrls) {
+        final var urls = new HashMap<>(cache.getAllPresent(shortUrls));
+
+        if (urls.size() == shortUrls.size()) {
+            return urls;
+        }
+
+        final var missingShortUrls = shortUrls.stream().filter(shortUrl -> !urls.containsKey(shortUrl)).toList();
+        final var loadedUrls = delegate.getUrlsByShortUrls(missingShortUrls);
+        loadedUrls.values().forEach(this::cacheIfNotExpired);
+        urls.putAll(loadedUrls);
+        return urls;
+    }
+
+    @Override
+    public Optional<Url> getCachedUrlByShortUrl(final String shortUrl) {
+        return Optional.ofNullable(cache.getIfPresent(shortUrl));
+    }
+
+    @Override
+    public void forEachShortUrl(final Consumer<String> consumer) {
+        delegate.forEachShortUrl(consumer);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private void cacheIfNotExpired(final Url url) {
+        if (url.getExpiresAt() == null || url.getExpiresAt() > System.currentTimeMillis()) {
+            cache.put(url.getShortUrl(), url);
+        }
+    }
+
+    private static int weigh(final String shortUrl, final Url url) {
+        var chars = shortUrl.length();
+        chars += url.getOriginalUrl() != null ? url.getOriginalUrl().length() : 0;
+        chars += url.getRedirectUrl() != null ? url.getRedirectUrl().length() : 0;
+        chars += url.getUserId() != null ? url.getUserId().length() : 0;
+        return ENTRY_OVERHEAD_BYTES + (chars << 1);
+    }
+
+    private record UrlExpiry(long ttlNanos) implements Expiry<String, Url> {
+
+        @Override
+        public long expireAfterCreate(final String shortUrl, final Url url, final long currentTime) {
+            if (url.getExpiresAt() == null) {
+                return ttlNanos;
+            }
+            final var remainingMillis = url.getExpiresAt() - System.currentTimeMillis();
+            return Math.max(0, Math.min(ttlNanos, Duration.ofMillis(remainingMillis).toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(final String shortUrl, final Url url, final long currentTime, final long currentDuration) {
+            return expireAfterCreate(shortUrl, url, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(final String shortUrl, final Url url, final long currentTime, final long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
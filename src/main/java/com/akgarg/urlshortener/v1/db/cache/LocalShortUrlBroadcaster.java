@@ -0,0 +1,36 @@
+package com.akgarg.urlshortener.v1.db.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Slf4j
+@Component
+@Profile("dev")
+public class LocalShortUrlBroadcaster implements ShortUrlBroadcaster {
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void broadcast(final String shortUrl) {
+        if (log.isDebugEnabled()) {
+            log.debug("Broadcasting short url {} locally", shortUrl);
+        }
+        listeners.forEach(listener -> listener.accept(shortUrl));
+    }
+
+    @Override
+    public void subscribe(final Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public boolean isSubscribed() {
+        return true;
+    }
+
+}
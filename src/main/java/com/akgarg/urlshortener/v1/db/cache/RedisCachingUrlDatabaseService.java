@@ -0,0 +1,277 @@
+package com.akgarg.urlshortener.v1.db.cache;
+
+import com.akgarg.urlshortener.codec.CacheCodec;
+import com.akgarg.urlshortener.utils.RequestIdContext;
+import com.akgarg.urlshortener.v1.db.Url;
+import com.akgarg.urlshortener.v1.db.UrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.UrlSaveStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+@Slf4j
+public class RedisCachingUrlDatabaseService implements UrlDatabaseService {
+
+    private static final String REDIS_URL_CACHE_PREFIX = "url:shortener:url:";
+
+    private final UrlDatabaseService delegate;
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final CacheCodec<Url> urlCacheCodec;
+    private final long maxTtlMillis;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter errorCounter;
+    private final Executor redisExecutor;
+
+    public RedisCachingUrlDatabaseService(
+            final UrlDatabaseService delegate,
+            final RedisTemplate<String, byte[]> redisTemplate,
+            final Duration maxTtl,
+            final MeterRegistry meterRegistry
+    ) {
+        this(delegate, redisTemplate, maxTtl, meterRegistry, Runnable::run);
+    }
+
+    // the async paths run their redis commands on redisExecutor, by default on the calling or completing thread
+    public RedisCachingUrlDatabaseService(
+            final UrlDatabaseService delegate,
+            final RedisTemplate<String, byte[]> redisTemplate,
+            final Duration maxTtl,
+            final MeterRegistry meterRegistry,
+            final Executor redisExecutor
+    ) {
+        log.info("Initializing redis url cache with maximum ttl {}", maxTtl);
+        this.delegate = delegate;
+        this.redisTemplate = redisTemplate;
+        this.redisExecutor = redisExecutor;
+        this.urlCacheCodec = new UrlCacheCodec();
+        this.maxTtlMillis = maxTtl.toMillis();
+        this.hitCounter = redisCacheCounter(meterRegistry, "hit");
+        this.missCounter = redisCacheCounter(meterRegistry, "miss");
+        this.errorCounter = redisCacheCounter(meterRegistry, "error");
+    }
+
+    @Override
+    public boolean saveUrl(final Url url) {
+        final var saved = delegate.saveUrl(url);
+        if (saved) {
+            cacheUrl(url);
+        }
+        return saved;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> saveUrlAsync(final Url url) {
+        return delegate.saveUrlAsync(url).thenApplyAsync(saved -> {
+            if (saved) {
+                cacheUrl(url);
+            }
+            return saved;
+        }, RequestIdContext.withCurrentRequestId(redisExecutor));
+    }
+
+    @Override
+    public List<UrlSaveStatus> saveUrls(final List<Url> urls) {
+        final var statuses = delegate.saveUrls(urls);
+        final var savedUrls = new ArrayList<Url>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            if (statuses.get(i) == UrlSaveStatus.SAVED) {
+                savedUrls.add(urls.get(i));
+            }
+        }
+        cacheUrls(savedUrls);
+        return statuses;
+    }
+
+    @Override
+    public Optional<Url> getUrlByShortUrl(final String shortUrl) {
+        final var cachedUrl = getCachedUrl(shortUrl);
+
+        if (cachedUrl != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Redis cache hit for {}", shortUrl);
+            }
+            hitCounter.increment();
+            return Optional.of(cachedUrl);
+        }
+
+        missCounter.increment();
+
+        final var url = delegate.getUrlByShortUrl(shortUrl);
+        url.ifPresent(this::cacheUrl);
+        return url;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Url>> getUrlByShortUrlAsync(final String shortUrl) {
+        final var executor = RequestIdContext.withCurrentRequestId(redisExecutor);
+
+        return CompletableFuture.supplyAsync(() -> getCachedUrl(shortUrl), executor).thenCompose(cachedUrl -> {
+            if (cachedUrl != null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Redis cache hit for {}", shortUrl);
+                }
+                hitCounter.increment();
+                return CompletableFuture.completedFuture(Optional.of(cachedUrl));
+            }
+
+            missCounter.increment();
+
+            return delegate.getUrlByShortUrlAsync(shortUrl).thenApplyAsync(url -> {
+                url.ifPresent(this::cacheUrl);
+                return url;
+            }, executor);
+        });
+    }
+
+    @Override
+    public Map<String, Url> getUrlsByShortUrls(final Collection<String> shortUrls) {
+        final var shortUrlList = List.copyOf(shortUrls);
+        final var urls = getCachedUrls(shortUrlList);
+        hitCounter.increment(urls.size());
+
+        if (urls.size() == shortUrlList.size()) {
+            return urls;
+        }
+
+        final var missingShortUrls = shortUrlList.stream().filter(shortUrl -> !urls.containsKey(shortUrl)).toList();
+        missCounter.increment(missingShortUrls.size());
+
+        final var loadedUrls = delegate.getUrlsByShortUrls(missingShortUrls);
+        cacheUrls(loadedUrls.values());
+        urls.putAll(loadedUrls);
+        return urls;
+    }
+
+    @Override
+    public void forEachShortUrl(final Consumer<String> consumer) {
+        delegate.forEachShortUrl(consumer);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private Url getCachedUrl(final String shortUrl) {
+        try {
+            return urlCacheCodec.decode(redisTemplate.opsForValue().get(createUrlKey(shortUrl)));
+        } catch (Exception e) {
+            log.error("Error retrieving url {} from redis", shortUrl, e);
+            errorCounter.increment();
+            return null;
+        }
+    }
+
+    // one MGET for all short urls, a failed read is treated as a miss for every short url
+    private Map<String, Url> getCachedUrls(final List<String> shortUrls) {
+        final var urls = new HashMap<String, Url>(shortUrls.size());
+
+        try {
+            final var values = redisTemplate.opsForValue().multiGet(shortUrls.stream().map(RedisCachingUrlDatabaseService::createUrlKey).toList());
+
+            if (values == null) {
+                return urls;
+            }
+
+            for (int i = 0; i < shortUrls.size(); i++) {
+                final var url = urlCacheCodec.decode(values.get(i));
+                if (url != null) {
+                    urls.put(shortUrls.get(i), url);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error retrieving {} urls from redis", shortUrls.size(), e);
+            errorCounter.increment();
+        }
+
+        return urls;
+    }
+
+    private void cacheUrl(final Url url) {
+        final var ttl = ttlMillis(url);
+
+        if (ttl <= 0) {
+            return;
+        }
+
+        try {
+            redisTemplate.opsForValue().set(
+                    createUrlKey(url.getShortUrl()),
+                    urlCacheCodec.encode(url),
+                    ttl,
+                    TimeUnit.MILLISECONDS
+            );
+        } catch (Exception e) {
+            log.error("Error adding url {} to redis", url.getShortUrl(), e);
+            errorCounter.increment();
+        }
+    }
+
+    // urls are written in one pipeline instead of a round trip per url
+    @SuppressWarnings("unchecked")
+    private void cacheUrls(final Collection<Url> urls) {
+        if (urls.isEmpty()) {
+            return;
+        }
+
+        final var keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (final var url : urls) {
+                    final var ttl = ttlMillis(url);
+
+                    if (ttl > 0) {
+                        connection.stringCommands().set(
+                                keySerializer.serialize(createUrlKey(url.getShortUrl())),
+                                urlCacheCodec.encode(url),
+                                Expiration.milliseconds(ttl),
+                                RedisStringCommands.SetOption.upsert()
+                        );
+                    }
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Error adding {} urls to redis", urls.size(), e);
+            errorCounter.increment();
+        }
+    }
+
+    private long ttlMillis(final Url url) {
+        if (url.getExpiresAt() == null) {
+            return maxTtlMillis;
+        }
+        return Math.min(maxTtlMillis, url.getExpiresAt() - System.currentTimeMillis());
+    }
+
+    private static String createUrlKey(final String shortUrl) {
+        return REDIS_URL_CACHE_PREFIX + shortUrl;
+    }
+
+    private static Counter redisCacheCounter(final MeterRegistry meterRegistry, final String result) {
+        return Counter.builder("url.cache.redis.gets")
+                .description("Url lookups served by the redis url cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+}
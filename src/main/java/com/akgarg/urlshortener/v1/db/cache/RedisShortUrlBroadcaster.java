@@ -0,0 +1,107 @@
+package com.akgarg.urlshortener.v1.db.cache;
+
+import com.akgarg.urlshortener.utils.RedisTopicSubscriber;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Slf4j
+@Component
+@Profile("prod")
+public class RedisShortUrlBroadcaster implements ShortUrlBroadcaster {
+
+    private static final ChannelTopic SHORT_URL_CREATED_TOPIC = new ChannelTopic("url:shortener:short-url:created");
+    // a JSON array of short urls, custom aliases may contain any separator
+    private static final ChannelTopic SHORT_URLS_CREATED_TOPIC = new ChannelTopic("url:shortener:short-urls:created");
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private final RedisTopicSubscriber topicSubscriber;
+
+    public RedisShortUrlBroadcaster(
+            final RedisTemplate<String, String> redisTemplate,
+            final RedisMessageListenerContainer redisMessageListenerContainer,
+            final ObjectMapper objectMapper
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.topicSubscriber = new RedisTopicSubscriber(
+                redisMessageListenerContainer,
+                (message, pattern) -> onMessage(message),
+                "url-broadcast-subscriber",
+                SHORT_URL_CREATED_TOPIC,
+                SHORT_URLS_CREATED_TOPIC
+        );
+    }
+
+    @Override
+    public void broadcast(final String shortUrl) {
+        try {
+            redisTemplate.convertAndSend(SHORT_URL_CREATED_TOPIC.getTopic(), shortUrl);
+        } catch (Exception e) {
+            log.error("Error broadcasting short url {}", shortUrl, e);
+        }
+    }
+
+    @Override
+    public void broadcast(final Collection<String> shortUrls) {
+        if (shortUrls.isEmpty()) {
+            return;
+        }
+
+        try {
+            redisTemplate.convertAndSend(SHORT_URLS_CREATED_TOPIC.getTopic(), objectMapper.writeValueAsString(shortUrls));
+        } catch (Exception e) {
+            log.error("Error broadcasting {} short urls", shortUrls.size(), e);
+        }
+    }
+
+    @Override
+    public void subscribe(final Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public boolean isSubscribed() {
+        return topicSubscriber.isSubscribed();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        topicSubscriber.subscribe();
+    }
+
+    private void onMessage(final Message message) {
+        try {
+            final var body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (body == null) {
+                return;
+            }
+
+            if (SHORT_URLS_CREATED_TOPIC.getTopic().equals(new String(message.getChannel(), StandardCharsets.UTF_8))) {
+                for (final var shortUrl : objectMapper.readValue(body.toString(), String[].class)) {
+                    listeners.forEach(listener -> listener.accept(shortUrl));
+                }
+            } else {
+                listeners.forEach(listener -> listener.accept(body.toString()));
+            }
+        } catch (Exception e) {
+            log.error("Error handling broadcast short url message", e);
+        }
+    }
+
+}
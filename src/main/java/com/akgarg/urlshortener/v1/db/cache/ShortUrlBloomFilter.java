@@ -0,0 +1,103 @@
+package com.akgarg.urlshortener.v1.db.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class ShortUrlBloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final LongAdder setBits = new LongAdder();
+
+    public ShortUrlBloomFilter(final long expectedInsertions, final double falsePositiveProbability) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("False positive probability must be in (0, 1): " + falsePositiveProbability);
+        }
+
+        final var optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        final var words = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) >>> 6);
+
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words << 6;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    public void put(final String shortUrl) {
+        final var hash1 = hash(shortUrl);
+        final var hash2 = Long.rotateLeft(hash1, 32) | 1;
+
+        for (int i = 1; i <= hashFunctions; i++) {
+            if (setBit(index(hash1, hash2, i))) {
+                setBits.increment();
+            }
+        }
+    }
+
+    public boolean mightContain(final String shortUrl) {
+        final var hash1 = hash(shortUrl);
+        final var hash2 = Long.rotateLeft(hash1, 32) | 1;
+
+        for (int i = 1; i <= hashFunctions; i++) {
+            final var index = index(hash1, hash2, i);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public double expectedFalsePositiveProbability() {
+        return Math.pow((double) setBits.sum() / bitSize, hashFunctions);
+    }
+
+    public long memoryBytes() {
+        return (long) bits.length() * Long.BYTES;
+    }
+
+    private long index(final long hash1, final long hash2, final int i) {
+        return ((hash1 + i * hash2) & Long.MAX_VALUE) % bitSize;
+    }
+
+    private boolean setBit(final long index) {
+        final var word = (int) (index >>> 6);
+        final var mask = 1L << index;
+
+        while (true) {
+            final var current = bits.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (bits.compareAndSet(word, current, current | mask)) {
+                return true;
+            }
+        }
+    }
+
+    // FNV-1a followed by the murmur3 finalizer to spread short, similar codes across the whole range
+    private static long hash(final String shortUrl) {
+        var hash = FNV_OFFSET_BASIS;
+
+        for (int i = 0; i < shortUrl.length(); i++) {
+            hash ^= shortUrl.charAt(i);
+            hash *= FNV_PRIME;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+
+}
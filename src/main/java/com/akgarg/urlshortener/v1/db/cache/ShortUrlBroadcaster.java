@@ -0,0 +1,20 @@
+package com.akgarg.urlshortener.v1.db.cache;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+public interface ShortUrlBroadcaster {
+
+    void broadcast(String shortUrl);
+
+    // short urls saved together, broadcasters that send messages send them as one
+    default void broadcast(final Collection<String> shortUrls) {
+        shortUrls.forEach(this::broadcast);
+    }
+
+    void subscribe(Consumer<String> listener);
+
+    // false while short urls created on other instances may not be delivered to the listeners
+    boolean isSubscribed();
+
+}
@@ -0,0 +1,66 @@
+package com.akgarg.urlshortener.v1.db.cache;
+
+import com.akgarg.urlshortener.codec.CacheCodec;
+import com.akgarg.urlshortener.v1.db.Url;
+
+import java.nio.ByteBuffer;
+
+import static com.akgarg.urlshortener.codec.BinaryCodecs.bytes;
+import static com.akgarg.urlshortener.codec.BinaryCodecs.getString;
+import static com.akgarg.urlshortener.codec.BinaryCodecs.put;
+import static com.akgarg.urlshortener.codec.BinaryCodecs.sizeOf;
+
+public final class UrlCacheCodec implements CacheCodec<Url> {
+
+    private static final byte VERSION = 2;
+    private static final byte CUSTOM_ALIAS_FLAG = 1;
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    @Override
+    public byte[] encode(final Url url) {
+        final var id = bytes(url.getId());
+        final var shortUrl = bytes(url.getShortUrl());
+        final var originalUrl = bytes(url.getOriginalUrl());
+        final var userId = bytes(url.getUserId());
+        final var redirectUrl = bytes(url.getRedirectUrl());
+
+        final var size = 2 + 2 * Long.BYTES + sizeOf(id) + sizeOf(shortUrl) + sizeOf(originalUrl) + sizeOf(userId) + sizeOf(redirectUrl);
+        final var buffer = ByteBuffer.allocate(size);
+
+        buffer.put(VERSION);
+        buffer.put(url.isCustomAlias() ? CUSTOM_ALIAS_FLAG : 0);
+        buffer.putLong(url.getCreatedAt() != null ? url.getCreatedAt() : NULL_TIMESTAMP);
+        buffer.putLong(url.getExpiresAt() != null ? url.getExpiresAt() : NULL_TIMESTAMP);
+        put(buffer, id);
+        put(buffer, shortUrl);
+        put(buffer, originalUrl);
+        put(buffer, userId);
+        put(buffer, redirectUrl);
+
+        return buffer.array();
+    }
+
+    @Override
+    public Url decode(final byte[] value) {
+        if (value == null || value.length == 0 || value[0] != VERSION) {
+            return null;
+        }
+
+        final var buffer = ByteBuffer.wrap(value, 1, value.length - 1);
+        final var flags = buffer.get();
+        final var createdAt = buffer.getLong();
+        final var expiresAt = buffer.getLong();
+
+        final var url = new Url();
+        url.setCustomAlias((flags & CUSTOM_ALIAS_FLAG) != 0);
+        url.setCreatedAt(createdAt != NULL_TIMESTAMP ? createdAt : null);
+        url.setExpiresAt(expiresAt != NULL_TIMESTAMP ? expiresAt : null);
+        url.setId(getString(buffer));
+        url.setShortUrl(getString(buffer));
+        url.setOriginalUrl(getString(buffer));
+        url.setUserId(getString(buffer));
+        url.setRedirectUrl(getString(buffer));
+        return url;
+    }
+
+}
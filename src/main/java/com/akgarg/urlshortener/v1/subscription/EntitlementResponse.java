@@ -0,0 +1,25 @@
+package com.akgarg.urlshortener.v1.subscription;
+
+import com.akgarg.urlshortener.v1.subscription.quota.QuotaReservation;
+
+// reservation is set when the quota is accounted locally and the request was allowed, it has to be committed or released
+public record EntitlementResponse(
+        boolean subscriptionFound,
+        boolean shortUrlsAllowed,
+        boolean customAliasesAllowed,
+        QuotaReservation reservation
+) {
+
+    public EntitlementResponse(final boolean subscriptionFound, final boolean shortUrlsAllowed, final boolean customAliasesAllowed) {
+        this(subscriptionFound, shortUrlsAllowed, customAliasesAllowed, null);
+    }
+
+    public SubscriptionResponse shortUrlResponse() {
+        return new SubscriptionResponse(subscriptionFound, shortUrlsAllowed);
+    }
+
+    public SubscriptionResponse customAliasResponse() {
+        return new SubscriptionResponse(subscriptionFound, customAliasesAllowed);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.akgarg.urlshortener.v1.subscription;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+// the limits of a subscription pack parsed from its privileges once, when the subscription is fetched, so that the
+// checks of a create request only read fields. A privilege missing or failing to parse allows nothing
+@Slf4j
+public record SubscriptionEntitlements(@JsonProperty("short_urls") int shortUrls,
+                                       @JsonProperty("custom_aliases") int customAliases,
+                                       @JsonProperty("flags") int flags) {
+
+    public static final SubscriptionEntitlements NONE = new SubscriptionEntitlements(0, 0, 0);
+
+    private static final String SHORT_URL_PRIVILEGE = "short_url:";
+    private static final String CUSTOM_ALIAS_PRIVILEGE = "custom_alias:";
+    private static final String UNLIMITED = "unlimited";
+    private static final int UNLIMITED_SHORT_URLS = 1;
+    private static final int UNLIMITED_CUSTOM_ALIASES = 1 << 1;
+
+    public static SubscriptionEntitlements fromPrivileges(final List<String> privileges) {
+        if (privileges == null) {
+            return NONE;
+        }
+
+        var shortUrls = -1;
+        var customAliases = -1;
+        var flags = 0;
+
+        // the first privilege of each kind wins
+        for (final var privilege : privileges) {
+            if (shortUrls == -1 && privilege.startsWith(SHORT_URL_PRIVILEGE)) {
+                if (privilege.contains(UNLIMITED)) {
+                    flags |= UNLIMITED_SHORT_URLS;
+                    shortUrls = 0;
+                } else {
+                    shortUrls = parseLimit(privilege, SHORT_URL_PRIVILEGE);
+                }
+            } else if (customAliases == -1 && privilege.startsWith(CUSTOM_ALIAS_PRIVILEGE)) {
+                if (privilege.contains(UNLIMITED)) {
+                    flags |= UNLIMITED_CUSTOM_ALIASES;
+                    customAliases = 0;
+                } else {
+                    customAliases = parseLimit(privilege, CUSTOM_ALIAS_PRIVILEGE);
+                }
+            }
+        }
+
+        return new SubscriptionEntitlements(Math.max(shortUrls, 0), Math.max(customAliases, 0), flags);
+    }
+
+    public boolean hasUnlimitedShortUrls() {
+        return (flags & UNLIMITED_SHORT_URLS) != 0;
+    }
+
+    public boolean hasUnlimitedCustomAliases() {
+        return (flags & UNLIMITED_CUSTOM_ALIASES) != 0;
+    }
+
+    public int allowedShortUrls() {
+        return hasUnlimitedShortUrls() ? Integer.MAX_VALUE : shortUrls;
+    }
+
+    public int allowedCustomAliases() {
+        return hasUnlimitedCustomAliases() ? Integer.MAX_VALUE : customAliases;
+    }
+
+    private static int parseLimit(final String privilege, final String prefix) {
+        try {
+            return Math.max(Integer.parseInt(privilege.substring(prefix.length()).trim()), 0);
+        } catch (Exception e) {
+            log.error("Error parsing subscription privilege '{}'", privilege, e);
+            return 0;
+        }
+    }
+
+}
@@ -27,4 +27,15 @@ public class SubscriptionPack {
     @JsonProperty("default_pack")
     private boolean defaultPack;
 
+    @JsonProperty("entitlements")
+    private SubscriptionEntitlements entitlements;
+
+    // packs cached before entitlements were stored are parsed on first use
+    public SubscriptionEntitlements getEntitlements() {
+        if (entitlements == null) {
+            entitlements = SubscriptionEntitlements.fromPrivileges(privileges);
+        }
+        return entitlements;
+    }
+
 }
@@ -1,17 +1,32 @@
 package com.akgarg.urlshortener.v1.subscription;
 
 import com.akgarg.urlshortener.exception.SubscriptionException;
+import com.akgarg.urlshortener.utils.RequestIdContext;
 import com.akgarg.urlshortener.v1.statistics.StatisticsService;
+import com.akgarg.urlshortener.v1.subscription.cache.CachedSubscription;
 import com.akgarg.urlshortener.v1.subscription.cache.SubscriptionCache;
-import lombok.RequiredArgsConstructor;
+import com.akgarg.urlshortener.v1.subscription.quota.QuotaAccountingService;
+import com.akgarg.urlshortener.v1.subscription.quota.QuotaReservation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static com.akgarg.urlshortener.utils.UrlShortenerUtil.REQUEST_ID_HEADER;
 import static com.akgarg.urlshortener.utils.UrlShortenerUtil.USER_ID_HEADER_NAME;
@@ -19,16 +34,79 @@ import static com.akgarg.urlshortener.utils.UrlShortenerUtil.USER_ID_HEADER_NAME
 @SuppressWarnings("LoggingSimilarMessage")
 @Slf4j
 @Service
-@RequiredArgsConstructor
-public class SubscriptionService {
+public class SubscriptionService implements AutoCloseable {
+
+    private static final int CHECK_MAX_THREADS = 200;
 
     private final RestClient.Builder subscriptionServiceRestClientBuilder;
     private final StatisticsService statisticsService;
     private final SubscriptionCache subscriptionCache;
+    private final QuotaAccountingService quotaAccountingService;
     private final Environment environment;
+    private final ExecutorService checkExecutor;
+    private final long refreshAheadMillis;
+    private final long staleAfterMillis;
+    private final long maxStaleMillis;
+    private final Set<String> refreshingUserIds = ConcurrentHashMap.newKeySet();
+    private final Counter staleHitCounter;
+    private final Counter refreshedCounter;
+    private final Counter refreshFailedCounter;
+    private final Counter refreshRemovedCounter;
+
+    public SubscriptionService(
+            final RestClient.Builder subscriptionServiceRestClientBuilder,
+            final StatisticsService statisticsService,
+            final SubscriptionCache subscriptionCache,
+            @Nullable final QuotaAccountingService quotaAccountingService,
+            final MeterRegistry meterRegistry,
+            final Environment environment
+    ) {
+        this.subscriptionServiceRestClientBuilder = subscriptionServiceRestClientBuilder;
+        this.statisticsService = statisticsService;
+        this.subscriptionCache = subscriptionCache;
+        this.quotaAccountingService = quotaAccountingService;
+        this.environment = environment;
+
+        // a cached subscription is refreshed in the background once it is older than refresh-ahead times the ttl, and
+        // still served while it is refreshed for up to stale-grace past the ttl
+        final var ttl = environment.getProperty("subscription.cache.ttl", Long.class, 60000L);
+        this.refreshAheadMillis = (long) (ttl * environment.getProperty("subscription.cache.refresh-ahead", Double.class, 0.8));
+        this.staleAfterMillis = ttl;
+        this.maxStaleMillis = ttl + environment.getProperty("subscription.cache.stale-grace", Long.class, 30000L);
+        this.staleHitCounter = Counter.builder("subscription.cache.stale.hits")
+                .description("Subscriptions served past their ttl while they were refreshed")
+                .register(meterRegistry);
+        this.refreshedCounter = refreshCounter(meterRegistry, "refreshed");
+        this.refreshFailedCounter = refreshCounter(meterRegistry, "failed");
+        this.refreshRemovedCounter = refreshCounter(meterRegistry, "removed");
+
+        // the checks block on the subscription and statistics services: a virtual thread per check, or a bounded pool
+        // that runs a check on its caller once every thread is busy
+        if (Threading.VIRTUAL.isActive(environment)) {
+            this.checkExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("subscription-check-", 0).factory());
+        } else {
+            this.checkExecutor = new ThreadPoolExecutor(
+                    0,
+                    CHECK_MAX_THREADS,
+                    60,
+                    TimeUnit.SECONDS,
+                    new SynchronousQueue<>(),
+                    Thread.ofPlatform().name("subscription-check-", 0).daemon(true).factory(),
+                    new ThreadPoolExecutor.CallerRunsPolicy()
+            );
+        }
+    }
 
-    public SubscriptionResponse isUserAllowedToCreateShortUrl(final String requestId, final String userId) {
-        log.info("Checking if userId {} is allowed to create short url", userId);
+    // loads the subscription once and reserves both counts with the quota accounting, or without it runs the short url
+    // and custom alias usage queries concurrently, the custom alias query on a check thread and the short url query on
+    // the calling thread; a count of 0 skips its query. A reservation in the response has to be committed or released
+    public EntitlementResponse evaluateEntitlements(
+            final String requestId,
+            final String userId,
+            final int shortUrlCount,
+            final int customAliasCount
+    ) {
+        log.info("Checking if userId {} is allowed to create {} short url(s) and {} custom alias(es)", userId, shortUrlCount, customAliasCount);
 
         try {
             final var subscription = getUserActiveSubscription(requestId, userId);
@@ -38,158 +116,242 @@ public class SubscriptionService {
             }
 
             if (subscription.isEmpty()) {
-                log.info("No subscription details found for userId {}", userId);
-                return new SubscriptionResponse(false, false);
+                log.info("No subscription found for userId {}", userId);
+                return new EntitlementResponse(false, false, false);
             }
 
-            final var allowedShortUrls = extractAllowedShortUrlsFromSubscriptionPack(subscription.get().getPack());
-            final var currentShortUrlUsageForUser = statisticsService.getCurrentShortUrlUsageForUser(
-                    requestId,
-                    userId,
-                    subscription.get().getActivatedAt(),
-                    subscription.get().getExpiresAt()
-            );
-
-            if (currentShortUrlUsageForUser >= allowedShortUrls) {
-                log.info("Short URLs threshold crossed for user. Allowed: {}, consumed: {}", allowedShortUrls, currentShortUrlUsageForUser);
-                return new SubscriptionResponse(true, false);
+            if (quotaAccountingService != null) {
+                return quotaAccountingService.reserve(
+                        requestId,
+                        subscription.get(),
+                        shortUrlCount,
+                        entitlementsOf(subscription.get()).allowedShortUrls(),
+                        customAliasCount,
+                        entitlementsOf(subscription.get()).allowedCustomAliases()
+                );
             }
 
-            return new SubscriptionResponse(true, true);
+            final var customAliasesAllowed = customAliasCount > 0 ?
+                    CompletableFuture.supplyAsync(() -> isWithinCustomAliasLimit(requestId, userId, subscription.get(), customAliasCount), RequestIdContext.withCurrentRequestId(checkExecutor)) :
+                    CompletableFuture.completedFuture(true);
+            final var shortUrlsAllowed = shortUrlCount <= 0 || isWithinShortUrlLimit(requestId, userId, subscription.get(), shortUrlCount);
+
+            return new EntitlementResponse(true, shortUrlsAllowed, customAliasesAllowed.join());
         } catch (Exception e) {
-            log.error("Error checking if user {} is allowed to create short url", userId);
+            log.error("Error checking if user {} is allowed to create short urls or custom aliases", userId);
             throw new SubscriptionException(HttpStatusCode.valueOf(HttpStatus.INTERNAL_SERVER_ERROR.value()),
                     "Failed to process request. Please try again later.");
         }
     }
 
-    public SubscriptionResponse isUserAllowedToCreateCustomAlias(final String requestId, final String userId) {
-        log.info("Checking if userId {} is allowed to create custom alias", userId);
+    public CompletableFuture<EntitlementResponse> evaluateEntitlementsAsync(
+            final String requestId,
+            final String userId,
+            final int shortUrlCount,
+            final int customAliasCount
+    ) {
+        return CompletableFuture.supplyAsync(() -> evaluateEntitlements(requestId, userId, shortUrlCount, customAliasCount), RequestIdContext.withCurrentRequestId(checkExecutor));
+    }
+
+    // without quota accounting the limits are checked against usage reported by the statistics service, which lags behind
+    // creates that were just made
+    public boolean isQuotaAccountingEnabled() {
+        return quotaAccountingService != null;
+    }
+
+    public void commitQuota(final QuotaReservation reservation) {
+        if (reservation != null && quotaAccountingService != null) {
+            quotaAccountingService.commit(reservation);
+        }
+    }
+
+    // a failed release leaves the quota counted until the subscription period ends, it never fails the request
+    public void releaseQuota(final QuotaReservation reservation) {
+        if (reservation == null || quotaAccountingService == null) {
+            return;
+        }
 
         try {
-            final var subscription = getUserActiveSubscription(requestId, userId);
+            quotaAccountingService.release(reservation);
+        } catch (Exception e) {
+            log.error("Error releasing quota reservation {}", reservation, e);
+        }
+    }
 
-            if (log.isDebugEnabled()) {
-                log.debug("Active subscription: {}", subscription.orElse(null));
-            }
+    @Override
+    public void close() {
+        checkExecutor.shutdownNow();
+    }
 
-            if (subscription.isEmpty()) {
-                log.info("No subscription found for userId {}", userId);
-                return new SubscriptionResponse(false, false);
-            }
+    private boolean isWithinShortUrlLimit(final String requestId, final String userId, final Subscription subscription, final int count) {
+        final var allowedShortUrls = entitlementsOf(subscription).allowedShortUrls();
+        final var currentShortUrlUsageForUser = statisticsService.getCurrentShortUrlUsageForUser(
+                requestId,
+                userId,
+                subscription.getActivatedAt(),
+                subscription.getExpiresAt()
+        );
+
+        if ((long) currentShortUrlUsageForUser + count > allowedShortUrls) {
+            log.info("Short URLs threshold crossed for user. Allowed: {}, consumed: {}", allowedShortUrls, currentShortUrlUsageForUser);
+            return false;
+        }
 
-            final var allowedCustomAlias = extractAllowedCustomAliasesFromSubscriptionPack(subscription.get().getPack());
+        return true;
+    }
 
-            if (log.isDebugEnabled()) {
-                log.debug("Allowed custom aliases: {}", allowedCustomAlias);
-            }
+    private boolean isWithinCustomAliasLimit(final String requestId, final String userId, final Subscription subscription, final int count) {
+        final var allowedCustomAlias = entitlementsOf(subscription).allowedCustomAliases();
 
-            final var currentCustomAliasUsageForUser = statisticsService.getCurrentCustomAliasUsageForUser(
-                    requestId,
-                    userId,
-                    subscription.get().getActivatedAt(),
-                    subscription.get().getExpiresAt()
-            );
+        if (log.isDebugEnabled()) {
+            log.debug("Allowed custom aliases: {}", allowedCustomAlias);
+        }
 
-            if (currentCustomAliasUsageForUser >= allowedCustomAlias) {
-                log.warn("Custom aliases are not allowed for userId {}", userId);
-                return new SubscriptionResponse(true, false);
-            }
+        final var currentCustomAliasUsageForUser = statisticsService.getCurrentCustomAliasUsageForUser(
+                requestId,
+                userId,
+                subscription.getActivatedAt(),
+                subscription.getExpiresAt()
+        );
 
-            return new SubscriptionResponse(true, true);
-        } catch (Exception e) {
-            log.error("Error checking if custom aliases are allowed {}", userId);
-            throw new SubscriptionException(HttpStatusCode.valueOf(HttpStatus.INTERNAL_SERVER_ERROR.value()),
-                    "Failed to process request. Please try again later.");
+        if ((long) currentCustomAliasUsageForUser + count > allowedCustomAlias) {
+            log.warn("Custom aliases are not allowed for userId {}", userId);
+            return false;
         }
+
+        return true;
     }
 
     private Optional<Subscription> getUserActiveSubscription(final String requestId, final String userId) {
         try {
-            return subscriptionCache.getSubscription(userId)
-                    .or(() -> {
-                        final var subscription = fetchActiveSubscriptionFromSubsService(requestId, userId);
-                        subscription.ifPresent(subscriptionCache::addSubscription);
-                        return subscription;
-                    });
+            final var now = System.currentTimeMillis();
+            final var cachedSubscription = subscriptionCache.getSubscription(userId);
+
+            // a cached subscription is never served past its own expiry, however recently it was fetched
+            if (cachedSubscription.isPresent() && now < cachedSubscription.get().subscription().getExpiresAt()) {
+                final var age = cachedSubscription.get().ageMillis(now);
+                if (age < maxStaleMillis) {
+                    if (age >= staleAfterMillis) {
+                        staleHitCounter.increment();
+                    }
+                    if (age >= refreshAheadMillis) {
+                        refreshSubscriptionAsync(requestId, userId);
+                    }
+                    return Optional.of(cachedSubscription.get().subscription());
+                }
+            }
+
+            return fetchAndCacheSubscription(requestId, userId);
         } catch (Exception e) {
             return Optional.empty();
         }
     }
 
-    private Optional<Subscription> fetchActiveSubscriptionFromSubsService(final String requestId, final String userId) {
-        log.info("Fetching subscription from subscription service for userId {}", userId);
+    // at most one refresh per user at a time; a failed refresh keeps the cached subscription until the grace window ends,
+    // a subscription service answering that the user has no active subscription removes it
+    private void refreshSubscriptionAsync(final String requestId, final String userId) {
+        if (!refreshingUserIds.add(userId)) {
+            return;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Refreshing cached subscription of userId {}", userId);
+        }
 
         try {
-            final var path = environment.getProperty("subscription.service.active.base-path", "/api/v1/subscriptions/active");
-            final var subscriptionResponse = subscriptionServiceRestClientBuilder.build()
-                    .get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path(path)
-                            .queryParam("userId", userId)
-                            .build()
-                    )
-                    .header(REQUEST_ID_HEADER, requestId)
-                    .header(USER_ID_HEADER_NAME, userId)
-                    .retrieve()
-                    .toEntity(SubscriptionApiResponse.class)
-                    .getBody();
-
-            if (log.isInfoEnabled()) {
-                log.info("Subscription API response: {}", subscriptionResponse);
-            }
+            RequestIdContext.withCurrentRequestId(checkExecutor).execute(() -> {
+                try {
+                    final var subscription = requestActiveSubscription(requestId, userId);
+                    if (subscription.isPresent()) {
+                        cacheSubscription(subscription.get());
+                        refreshedCounter.increment();
+                    } else {
+                        subscriptionCache.removeSubscription(userId);
+                        refreshRemovedCounter.increment();
+                    }
+                } catch (Exception e) {
+                    refreshFailedCounter.increment();
+                    log.error("Error refreshing subscription of userId {}", userId, e);
+                } finally {
+                    refreshingUserIds.remove(userId);
+                }
+            });
+        } catch (Exception e) {
+            refreshingUserIds.remove(userId);
+            log.error("Error scheduling subscription refresh of userId {}", userId, e);
+        }
+    }
 
-            if (subscriptionResponse == null || subscriptionResponse.statusCode() != 200) {
-                log.warn("Subscription API query failed with response code {}",
-                        subscriptionResponse != null ? subscriptionResponse.statusCode() : null
-                );
-                return Optional.empty();
-            }
+    private Optional<Subscription> fetchAndCacheSubscription(final String requestId, final String userId) {
+        final var subscription = fetchActiveSubscriptionFromSubsService(requestId, userId);
+        subscription.ifPresent(this::cacheSubscription);
+        return subscription;
+    }
 
-            if (subscriptionResponse.subscriptionDto() == null || subscriptionResponse.subscriptionPackDto() == null) {
-                if (log.isDebugEnabled()) {
-                    log.debug("No subscription received from subscription service for userId {}", userId);
-                }
-                return Optional.empty();
-            }
+    private void cacheSubscription(final Subscription subscription) {
+        subscriptionCache.addSubscription(new CachedSubscription(subscription, System.currentTimeMillis()));
+    }
 
-            return Optional.of(extractSubscription(subscriptionResponse));
+    private Optional<Subscription> fetchActiveSubscriptionFromSubsService(final String requestId, final String userId) {
+        try {
+            return requestActiveSubscription(requestId, userId);
+        } catch (SubscriptionException e) {
+            log.warn(e.getResponseMessage());
+            return Optional.empty();
         } catch (Exception e) {
             log.error("Error fetching subscription from subscription service", e);
             return Optional.empty();
         }
     }
 
-    private int extractAllowedCustomAliasesFromSubscriptionPack(final SubscriptionPack subscriptionPack) {
-        try {
-            final var customAlias = subscriptionPack.getPrivileges()
-                    .stream()
-                    .filter(privilege -> privilege.startsWith("custom_alias:"))
-                    .findFirst();
-            if (customAlias.isPresent() && customAlias.get().contains("unlimited")) {
-                return Integer.MAX_VALUE;
-            }
-            return customAlias.map(ca -> Integer.parseInt(ca.substring("custom_alias:".length()).trim())).orElse(0);
-        } catch (Exception e) {
-            log.error("Error extracting allowed custom aliases from subscription pack", e);
-            return 0;
+    // empty when the subscription service answers that the user has no active subscription, throws when it fails
+    private Optional<Subscription> requestActiveSubscription(final String requestId, final String userId) {
+        log.info("Fetching subscription from subscription service for userId {}", userId);
+
+        final var path = environment.getProperty("subscription.service.active.base-path", "/api/v1/subscriptions/active");
+        final var subscriptionResponse = subscriptionServiceRestClientBuilder.build()
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path(path)
+                        .queryParam("userId", userId)
+                        .build()
+                )
+                .header(REQUEST_ID_HEADER, requestId)
+                .header(USER_ID_HEADER_NAME, userId)
+                .retrieve()
+                .toEntity(SubscriptionApiResponse.class)
+                .getBody();
+
+        if (log.isInfoEnabled()) {
+            log.info("Subscription API response: {}", subscriptionResponse);
         }
-    }
 
-    private int extractAllowedShortUrlsFromSubscriptionPack(final SubscriptionPack subscriptionPack) {
-        try {
-            final var shortUrls = subscriptionPack.getPrivileges()
-                    .stream()
-                    .filter(privilege -> privilege.startsWith("short_url:"))
-                    .findFirst();
-            if (shortUrls.isPresent() && shortUrls.get().contains("unlimited")) {
-                return Integer.MAX_VALUE;
+        if (subscriptionResponse == null || subscriptionResponse.statusCode() != 200) {
+            throw new SubscriptionException(
+                    HttpStatus.BAD_GATEWAY,
+                    "Subscription API query failed with response code " + (subscriptionResponse != null ? subscriptionResponse.statusCode() : null)
+            );
+        }
+
+        if (subscriptionResponse.subscriptionDto() == null || subscriptionResponse.subscriptionPackDto() == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("No subscription received from subscription service for userId {}", userId);
             }
-            return shortUrls.map(shortUrl -> Integer.parseInt(shortUrl.substring("short_url:".length()).trim())).orElse(0);
-        } catch (Exception e) {
-            log.error("Error extracting allowed short urls from subscription pack", e);
-            return 0;
+            return Optional.empty();
         }
+
+        return Optional.of(extractSubscription(subscriptionResponse));
+    }
+
+    private static SubscriptionEntitlements entitlementsOf(final Subscription subscription) {
+        return subscription.getPack() != null ? subscription.getPack().getEntitlements() : SubscriptionEntitlements.NONE;
+    }
+
+    private static Counter refreshCounter(final MeterRegistry meterRegistry, final String result) {
+        return Counter.builder("subscription.cache.refreshes")
+                .description("Background refreshes of cached subscriptions by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
     }
 
     private Subscription extractSubscription(final SubscriptionApiResponse subscriptionResponse) {
@@ -209,6 +371,7 @@ public class SubscriptionService {
         pack.setPrivileges(subscriptionPackDto.getPrivileges());
         pack.setFeatures(subscriptionPackDto.getFeatures());
         pack.setDefaultPack(subscriptionPackDto.isDefaultPack());
+        pack.setEntitlements(SubscriptionEntitlements.fromPrivileges(subscriptionPackDto.getPrivileges()));
         return pack;
     }
 
@@ -0,0 +1,14 @@
+package com.akgarg.urlshortener.v1.subscription.cache;
+
+import com.akgarg.urlshortener.v1.subscription.Subscription;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// a subscription with the time it was fetched from the subscription service, which decides when it is refreshed
+public record CachedSubscription(@JsonProperty("subscription") Subscription subscription,
+                                 @JsonProperty("cached_at") long cachedAt) {
+
+    public long ageMillis(final long now) {
+        return now - cachedAt;
+    }
+
+}
@@ -1,33 +1,65 @@
 package com.akgarg.urlshortener.v1.subscription.cache;
 
-import com.akgarg.urlshortener.v1.subscription.Subscription;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
 import java.util.Optional;
 
+// stands in for the redis subscription cache: entries are evicted once they are ttl plus stale grace old, as redis does,
+// or when the subscription expires, and the cache is bounded like the local subscription cache in prod
 @Slf4j
 @Component
 @Profile("dev")
 public class InMemorySubscriptionCache implements SubscriptionCache {
 
-    private final Map<String, Subscription> subscriptions = new HashMap<>();
+    private static final String CACHE_NAME = "subscriptions";
+
+    private final Cache<String, CachedSubscription> subscriptions;
+
+    public InMemorySubscriptionCache(final Environment environment, final MeterRegistry meterRegistry) {
+        final var maximumSize = environment.getProperty("subscription.cache.local.max-size", Long.class, 100_000L);
+        final var ttl = Duration.ofMillis(
+                environment.getProperty("subscription.cache.ttl", Long.class, 60000L) +
+                        environment.getProperty("subscription.cache.stale-grace", Long.class, 30000L)
+        );
+        log.info("Initializing in-memory subscription cache with maximum size {} and ttl {}", maximumSize, ttl);
+        this.subscriptions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new SubscriptionExpiry(ttl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, subscriptions, CACHE_NAME);
+    }
 
     @Override
-    public void addSubscription(final Subscription subscription) {
+    public void addSubscription(final CachedSubscription subscription) {
         if (log.isDebugEnabled()) {
             log.debug("Adding subscription to cache: {}", subscription);
         }
-        subscriptions.put(subscription.getUserId(), subscription);
+        subscriptions.put(subscription.subscription().getUserId(), subscription);
+    }
+
+    @Override
+    public Optional<CachedSubscription> getSubscription(final String userId) {
+        if (log.isDebugEnabled()) {
+            log.debug("Getting subscription for userId {}", userId);
+        }
+        return Optional.ofNullable(subscriptions.getIfPresent(userId));
     }
 
     @Override
-    public Optional<Subscription> getSubscription(final String userId) {
-        log.info("Getting subscription for userId {}", userId);
-        return Optional.ofNullable(subscriptions.get(userId));
+    public void removeSubscription(final String userId) {
+        if (log.isDebugEnabled()) {
+            log.debug("Removing subscription of userId {} from cache", userId);
+        }
+        subscriptions.invalidate(userId);
     }
 
 }
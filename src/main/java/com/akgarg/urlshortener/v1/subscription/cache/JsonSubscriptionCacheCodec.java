@@ -0,0 +1,45 @@
+package com.akgarg.urlshortener.v1.subscription.cache;
+
+import com.akgarg.urlshortener.codec.CacheCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// plain json, readable with redis-cli at the cost of larger values and slower reads than the binary codec
+@Slf4j
+public final class JsonSubscriptionCacheCodec implements CacheCodec<CachedSubscription> {
+
+    private final ObjectMapper objectMapper;
+
+    public JsonSubscriptionCacheCodec(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public byte[] encode(final CachedSubscription subscription) {
+        try {
+            return objectMapper.writeValueAsBytes(subscription);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public CachedSubscription decode(final byte[] value) {
+        if (value == null || value.length == 0 || value[0] != '{') {
+            return null;
+        }
+
+        // unreadable json, e.g. written by an incompatible version of the subscription classes, is a cache miss
+        try {
+            final var subscription = objectMapper.readValue(value, CachedSubscription.class);
+            return subscription.subscription() != null ? subscription : null;
+        } catch (IOException e) {
+            log.warn("Error decoding cached subscription, treating it as a cache miss: {}", e.getMessage());
+            return null;
+        }
+    }
+
+}
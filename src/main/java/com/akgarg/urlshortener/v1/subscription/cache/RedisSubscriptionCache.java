@@ -1,7 +1,6 @@
 package com.akgarg.urlshortener.v1.subscription.cache;
 
-import com.akgarg.urlshortener.v1.subscription.Subscription;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.akgarg.urlshortener.codec.CacheCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
@@ -20,50 +19,72 @@ public class RedisSubscriptionCache implements SubscriptionCache {
 
     private static final String REDIS_SUBSCRIPTION_CACHE_PREFIX = "url:shortener:subscription:";
 
-    private final RedisTemplate<String, String> redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private final CacheCodec<CachedSubscription> subscriptionCacheCodec;
     private final Environment environment;
 
     @Override
-    public void addSubscription(final Subscription subscription) {
+    public void addSubscription(final CachedSubscription subscription) {
         if (log.isDebugEnabled()) {
             log.debug("Adding subscription to cache: {}", subscription);
         }
 
+        // kept for the ttl and stale grace, but never past the subscription's own expiry
+        final var ttl = Math.min(getTTL() + getStaleGrace(), subscription.subscription().getExpiresAt() - System.currentTimeMillis());
+
         try {
-            redisTemplate.opsForValue().set(
-                    createSubscriptionKey(subscription.getUserId()),
-                    objectMapper.writeValueAsString(subscription),
-                    getTTL(),
-                    TimeUnit.MILLISECONDS
-            );
+            if (ttl > 0) {
+                binaryRedisTemplate.opsForValue().set(
+                        createSubscriptionKey(subscription.subscription().getUserId()),
+                        subscriptionCacheCodec.encode(subscription),
+                        ttl,
+                        TimeUnit.MILLISECONDS
+                );
+            } else {
+                binaryRedisTemplate.delete(createSubscriptionKey(subscription.subscription().getUserId()));
+            }
         } catch (Exception e) {
             log.error("Error adding subscription to cache", e);
         }
     }
 
     @Override
-    public Optional<Subscription> getSubscription(final String userId) {
+    public Optional<CachedSubscription> getSubscription(final String userId) {
         if (log.isDebugEnabled()) {
             log.debug("Getting subscription for userId {}", userId);
         }
 
         try {
-            final var object = redisTemplate.opsForValue().get(createSubscriptionKey(userId));
-            if (object == null) {
-                return Optional.empty();
-            }
-            return Optional.ofNullable(objectMapper.readValue(object, Subscription.class));
+            final var value = binaryRedisTemplate.opsForValue().get(createSubscriptionKey(userId));
+            return Optional.ofNullable(subscriptionCacheCodec.decode(value));
         } catch (Exception e) {
             log.error("Error retrieving user subscription", e);
             return Optional.empty();
         }
     }
 
+    @Override
+    public void removeSubscription(final String userId) {
+        if (log.isDebugEnabled()) {
+            log.debug("Removing subscription of userId {} from cache", userId);
+        }
+
+        try {
+            binaryRedisTemplate.delete(createSubscriptionKey(userId));
+        } catch (Exception e) {
+            log.error("Error removing subscription from cache", e);
+        }
+    }
+
     private String createSubscriptionKey(final String userId) {
         return REDIS_SUBSCRIPTION_CACHE_PREFIX + userId;
     }
 
+    // stale entries stay readable for the grace window so that they can be served while they are refreshed
+    private long getStaleGrace() {
+        return environment.getProperty("subscription.cache.stale-grace", Long.class, 30000L);
+    }
+
     private long getTTL() {
         try {
             return Long.parseLong(environment.getProperty("subscription.cache.ttl", "60000"));
@@ -1,13 +1,13 @@
 package com.akgarg.urlshortener.v1.subscription.cache;
 
-import com.akgarg.urlshortener.v1.subscription.Subscription;
-
 import java.util.Optional;
 
 public interface SubscriptionCache {
 
-    void addSubscription(Subscription subscription);
+    void addSubscription(CachedSubscription subscription);
+
+    Optional<CachedSubscription> getSubscription(String userId);
 
-    Optional<Subscription> getSubscription(String userId);
+    void removeSubscription(String userId);
 
 }
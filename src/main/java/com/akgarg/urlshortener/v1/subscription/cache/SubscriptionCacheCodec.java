@@ -0,0 +1,152 @@
+package com.akgarg.urlshortener.v1.subscription.cache;
+
+import com.akgarg.urlshortener.codec.CacheCodec;
+import com.akgarg.urlshortener.v1.subscription.Subscription;
+import com.akgarg.urlshortener.v1.subscription.SubscriptionEntitlements;
+import com.akgarg.urlshortener.v1.subscription.SubscriptionPack;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.akgarg.urlshortener.codec.BinaryCodecs.bytes;
+import static com.akgarg.urlshortener.codec.BinaryCodecs.getString;
+import static com.akgarg.urlshortener.codec.BinaryCodecs.getVarInt;
+import static com.akgarg.urlshortener.codec.BinaryCodecs.put;
+import static com.akgarg.urlshortener.codec.BinaryCodecs.putVarInt;
+import static com.akgarg.urlshortener.codec.BinaryCodecs.sizeOf;
+import static com.akgarg.urlshortener.codec.BinaryCodecs.varIntSize;
+
+// version, flags, cached at, activated at, expires at, subscription id, user id, then when the pack flag is set the pack
+// id, name, privileges, features and entitlements. A new layout gets a new version, values of other versions are misses
+public final class SubscriptionCacheCodec implements CacheCodec<CachedSubscription> {
+
+    private static final byte VERSION = 1;
+    private static final byte PACK_FLAG = 1;
+    private static final byte DEFAULT_PACK_FLAG = 1 << 1;
+
+    @Override
+    public byte[] encode(final CachedSubscription cachedSubscription) {
+        final var subscription = cachedSubscription.subscription();
+        final var pack = subscription.getPack();
+        final var subscriptionId = bytes(subscription.getSubscriptionId());
+        final var userId = bytes(subscription.getUserId());
+
+        var size = 2 + 3 * Long.BYTES + sizeOf(subscriptionId) + sizeOf(userId);
+        byte flags = 0;
+        byte[] packId = null;
+        byte[] packName = null;
+        List<byte[]> privileges = null;
+        List<byte[]> features = null;
+        SubscriptionEntitlements entitlements = null;
+
+        if (pack != null) {
+            flags |= PACK_FLAG;
+            if (pack.isDefaultPack()) {
+                flags |= DEFAULT_PACK_FLAG;
+            }
+            packId = bytes(pack.getId());
+            packName = bytes(pack.getName());
+            privileges = listBytes(pack.getPrivileges());
+            features = listBytes(pack.getFeatures());
+            entitlements = pack.getEntitlements();
+            size += sizeOf(packId) + sizeOf(packName) + sizeOfList(privileges) + sizeOfList(features) +
+                    varIntSize(entitlements.shortUrls()) + varIntSize(entitlements.customAliases()) + varIntSize(entitlements.flags());
+        }
+
+        final var buffer = ByteBuffer.allocate(size);
+        buffer.put(VERSION);
+        buffer.put(flags);
+        buffer.putLong(cachedSubscription.cachedAt());
+        buffer.putLong(subscription.getActivatedAt());
+        buffer.putLong(subscription.getExpiresAt());
+        put(buffer, subscriptionId);
+        put(buffer, userId);
+
+        if (pack != null) {
+            put(buffer, packId);
+            put(buffer, packName);
+            putList(buffer, privileges);
+            putList(buffer, features);
+            putVarInt(buffer, entitlements.shortUrls());
+            putVarInt(buffer, entitlements.customAliases());
+            putVarInt(buffer, entitlements.flags());
+        }
+
+        return buffer.array();
+    }
+
+    @Override
+    public CachedSubscription decode(final byte[] value) {
+        if (value == null || value.length == 0 || value[0] != VERSION) {
+            return null;
+        }
+
+        final var buffer = ByteBuffer.wrap(value, 1, value.length - 1);
+        final var flags = buffer.get();
+        final var cachedAt = buffer.getLong();
+
+        final var subscription = new Subscription();
+        subscription.setActivatedAt(buffer.getLong());
+        subscription.setExpiresAt(buffer.getLong());
+        subscription.setSubscriptionId(getString(buffer));
+        subscription.setUserId(getString(buffer));
+
+        if ((flags & PACK_FLAG) != 0) {
+            final var pack = new SubscriptionPack();
+            pack.setDefaultPack((flags & DEFAULT_PACK_FLAG) != 0);
+            pack.setId(getString(buffer));
+            pack.setName(getString(buffer));
+            pack.setPrivileges(getStrings(buffer));
+            pack.setFeatures(getStrings(buffer));
+            pack.setEntitlements(new SubscriptionEntitlements(getVarInt(buffer), getVarInt(buffer), getVarInt(buffer)));
+            subscription.setPack(pack);
+        }
+
+        return new CachedSubscription(subscription, cachedAt);
+    }
+
+    private static List<byte[]> listBytes(final List<String> values) {
+        if (values == null) {
+            return null;
+        }
+        final var bytes = new ArrayList<byte[]>(values.size());
+        for (final var value : values) {
+            bytes.add(bytes(value));
+        }
+        return bytes;
+    }
+
+    private static int sizeOfList(final List<byte[]> values) {
+        if (values == null) {
+            return varIntSize(0);
+        }
+        var size = varIntSize(values.size() + 1);
+        for (final var value : values) {
+            size += sizeOf(value);
+        }
+        return size;
+    }
+
+    private static void putList(final ByteBuffer buffer, final List<byte[]> values) {
+        putVarInt(buffer, values != null ? values.size() + 1 : 0);
+        if (values != null) {
+            for (final var value : values) {
+                put(buffer, value);
+            }
+        }
+    }
+
+    private static List<String> getStrings(final ByteBuffer buffer) {
+        final var size = getVarInt(buffer) - 1;
+        if (size < 0) {
+            return null;
+        }
+        final var values = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(getString(buffer));
+        }
+        return values;
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.akgarg.urlshortener.v1.subscription.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+
+// expires a cached subscription ttl after it was written, never later than the subscription itself expires
+record SubscriptionExpiry(long ttlNanos) implements Expiry<String, CachedSubscription> {
+
+    @Override
+    public long expireAfterCreate(final String userId, final CachedSubscription subscription, final long currentTime) {
+        final var remainingMillis = subscription.subscription().getExpiresAt() - System.currentTimeMillis();
+        return Math.max(0, Math.min(ttlNanos, Duration.ofMillis(remainingMillis).toNanos()));
+    }
+
+    @Override
+    public long expireAfterUpdate(final String userId, final CachedSubscription subscription, final long currentTime, final long currentDuration) {
+        return expireAfterCreate(userId, subscription, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(final String userId, final CachedSubscription subscription, final long currentTime, final long currentDuration) {
+        return currentDuration;
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.akgarg.urlshortener.v1.subscription.cache;
+
+import com.akgarg.urlshortener.utils.RedisTopicSubscriber;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+// bounded in-process subscription cache in front of the shared redis cache. Every instance drops its local copy of a
+// user's subscription when any instance adds a new one or removes it, so a subscription change is seen everywhere at
+// redis speed
+@Slf4j
+public class TieredSubscriptionCache implements SubscriptionCache {
+
+    private static final String CACHE_NAME = "subscriptions";
+    private static final ChannelTopic SUBSCRIPTION_UPDATED_TOPIC = new ChannelTopic("url:shortener:subscription:updated");
+
+    private final SubscriptionCache delegate;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Cache<String, CachedSubscription> cache;
+    private final Counter redisHitCounter;
+    private final Counter redisMissCounter;
+    // prefixed to published user ids so that an instance skips its own updates
+    private final String instanceId = UUID.randomUUID().toString();
+    private final RedisTopicSubscriber topicSubscriber;
+
+    public TieredSubscriptionCache(
+            final SubscriptionCache delegate,
+            final RedisTemplate<String, String> redisTemplate,
+            final RedisMessageListenerContainer redisMessageListenerContainer,
+            final long maximumSize,
+            final Duration ttl,
+            final MeterRegistry meterRegistry
+    ) {
+        log.info("Initializing local subscription cache with maximum size {} and ttl {}", maximumSize, ttl);
+        this.delegate = delegate;
+        this.redisTemplate = redisTemplate;
+        this.topicSubscriber = new RedisTopicSubscriber(
+                redisMessageListenerContainer,
+                (message, pattern) -> onMessage(message),
+                "subscription-cache-subscriber",
+                SUBSCRIPTION_UPDATED_TOPIC
+        );
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new SubscriptionExpiry(ttl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.redisHitCounter = redisCacheCounter(meterRegistry, "hit");
+        this.redisMissCounter = redisCacheCounter(meterRegistry, "miss");
+    }
+
+    @Override
+    public void addSubscription(final CachedSubscription subscription) {
+        delegate.addSubscription(subscription);
+        final var userId = subscription.subscription().getUserId();
+        cache.put(userId, subscription);
+        publishUpdate(userId);
+    }
+
+    @Override
+    public Optional<CachedSubscription> getSubscription(final String userId) {
+        final var cachedSubscription = cache.getIfPresent(userId);
+
+        if (cachedSubscription != null) {
+            return Optional.of(cachedSubscription);
+        }
+
+        final var subscription = delegate.getSubscription(userId);
+
+        if (subscription.isPresent()) {
+            redisHitCounter.increment();
+            cache.put(userId, subscription.get());
+        } else {
+            redisMissCounter.increment();
+        }
+
+        return subscription;
+    }
+
+    @Override
+    public void removeSubscription(final String userId) {
+        delegate.removeSubscription(userId);
+        cache.invalidate(userId);
+        publishUpdate(userId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        topicSubscriber.subscribe();
+    }
+
+    // every other instance drops its local copy of the user's subscription
+    private void publishUpdate(final String userId) {
+        try {
+            redisTemplate.convertAndSend(SUBSCRIPTION_UPDATED_TOPIC.getTopic(), instanceId + ":" + userId);
+        } catch (Exception e) {
+            log.error("Error publishing subscription update of userId {}", userId, e);
+        }
+    }
+
+    private void onMessage(final Message message) {
+        try {
+            final var update = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (update == null) {
+                return;
+            }
+
+            final var value = update.toString();
+            final var separator = value.indexOf(':');
+
+            if (separator != -1 && !instanceId.equals(value.substring(0, separator))) {
+                final var userId = value.substring(separator + 1);
+                if (log.isDebugEnabled()) {
+                    log.debug("Invalidating local subscription of userId {}", userId);
+                }
+                cache.invalidate(userId);
+            }
+        } catch (Exception e) {
+            log.error("Error handling subscription update message", e);
+        }
+    }
+
+    private static Counter redisCacheCounter(final MeterRegistry meterRegistry, final String result) {
+        return Counter.builder("subscription.cache.redis.gets")
+                .description("Subscription lookups served by the redis subscription cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.akgarg.urlshortener.v1.subscription.quota;
+
+import com.akgarg.urlshortener.v1.subscription.EntitlementResponse;
+import com.akgarg.urlshortener.v1.subscription.Subscription;
+
+public interface QuotaAccountingService {
+
+    // reserves both counts against the subscription's limits or neither of them, a granted response carries the reservation
+    EntitlementResponse reserve(
+            String requestId,
+            Subscription subscription,
+            int shortUrlCount,
+            int allowedShortUrls,
+            int customAliasCount,
+            int allowedCustomAliases
+    );
+
+    void commit(QuotaReservation reservation);
+
+    void release(QuotaReservation reservation);
+
+}
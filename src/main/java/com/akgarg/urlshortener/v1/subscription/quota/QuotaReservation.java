@@ -0,0 +1,10 @@
+package com.akgarg.urlshortener.v1.subscription.quota;
+
+// short urls and custom aliases counted against a quota counter until they are committed or released
+public record QuotaReservation(String key, int shortUrls, int customAliases) {
+
+    public QuotaReservation withCounts(final int shortUrls, final int customAliases) {
+        return new QuotaReservation(key, shortUrls, customAliases);
+    }
+
+}
@@ -0,0 +1,244 @@
+package com.akgarg.urlshortener.v1.subscription.quota;
+
+import com.akgarg.urlshortener.v1.statistics.StatisticsService;
+import com.akgarg.urlshortener.v1.subscription.EntitlementResponse;
+import com.akgarg.urlshortener.v1.subscription.Subscription;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// per user and subscription period counters of created short urls and custom aliases, kept in a redis hash that expires
+// with the subscription. A reservation is added to the counters right away, so concurrent creates on any instance never
+// get more than the limit; commit keeps it and release gives it back. Counters are seeded from the statistics service the
+// first time they are used in a period.
+@Slf4j
+@Component
+@Profile("prod")
+@ConditionalOnProperty(name = "subscription.quota.accounting.enabled", havingValue = "true", matchIfMissing = true)
+public class RedisQuotaAccountingService implements QuotaAccountingService {
+
+    private static final String REDIS_QUOTA_PREFIX = "url:shortener:quota:";
+    private static final String SHORT_URL_FIELD = "short_url";
+    private static final String CUSTOM_ALIAS_FIELD = "custom_alias";
+
+    private static final long GRANTED = 0;
+    private static final long SHORT_URL_LIMIT_REACHED = 1;
+    private static final long CUSTOM_ALIAS_LIMIT_REACHED = 2;
+    private static final int SHORT_URL_UNSEEDED = 1;
+    private static final int CUSTOM_ALIAS_UNSEEDED = 2;
+    private static final long MIN_COUNTER_TTL_MILLIS = 60_000;
+
+    // KEYS[1] counters, ARGV short url count, custom alias count, short url limit, custom alias limit. Returns GRANTED,
+    // the limit that was reached, or the negated bit set of counters that have to be seeded first
+    private static final RedisScript<Long> RESERVE_SCRIPT = RedisScript.of("""
+            local fields = {'short_url', 'custom_alias'}
+            local used = {}
+            local unseeded = 0
+            for i = 1, 2 do
+                if tonumber(ARGV[i]) > 0 then
+                    used[i] = redis.call('HGET', KEYS[1], fields[i])
+                    if not used[i] then
+                        unseeded = unseeded + i
+                    end
+                end
+            end
+            if unseeded > 0 then
+                return -unseeded
+            end
+            for i = 1, 2 do
+                if tonumber(ARGV[i]) > 0 and tonumber(used[i]) + tonumber(ARGV[i]) > tonumber(ARGV[i + 2]) then
+                    return i
+                end
+            end
+            for i = 1, 2 do
+                if tonumber(ARGV[i]) > 0 then
+                    redis.call('HINCRBY', KEYS[1], fields[i], ARGV[i])
+                end
+            end
+            return 0
+            """, Long.class);
+
+    // KEYS[1] counters, ARGV field, usage, expiry in epoch ms. Counters seeded or reserved by a concurrent request win
+    private static final RedisScript<Long> SEED_SCRIPT = RedisScript.of("""
+            local seeded = redis.call('HSETNX', KEYS[1], ARGV[1], ARGV[2])
+            redis.call('PEXPIREAT', KEYS[1], ARGV[3])
+            return seeded
+            """, Long.class);
+
+    // KEYS[1] counters, ARGV short url count, custom alias count. Counters that expired in the meantime are not recreated
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of("""
+            local fields = {'short_url', 'custom_alias'}
+            for i = 1, 2 do
+                if tonumber(ARGV[i]) > 0 and redis.call('HEXISTS', KEYS[1], fields[i]) == 1 then
+                    redis.call('HINCRBY', KEYS[1], fields[i], -tonumber(ARGV[i]))
+                end
+            end
+            return 0
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final StatisticsService statisticsService;
+    private final Counter grantedCounter;
+    private final Counter shortUrlLimitCounter;
+    private final Counter customAliasLimitCounter;
+    private final Counter committedCounter;
+    private final Counter releasedCounter;
+    private final Counter seedCounter;
+
+    public RedisQuotaAccountingService(
+            final RedisTemplate<String, String> redisTemplate,
+            final StatisticsService statisticsService,
+            final MeterRegistry meterRegistry
+    ) {
+        log.info("Initializing redis quota accounting");
+        this.redisTemplate = redisTemplate;
+        this.statisticsService = statisticsService;
+        this.grantedCounter = reservationCounter(meterRegistry, "granted");
+        this.shortUrlLimitCounter = reservationCounter(meterRegistry, "short_url_limit");
+        this.customAliasLimitCounter = reservationCounter(meterRegistry, "custom_alias_limit");
+        this.committedCounter = reservationCounter(meterRegistry, "committed");
+        this.releasedCounter = reservationCounter(meterRegistry, "released");
+        this.seedCounter = Counter.builder("subscription.quota.seeds")
+                .description("Quota counters seeded from the statistics service")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public EntitlementResponse reserve(
+            final String requestId,
+            final Subscription subscription,
+            final int shortUrlCount,
+            final int allowedShortUrls,
+            final int customAliasCount,
+            final int allowedCustomAliases
+    ) {
+        final var key = createQuotaKey(subscription);
+        var result = runReserve(key, shortUrlCount, allowedShortUrls, customAliasCount, allowedCustomAliases);
+
+        if (result < 0) {
+            seed(requestId, subscription, key, (int) -result);
+            result = runReserve(key, shortUrlCount, allowedShortUrls, customAliasCount, allowedCustomAliases);
+        }
+
+        if (result == GRANTED) {
+            grantedCounter.increment();
+            if (log.isDebugEnabled()) {
+                log.debug("Reserved {} short url(s) and {} custom alias(es) on {}", shortUrlCount, customAliasCount, key);
+            }
+            return new EntitlementResponse(true, true, true, new QuotaReservation(key, shortUrlCount, customAliasCount));
+        }
+
+        if (result == SHORT_URL_LIMIT_REACHED) {
+            shortUrlLimitCounter.increment();
+            log.info("Short URLs threshold crossed for user {}. Allowed: {}", subscription.getUserId(), allowedShortUrls);
+            return new EntitlementResponse(true, false, true);
+        }
+
+        if (result == CUSTOM_ALIAS_LIMIT_REACHED) {
+            customAliasLimitCounter.increment();
+            log.warn("Custom aliases are not allowed for userId {}", subscription.getUserId());
+            return new EntitlementResponse(true, true, false);
+        }
+
+        throw new IllegalStateException("Quota counters of " + key + " could not be seeded");
+    }
+
+    @Override
+    public void commit(final QuotaReservation reservation) {
+        // the reservation is already part of the counters
+        committedCounter.increment();
+    }
+
+    @Override
+    public void release(final QuotaReservation reservation) {
+        if (reservation.shortUrls() == 0 && reservation.customAliases() == 0) {
+            return;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Releasing {} short url(s) and {} custom alias(es) on {}", reservation.shortUrls(), reservation.customAliases(), reservation.key());
+        }
+
+        execute(RELEASE_SCRIPT, reservation.key(), reservation.shortUrls(), reservation.customAliases());
+        releasedCounter.increment();
+    }
+
+    private long runReserve(
+            final String key,
+            final int shortUrlCount,
+            final int allowedShortUrls,
+            final int customAliasCount,
+            final int allowedCustomAliases
+    ) {
+        return execute(RESERVE_SCRIPT, key, shortUrlCount, customAliasCount, allowedShortUrls, allowedCustomAliases);
+    }
+
+    private void seed(final String requestId, final Subscription subscription, final String key, final int unseeded) {
+        final var expiresAt = Math.max(subscription.getExpiresAt(), System.currentTimeMillis() + MIN_COUNTER_TTL_MILLIS);
+
+        if ((unseeded & SHORT_URL_UNSEEDED) != 0) {
+            final var usage = statisticsService.getCurrentShortUrlUsageForUser(
+                    requestId,
+                    subscription.getUserId(),
+                    subscription.getActivatedAt(),
+                    subscription.getExpiresAt()
+            );
+            execute(SEED_SCRIPT, key, SHORT_URL_FIELD, usage, expiresAt);
+        }
+
+        if ((unseeded & CUSTOM_ALIAS_UNSEEDED) != 0) {
+            final var usage = statisticsService.getCurrentCustomAliasUsageForUser(
+                    requestId,
+                    subscription.getUserId(),
+                    subscription.getActivatedAt(),
+                    subscription.getExpiresAt()
+            );
+            execute(SEED_SCRIPT, key, CUSTOM_ALIAS_FIELD, usage, expiresAt);
+        }
+
+        seedCounter.increment();
+        log.info("Seeded quota counters {} from the statistics service", key);
+    }
+
+    private long execute(final RedisScript<Long> script, final String key, final Object... args) {
+        final var stringArgs = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            stringArgs[i] = String.valueOf(args[i]);
+        }
+
+        final var result = redisTemplate.execute(
+                script,
+                StringRedisSerializer.UTF_8,
+                new GenericToStringSerializer<>(Long.class),
+                List.of(key),
+                stringArgs
+        );
+
+        if (result == null) {
+            throw new IllegalStateException("No result from quota script on " + key);
+        }
+
+        return result;
+    }
+
+    private static String createQuotaKey(final Subscription subscription) {
+        return REDIS_QUOTA_PREFIX + subscription.getUserId() + ":" + subscription.getSubscriptionId();
+    }
+
+    private static Counter reservationCounter(final MeterRegistry meterRegistry, final String result) {
+        return Counter.builder("subscription.quota.reservations")
+                .description("Quota reservations by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.akgarg.urlshortener.benchmark;
+
+import com.akgarg.urlshortener.encoding.Base62EncoderService;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+final class EncoderBenchmark {
+
+    private final Base62EncoderService encoderService = new Base62EncoderService();
+
+    @Test
+    void encode_ComparedToStringBuilderEncoder() {
+        final var numbers = ThreadLocalRandom.current().longs(100_000, 1L << 50, 1L << 60).toArray();
+        final var rounds = 50;
+        final var loggerName = Base62EncoderService.class.getName();
+        final var logLevel = LogManager.getLogger(loggerName).getLevel();
+        var checksum = 0L;
+
+        for (final var number : numbers) {
+            assertEquals(stringBuilderEncode(number), encoderService.encode(number));
+        }
+
+        // measure encoding rather than trace logging of every encoded number
+        Configurator.setLevel(loggerName, Level.INFO);
+
+        var startTime = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (final var number : numbers) {
+                checksum += stringBuilderEncode(number).length();
+            }
+        }
+        final var stringBuilderNanos = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (final var number : numbers) {
+                checksum += encoderService.encode(number).length();
+            }
+        }
+        final var encoderNanos = System.nanoTime() - startTime;
+        Configurator.setLevel(loggerName, logLevel);
+
+        final var encodedNumbers = (long) rounds * numbers.length;
+        assertTrue(checksum > 0);
+        System.out.printf("StringBuilder encoder: %d ns/op, Base62EncoderService: %d ns/op%n",
+                stringBuilderNanos / encodedNumbers,
+                encoderNanos / encodedNumbers);
+    }
+
+    // encoder before the byte[] fast path
+    private static String stringBuilderEncode(final long number) {
+        final var base62Mapping = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+        final var base62Representation = new StringBuilder();
+        var decimal = number;
+
+        while (decimal > 0) {
+            base62Representation.append(base62Mapping[(int) (decimal % 62)]);
+            decimal /= 62;
+        }
+
+        return base62Representation.toString();
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.akgarg.urlshortener.benchmark;
+
+import com.akgarg.urlshortener.numbergenerator.LockFreeTimestampedNumberGenerator;
+import com.akgarg.urlshortener.numbergenerator.NumberGeneratorService;
+import com.akgarg.urlshortener.numbergenerator.TimestampedNumberGenerator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+final class NumberGeneratorBenchmark {
+
+    private static final int NODE_ID = 10;
+    private static final long DURATION_MILLIS = 250;
+
+    @Test
+    void generateNextNumber_ContentionComparedToLockingGenerator() throws Exception {
+        System.out.printf("%-8s %20s %20s%n", "threads", "locking ids/s", "lock-free ids/s");
+
+        for (final var threads : new int[]{1, 2, 4, 8, 16, 32, 64}) {
+            final var lockingThroughput = measureThroughput(new TimestampedNumberGenerator(NODE_ID), threads);
+            final var lockFreeThroughput = measureThroughput(new LockFreeTimestampedNumberGenerator(NODE_ID, 10), threads);
+            System.out.printf("%-8d %20d %20d%n", threads, lockingThroughput, lockFreeThroughput);
+            assertTrue(lockFreeThroughput > 0, "Lock-free generator should generate numbers");
+        }
+    }
+
+    private static long measureThroughput(final NumberGeneratorService generator, final int threads) throws Exception {
+        final var counter = new AtomicLong();
+        final var start = new CountDownLatch(1);
+
+        try (final var executorService = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                executorService.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    final var deadline = System.currentTimeMillis() + DURATION_MILLIS;
+                    var generated = 0L;
+                    while (System.currentTimeMillis() < deadline) {
+                        generator.generateNextNumber();
+                        generated++;
+                    }
+                    counter.addAndGet(generated);
+                });
+            }
+            start.countDown();
+        }
+
+        return counter.get() * 1000 / DURATION_MILLIS;
+    }
+
+}
@@ -0,0 +1,189 @@
+package com.akgarg.urlshortener.benchmark;
+
+import com.akgarg.urlshortener.events.StatisticsEventService;
+import com.akgarg.urlshortener.events.VoidStatisticsEventService;
+import com.akgarg.urlshortener.exception.GlobalExceptionHandler;
+import com.akgarg.urlshortener.shortcode.ShortCodeService;
+import com.akgarg.urlshortener.v1.api.ReactiveUrlController;
+import com.akgarg.urlshortener.v1.api.UrlImportService;
+import com.akgarg.urlshortener.v1.api.UrlService;
+import com.akgarg.urlshortener.v1.db.Url;
+import com.akgarg.urlshortener.v1.db.UrlDatabaseService;
+import com.akgarg.urlshortener.v1.subscription.SubscriptionService;
+import io.netty.channel.ChannelOption;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.reactive.context.AnnotationConfigReactiveWebApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Tag("benchmark")
+final class ReactiveUrlControllerBenchmark {
+
+    private static final String USER_ID = "4b34ed1400fd06ef21f";
+    private static final long LOOKUP_DELAY_MILLIS = 50;
+    private static final int EVENT_LOOP_THREADS = 4;
+    private static final int WARMUP_REQUESTS = 2_000;
+
+    private final AtomicInteger inFlightLookups = new AtomicInteger();
+    private final AtomicInteger maxInFlightLookups = new AtomicInteger();
+    private final Set<String> requestThreads = ConcurrentHashMap.newKeySet();
+
+    private UrlDatabaseService urlDatabaseService;
+    private ReactiveUrlController reactiveUrlController;
+
+    @BeforeEach
+    void setUp() {
+        urlDatabaseService = mock(UrlDatabaseService.class);
+
+        final var urlService = new UrlService(
+                mock(StatisticsEventService.class),
+                mock(ShortCodeService.class),
+                mock(SubscriptionService.class),
+                urlDatabaseService
+        );
+        reactiveUrlController = new ReactiveUrlController(urlService, mock(UrlImportService.class));
+    }
+
+    // concurrent redirects against a slow lookup on a netty server with a few event loop threads
+    @Test
+    void getAndRedirectToOriginalUrl_ConcurrentRedirectsOnEventLoop() {
+        final var requests = 5_000;
+        final var loggerNames = new String[]{UrlService.class.getName(), VoidStatisticsEventService.class.getName()};
+        final var logLevels = Arrays.stream(loggerNames).map(loggerName -> LogManager.getLogger(loggerName).getLevel()).toArray(Level[]::new);
+        final var delayedExecutor = CompletableFuture.delayedExecutor(LOOKUP_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+
+        when(urlDatabaseService.getUrlByShortUrlAsync(anyString())).thenAnswer(invocation -> {
+            requestThreads.add(Thread.currentThread().getName());
+            maxInFlightLookups.accumulateAndGet(inFlightLookups.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                inFlightLookups.decrementAndGet();
+                return Optional.of(url(invocation.getArgument(0)));
+            }, delayedExecutor);
+        });
+
+        // measure the event loop rather than trace logging of every redirect
+        Arrays.stream(loggerNames).forEach(loggerName -> Configurator.setLevel(loggerName, Level.WARN));
+
+        final var serverLoop = LoopResources.create("redirect-server", EVENT_LOOP_THREADS, true);
+        final var clientLoop = LoopResources.create("redirect-client", EVENT_LOOP_THREADS, true);
+        final var connectionProvider = ConnectionProvider.builder("redirect-client")
+                .maxConnections(requests)
+                .pendingAcquireMaxCount(-1)
+                .build();
+
+        try (final var context = webFluxContext()) {
+            final var server = HttpServer.create()
+                    .host("127.0.0.1")
+                    .port(0)
+                    .runOn(serverLoop)
+                    .option(ChannelOption.SO_BACKLOG, requests)
+                    .handle(new ReactorHttpHandlerAdapter(WebHttpHandlerBuilder.applicationContext(context).build()))
+                    .bindNow();
+            final var client = HttpClient.create(connectionProvider)
+                    .runOn(clientLoop)
+                    .baseUrl("http://127.0.0.1:" + server.port());
+
+            try {
+                // warm up the handler and client paths before measuring
+                Flux.range(0, WARMUP_REQUESTS).flatMap(request -> redirect(client, request), 64).blockLast(Duration.ofSeconds(60));
+                maxInFlightLookups.set(0);
+
+                final var latencies = new long[requests];
+                final var startTime = System.nanoTime();
+
+                final var statuses = Flux.range(0, requests)
+                        .flatMap(request -> {
+                            final var submittedAt = System.nanoTime();
+                            return redirect(client, request).doOnNext(status -> latencies[request] = System.nanoTime() - submittedAt);
+                        }, requests)
+                        .collectList()
+                        .block(Duration.ofSeconds(60));
+
+                final var elapsed = System.nanoTime() - startTime;
+                Arrays.sort(latencies);
+
+                System.out.printf("%-14s %10s %14s %10s %10s %10s%n", "event loops", "requests", "concurrency", "req/s", "p50 ms", "p99 ms");
+                System.out.printf("%-14d %10d %14d %10d %10d %10d%n",
+                        requestThreads.size(),
+                        requests,
+                        maxInFlightLookups.get(),
+                        requests * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                        TimeUnit.NANOSECONDS.toMillis(latencies[requests / 2]),
+                        TimeUnit.NANOSECONDS.toMillis(latencies[requests * 99 / 100]));
+
+                assertNotNull(statuses);
+                assertTrue(statuses.stream().allMatch(status -> status == 302), "Every redirect should succeed");
+                assertTrue(requestThreads.size() <= EVENT_LOOP_THREADS, "Redirects should only run on the event loop: " + requestThreads);
+                assertTrue(maxInFlightLookups.get() > EVENT_LOOP_THREADS * 100, "Event loops should not wait for lookups: " + maxInFlightLookups.get());
+            } finally {
+                server.disposeNow();
+            }
+        } finally {
+            connectionProvider.dispose();
+            clientLoop.dispose();
+            serverLoop.dispose();
+            for (int i = 0; i < loggerNames.length; i++) {
+                Configurator.setLevel(loggerNames[i], logLevels[i]);
+            }
+        }
+    }
+
+    private static Mono<Integer> redirect(final HttpClient client, final int request) {
+        return client.get()
+                .uri("/code" + request)
+                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())));
+    }
+
+    private AnnotationConfigReactiveWebApplicationContext webFluxContext() {
+        final var context = new AnnotationConfigReactiveWebApplicationContext();
+        context.register(WebFluxConfig.class);
+        context.registerBean(ReactiveUrlController.class, () -> reactiveUrlController);
+        context.registerBean(GlobalExceptionHandler.class, () -> new GlobalExceptionHandler(new MockEnvironment()));
+        context.refresh();
+        return context;
+    }
+
+    private static Url url(final String shortUrl) {
+        final var url = new Url();
+        url.setShortUrl(shortUrl);
+        url.setUserId(USER_ID);
+        url.setOriginalUrl("https://www.google.com");
+        url.setRedirectUrl("https://www.google.com");
+        return url;
+    }
+
+    @EnableWebFlux
+    @Configuration
+    static class WebFluxConfig {
+    }
+
+}
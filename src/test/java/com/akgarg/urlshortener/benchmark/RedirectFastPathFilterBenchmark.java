@@ -0,0 +1,132 @@
+package com.akgarg.urlshortener.benchmark;
+
+import com.akgarg.urlshortener.events.StatisticsEventService;
+import com.akgarg.urlshortener.events.VoidStatisticsEventService;
+import com.akgarg.urlshortener.filter.RedirectFastPathFilter;
+import com.akgarg.urlshortener.shortcode.ShortCodeService;
+import com.akgarg.urlshortener.v1.api.UrlController;
+import com.akgarg.urlshortener.v1.api.UrlImportService;
+import com.akgarg.urlshortener.v1.api.UrlService;
+import com.akgarg.urlshortener.v1.db.Url;
+import com.akgarg.urlshortener.v1.db.UrlDatabaseService;
+import com.akgarg.urlshortener.v1.subscription.SubscriptionService;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@Tag("benchmark")
+final class RedirectFastPathFilterBenchmark {
+
+    private static final String SHORT_URL = "O9Oz9L1";
+
+    private UrlDatabaseService urlDatabaseService;
+    private UrlService urlService;
+
+    @BeforeEach
+    void setUp() {
+        urlDatabaseService = mock(UrlDatabaseService.class);
+        urlService = new UrlService(
+                mock(StatisticsEventService.class),
+                mock(ShortCodeService.class),
+                mock(SubscriptionService.class),
+                urlDatabaseService
+        );
+    }
+
+    // latency of a cached redirect through the full dispatcher servlet path and through the fast path filter
+    @Test
+    void doFilter_CachedRedirectLatencyComparedToDispatcherServlet() throws Exception {
+        final var warmupRequests = 20_000;
+        final var requests = 50_000;
+        final var loggerNames = new String[]{UrlService.class.getName(), VoidStatisticsEventService.class.getName()};
+        final var logLevels = Arrays.stream(loggerNames).map(loggerName -> LogManager.getLogger(loggerName).getLevel()).toArray(Level[]::new);
+        final var cachedUrl = url(SHORT_URL);
+
+        when(urlDatabaseService.getUrlByShortUrlAsync(SHORT_URL)).thenReturn(CompletableFuture.completedFuture(Optional.of(cachedUrl)));
+        when(urlDatabaseService.getCachedUrlByShortUrl(SHORT_URL)).thenReturn(Optional.of(cachedUrl));
+
+        final var controller = new UrlController(urlService, mock(UrlImportService.class));
+        final var dispatcherMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        final var fastPathMvc = MockMvcBuilders.standaloneSetup(controller).addFilters(new RedirectFastPathFilter(urlService, true, "/docs", "/api-docs", "/actuator", "/error")).build();
+
+        // measure request handling rather than trace logging of every redirect
+        Arrays.stream(loggerNames).forEach(loggerName -> Configurator.setLevel(loggerName, Level.WARN));
+
+        try {
+            redirectLatencies(dispatcherMvc, warmupRequests, true);
+            redirectLatencies(fastPathMvc, warmupRequests, false);
+
+            final var dispatcherLatencies = redirectLatencies(dispatcherMvc, requests, true);
+            final var fastPathLatencies = redirectLatencies(fastPathMvc, requests, false);
+
+            System.out.printf("%-12s %10s %10s %10s %10s%n", "path", "requests", "avg us", "p50 us", "p99 us");
+            printLatencies("dispatcher", dispatcherLatencies);
+            printLatencies("fast path", fastPathLatencies);
+
+            assertTrue(average(fastPathLatencies) < average(dispatcherLatencies),
+                    "Fast path should be faster than the dispatcher servlet: " + average(fastPathLatencies) + " vs " + average(dispatcherLatencies));
+            verify(urlDatabaseService, times(warmupRequests + requests)).getUrlByShortUrlAsync(SHORT_URL);
+        } finally {
+            for (int i = 0; i < loggerNames.length; i++) {
+                Configurator.setLevel(loggerNames[i], logLevels[i]);
+            }
+        }
+    }
+
+    // the controller completes the redirect in an async dispatch, just as Tomcat does
+    private static long[] redirectLatencies(final MockMvc mockMvc, final int requests, final boolean asyncDispatch) throws Exception {
+        final var latencies = new long[requests];
+
+        for (int i = 0; i < requests; i++) {
+            final var submittedAt = System.nanoTime();
+            var result = mockMvc.perform(get("/" + SHORT_URL)).andReturn();
+            if (asyncDispatch) {
+                result = mockMvc.perform(asyncDispatch(result)).andReturn();
+            }
+            latencies[i] = System.nanoTime() - submittedAt;
+            assertEquals(302, result.getResponse().getStatus());
+        }
+
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void printLatencies(final String path, final long[] latencies) {
+        System.out.printf("%-12s %10d %10d %10d %10d%n",
+                path,
+                latencies.length,
+                TimeUnit.NANOSECONDS.toMicros(average(latencies)),
+                TimeUnit.NANOSECONDS.toMicros(latencies[latencies.length / 2]),
+                TimeUnit.NANOSECONDS.toMicros(latencies[latencies.length * 99 / 100]));
+    }
+
+    private static long average(final long[] latencies) {
+        return Arrays.stream(latencies).sum() / latencies.length;
+    }
+
+    private static Url url(final String shortUrl) {
+        final var url = new Url();
+        url.setShortUrl(shortUrl);
+        url.setUserId("4b34ed1400fd06ef21f");
+        url.setOriginalUrl("https://www.google.com");
+        url.setRedirectUrl("https://www.google.com");
+        return url;
+    }
+
+}
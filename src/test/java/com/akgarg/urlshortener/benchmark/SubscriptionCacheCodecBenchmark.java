@@ -0,0 +1,113 @@
+package com.akgarg.urlshortener.benchmark;
+
+import com.akgarg.urlshortener.codec.CacheCodec;
+import com.akgarg.urlshortener.v1.subscription.Subscription;
+import com.akgarg.urlshortener.v1.subscription.SubscriptionEntitlements;
+import com.akgarg.urlshortener.v1.subscription.SubscriptionPack;
+import com.akgarg.urlshortener.v1.subscription.cache.CachedSubscription;
+import com.akgarg.urlshortener.v1.subscription.cache.JsonSubscriptionCacheCodec;
+import com.akgarg.urlshortener.v1.subscription.cache.SubscriptionCacheCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+final class SubscriptionCacheCodecBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SubscriptionCacheCodec binaryCodec = new SubscriptionCacheCodec();
+    private final JsonSubscriptionCacheCodec jsonCodec = new JsonSubscriptionCacheCodec(objectMapper);
+
+    // bytes stored per subscription and the cost of writing and reading one, for the json string the cache stored
+    // through the generic jackson redis serializer before, the json codec and the binary codec
+    @Test
+    void encode_ComparedToJsonValues() {
+        final var iterations = 200_000;
+        final var subscription = subscription();
+        final var redisSerializer = new GenericJackson2JsonRedisSerializer();
+        final CacheCodec<CachedSubscription> previousCodec = new CacheCodec<>() {
+            @Override
+            public byte[] encode(final CachedSubscription value) {
+                try {
+                    return redisSerializer.serialize(objectMapper.writeValueAsString(value));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public CachedSubscription decode(final byte[] value) {
+                try {
+                    return objectMapper.readValue((String) redisSerializer.deserialize(value), CachedSubscription.class);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        // warm up every codec before measuring
+        for (final var codec : List.of(previousCodec, jsonCodec, binaryCodec)) {
+            measure(codec, subscription, iterations);
+        }
+
+        final var previous = measure(previousCodec, subscription, iterations);
+        final var json = measure(jsonCodec, subscription, iterations);
+        final var binary = measure(binaryCodec, subscription, iterations);
+
+        System.out.printf("%-14s %10s %12s %12s%n", "codec", "bytes", "encode ns", "decode ns");
+        System.out.printf("%-14s %10d %12d %12d%n", "redis json", previous.bytes, previous.encodeNanos, previous.decodeNanos);
+        System.out.printf("%-14s %10d %12d %12d%n", "json", json.bytes, json.encodeNanos, json.decodeNanos);
+        System.out.printf("%-14s %10d %12d %12d%n", "binary", binary.bytes, binary.encodeNanos, binary.decodeNanos);
+
+        assertTrue(binary.bytes < json.bytes && json.bytes < previous.bytes, "Binary values should be the smallest");
+        assertTrue(binary.decodeNanos < previous.decodeNanos, "Binary values should be faster to read: " + binary.decodeNanos + " vs " + previous.decodeNanos);
+    }
+
+    private static Result measure(final CacheCodec<CachedSubscription> codec, final CachedSubscription subscription, final int iterations) {
+        byte[] encoded = null;
+        var startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            encoded = codec.encode(subscription);
+        }
+        final var encodeNanos = (System.nanoTime() - startTime) / iterations;
+
+        var checksum = 0L;
+        startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            checksum += codec.decode(encoded).cachedAt();
+        }
+        final var decodeNanos = (System.nanoTime() - startTime) / iterations;
+
+        assertEquals(subscription.cachedAt() * iterations, checksum);
+        return new Result(encoded.length, encodeNanos, decodeNanos);
+    }
+
+    private static CachedSubscription subscription() {
+        final var pack = new SubscriptionPack();
+        pack.setId("67a3b3a1c39fdd2e1b5bfa80");
+        pack.setName("PRO");
+        pack.setPrivileges(List.of("short_url:unlimited", "custom_alias:10"));
+        pack.setFeatures(List.of("Unlimited short urls", "10 custom aliases", "Advanced analytics"));
+        pack.setEntitlements(SubscriptionEntitlements.fromPrivileges(pack.getPrivileges()));
+
+        final var subscription = new Subscription();
+        subscription.setSubscriptionId("s1");
+        subscription.setUserId("4b34ed1400fd06ef21f");
+        subscription.setActivatedAt(1738000000000L);
+        subscription.setExpiresAt(1740592000000L);
+        subscription.setPack(pack);
+        return new CachedSubscription(subscription, 1738000060000L);
+    }
+
+    private record Result(int bytes, long encodeNanos, long decodeNanos) {
+    }
+
+}
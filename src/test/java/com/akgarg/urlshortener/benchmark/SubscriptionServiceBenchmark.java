@@ -0,0 +1,230 @@
+package com.akgarg.urlshortener.benchmark;
+
+import com.akgarg.urlshortener.v1.statistics.StatisticsService;
+import com.akgarg.urlshortener.v1.subscription.SubscriptionService;
+import com.akgarg.urlshortener.v1.subscription.cache.InMemorySubscriptionCache;
+import com.akgarg.urlshortener.v1.subscription.cache.SubscriptionCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Tag("benchmark")
+final class SubscriptionServiceBenchmark {
+
+    private static final String USER_ID = "4b34ed1400fd06ef21f";
+    private static final long DOWNSTREAM_DELAY_MILLIS = 50;
+
+    private static final String SUBSCRIPTION_RESPONSE = """
+            {"status_code": 200,
+             "subscription": {"subscription_id": "s1", "user_id": "%s", "activated_at": 0, "expires_at": 4102444800000},
+             "pack": {"pack_id": "p1", "pack_name": "pro", "privileges": ["short_url:unlimited", "custom_alias:10"]}}
+            """.formatted(USER_ID);
+    private static final String USAGE_RESPONSE = """
+            {"status_code": 200, "key": "shortUrl", "value": 3}
+            """;
+
+    private HttpServer downstreamServer;
+    private ExecutorService downstreamExecutor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // a slow subscription and statistics service that can serve every request concurrently
+        downstreamExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        downstreamServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        downstreamServer.createContext("/api/v1/subscriptions/active", exchange -> respondSlowly(exchange, SUBSCRIPTION_RESPONSE));
+        downstreamServer.createContext("/api/v1/statistics/usage", exchange -> respondSlowly(exchange, USAGE_RESPONSE));
+        downstreamServer.setExecutor(downstreamExecutor);
+        downstreamServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        downstreamServer.stop(0);
+        downstreamExecutor.close();
+    }
+
+    // a custom alias create checked with one call per quota against one entitlement evaluation
+    @Test
+    void evaluateEntitlements_ComparedToSeparateChecks() {
+        final var requests = 20;
+        final var loggerNames = new String[]{SubscriptionService.class.getName(), StatisticsService.class.getName()};
+        final var logLevels = Arrays.stream(loggerNames).map(loggerName -> LogManager.getLogger(loggerName).getLevel()).toArray(Level[]::new);
+
+        // measure the downstream waits rather than trace logging of every check
+        Arrays.stream(loggerNames).forEach(loggerName -> Configurator.setLevel(loggerName, Level.WARN));
+
+        try (final var subscriptionService = subscriptionService(true)) {
+            final var separateLatencies = new long[requests];
+            final var mergedLatencies = new long[requests];
+
+            for (int i = 0; i < requests; i++) {
+                var startTime = System.nanoTime();
+                assertTrue(subscriptionService.evaluateEntitlements("request-" + i, USER_ID, 1, 0).shortUrlsAllowed());
+                assertTrue(subscriptionService.evaluateEntitlements("request-" + i, USER_ID, 0, 1).customAliasesAllowed());
+                separateLatencies[i] = System.nanoTime() - startTime;
+
+                startTime = System.nanoTime();
+                assertTrue(subscriptionService.evaluateEntitlements("request-" + i, USER_ID, 1, 1).customAliasesAllowed());
+                mergedLatencies[i] = System.nanoTime() - startTime;
+            }
+
+            Arrays.sort(separateLatencies);
+            Arrays.sort(mergedLatencies);
+
+            System.out.printf("%-10s %10s %10s %10s%n", "checks", "requests", "p50 ms", "p99 ms");
+            System.out.printf("%-10s %10d %10d %10d%n", "separate", requests,
+                    TimeUnit.NANOSECONDS.toMillis(separateLatencies[requests / 2]),
+                    TimeUnit.NANOSECONDS.toMillis(separateLatencies[requests * 99 / 100]));
+            System.out.printf("%-10s %10d %10d %10d%n", "merged", requests,
+                    TimeUnit.NANOSECONDS.toMillis(mergedLatencies[requests / 2]),
+                    TimeUnit.NANOSECONDS.toMillis(mergedLatencies[requests * 99 / 100]));
+
+            assertTrue(mergedLatencies[requests / 2] < separateLatencies[requests / 2],
+                    "One evaluation should be faster than separate checks");
+        } finally {
+            for (int i = 0; i < loggerNames.length; i++) {
+                Configurator.setLevel(loggerNames[i], logLevels[i]);
+            }
+        }
+    }
+
+    // sequential lookups across several ttls, fetched synchronously on expiry against refreshed in the background
+    @Test
+    void evaluateEntitlements_RefreshAheadComparedToExpiry() throws InterruptedException {
+        final var lookups = 400;
+        final var loggerNames = new String[]{SubscriptionService.class.getName(), InMemorySubscriptionCache.class.getName()};
+        final var logLevels = Arrays.stream(loggerNames).map(loggerName -> LogManager.getLogger(loggerName).getLevel()).toArray(Level[]::new);
+
+        // measure the lookups rather than logging of every check
+        Arrays.stream(loggerNames).forEach(loggerName -> Configurator.setLevel(loggerName, Level.WARN));
+
+        try {
+            System.out.printf("%-14s %10s %14s %10s %10s%n", "subscriptions", "lookups", "blocking calls", "p50 ms", "p99 ms");
+            final var expiring = measureLookups(refreshingEnvironment(200, 1.0, 0), lookups);
+            final var refreshing = measureLookups(refreshingEnvironment(200, 0.8, 30_000), lookups);
+            printLookups("expiring", expiring);
+            printLookups("refreshing", refreshing);
+
+            assertTrue(expiring[expiring.length * 99 / 100] >= DOWNSTREAM_DELAY_MILLIS, "Expiring subscriptions should block some lookups");
+            assertTrue(refreshing[refreshing.length * 99 / 100] < DOWNSTREAM_DELAY_MILLIS, "Refreshed subscriptions should not block lookups");
+        } finally {
+            for (int i = 0; i < loggerNames.length; i++) {
+                Configurator.setLevel(loggerNames[i], logLevels[i]);
+            }
+        }
+    }
+
+    private SubscriptionService subscriptionService(final boolean virtualThreads) {
+        final var environment = new MockEnvironment().withProperty("spring.threads.virtual.enabled", String.valueOf(virtualThreads));
+        final var subscriptionCache = mock(SubscriptionCache.class);
+        when(subscriptionCache.getSubscription(any())).thenReturn(Optional.empty());
+        return subscriptionService(environment, subscriptionCache, new SimpleMeterRegistry());
+    }
+
+    private SubscriptionService subscriptionService(final MockEnvironment environment, final MeterRegistry meterRegistry) {
+        return subscriptionService(environment, new InMemorySubscriptionCache(environment, meterRegistry), meterRegistry);
+    }
+
+    private SubscriptionService subscriptionService(
+            final MockEnvironment environment,
+            final SubscriptionCache subscriptionCache,
+            final MeterRegistry meterRegistry
+    ) {
+        final var virtualThreads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        final var httpClient = HttpClient.newBuilder()
+                .executor(virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : Executors.newCachedThreadPool())
+                .build();
+        final var restClientBuilder = RestClient.builder()
+                .baseUrl("http://127.0.0.1:" + downstreamServer.getAddress().getPort())
+                .requestFactory(new JdkClientHttpRequestFactory(httpClient));
+
+        return new SubscriptionService(
+                restClientBuilder,
+                new StatisticsService(restClientBuilder, environment),
+                subscriptionCache,
+                null,
+                meterRegistry,
+                environment
+        );
+    }
+
+    private static MockEnvironment refreshingEnvironment(final long ttl, final double refreshAhead, final long staleGrace) {
+        return new MockEnvironment()
+                .withProperty("spring.threads.virtual.enabled", "true")
+                .withProperty("subscription.cache.ttl", String.valueOf(ttl))
+                .withProperty("subscription.cache.refresh-ahead", String.valueOf(refreshAhead))
+                .withProperty("subscription.cache.stale-grace", String.valueOf(staleGrace));
+    }
+
+    // a subscription only check, which waits for nothing but the subscription lookup
+    private static long lookupMillis(final SubscriptionService subscriptionService) {
+        final var startTime = System.nanoTime();
+        assertTrue(subscriptionService.evaluateEntitlements("request-id", USER_ID, 0, 0).subscriptionFound());
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+
+    private long[] measureLookups(final MockEnvironment environment, final int lookups) throws InterruptedException {
+        final var latencies = new long[lookups];
+
+        try (final var subscriptionService = subscriptionService(environment, new SimpleMeterRegistry())) {
+            // the first lookup of an empty cache blocks either way
+            lookupMillis(subscriptionService);
+
+            for (int i = 0; i < lookups; i++) {
+                latencies[i] = lookupMillis(subscriptionService);
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+        }
+
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void printLookups(final String subscriptions, final long[] latencies) {
+        System.out.printf("%-14s %10d %14d %10d %10d%n",
+                subscriptions,
+                latencies.length,
+                Arrays.stream(latencies).filter(latency -> latency >= DOWNSTREAM_DELAY_MILLIS).count(),
+                latencies[latencies.length / 2],
+                latencies[latencies.length * 99 / 100]);
+    }
+
+    private void respondSlowly(final HttpExchange exchange, final String body) throws IOException {
+        try (exchange) {
+            Thread.sleep(DOWNSTREAM_DELAY_MILLIS);
+            final var bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.akgarg.urlshortener.benchmark;
+
+import com.akgarg.urlshortener.v1.subscription.Subscription;
+import com.akgarg.urlshortener.v1.subscription.cache.CachedSubscription;
+import com.akgarg.urlshortener.v1.subscription.cache.RedisSubscriptionCache;
+import com.akgarg.urlshortener.v1.subscription.cache.SubscriptionCacheCodec;
+import com.akgarg.urlshortener.v1.subscription.cache.TieredSubscriptionCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.mock.env.MockEnvironment;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+final class TieredSubscriptionCacheBenchmark {
+
+    private static final String USER_ID = "4b34ed1400fd06ef21f";
+
+    private static RedisServer redisServer;
+    private static JedisConnectionFactory connectionFactory;
+    private static RedisTemplate<String, String> redisTemplate;
+    private static RedisTemplate<String, byte[]> binaryRedisTemplate;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        final int port;
+        try (final var socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+
+        binaryRedisTemplate = new RedisTemplate<>();
+        binaryRedisTemplate.setConnectionFactory(connectionFactory);
+        binaryRedisTemplate.setKeySerializer(new StringRedisSerializer());
+        binaryRedisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        binaryRedisTemplate.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    // latency of subscription lookups answered by redis alone and by the local tier
+    @Test
+    void getSubscription_LocalTierComparedToRedis() {
+        final var warmupLookups = 5_000;
+        final var lookups = 20_000;
+        final var loggerName = RedisSubscriptionCache.class.getName();
+        final var logLevel = LogManager.getLogger(loggerName).getLevel();
+        final var redisCache = new RedisSubscriptionCache(binaryRedisTemplate, new SubscriptionCacheCodec(), new MockEnvironment());
+        final var listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        final var cache = new TieredSubscriptionCache(redisCache, redisTemplate, listenerContainer, 1_000, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        cache.addSubscription(subscription("s1"));
+
+        // measure the lookups rather than debug logging of every redis read
+        Configurator.setLevel(loggerName, Level.WARN);
+
+        try {
+            lookupLatencies(redisCache::getSubscription, warmupLookups);
+            lookupLatencies(cache::getSubscription, warmupLookups);
+
+            final var redisLatencies = lookupLatencies(redisCache::getSubscription, lookups);
+            final var tieredLatencies = lookupLatencies(cache::getSubscription, lookups);
+
+            System.out.printf("%-10s %10s %10s %10s %10s%n", "tier", "lookups", "avg us", "p50 us", "p99 us");
+            printLatencies("redis", redisLatencies);
+            printLatencies("local", tieredLatencies);
+
+            assertTrue(average(tieredLatencies) * 10 < average(redisLatencies),
+                    "Local lookups should be at least 10x faster than redis: " + average(tieredLatencies) + " vs " + average(redisLatencies));
+        } finally {
+            Configurator.setLevel(loggerName, logLevel);
+        }
+    }
+
+    private static long[] lookupLatencies(final Function<String, ?> lookup, final int lookups) {
+        final var latencies = new long[lookups];
+
+        for (int i = 0; i < lookups; i++) {
+            final var startTime = System.nanoTime();
+            lookup.apply(USER_ID);
+            latencies[i] = System.nanoTime() - startTime;
+        }
+
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void printLatencies(final String tier, final long[] latencies) {
+        System.out.printf("%-10s %10d %10d %10d %10d%n",
+                tier,
+                latencies.length,
+                TimeUnit.NANOSECONDS.toMicros(average(latencies)),
+                TimeUnit.NANOSECONDS.toMicros(latencies[latencies.length / 2]),
+                TimeUnit.NANOSECONDS.toMicros(latencies[latencies.length * 99 / 100]));
+    }
+
+    private static long average(final long[] latencies) {
+        return Arrays.stream(latencies).sum() / latencies.length;
+    }
+
+    private static CachedSubscription subscription(final String subscriptionId) {
+        final var subscription = new Subscription();
+        subscription.setSubscriptionId(subscriptionId);
+        subscription.setUserId(USER_ID);
+        subscription.setActivatedAt(0);
+        subscription.setExpiresAt(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(30));
+        return new CachedSubscription(subscription, System.currentTimeMillis());
+    }
+
+}
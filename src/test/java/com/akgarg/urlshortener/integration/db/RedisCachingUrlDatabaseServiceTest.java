@@ -0,0 +1,156 @@
+package com.akgarg.urlshortener.integration.db;
+
+import com.akgarg.urlshortener.unit.faker.FakerService;
+import com.akgarg.urlshortener.v1.db.UrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.cache.RedisCachingUrlDatabaseService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+final class RedisCachingUrlDatabaseServiceTest {
+
+    private static RedisServer redisServer;
+    private static JedisConnectionFactory connectionFactory;
+    private static RedisTemplate<String, byte[]> redisTemplate;
+
+    private UrlDatabaseService delegate;
+    private RedisCachingUrlDatabaseService redisCachingUrlDatabaseService;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        final int port;
+        try (final var socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        redisTemplate.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        }, true);
+        delegate = mock(UrlDatabaseService.class);
+        redisCachingUrlDatabaseService = newRedisCachingUrlDatabaseService(delegate);
+    }
+
+    @Test
+    void getUrlByShortUrl_ShouldQueryDelegateOnce_AndServeRepeatedLookupsFromRedis() {
+        final var url = FakerService.fakeUrlMetadata();
+        url.setExpiresAt(System.currentTimeMillis() + 60_000);
+        url.setRedirectUrl(url.getOriginalUrl());
+        when(delegate.getUrlByShortUrl(url.getShortUrl())).thenReturn(Optional.of(url));
+
+        assertTrue(redisCachingUrlDatabaseService.getUrlByShortUrl(url.getShortUrl()).isPresent());
+        final var cachedUrl = redisCachingUrlDatabaseService.getUrlByShortUrl(url.getShortUrl()).orElseThrow();
+
+        verify(delegate, times(1)).getUrlByShortUrl(url.getShortUrl());
+        assertEquals(url.getShortUrl(), cachedUrl.getShortUrl());
+        assertEquals(url.getOriginalUrl(), cachedUrl.getOriginalUrl());
+        assertEquals(url.getRedirectUrl(), cachedUrl.getRedirectUrl());
+        assertEquals(url.getUserId(), cachedUrl.getUserId());
+        assertEquals(url.getCreatedAt(), cachedUrl.getCreatedAt());
+        assertEquals(url.getExpiresAt(), cachedUrl.getExpiresAt());
+        assertEquals(url.isCustomAlias(), cachedUrl.isCustomAlias());
+    }
+
+    @Test
+    void saveUrl_ShouldMakeUrlAvailableToOtherInstances_WithoutDatabaseLookup() {
+        final var url = FakerService.fakeUrlMetadata();
+        url.setExpiresAt(System.currentTimeMillis() + 60_000);
+        when(delegate.saveUrl(url)).thenReturn(true);
+
+        assertTrue(redisCachingUrlDatabaseService.saveUrl(url));
+
+        final var otherDelegate = mock(UrlDatabaseService.class);
+        final var otherInstance = newRedisCachingUrlDatabaseService(otherDelegate);
+
+        assertTrue(otherInstance.getUrlByShortUrl(url.getShortUrl()).isPresent());
+        verify(otherDelegate, never()).getUrlByShortUrl(anyString());
+    }
+
+    @Test
+    void saveUrl_ShouldCapRedisTtl_AtUrlExpiry() {
+        final var url = FakerService.fakeUrlMetadata();
+        url.setExpiresAt(System.currentTimeMillis() + 5_000);
+        when(delegate.saveUrl(url)).thenReturn(true);
+
+        redisCachingUrlDatabaseService.saveUrl(url);
+
+        final var ttl = redisTemplate.getExpire("url:shortener:url:" + url.getShortUrl(), TimeUnit.MILLISECONDS);
+        assertNotNull(ttl);
+        assertTrue(ttl > 0 && ttl <= 5_000, "Redis ttl should not exceed url expiry: " + ttl);
+    }
+
+    @Test
+    void getUrlByShortUrl_ShouldTreatUnknownEncodingAsMiss() {
+        final var url = FakerService.fakeUrlMetadata();
+        redisTemplate.opsForValue().set("url:shortener:url:" + url.getShortUrl(), new byte[]{99, 1, 2});
+        when(delegate.getUrlByShortUrl(url.getShortUrl())).thenReturn(Optional.of(url));
+
+        assertTrue(redisCachingUrlDatabaseService.getUrlByShortUrl(url.getShortUrl()).isPresent());
+        verify(delegate, times(1)).getUrlByShortUrl(url.getShortUrl());
+    }
+
+    @Test
+    void getUrlsByShortUrls_ShouldReadCachedUrlsInOneMultiGet_AndLoadOnlyMisses() {
+        final var cachedUrl = FakerService.fakeUrlMetadata();
+        final var missingUrl = FakerService.fakeUrlMetadata();
+        missingUrl.setShortUrl("P9Oz9L1");
+        when(delegate.saveUrl(cachedUrl)).thenReturn(true);
+        when(delegate.getUrlsByShortUrls(List.of(missingUrl.getShortUrl(), "unknown")))
+                .thenReturn(Map.of(missingUrl.getShortUrl(), missingUrl));
+        redisCachingUrlDatabaseService.saveUrl(cachedUrl);
+
+        final var urls = redisCachingUrlDatabaseService.getUrlsByShortUrls(List.of(cachedUrl.getShortUrl(), missingUrl.getShortUrl(), "unknown"));
+
+        assertEquals(2, urls.size());
+        assertEquals(cachedUrl.getOriginalUrl(), urls.get(cachedUrl.getShortUrl()).getOriginalUrl());
+        assertSame(missingUrl, urls.get(missingUrl.getShortUrl()));
+        assertNotNull(redisTemplate.opsForValue().get("url:shortener:url:" + missingUrl.getShortUrl()), "Loaded urls should be cached");
+        verify(delegate, never()).getUrlByShortUrl(anyString());
+    }
+
+    private static RedisCachingUrlDatabaseService newRedisCachingUrlDatabaseService(final UrlDatabaseService delegate) {
+        return new RedisCachingUrlDatabaseService(delegate, redisTemplate, Duration.ofHours(1), new SimpleMeterRegistry());
+    }
+
+}
@@ -0,0 +1,173 @@
+package com.akgarg.urlshortener.integration.subscription;
+
+import com.akgarg.urlshortener.v1.statistics.StatisticsService;
+import com.akgarg.urlshortener.v1.subscription.EntitlementResponse;
+import com.akgarg.urlshortener.v1.subscription.Subscription;
+import com.akgarg.urlshortener.v1.subscription.quota.QuotaReservation;
+import com.akgarg.urlshortener.v1.subscription.quota.RedisQuotaAccountingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+final class RedisQuotaAccountingServiceTest {
+
+    private static final String USER_ID = "4b34ed1400fd06ef21f";
+    private static final String QUOTA_KEY = "url:shortener:quota:" + USER_ID + ":s1";
+
+    private static RedisServer redisServer;
+    private static JedisConnectionFactory connectionFactory;
+    private static RedisTemplate<String, String> redisTemplate;
+
+    private StatisticsService statisticsService;
+    private SimpleMeterRegistry meterRegistry;
+    private RedisQuotaAccountingService quotaAccountingService;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        final int port;
+        try (final var socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        }, true);
+        statisticsService = mock(StatisticsService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        quotaAccountingService = new RedisQuotaAccountingService(redisTemplate, statisticsService, meterRegistry);
+    }
+
+    @Test
+    void reserve_ShouldSeedCountersFromStatisticsOnce_AndCountLaterReservationsInRedis() {
+        when(statisticsService.getCurrentShortUrlUsageForUser(any(), eq(USER_ID), anyLong(), anyLong())).thenReturn(3);
+        when(statisticsService.getCurrentCustomAliasUsageForUser(any(), eq(USER_ID), anyLong(), anyLong())).thenReturn(1);
+
+        final var first = quotaAccountingService.reserve("request-1", subscription(), 1, 10, 1, 5);
+        final var second = quotaAccountingService.reserve("request-2", subscription(), 1, 10, 0, 5);
+
+        assertEquals(new EntitlementResponse(true, true, true, new QuotaReservation(QUOTA_KEY, 1, 1)), first);
+        assertEquals(new QuotaReservation(QUOTA_KEY, 1, 0), second.reservation());
+        assertEquals("5", counter("short_url"));
+        assertEquals("2", counter("custom_alias"));
+        verify(statisticsService, times(1)).getCurrentShortUrlUsageForUser(any(), any(), anyLong(), anyLong());
+        verify(statisticsService, times(1)).getCurrentCustomAliasUsageForUser(any(), any(), anyLong(), anyLong());
+        assertTrue(redisTemplate.getExpire(QUOTA_KEY, TimeUnit.MILLISECONDS) > 0, "Counters should expire with the subscription");
+    }
+
+    @Test
+    void reserve_ShouldReserveNothing_WhenOneOfTheLimitsIsReached() {
+        when(statisticsService.getCurrentShortUrlUsageForUser(any(), eq(USER_ID), anyLong(), anyLong())).thenReturn(3);
+        when(statisticsService.getCurrentCustomAliasUsageForUser(any(), eq(USER_ID), anyLong(), anyLong())).thenReturn(5);
+
+        final var response = quotaAccountingService.reserve("request-id", subscription(), 1, 10, 1, 5);
+
+        assertEquals(new EntitlementResponse(true, true, false), response);
+        assertEquals("3", counter("short_url"));
+        assertEquals("5", counter("custom_alias"));
+        assertEquals(1.0, meterRegistry.get("subscription.quota.reservations").tag("result", "custom_alias_limit").counter().count());
+    }
+
+    @Test
+    void release_ShouldGiveBackReservedCounts_AndCommitShouldKeepThem() {
+        when(statisticsService.getCurrentShortUrlUsageForUser(any(), eq(USER_ID), anyLong(), anyLong())).thenReturn(0);
+        when(statisticsService.getCurrentCustomAliasUsageForUser(any(), eq(USER_ID), anyLong(), anyLong())).thenReturn(0);
+
+        final var committed = quotaAccountingService.reserve("request-1", subscription(), 3, 10, 1, 5).reservation();
+        final var released = quotaAccountingService.reserve("request-2", subscription(), 2, 10, 1, 5).reservation();
+        quotaAccountingService.commit(committed);
+        quotaAccountingService.release(released);
+
+        assertEquals("3", counter("short_url"));
+        assertEquals("1", counter("custom_alias"));
+    }
+
+    @Test
+    void release_ShouldNotRecreateCounters_WhenTheyExpired() {
+        quotaAccountingService.release(new QuotaReservation(QUOTA_KEY, 1, 1));
+
+        assertFalse(redisTemplate.hasKey(QUOTA_KEY));
+    }
+
+    @Test
+    void reserve_ShouldNeverGrantMoreThanTheLimit_ToConcurrentCreates() throws Exception {
+        final var requests = 200;
+        final var limit = 50;
+        when(statisticsService.getCurrentShortUrlUsageForUser(any(), eq(USER_ID), anyLong(), anyLong())).thenReturn(10);
+
+        final var responses = new ArrayList<CompletableFuture<EntitlementResponse>>(requests);
+
+        try (final var executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < requests; i++) {
+                final var requestId = "request-" + i;
+                responses.add(CompletableFuture.supplyAsync(() -> quotaAccountingService.reserve(requestId, subscription(), 1, limit, 0, 0), executor));
+            }
+            CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+        }
+
+        final var granted = responses.stream().filter(response -> response.join().shortUrlsAllowed()).count();
+
+        assertEquals(limit - 10, granted);
+        assertEquals(String.valueOf(limit), counter("short_url"));
+    }
+
+    private static String counter(final String field) {
+        return redisTemplate.execute(connection -> {
+            final var value = connection.hashCommands().hGet(QUOTA_KEY.getBytes(), field.getBytes());
+            return value != null ? new String(value) : null;
+        }, true);
+    }
+
+    private static Subscription subscription() {
+        final var subscription = new Subscription();
+        subscription.setSubscriptionId("s1");
+        subscription.setUserId(USER_ID);
+        subscription.setActivatedAt(0);
+        subscription.setExpiresAt(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(30));
+        return subscription;
+    }
+
+}
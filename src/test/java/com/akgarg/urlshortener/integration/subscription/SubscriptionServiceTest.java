@@ -0,0 +1,305 @@
+package com.akgarg.urlshortener.integration.subscription;
+
+import com.akgarg.urlshortener.v1.statistics.StatisticsService;
+import com.akgarg.urlshortener.v1.subscription.EntitlementResponse;
+import com.akgarg.urlshortener.v1.subscription.Subscription;
+import com.akgarg.urlshortener.v1.subscription.SubscriptionResponse;
+import com.akgarg.urlshortener.v1.subscription.SubscriptionService;
+import com.akgarg.urlshortener.v1.subscription.cache.CachedSubscription;
+import com.akgarg.urlshortener.v1.subscription.cache.InMemorySubscriptionCache;
+import com.akgarg.urlshortener.v1.subscription.cache.SubscriptionCache;
+import com.sun.net.httpserver.HttpExchange;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+final class SubscriptionServiceTest {
+
+    private static final String USER_ID = "4b34ed1400fd06ef21f";
+    private static final long DOWNSTREAM_DELAY_MILLIS = 50;
+
+    private static final String SUBSCRIPTION_RESPONSE = """
+            {"status_code": 200,
+             "subscription": {"subscription_id": "s1", "user_id": "%s", "activated_at": 0, "expires_at": 4102444800000},
+             "pack": {"pack_id": "p1", "pack_name": "pro", "privileges": ["short_url:unlimited", "custom_alias:10"]}}
+            """.formatted(USER_ID);
+    private static final String NO_SUBSCRIPTION_RESPONSE = """
+            {"status_code": 200}
+            """;
+    private static final String FAILED_RESPONSE = """
+            {"status_code": 500}
+            """;
+    private static final String USAGE_RESPONSE = """
+            {"status_code": 200, "key": "shortUrl", "value": 3}
+            """;
+
+    private final AtomicInteger subscriptionCalls = new AtomicInteger();
+    private final AtomicInteger usageCalls = new AtomicInteger();
+    private final AtomicInteger inFlightDownstreamCalls = new AtomicInteger();
+    private final AtomicInteger maxInFlightDownstreamCalls = new AtomicInteger();
+    private volatile String subscriptionResponse = SUBSCRIPTION_RESPONSE;
+    private HttpServer downstreamServer;
+    private ExecutorService downstreamExecutor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // a slow subscription and statistics service that can serve every request concurrently
+        downstreamExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        downstreamServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        downstreamServer.createContext("/api/v1/subscriptions/active", exchange -> {
+            subscriptionCalls.incrementAndGet();
+            respondSlowly(exchange, subscriptionResponse);
+        });
+        downstreamServer.createContext("/api/v1/statistics/usage", exchange -> {
+            usageCalls.incrementAndGet();
+            respondSlowly(exchange, USAGE_RESPONSE);
+        });
+        downstreamServer.setExecutor(downstreamExecutor);
+        downstreamServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        downstreamServer.stop(0);
+        downstreamExecutor.close();
+    }
+
+    @Test
+    void evaluateEntitlementsAsync_ShouldQuerySubscriptionAndUsage_ThroughVirtualThreadHttpClient() {
+        try (final var subscriptionService = subscriptionService(true)) {
+            final var response = subscriptionService.evaluateEntitlementsAsync("request-id", USER_ID, 1, 0).join();
+
+            assertEquals(new SubscriptionResponse(true, true), response.shortUrlResponse());
+        }
+    }
+
+    @Test
+    void evaluateEntitlements_ShouldLoadSubscriptionOnce_AndRunUsageQueriesConcurrently() {
+        try (final var subscriptionService = subscriptionService(true)) {
+            final var response = subscriptionService.evaluateEntitlements("request-id", USER_ID, 1, 1);
+
+            assertEquals(new EntitlementResponse(true, true, true), response);
+            assertEquals(1, subscriptionCalls.get());
+            assertEquals(2, usageCalls.get());
+            assertEquals(2, maxInFlightDownstreamCalls.get(), "Usage queries should overlap");
+        }
+    }
+
+    @Test
+    void evaluateEntitlements_ShouldRejectCustomAliases_WhenCustomAliasLimitIsReached() {
+        try (final var subscriptionService = subscriptionService(false)) {
+            // 3 custom aliases are used out of 10
+            final var response = subscriptionService.evaluateEntitlements("request-id", USER_ID, 8, 8);
+
+            assertEquals(new EntitlementResponse(true, true, false), response);
+            assertEquals(new SubscriptionResponse(true, false), response.customAliasResponse());
+        }
+    }
+
+    @Test
+    void evaluateEntitlements_ShouldServeCachedSubscription_WhileRefreshingItAheadOfAndPastTheTtl() throws InterruptedException {
+        final var meterRegistry = new SimpleMeterRegistry();
+
+        try (final var subscriptionService = subscriptionService(refreshingEnvironment(400, 0.5, 2_000), meterRegistry)) {
+            assertTrue(lookupMillis(subscriptionService) >= DOWNSTREAM_DELAY_MILLIS, "First lookup should wait for the subscription service");
+            lookupMillis(subscriptionService);
+            assertEquals(1, subscriptionCalls.get());
+
+            // due for refresh ahead of the ttl
+            TimeUnit.MILLISECONDS.sleep(250);
+            assertTrue(lookupMillis(subscriptionService) < DOWNSTREAM_DELAY_MILLIS, "Refresh ahead should not block the lookup");
+            awaitSubscriptionCalls(2);
+
+            // stale, within the grace window
+            TimeUnit.MILLISECONDS.sleep(700);
+            assertTrue(lookupMillis(subscriptionService) < DOWNSTREAM_DELAY_MILLIS, "Stale subscription should be served while it is refreshed");
+            awaitSubscriptionCalls(3);
+
+            // past the grace window
+            TimeUnit.MILLISECONDS.sleep(3_000);
+            assertTrue(lookupMillis(subscriptionService) >= DOWNSTREAM_DELAY_MILLIS, "Subscription past the grace window should be fetched again");
+            assertEquals(4, subscriptionCalls.get());
+            assertEquals(1.0, meterRegistry.get("subscription.cache.stale.hits").counter().count());
+            assertEquals(2.0, meterRegistry.get("subscription.cache.refreshes").tag("result", "refreshed").counter().count());
+        }
+    }
+
+    @Test
+    void evaluateEntitlements_ShouldRefreshOnce_ForConcurrentLookupsOfADueSubscription() throws Exception {
+        final var lookups = 50;
+
+        try (final var subscriptionService = subscriptionService(refreshingEnvironment(400, 0.5, 2_000), new SimpleMeterRegistry());
+             final var requestExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            lookupMillis(subscriptionService);
+            TimeUnit.MILLISECONDS.sleep(250);
+
+            final var results = new ArrayList<Future<Long>>(lookups);
+            for (int i = 0; i < lookups; i++) {
+                results.add(requestExecutor.submit(() -> lookupMillis(subscriptionService)));
+            }
+            for (final var result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+
+            awaitSubscriptionCalls(2);
+            TimeUnit.MILLISECONDS.sleep(DOWNSTREAM_DELAY_MILLIS * 2);
+            assertEquals(2, subscriptionCalls.get());
+        }
+    }
+
+    @Test
+    void evaluateEntitlements_ShouldFetchSubscription_WhenCachedCopyIsPastItsExpiry() {
+        final var expiredSubscription = new Subscription();
+        expiredSubscription.setUserId(USER_ID);
+        expiredSubscription.setExpiresAt(System.currentTimeMillis() - 1);
+        final var environment = refreshingEnvironment(60_000, 0.8, 30_000);
+        final var subscriptionCache = mock(SubscriptionCache.class);
+        when(subscriptionCache.getSubscription(USER_ID))
+                .thenReturn(Optional.of(new CachedSubscription(expiredSubscription, System.currentTimeMillis())));
+
+        try (final var subscriptionService = subscriptionService(environment, subscriptionCache, new SimpleMeterRegistry())) {
+            assertTrue(lookupMillis(subscriptionService) >= DOWNSTREAM_DELAY_MILLIS, "Expired subscription should not be served from the cache");
+            assertEquals(1, subscriptionCalls.get());
+        }
+    }
+
+    @Test
+    void evaluateEntitlements_ShouldRemoveCachedSubscription_WhenRefreshFindsNoActiveSubscription() throws InterruptedException {
+        final var meterRegistry = new SimpleMeterRegistry();
+
+        try (final var subscriptionService = subscriptionService(refreshingEnvironment(400, 0.5, 2_000), meterRegistry)) {
+            lookupMillis(subscriptionService);
+
+            // the subscription is cancelled, the next refresh ahead of the ttl finds none
+            subscriptionResponse = NO_SUBSCRIPTION_RESPONSE;
+            TimeUnit.MILLISECONDS.sleep(250);
+            lookupMillis(subscriptionService);
+            awaitRefresh(meterRegistry, "removed");
+
+            assertFalse(subscriptionService.evaluateEntitlements("request-id", USER_ID, 0, 0).subscriptionFound());
+            assertEquals(3, subscriptionCalls.get());
+        }
+    }
+
+    @Test
+    void evaluateEntitlements_ShouldKeepCachedSubscription_WhenRefreshFails() throws InterruptedException {
+        final var meterRegistry = new SimpleMeterRegistry();
+
+        try (final var subscriptionService = subscriptionService(refreshingEnvironment(400, 0.5, 2_000), meterRegistry)) {
+            lookupMillis(subscriptionService);
+
+            subscriptionResponse = FAILED_RESPONSE;
+            TimeUnit.MILLISECONDS.sleep(250);
+            lookupMillis(subscriptionService);
+            awaitRefresh(meterRegistry, "failed");
+
+            assertTrue(lookupMillis(subscriptionService) < DOWNSTREAM_DELAY_MILLIS, "Cached subscription should still be served");
+        }
+    }
+
+    private SubscriptionService subscriptionService(final boolean virtualThreads) {
+        final var environment = new MockEnvironment().withProperty("spring.threads.virtual.enabled", String.valueOf(virtualThreads));
+        final var subscriptionCache = mock(SubscriptionCache.class);
+        when(subscriptionCache.getSubscription(any())).thenReturn(Optional.empty());
+        return subscriptionService(environment, subscriptionCache, new SimpleMeterRegistry());
+    }
+
+    private SubscriptionService subscriptionService(final MockEnvironment environment, final MeterRegistry meterRegistry) {
+        return subscriptionService(environment, new InMemorySubscriptionCache(environment, meterRegistry), meterRegistry);
+    }
+
+    private SubscriptionService subscriptionService(
+            final MockEnvironment environment,
+            final SubscriptionCache subscriptionCache,
+            final MeterRegistry meterRegistry
+    ) {
+        final var virtualThreads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        final var httpClient = HttpClient.newBuilder()
+                .executor(virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : Executors.newCachedThreadPool())
+                .build();
+        final var restClientBuilder = RestClient.builder()
+                .baseUrl("http://127.0.0.1:" + downstreamServer.getAddress().getPort())
+                .requestFactory(new JdkClientHttpRequestFactory(httpClient));
+
+        return new SubscriptionService(
+                restClientBuilder,
+                new StatisticsService(restClientBuilder, environment),
+                subscriptionCache,
+                null,
+                meterRegistry,
+                environment
+        );
+    }
+
+    private static MockEnvironment refreshingEnvironment(final long ttl, final double refreshAhead, final long staleGrace) {
+        return new MockEnvironment()
+                .withProperty("spring.threads.virtual.enabled", "true")
+                .withProperty("subscription.cache.ttl", String.valueOf(ttl))
+                .withProperty("subscription.cache.refresh-ahead", String.valueOf(refreshAhead))
+                .withProperty("subscription.cache.stale-grace", String.valueOf(staleGrace));
+    }
+
+    // a subscription only check, which waits for nothing but the subscription lookup
+    private static long lookupMillis(final SubscriptionService subscriptionService) {
+        final var startTime = System.nanoTime();
+        assertTrue(subscriptionService.evaluateEntitlements("request-id", USER_ID, 0, 0).subscriptionFound());
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+
+    private void awaitSubscriptionCalls(final int calls) throws InterruptedException {
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (subscriptionCalls.get() < calls && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        assertEquals(calls, subscriptionCalls.get());
+    }
+
+    private static void awaitRefresh(final MeterRegistry meterRegistry, final String result) throws InterruptedException {
+        final var refreshes = meterRegistry.get("subscription.cache.refreshes").tag("result", result).counter();
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (refreshes.count() < 1 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        assertEquals(1.0, refreshes.count());
+    }
+
+    private void respondSlowly(final HttpExchange exchange, final String body) throws IOException {
+        maxInFlightDownstreamCalls.accumulateAndGet(inFlightDownstreamCalls.incrementAndGet(), Math::max);
+
+        try (exchange) {
+            Thread.sleep(DOWNSTREAM_DELAY_MILLIS);
+            final var bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlightDownstreamCalls.decrementAndGet();
+        }
+    }
+
+}
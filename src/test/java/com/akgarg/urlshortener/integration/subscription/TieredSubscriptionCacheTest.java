@@ -0,0 +1,233 @@
+package com.akgarg.urlshortener.integration.subscription;
+
+import com.akgarg.urlshortener.v1.subscription.Subscription;
+import com.akgarg.urlshortener.v1.subscription.cache.CachedSubscription;
+import com.akgarg.urlshortener.v1.subscription.cache.RedisSubscriptionCache;
+import com.akgarg.urlshortener.v1.subscription.cache.SubscriptionCacheCodec;
+import com.akgarg.urlshortener.v1.subscription.cache.TieredSubscriptionCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.mock.env.MockEnvironment;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+final class TieredSubscriptionCacheTest {
+
+    private static final String USER_ID = "4b34ed1400fd06ef21f";
+    private static final String SUBSCRIPTION_UPDATED_TOPIC = "url:shortener:subscription:updated";
+
+    private static RedisServer redisServer;
+    private static JedisConnectionFactory connectionFactory;
+    private static RedisTemplate<String, String> redisTemplate;
+    private static RedisTemplate<String, byte[]> binaryRedisTemplate;
+
+    private final List<RedisMessageListenerContainer> listenerContainers = new ArrayList<>();
+    private RedisSubscriptionCache redisSubscriptionCache;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        final int port;
+        try (final var socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+
+        binaryRedisTemplate = new RedisTemplate<>();
+        binaryRedisTemplate.setConnectionFactory(connectionFactory);
+        binaryRedisTemplate.setKeySerializer(new StringRedisSerializer());
+        binaryRedisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        binaryRedisTemplate.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        }, true);
+        redisSubscriptionCache = spy(new RedisSubscriptionCache(binaryRedisTemplate, new SubscriptionCacheCodec(), new MockEnvironment()));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (final var listenerContainer : listenerContainers) {
+            listenerContainer.destroy();
+        }
+        listenerContainers.clear();
+    }
+
+    @Test
+    void getSubscription_ShouldReadRedisOnce_AndExportPerTierHits() {
+        final var cache = tieredCache(Duration.ofMinutes(1));
+        redisSubscriptionCache.addSubscription(subscription("s1"));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("s1", cache.getSubscription(USER_ID).orElseThrow().subscription().getSubscriptionId());
+        }
+        assertTrue(cache.getSubscription("unknown").isEmpty());
+
+        verify(redisSubscriptionCache, times(1)).getSubscription(USER_ID);
+        assertEquals(4.0, meterRegistry.get("cache.gets").tags("cache", "subscriptions", "result", "hit").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tags("cache", "subscriptions", "result", "miss").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("subscription.cache.redis.gets").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("subscription.cache.redis.gets").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void getSubscription_ShouldGoBackToRedis_WhenLocalTtlOrSubscriptionExpires() throws InterruptedException {
+        final var cache = tieredCache(Duration.ofMillis(100));
+        final var expiringSubscription = subscription("s2");
+        expiringSubscription.subscription().setUserId("expiring-user");
+        expiringSubscription.subscription().setExpiresAt(System.currentTimeMillis() + 50);
+        cache.addSubscription(subscription("s1"));
+        cache.addSubscription(expiringSubscription);
+
+        assertTrue(cache.getSubscription(USER_ID).isPresent());
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertTrue(cache.getSubscription(USER_ID).isPresent());
+
+        verify(redisSubscriptionCache, times(1)).getSubscription(USER_ID);
+        cache.getSubscription("expiring-user");
+        verify(redisSubscriptionCache, times(1)).getSubscription("expiring-user");
+    }
+
+    @Test
+    void addSubscription_ShouldReplaceLocalCopy_OnEveryInstance() throws InterruptedException {
+        final var first = tieredCache(Duration.ofMinutes(1));
+        final var second = tieredCache(Duration.ofMinutes(1));
+        first.onApplicationReady();
+        second.onApplicationReady();
+        awaitSubscribers(2);
+
+        redisSubscriptionCache.addSubscription(subscription("s1"));
+        assertEquals("s1", second.getSubscription(USER_ID).orElseThrow().subscription().getSubscriptionId());
+
+        first.addSubscription(subscription("s2"));
+
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!"s2".equals(second.getSubscription(USER_ID).orElseThrow().subscription().getSubscriptionId()) && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+
+        assertEquals("s2", second.getSubscription(USER_ID).orElseThrow().subscription().getSubscriptionId());
+        assertEquals("s2", first.getSubscription(USER_ID).orElseThrow().subscription().getSubscriptionId());
+        // the instance that added the subscription keeps serving it locally
+        verify(redisSubscriptionCache, times(2)).getSubscription(USER_ID);
+    }
+
+    @Test
+    void addSubscription_ShouldNotKeepSubscriptionInRedis_PastItsExpiry() {
+        final var expiringSubscription = subscription("s1");
+        expiringSubscription.subscription().setExpiresAt(System.currentTimeMillis() + 2_000);
+        final var expiredSubscription = subscription("s2");
+        expiredSubscription.subscription().setUserId("expired-user");
+        expiredSubscription.subscription().setExpiresAt(System.currentTimeMillis() - 1);
+
+        redisSubscriptionCache.addSubscription(expiringSubscription);
+        redisSubscriptionCache.addSubscription(expiredSubscription);
+
+        final var ttl = redisTemplate.getExpire("url:shortener:subscription:" + USER_ID, TimeUnit.MILLISECONDS);
+        assertNotNull(ttl);
+        assertTrue(ttl > 0 && ttl <= 2_000, "Redis ttl should be capped at the subscription expiry: " + ttl);
+        assertTrue(redisSubscriptionCache.getSubscription("expired-user").isEmpty());
+    }
+
+    @Test
+    void removeSubscription_ShouldDropRedisAndLocalCopies_OnEveryInstance() throws InterruptedException {
+        final var first = tieredCache(Duration.ofMinutes(1));
+        final var second = tieredCache(Duration.ofMinutes(1));
+        first.onApplicationReady();
+        second.onApplicationReady();
+        awaitSubscribers(2);
+
+        first.addSubscription(subscription("s1"));
+        assertTrue(second.getSubscription(USER_ID).isPresent());
+
+        first.removeSubscription(USER_ID);
+
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (second.getSubscription(USER_ID).isPresent() && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+
+        assertTrue(second.getSubscription(USER_ID).isEmpty());
+        assertTrue(first.getSubscription(USER_ID).isEmpty());
+        assertTrue(redisSubscriptionCache.getSubscription(USER_ID).isEmpty());
+    }
+
+    private TieredSubscriptionCache tieredCache(final Duration ttl) {
+        final var listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+        listenerContainers.add(listenerContainer);
+        return new TieredSubscriptionCache(redisSubscriptionCache, redisTemplate, listenerContainer, 1_000, ttl, meterRegistry);
+    }
+
+    private static void awaitSubscribers(final long subscribers) throws InterruptedException {
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            final var numsub = redisTemplate.execute(connection -> (List<?>) connection.execute(
+                    "PUBSUB",
+                    "NUMSUB".getBytes(StandardCharsets.UTF_8),
+                    SUBSCRIPTION_UPDATED_TOPIC.getBytes(StandardCharsets.UTF_8)
+            ), true);
+            if (numsub != null && numsub.size() == 2 && (Long) numsub.get(1) >= subscribers) {
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        fail("Caches did not subscribe to " + SUBSCRIPTION_UPDATED_TOPIC);
+    }
+
+    private static CachedSubscription subscription(final String subscriptionId) {
+        final var subscription = new Subscription();
+        subscription.setSubscriptionId(subscriptionId);
+        subscription.setUserId(USER_ID);
+        subscription.setActivatedAt(0);
+        subscription.setExpiresAt(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(30));
+        return new CachedSubscription(subscription, System.currentTimeMillis());
+    }
+
+}
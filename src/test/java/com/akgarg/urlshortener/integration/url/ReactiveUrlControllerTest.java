@@ -0,0 +1,385 @@
+package com.akgarg.urlshortener.integration.url;
+
+import com.akgarg.urlshortener.events.StatisticsEventService;
+import com.akgarg.urlshortener.exception.GlobalExceptionHandler;
+import com.akgarg.urlshortener.filter.ReactiveRequestIdFilter;
+import com.akgarg.urlshortener.request.RequestMetadata;
+import com.akgarg.urlshortener.shortcode.ShortCodeService;
+import com.akgarg.urlshortener.v1.api.ReactiveUrlController;
+import com.akgarg.urlshortener.v1.api.UrlImportService;
+import com.akgarg.urlshortener.v1.api.UrlService;
+import com.akgarg.urlshortener.v1.db.Url;
+import com.akgarg.urlshortener.v1.db.UrlDatabaseService;
+import com.akgarg.urlshortener.v1.subscription.SubscriptionService;
+import io.netty.channel.ChannelOption;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Property;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.reactive.context.AnnotationConfigReactiveWebApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.config.ResourceHandlerRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+final class ReactiveUrlControllerTest {
+
+    private static final String USER_ID = "4b34ed1400fd06ef21f";
+
+    private final Set<String> requestThreads = ConcurrentHashMap.newKeySet();
+
+    private StatisticsEventService statisticsEventService;
+    private UrlDatabaseService urlDatabaseService;
+    private UrlImportService urlImportService;
+    private ReactiveUrlController reactiveUrlController;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        statisticsEventService = mock(StatisticsEventService.class);
+        urlDatabaseService = mock(UrlDatabaseService.class);
+        urlImportService = mock(UrlImportService.class);
+
+        final var urlService = new UrlService(
+                statisticsEventService,
+                mock(ShortCodeService.class),
+                mock(SubscriptionService.class),
+                urlDatabaseService
+        );
+        reactiveUrlController = new ReactiveUrlController(urlService, urlImportService);
+        webTestClient = WebTestClient.bindToController(reactiveUrlController)
+                .controllerAdvice(new GlobalExceptionHandler(new MockEnvironment()))
+                .build();
+    }
+
+    @Test
+    void getAndRedirectToOriginalUrl_ShouldRedirect_AndPublishEventWithRequestMetadata() {
+        when(urlDatabaseService.getUrlByShortUrlAsync("O9Oz9L1"))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(url("O9Oz9L1"))));
+
+        webTestClient.get()
+                .uri("/O9Oz9L1")
+                .header("X-Request-ID", "request-id")
+                .header("X-Forwarded-For", "10.0.0.1, 10.0.0.2")
+                .header("User-Agent", "Mozilla/5.0")
+                .exchange()
+                .expectStatus().isFound()
+                .expectHeader().location("https://www.google.com");
+
+        verify(statisticsEventService).publishEvent(argThat(event -> "request-id".equals(event.requestId()) &&
+                "10.0.0.1".equals(event.ipAddress()) &&
+                "Mozilla/5.0".equals(event.userAgent())));
+    }
+
+    @Test
+    void getAndRedirectToOriginalUrl_ShouldReturnNotFound_WhenShortUrlIsUnknown() {
+        when(urlDatabaseService.getUrlByShortUrlAsync("unknown")).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        webTestClient.get()
+                .uri("/unknown")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.status_code").isEqualTo(404);
+    }
+
+    @Test
+    void generateShortUrl_ShouldReturnBadRequest_WhenRequestValidationFails() {
+        webTestClient.post()
+                .uri("/api/v1/urlshortener")
+                .header("X-USER-ID", USER_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"user_id\": \"\", \"original_url\": \"https://www.google.com\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Request Validation Failed")
+                .jsonPath("$.errors[0]").isEqualTo("user_id should be valid");
+
+        verifyNoInteractions(urlDatabaseService);
+    }
+
+    @Test
+    void importShortUrls_ShouldStreamRequestAndResponseBody_ThroughBlockingImport() throws Exception {
+        doAnswer(invocation -> {
+            final RequestMetadata requestMetadata = invocation.getArgument(0);
+            final var lines = new String(invocation.<InputStream>getArgument(1).readAllBytes(), StandardCharsets.UTF_8).split("\n");
+            final OutputStream output = invocation.getArgument(2);
+            for (int i = 0; i < lines.length; i++) {
+                output.write(("{\"line\":" + (i + 1) + ",\"user\":\"" + requestMetadata.userId() + "\"}\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        }).when(urlImportService).importUrls(any(), any(), any());
+
+        webTestClient.post()
+                .uri("/api/v1/urlshortener/import")
+                .header("X-USER-ID", USER_ID)
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .bodyValue("{}\n{}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .isEqualTo("{\"line\":1,\"user\":\"" + USER_ID + "\"}\n{\"line\":2,\"user\":\"" + USER_ID + "\"}\n");
+    }
+
+    @Test
+    void getAndRedirectToOriginalUrl_ShouldSetRequestIdForLogging_AndGenerateIt_WhenHeaderIsMissing() {
+        final var lookupRequestIds = new ConcurrentLinkedQueue<String>();
+        when(urlDatabaseService.getUrlByShortUrlAsync("O9Oz9L1")).thenAnswer(invocation -> {
+            lookupRequestIds.add(ThreadContext.get("requestId"));
+            return CompletableFuture.completedFuture(Optional.of(url("O9Oz9L1")));
+        });
+
+        try (final var context = webFluxContext()) {
+            final var client = WebTestClient.bindToApplicationContext(context).build();
+
+            client.get().uri("/O9Oz9L1").header("X-Request-ID", "request-id").exchange().expectStatus().isFound();
+            client.get().uri("/O9Oz9L1").exchange().expectStatus().isFound();
+        }
+
+        final var generatedRequestId = lookupRequestIds.stream().skip(1).findFirst().orElseThrow();
+        assertEquals("request-id", lookupRequestIds.peek());
+        assertTrue(generatedRequestId.matches("[0-9a-f]{32}"), "Request id should be generated: " + generatedRequestId);
+        verify(statisticsEventService).publishEvent(argThat(event -> generatedRequestId.equals(event.requestId())));
+        assertNull(ThreadContext.get("requestId"));
+    }
+
+    @Test
+    void generateShortUrls_ShouldLogWithRequestId_OnBoundedElasticThread() {
+        final var logEvents = captureUrlServiceLogs(() -> {
+            try (final var context = webFluxContext()) {
+                WebTestClient.bindToApplicationContext(context).build()
+                        .post()
+                        .uri("/api/v1/urlshortener/bulk")
+                        .header("X-Request-ID", "bulk-request-id")
+                        .header("X-USER-ID", USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue("{\"urls\": [{\"user_id\": \"" + USER_ID + "\", \"original_url\": \"https://www.google.com\"}]}")
+                        .exchange()
+                        .expectBody().returnResult();
+            }
+        });
+
+        final var received = logEvents.stream()
+                .filter(event -> event.message().startsWith("Received bulk generate short url request"))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(received.threadName().startsWith("boundedElastic-"), "Bulk create should run on a scheduler thread: " + received.threadName());
+        assertEquals("bulk-request-id", received.requestId());
+    }
+
+    @Test
+    void getAndRedirectToOriginalUrl_ShouldLogWithRequestId_WhenLookupCompletesOnVirtualThread() {
+        when(urlDatabaseService.getUrlByShortUrlAsync("unknown")).thenAnswer(invocation -> {
+            final var lookup = new CompletableFuture<Optional<Url>>();
+            Thread.ofVirtual().name("lookup-callback").start(() -> {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                lookup.complete(Optional.empty());
+            });
+            return lookup;
+        });
+
+        final var logEvents = captureUrlServiceLogs(() -> {
+            try (final var context = webFluxContext()) {
+                WebTestClient.bindToApplicationContext(context).build()
+                        .get()
+                        .uri("/unknown")
+                        .header("X-Request-ID", "redirect-request-id")
+                        .exchange()
+                        .expectStatus().isNotFound();
+            }
+        });
+
+        final var notFound = logEvents.stream()
+                .filter(event -> event.message().startsWith("Original URL not found"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("lookup-callback", notFound.threadName());
+        assertEquals("redirect-request-id", notFound.requestId());
+    }
+
+    @Test
+    void handleReactiveNoResourceFoundException_ShouldRedirectGet_AndRejectOtherMethods() {
+        try (final var context = webFluxContext()) {
+            final var client = WebTestClient.bindToApplicationContext(context).build();
+
+            client.get()
+                    .uri("/missing/page")
+                    .exchange()
+                    .expectStatus().isFound()
+                    .expectHeader().exists("Location");
+            client.post()
+                    .uri("/missing/page")
+                    .exchange()
+                    .expectStatus().isEqualTo(405)
+                    .expectHeader().valueEquals("Allow", "GET");
+        }
+    }
+
+    // every lookup stays pending until all requests have reached the controller, which a blocked event loop never does
+    @Test
+    void getAndRedirectToOriginalUrl_ShouldNotHoldTheEventLoop_WhileLookupsArePending() {
+        final var requests = 200;
+        final var pendingLookups = new ConcurrentLinkedQueue<Runnable>();
+        final var lookups = new AtomicInteger();
+
+        when(urlDatabaseService.getUrlByShortUrlAsync(anyString())).thenAnswer(invocation -> {
+            requestThreads.add(Thread.currentThread().getName());
+            final var lookup = new CompletableFuture<Optional<Url>>();
+            pendingLookups.add(() -> lookup.complete(Optional.of(url(invocation.getArgument(0)))));
+            if (lookups.incrementAndGet() == requests) {
+                pendingLookups.forEach(Runnable::run);
+            }
+            return lookup;
+        });
+
+        final var serverLoop = LoopResources.create("redirect-server", 1, true);
+        final var clientLoop = LoopResources.create("redirect-client", 1, true);
+        final var connectionProvider = ConnectionProvider.builder("redirect-client")
+                .maxConnections(requests)
+                .pendingAcquireMaxCount(-1)
+                .build();
+
+        try (final var context = webFluxContext()) {
+            final var server = HttpServer.create()
+                    .host("127.0.0.1")
+                    .port(0)
+                    .runOn(serverLoop)
+                    .option(ChannelOption.SO_BACKLOG, requests)
+                    .handle(new ReactorHttpHandlerAdapter(WebHttpHandlerBuilder.applicationContext(context).build()))
+                    .bindNow();
+            final var client = HttpClient.create(connectionProvider)
+                    .runOn(clientLoop)
+                    .baseUrl("http://127.0.0.1:" + server.port());
+
+            try {
+                final var statuses = Flux.range(0, requests)
+                        .flatMap(request -> redirect(client, request), requests)
+                        .collectList()
+                        .block(Duration.ofSeconds(30));
+
+                assertNotNull(statuses);
+                assertTrue(statuses.stream().allMatch(status -> status == 302), "Every redirect should succeed");
+                assertEquals(1, requestThreads.size(), "Redirects should only run on the event loop: " + requestThreads);
+            } finally {
+                server.disposeNow();
+            }
+        } finally {
+            connectionProvider.dispose();
+            clientLoop.dispose();
+            serverLoop.dispose();
+        }
+    }
+
+    private static Mono<Integer> redirect(final HttpClient client, final int request) {
+        return client.get()
+                .uri("/code" + request)
+                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())));
+    }
+
+    private static List<CapturedLog> captureUrlServiceLogs(final Runnable action) {
+        final var logger = (Logger) LogManager.getLogger(UrlService.class);
+        final var appender = new CapturingAppender();
+        appender.start();
+        logger.addAppender(appender);
+
+        try {
+            action.run();
+        } finally {
+            logger.removeAppender(appender);
+            appender.stop();
+        }
+
+        return List.copyOf(appender.events);
+    }
+
+    private AnnotationConfigReactiveWebApplicationContext webFluxContext() {
+        final var context = new AnnotationConfigReactiveWebApplicationContext();
+        context.register(WebFluxConfig.class);
+        context.registerBean(ReactiveUrlController.class, () -> reactiveUrlController);
+        context.registerBean(GlobalExceptionHandler.class, () -> new GlobalExceptionHandler(new MockEnvironment()));
+        context.registerBean(ReactiveRequestIdFilter.class, ReactiveRequestIdFilter::new);
+        context.refresh();
+        return context;
+    }
+
+    private static Url url(final String shortUrl) {
+        final var url = new Url();
+        url.setShortUrl(shortUrl);
+        url.setUserId(USER_ID);
+        url.setOriginalUrl("https://www.google.com");
+        url.setRedirectUrl("https://www.google.com");
+        return url;
+    }
+
+    private record CapturedLog(String threadName, String requestId, String message) {
+    }
+
+    private static final class CapturingAppender extends AbstractAppender {
+
+        private final Queue<CapturedLog> events = new ConcurrentLinkedQueue<>();
+
+        private CapturingAppender() {
+            super("capturing", null, null, true, Property.EMPTY_ARRAY);
+        }
+
+        @Override
+        public void append(final LogEvent event) {
+            events.add(new CapturedLog(
+                    Thread.currentThread().getName(),
+                    event.getContextData().getValue("requestId"),
+                    event.getMessage().getFormattedMessage()
+            ));
+        }
+
+    }
+
+    // unmatched paths fall through to a resource handler, as with the static resources of the application
+    @EnableWebFlux
+    @Configuration
+    static class WebFluxConfig implements WebFluxConfigurer {
+
+        @Override
+        public void addResourceHandlers(final ResourceHandlerRegistry registry) {
+            registry.addResourceHandler("/**").addResourceLocations("classpath:/static/");
+        }
+
+    }
+
+}
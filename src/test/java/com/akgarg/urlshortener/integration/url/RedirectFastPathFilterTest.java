@@ -0,0 +1,150 @@
+package com.akgarg.urlshortener.integration.url;
+
+import com.akgarg.urlshortener.events.StatisticsEventService;
+import com.akgarg.urlshortener.filter.RedirectFastPathFilter;
+import com.akgarg.urlshortener.filter.RequestIdFilter;
+import com.akgarg.urlshortener.shortcode.ShortCodeService;
+import com.akgarg.urlshortener.v1.api.UrlService;
+import com.akgarg.urlshortener.v1.db.Url;
+import com.akgarg.urlshortener.v1.db.UrlDatabaseService;
+import com.akgarg.urlshortener.v1.subscription.SubscriptionService;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+final class RedirectFastPathFilterTest {
+
+    private static final String SHORT_URL = "O9Oz9L1";
+
+    private StatisticsEventService statisticsEventService;
+    private UrlDatabaseService urlDatabaseService;
+    private UrlService urlService;
+    private FilterChain filterChain;
+
+    @BeforeEach
+    void setUp() {
+        statisticsEventService = mock(StatisticsEventService.class);
+        urlDatabaseService = mock(UrlDatabaseService.class);
+        filterChain = mock(FilterChain.class);
+        urlService = new UrlService(
+                statisticsEventService,
+                mock(ShortCodeService.class),
+                mock(SubscriptionService.class),
+                urlDatabaseService
+        );
+    }
+
+    @Test
+    void doFilter_ShouldRedirectWithoutCallingChain_WhenShortUrlIsCached() throws Exception {
+        when(urlDatabaseService.getCachedUrlByShortUrl(SHORT_URL)).thenReturn(Optional.of(url(SHORT_URL)));
+        final var request = new MockHttpServletRequest("GET", "/" + SHORT_URL);
+        request.addHeader("X-Request-ID", "request-id");
+        final var response = new MockHttpServletResponse();
+
+        filter(true).doFilter(request, response, filterChain);
+
+        assertEquals(302, response.getStatus());
+        assertEquals("https://www.google.com", response.getHeader("Location"));
+        verifyNoInteractions(filterChain);
+        verify(urlDatabaseService, never()).getUrlByShortUrlAsync(anyString());
+        verify(statisticsEventService).publishEvent(argThat(event -> "request-id".equals(event.requestId()) &&
+                SHORT_URL.equals(event.shortUrl())));
+    }
+
+    @Test
+    void doFilter_ShouldContinueChain_WhenShortUrlIsNotCachedOrExpired() throws Exception {
+        final var expiredUrl = url("expired");
+        expiredUrl.setExpiresAt(System.currentTimeMillis() - 1);
+        when(urlDatabaseService.getCachedUrlByShortUrl("expired")).thenReturn(Optional.of(expiredUrl));
+        when(urlDatabaseService.getCachedUrlByShortUrl("unknown")).thenReturn(Optional.empty());
+
+        for (final var shortUrl : new String[]{"expired", "unknown"}) {
+            final var request = new MockHttpServletRequest("GET", "/" + shortUrl);
+            final var response = new MockHttpServletResponse();
+
+            filter(true).doFilter(request, response, filterChain);
+
+            verify(filterChain).doFilter(request, response);
+            assertNull(response.getHeader("Location"));
+        }
+
+        verifyNoInteractions(statisticsEventService);
+    }
+
+    @Test
+    void doFilter_ShouldContinueChain_WhenCacheLookupFails() throws Exception {
+        when(urlDatabaseService.getCachedUrlByShortUrl(SHORT_URL)).thenThrow(new IllegalStateException("cache failure"));
+        final var request = new MockHttpServletRequest("GET", "/" + SHORT_URL);
+        final var response = new MockHttpServletResponse();
+
+        filter(true).doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilter_ShouldNotLookUpCache_ForOtherRequestsOrWhenDisabled() throws Exception {
+        final var requests = new MockHttpServletRequest[]{
+                new MockHttpServletRequest("POST", "/" + SHORT_URL),
+                new MockHttpServletRequest("GET", "/"),
+                new MockHttpServletRequest("GET", "/api/v1/urlshortener"),
+                new MockHttpServletRequest("GET", "/favicon.ico"),
+                new MockHttpServletRequest("GET", "/a%20b"),
+                new MockHttpServletRequest("GET", "/docs"),
+                new MockHttpServletRequest("GET", "/api-docs"),
+                new MockHttpServletRequest("GET", "/actuator"),
+                new MockHttpServletRequest("GET", "/error"),
+        };
+
+        for (final var request : requests) {
+            filter(true).doFilter(request, new MockHttpServletResponse(), filterChain);
+        }
+        filter(false).doFilter(new MockHttpServletRequest("GET", "/" + SHORT_URL), new MockHttpServletResponse(), filterChain);
+
+        verify(filterChain, times(requests.length + 1)).doFilter(any(), any());
+        verifyNoInteractions(urlDatabaseService);
+    }
+
+    @Test
+    void doFilter_ShouldNotLookUpCache_ForConfiguredActuatorAndErrorPaths() throws Exception {
+        final var filter = new RedirectFastPathFilter(urlService, true, "/docs", "/api-docs", "/manage", "/failure");
+
+        for (final var path : new String[]{"/manage", "/failure"}) {
+            filter.doFilter(new MockHttpServletRequest("GET", path), new MockHttpServletResponse(), filterChain);
+        }
+
+        verify(filterChain, times(2)).doFilter(any(), any());
+        verifyNoInteractions(urlDatabaseService);
+    }
+
+    @Test
+    void order_ShouldRunAfterRequestIdFilter() {
+        assertTrue(OrderUtils.getOrder(RequestIdFilter.class, Ordered.LOWEST_PRECEDENCE) <
+                OrderUtils.getOrder(RedirectFastPathFilter.class, Ordered.LOWEST_PRECEDENCE));
+    }
+
+    private RedirectFastPathFilter filter(final boolean enabled) {
+        return new RedirectFastPathFilter(urlService, enabled, "/docs", "/api-docs", "/actuator", "/error");
+    }
+
+    private static Url url(final String shortUrl) {
+        final var url = new Url();
+        url.setShortUrl(shortUrl);
+        url.setUserId("4b34ed1400fd06ef21f");
+        url.setOriginalUrl("https://www.google.com");
+        url.setRedirectUrl("https://www.google.com");
+        return url;
+    }
+
+}
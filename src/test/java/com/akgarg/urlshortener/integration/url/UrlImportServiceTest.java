@@ -0,0 +1,196 @@
+package com.akgarg.urlshortener.integration.url;
+
+import com.akgarg.urlshortener.request.BulkShortUrlRequest;
+import com.akgarg.urlshortener.request.RequestMetadata;
+import com.akgarg.urlshortener.response.BulkGenerateUrlResponse;
+import com.akgarg.urlshortener.response.GenerateUrlResponse;
+import com.akgarg.urlshortener.response.UrlResponse;
+import com.akgarg.urlshortener.v1.api.UrlImportService;
+import com.akgarg.urlshortener.v1.api.UrlService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+final class UrlImportServiceTest {
+
+    private static final String USER_ID = "4b34ed1400fd06ef21f";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong generatedShortUrls = new AtomicLong();
+    private UrlService urlService;
+    private HttpServletRequest httpRequest;
+    private UrlImportService urlImportService;
+
+    @BeforeEach
+    void setUp() {
+        urlService = mock(UrlService.class);
+        httpRequest = mock(HttpServletRequest.class);
+        when(httpRequest.getHeader("X-USER-ID")).thenReturn(USER_ID);
+        when(urlService.generateShortUrls(any(), any())).thenAnswer(invocation -> createAll(invocation.getArgument(1)));
+
+        final var environment = new MockEnvironment()
+                .withProperty("url.import.batch-size", "100")
+                .withProperty("url.import.max-in-flight-batches", "4")
+                .withProperty("url.import.writer-threads", "2");
+        urlImportService = new UrlImportService(
+                urlService,
+                objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                environment
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        urlImportService.close();
+    }
+
+    @Test
+    void importUrls_ShouldStreamOneResultPerLine_InInputOrder() throws Exception {
+        final var input = String.join("\n",
+                requestLine("https://www.google.com"),
+                "{not json",
+                "",
+                requestLine("not a url"),
+                requestLine("https://www.google.com/maps")
+        );
+        final var output = new ByteArrayOutputStream();
+
+        urlImportService.importUrls(RequestMetadata.from(httpRequest), new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        final var results = output.toString(StandardCharsets.UTF_8).lines()
+                .map(this::readResult)
+                .toList();
+        assertEquals(4, results.size());
+        assertEquals(1, results.get(0).get("line").asInt());
+        assertEquals(201, results.get(0).get("status_code").asInt());
+        assertEquals(400, results.get(1).get("status_code").asInt());
+        assertEquals("Invalid JSON", results.get(1).get("error").asText());
+        assertEquals(4, results.get(2).get("line").asInt());
+        assertEquals(400, results.get(2).get("status_code").asInt());
+        assertEquals(5, results.get(3).get("line").asInt());
+        assertEquals("https://www.google.com/maps", results.get(3).get("original_url").asText());
+        assertNotNull(results.get(3).get("short_url"));
+        verify(urlService, times(1)).generateShortUrls(any(), any());
+    }
+
+    @Test
+    void importUrls_ShouldKeepReadAheadBounded_ForLargeInput() throws Exception {
+        final var lines = 100_000;
+        final var linesRead = new AtomicLong();
+        final var linesWritten = new AtomicLong();
+        final var maxReadAhead = new AtomicLong();
+        final var line = (requestLine("https://www.google.com") + "\n").getBytes(StandardCharsets.UTF_8);
+
+        final var input = new InputStream() {
+            private long position;
+
+            @Override
+            public int read() {
+                if (position == (long) line.length * lines) {
+                    return -1;
+                }
+                final var b = line[(int) (position++ % line.length)];
+                if (b == '\n') {
+                    maxReadAhead.accumulateAndGet(linesRead.incrementAndGet() - linesWritten.get(), Math::max);
+                }
+                return b;
+            }
+        };
+        final var output = new OutputStream() {
+            @Override
+            public void write(final int b) {
+                if (b == '\n') {
+                    linesWritten.incrementAndGet();
+                }
+            }
+        };
+
+        urlImportService.importUrls(RequestMetadata.from(httpRequest), input, output);
+
+        assertEquals(lines, linesWritten.get());
+        assertEquals(lines, generatedShortUrls.get());
+        // in-flight batches, the batch being read and the reader buffers
+        assertTrue(maxReadAhead.get() <= 5 * 100 + 500, "Read ahead should stay bounded: " + maxReadAhead.get());
+    }
+
+    @Test
+    void importUrls_ShouldRejectLine_WhenItExceedsMaxLineLength() throws Exception {
+        final var environment = new MockEnvironment().withProperty("url.import.max-line-length", "200");
+        final var input = requestLine("https://www.google.com/" + "a".repeat(1_000)) + "\n" + requestLine("https://www.google.com");
+        final var output = new ByteArrayOutputStream();
+
+        try (final var importService = new UrlImportService(urlService, objectMapper, Validation.buildDefaultValidatorFactory().getValidator(), environment)) {
+            importService.importUrls(RequestMetadata.from(httpRequest), new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+        }
+
+        final var results = output.toString(StandardCharsets.UTF_8).lines()
+                .map(this::readResult)
+                .toList();
+        assertEquals(2, results.size());
+        assertEquals(400, results.get(0).get("status_code").asInt());
+        assertEquals("Line exceeds 200 characters", results.get(0).get("error").asText());
+        assertEquals(2, results.get(1).get("line").asInt());
+        assertEquals(201, results.get(1).get("status_code").asInt());
+    }
+
+    @Test
+    void importUrls_ShouldWriteOneBatchAtATime_WhenQuotaAccountingIsDisabled() throws Exception {
+        final var activeBatches = new AtomicInteger();
+        final var maxActiveBatches = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxActiveBatches.accumulateAndGet(activeBatches.incrementAndGet(), Math::max);
+            Thread.sleep(10);
+            activeBatches.decrementAndGet();
+            return createAll(invocation.getArgument(1));
+        }).when(urlService).generateShortUrls(any(), any());
+        final var input = String.join("\n", Collections.nCopies(1_000, requestLine("https://www.google.com")));
+
+        urlImportService.importUrls(RequestMetadata.from(httpRequest), new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), new ByteArrayOutputStream());
+
+        assertEquals(1_000, generatedShortUrls.get());
+        assertEquals(1, maxActiveBatches.get());
+    }
+
+    private UrlResponse createAll(final BulkShortUrlRequest request) {
+        final var results = request.urls().stream()
+                .map(shortUrlRequest -> GenerateUrlResponse.builder()
+                        .originalUrl(shortUrlRequest.originalUrl())
+                        .shortUrl(Long.toString(generatedShortUrls.incrementAndGet(), 36))
+                        .statusCode(201)
+                        .build())
+                .toList();
+        return new UrlResponse(200, BulkGenerateUrlResponse.builder().statusCode(200).results(results).build());
+    }
+
+    private String requestLine(final String originalUrl) {
+        return "{\"user_id\":\"" + USER_ID + "\",\"original_url\":\"" + originalUrl + "\"}";
+    }
+
+    private JsonNode readResult(final String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -1,15 +1,27 @@
 package com.akgarg.urlshortener.integration.url;
 
 import com.akgarg.urlshortener.encoding.EncoderService;
+import com.akgarg.urlshortener.events.EventType;
 import com.akgarg.urlshortener.events.StatisticsEventService;
 import com.akgarg.urlshortener.exception.UrlShortenerException;
 import com.akgarg.urlshortener.numbergenerator.NumberGeneratorService;
+import com.akgarg.urlshortener.request.BulkShortUrlRequest;
+import com.akgarg.urlshortener.request.RequestMetadata;
+import com.akgarg.urlshortener.request.ResolveUrlsRequest;
 import com.akgarg.urlshortener.request.ShortUrlRequest;
+import com.akgarg.urlshortener.response.ApiErrorResponse;
+import com.akgarg.urlshortener.response.BulkGenerateUrlResponse;
 import com.akgarg.urlshortener.response.GenerateUrlResponse;
+import com.akgarg.urlshortener.response.ResolveUrlsResponse;
+import com.akgarg.urlshortener.response.ResolvedUrlResponse;
+import com.akgarg.urlshortener.shortcode.InlineShortCodeService;
 import com.akgarg.urlshortener.unit.faker.FakerService;
 import com.akgarg.urlshortener.v1.api.UrlService;
 import com.akgarg.urlshortener.v1.db.UrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.UrlSaveStatus;
+import com.akgarg.urlshortener.v1.subscription.EntitlementResponse;
 import com.akgarg.urlshortener.v1.subscription.SubscriptionService;
+import com.akgarg.urlshortener.v1.subscription.quota.QuotaReservation;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,16 +31,19 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 final class UrlServiceTest {
 
-    private static final String DOMAIN = "http://localhost:8080/";
-    private static final String ATTRIBUTE_REQUEST_ID = "requestId";
+    private static final String HEADER_REQUEST_ID = "X-Request-ID";
+    private static final String HEADER_USER_ID = "X-USER-ID";
     private static final String HEADER_USER_AGENT = "USER-AGENT";
 
     @Mock
@@ -52,10 +67,9 @@ final class UrlServiceTest {
         closeable = MockitoAnnotations.openMocks(this);
         urlService = new UrlService(
                 statisticsEventService,
-                numberGeneratorService,
+                new InlineShortCodeService(numberGeneratorService, encoderService),
                 subscriptionService,
-                urlDatabaseService,
-                encoderService
+                urlDatabaseService
         );
     }
 
@@ -73,25 +87,27 @@ final class UrlServiceTest {
         final var userId = "4b34ed1400fd06ef21f";
         final var originalUrl = "https://www.google.com";
         final var userAgent = "Mozilla/5.0 (Windows NT 10.0; Win64; x64";
-        final var expectedShortUrl = DOMAIN + shortUrl;
 
+        stubRequestHeaders(requestId, userId, userAgent);
+        when(subscriptionService.evaluateEntitlements(requestId, userId, 1, 0)).thenReturn(new EntitlementResponse(true, true, true));
         when(numberGeneratorService.generateNextNumber()).thenReturn(number);
         when(encoderService.encode(number)).thenReturn(shortUrl);
         when(urlDatabaseService.saveUrl(ArgumentMatchers.any())).thenReturn(true);
-        when(httpRequest.getAttribute("requestId")).thenReturn(requestId);
-        when(httpRequest.getHeader("USER-AGENT")).thenReturn(userAgent);
 
         final var request = new ShortUrlRequest(userId, originalUrl, null, null);
-        final var generatedShorUrl = urlService.generateShortUrl(httpRequest, request);
+        final var generatedShorUrl = urlService.generateShortUrl(RequestMetadata.from(httpRequest), request);
 
         verify(numberGeneratorService, times(1)).generateNextNumber();
         verify(encoderService, times(1)).encode(number);
         verify(urlDatabaseService, times(1)).saveUrl(ArgumentMatchers.any());
-        verify(httpRequest, times(2)).getAttribute(ATTRIBUTE_REQUEST_ID);
-        verify(httpRequest, times(1)).getHeader(HEADER_USER_AGENT);
+        verifyRequestHeadersRead();
+        verify(statisticsEventService, times(1)).publishEvent(argThat(event -> event.eventType() == EventType.URL_CREATE_SUCCESS &&
+                requestId.equals(event.requestId()) &&
+                userAgent.equals(event.userAgent())));
 
+        assertEquals(201, generatedShorUrl.statusCode());
         assertInstanceOf(GenerateUrlResponse.class, generatedShorUrl.data(), "Response data should be a GenerateUrlResponse");
-        assertEquals(expectedShortUrl, ((GenerateUrlResponse) generatedShorUrl.data()).getShortUrl(), "Short url should be same as expected short url");
+        assertEquals(shortUrl, ((GenerateUrlResponse) generatedShorUrl.data()).getShortUrl(), "Short url should be same as expected short url");
     }
 
     @Test
@@ -102,54 +118,52 @@ final class UrlServiceTest {
         final var userId = "4b34ed1400fd06ef21f";
         final var originalUrl = "https://www.google.com";
 
+        stubRequestHeaders(requestId, userId, userAgent);
+        when(subscriptionService.evaluateEntitlements(requestId, userId, 1, 0)).thenReturn(new EntitlementResponse(true, true, true));
         when(numberGeneratorService.generateNextNumber()).thenReturn(number);
-        when(httpRequest.getAttribute("requestId")).thenReturn(requestId);
-        when(httpRequest.getHeader("USER-AGENT")).thenReturn(userAgent);
 
         final var request = new ShortUrlRequest(userId, originalUrl, null, null);
 
         assertThrows(
                 UrlShortenerException.class,
-                () -> urlService.generateShortUrl(httpRequest, request),
+                () -> urlService.generateShortUrl(RequestMetadata.from(httpRequest), request),
                 "generateShortUrl method should throw UrlShortenerException when number generator service returns zero"
         );
 
         verify(numberGeneratorService, times(1)).generateNextNumber();
         verify(encoderService, times(0)).encode(number);
         verify(urlDatabaseService, times(0)).saveUrl(ArgumentMatchers.any());
-        verify(httpRequest, times(2)).getAttribute(ATTRIBUTE_REQUEST_ID);
-        verify(httpRequest, times(1)).getHeader(HEADER_USER_AGENT);
+        verifyRequestHeadersRead();
     }
 
     @Test
     void generateShortUrl_ShouldThrowUrlShortenerException_WhenNumberGeneratorServiceReturnsNegativeNumber() {
-        final var number = 0L;
+        final var number = -1L;
         final var requestId = UUID.randomUUID().toString();
         final var userAgent = "Mozilla/5.0 (Windows NT 10.0; Win64; x64";
         final var userId = "4b34ed1400fd06ef21f";
         final var originalUrl = "https://www.google.com";
 
+        stubRequestHeaders(requestId, userId, userAgent);
+        when(subscriptionService.evaluateEntitlements(requestId, userId, 1, 0)).thenReturn(new EntitlementResponse(true, true, true));
         when(numberGeneratorService.generateNextNumber()).thenReturn(number);
-        when(httpRequest.getAttribute("requestId")).thenReturn(requestId);
-        when(httpRequest.getHeader("USER-AGENT")).thenReturn(userAgent);
 
         final var request = new ShortUrlRequest(userId, originalUrl, null, null);
 
         assertThrows(
                 UrlShortenerException.class,
-                () -> urlService.generateShortUrl(httpRequest, request),
+                () -> urlService.generateShortUrl(RequestMetadata.from(httpRequest), request),
                 "generateShortUrl method should throw UrlShortenerException when number generator service returns negative number"
         );
 
         verify(numberGeneratorService, times(1)).generateNextNumber();
         verify(encoderService, times(0)).encode(number);
         verify(urlDatabaseService, times(0)).saveUrl(ArgumentMatchers.any());
-        verify(httpRequest, times(2)).getAttribute(ATTRIBUTE_REQUEST_ID);
-        verify(httpRequest, times(1)).getHeader(HEADER_USER_AGENT);
+        verifyRequestHeadersRead();
     }
 
     @Test
-    void generateShortUrl_ShouldThrowUrlShortenerException_WhenDatabaseSaveFailed() {
+    void generateShortUrl_ShouldReturnInternalServerError_WhenDatabaseSaveFailed() {
         final var requestId = UUID.randomUUID().toString();
         final var number = 1_00_00_00_00_000L;
         final var shortUrl = "O9Oz9L1";
@@ -157,38 +171,246 @@ final class UrlServiceTest {
         final var userId = "4b34ed1400fd06ef21f";
         final var originalUrl = "https://www.google.com";
 
+        stubRequestHeaders(requestId, userId, userAgent);
+        when(subscriptionService.evaluateEntitlements(requestId, userId, 1, 0)).thenReturn(new EntitlementResponse(true, true, true));
         when(numberGeneratorService.generateNextNumber()).thenReturn(number);
         when(encoderService.encode(number)).thenReturn(shortUrl);
         when(urlDatabaseService.saveUrl(ArgumentMatchers.any())).thenReturn(false);
-        when(httpRequest.getAttribute("requestId")).thenReturn(requestId);
-        when(httpRequest.getHeader("USER-AGENT")).thenReturn(userAgent);
 
         final var request = new ShortUrlRequest(userId, originalUrl, null, null);
+        final var response = urlService.generateShortUrl(RequestMetadata.from(httpRequest), request);
 
-        assertThrows(
-                UrlShortenerException.class,
-                () -> urlService.generateShortUrl(httpRequest, request),
-                "generateShortUrl method should throw UrlShortenerException when database save failed"
-        );
+        assertEquals(500, response.statusCode(), "generateShortUrl method should return 500 when database save failed");
+        assertInstanceOf(ApiErrorResponse.class, response.data());
 
         verify(numberGeneratorService, times(1)).generateNextNumber();
         verify(encoderService, times(1)).encode(number);
         verify(urlDatabaseService, times(1)).saveUrl(ArgumentMatchers.any());
-        verify(httpRequest, times(2)).getAttribute(ATTRIBUTE_REQUEST_ID);
-        verify(httpRequest, times(1)).getHeader(HEADER_USER_AGENT);
+        verifyRequestHeadersRead();
+        verify(statisticsEventService, times(1)).publishEvent(argThat(event -> event.eventType() == EventType.URL_CREATE_FAILED));
+    }
+
+    @Test
+    void generateShortUrls_ShouldCheckQuotaOnce_AndReportStatusPerItem() {
+        final var userId = "4b34ed1400fd06ef21f";
+        final var numbers = new long[]{1_00_00_00_00_000L, 1_00_00_00_00_001L};
+
+        when(httpRequest.getHeader(HEADER_USER_ID)).thenReturn(userId);
+        when(subscriptionService.evaluateEntitlements(any(), eq(userId), eq(3), eq(1))).thenReturn(new EntitlementResponse(true, true, true));
+        when(numberGeneratorService.generateNextNumbers(2)).thenReturn(numbers);
+        when(encoderService.encode(numbers[0])).thenReturn("O9Oz9L1");
+        when(encoderService.encode(numbers[1])).thenReturn("P9Oz9L1");
+        when(urlDatabaseService.saveUrls(anyList())).thenReturn(List.of(UrlSaveStatus.SAVED, UrlSaveStatus.DUPLICATE, UrlSaveStatus.SAVED));
+
+        final var request = new BulkShortUrlRequest(List.of(
+                new ShortUrlRequest(userId, "https://www.google.com", null, null),
+                new ShortUrlRequest("another-user", "https://www.google.com", null, null),
+                new ShortUrlRequest(userId, "https://www.google.com/search", "my-alias", null),
+                new ShortUrlRequest(userId, "https://www.google.com/maps", null, null)
+        ));
+        final var response = urlService.generateShortUrls(RequestMetadata.from(httpRequest), request);
+
+        assertEquals(200, response.statusCode());
+        final var results = ((BulkGenerateUrlResponse) response.data()).getResults();
+        assertEquals(List.of(201, 400, 409, 201), results.stream().map(GenerateUrlResponse::getStatusCode).toList());
+        assertEquals("O9Oz9L1", results.get(0).getShortUrl());
+        assertEquals("P9Oz9L1", results.get(3).getShortUrl());
+        verify(subscriptionService, times(1)).evaluateEntitlements(any(), eq(userId), eq(3), eq(1));
+        verify(numberGeneratorService, never()).generateNextNumber();
+        verify(urlDatabaseService, times(1)).saveUrls(anyList());
+        verify(urlDatabaseService, never()).saveUrl(any());
+    }
+
+    @Test
+    void generateShortUrls_ShouldRejectInvalidItems_WithSingleCreateStatusAndError() {
+        final var userId = "4b34ed1400fd06ef21f";
+
+        when(httpRequest.getHeader(HEADER_USER_ID)).thenReturn(userId);
+
+        final var invalidRequests = List.of(
+                new ShortUrlRequest(userId, "https://www.google.com", null, System.currentTimeMillis() - 1_000),
+                new ShortUrlRequest("another-user", "https://www.google.com", null, null),
+                new ShortUrlRequest(userId, "https://www.google.com/a b", null, null)
+        );
+        final var response = urlService.generateShortUrls(RequestMetadata.from(httpRequest), new BulkShortUrlRequest(invalidRequests));
+        final var results = ((BulkGenerateUrlResponse) response.data()).getResults();
+
+        for (int i = 0; i < invalidRequests.size(); i++) {
+            final var singleResponse = urlService.generateShortUrl(RequestMetadata.from(httpRequest), invalidRequests.get(i));
+
+            assertEquals(400, results.get(i).getStatusCode());
+            assertEquals(singleResponse.statusCode(), results.get(i).getStatusCode());
+            assertArrayEquals(new String[]{results.get(i).getError()}, ((ApiErrorResponse) singleResponse.data()).getErrors());
+        }
+
+        verifyNoInteractions(subscriptionService);
+        verify(urlDatabaseService, never()).saveUrls(anyList());
+    }
+
+    @Test
+    void generateShortUrls_ShouldRejectWholeBatch_WhenQuotaIsExceeded() {
+        final var userId = "4b34ed1400fd06ef21f";
+
+        when(httpRequest.getHeader(HEADER_USER_ID)).thenReturn(userId);
+        when(subscriptionService.evaluateEntitlements(any(), eq(userId), eq(2), eq(0))).thenReturn(new EntitlementResponse(true, false, true));
+
+        final var request = new BulkShortUrlRequest(List.of(
+                new ShortUrlRequest(userId, "https://www.google.com", null, null),
+                new ShortUrlRequest(userId, "https://www.google.com/maps", null, null)
+        ));
+        final var response = urlService.generateShortUrls(RequestMetadata.from(httpRequest), request);
+
+        assertEquals(403, response.statusCode());
+        assertInstanceOf(ApiErrorResponse.class, response.data());
+        verify(numberGeneratorService, never()).generateNextNumbers(anyInt());
+        verify(urlDatabaseService, never()).saveUrls(anyList());
+    }
+
+    @Test
+    void resolveUrls_ShouldResolveAllShortUrlsWithOneLookup_AndSkipEventsWhenRequested() {
+        final var url = FakerService.fakeUrlMetadata();
+        final var expiredUrl = FakerService.fakeUrlMetadata();
+        expiredUrl.setShortUrl("expired");
+        expiredUrl.setExpiresAt(System.currentTimeMillis() - 1);
+        when(urlDatabaseService.getUrlsByShortUrls(anyCollection()))
+                .thenReturn(Map.of(url.getShortUrl(), url, expiredUrl.getShortUrl(), expiredUrl));
+
+        final var request = new ResolveUrlsRequest(List.of(url.getShortUrl(), "missing", expiredUrl.getShortUrl(), url.getShortUrl()), true);
+        final var response = urlService.resolveUrls(RequestMetadata.from(httpRequest), request);
+
+        assertEquals(200, response.statusCode());
+        final var results = ((ResolveUrlsResponse) response.data()).getResults();
+        assertEquals(List.of(200, 404, 410, 200), results.stream().map(ResolvedUrlResponse::getStatusCode).toList());
+        assertEquals("https://www.google.com", results.get(0).getRedirectUrl());
+        assertNull(results.get(2).getRedirectUrl());
+        verify(urlDatabaseService, times(1)).getUrlsByShortUrls(anyCollection());
+        verify(urlDatabaseService, never()).getUrlByShortUrl(any());
+        verify(statisticsEventService, never()).publishEvent(any());
+    }
+
+    @Test
+    void generateShortUrlAsync_ShouldComposeSubscriptionChecks_WithAsyncSave() {
+        final var userId = "4b34ed1400fd06ef21f";
+        final var pendingSave = new CompletableFuture<Boolean>();
+
+        when(httpRequest.getHeader(HEADER_USER_ID)).thenReturn(userId);
+        when(subscriptionService.evaluateEntitlementsAsync(any(), eq(userId), eq(1), eq(1)))
+                .thenReturn(CompletableFuture.completedFuture(new EntitlementResponse(true, true, true)));
+        when(urlDatabaseService.saveUrlAsync(any())).thenReturn(pendingSave);
+
+        final var request = new ShortUrlRequest(userId, "https://www.google.com", "my-alias", null);
+        final var response = urlService.generateShortUrlAsync(RequestMetadata.from(httpRequest), request);
+
+        assertFalse(response.isDone(), "Response should wait for the storage write");
+        pendingSave.complete(true);
+
+        assertEquals(201, response.join().statusCode());
+        assertEquals("my-alias", ((GenerateUrlResponse) response.join().data()).getShortUrl());
+        verify(urlDatabaseService, never()).saveUrl(any());
+        verify(subscriptionService, never()).evaluateEntitlements(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void generateShortUrlAsync_ShouldNotSave_WhenQuotaIsExceeded() {
+        final var userId = "4b34ed1400fd06ef21f";
+
+        when(httpRequest.getHeader(HEADER_USER_ID)).thenReturn(userId);
+        when(subscriptionService.evaluateEntitlementsAsync(any(), eq(userId), eq(1), eq(0)))
+                .thenReturn(CompletableFuture.completedFuture(new EntitlementResponse(true, false, true)));
+
+        final var request = new ShortUrlRequest(userId, "https://www.google.com", null, null);
+        final var response = urlService.generateShortUrlAsync(RequestMetadata.from(httpRequest), request).join();
+
+        assertEquals(403, response.statusCode());
+        verify(numberGeneratorService, never()).generateNextNumber();
+        verify(urlDatabaseService, never()).saveUrlAsync(any());
+    }
+
+    @Test
+    void generateShortUrlAsync_ShouldNotSave_WhenCustomAliasLimitIsReached() {
+        final var userId = "4b34ed1400fd06ef21f";
+
+        when(httpRequest.getHeader(HEADER_USER_ID)).thenReturn(userId);
+        when(subscriptionService.evaluateEntitlementsAsync(any(), eq(userId), eq(1), eq(1)))
+                .thenReturn(CompletableFuture.completedFuture(new EntitlementResponse(true, true, false)));
+
+        final var request = new ShortUrlRequest(userId, "https://www.google.com", "my-alias", null);
+        final var response = urlService.generateShortUrlAsync(RequestMetadata.from(httpRequest), request).join();
+
+        assertEquals(403, response.statusCode());
+        assertArrayEquals(new String[]{"Custom alias limit reached"}, ((ApiErrorResponse) response.data()).getErrors());
+        verify(subscriptionService, times(1)).evaluateEntitlementsAsync(any(), eq(userId), eq(1), eq(1));
+        verify(urlDatabaseService, never()).saveUrlAsync(any());
+    }
+
+    @Test
+    void generateShortUrlAsync_ShouldReleaseQuota_WhenSaveFails() {
+        final var userId = "4b34ed1400fd06ef21f";
+        final var reservation = new QuotaReservation("quota-key", 1, 1);
+
+        when(httpRequest.getHeader(HEADER_USER_ID)).thenReturn(userId);
+        when(subscriptionService.evaluateEntitlementsAsync(any(), eq(userId), eq(1), eq(1)))
+                .thenReturn(CompletableFuture.completedFuture(new EntitlementResponse(true, true, true, reservation)));
+        when(urlDatabaseService.saveUrlAsync(any())).thenReturn(CompletableFuture.completedFuture(false));
+
+        final var request = new ShortUrlRequest(userId, "https://www.google.com", "my-alias", null);
+        final var response = urlService.generateShortUrlAsync(RequestMetadata.from(httpRequest), request).join();
+
+        assertEquals(500, response.statusCode());
+        verify(subscriptionService, times(1)).releaseQuota(reservation);
+        verify(subscriptionService, never()).commitQuota(any());
+    }
+
+    @Test
+    void generateShortUrls_ShouldCommitQuotaOfSavedUrls_AndReleaseTheRest() {
+        final var userId = "4b34ed1400fd06ef21f";
+        final var numbers = new long[]{1_00_00_00_00_000L, 1_00_00_00_00_001L};
+        final var reservation = new QuotaReservation("quota-key", 3, 1);
+
+        when(httpRequest.getHeader(HEADER_USER_ID)).thenReturn(userId);
+        when(subscriptionService.evaluateEntitlements(any(), eq(userId), eq(3), eq(1))).thenReturn(new EntitlementResponse(true, true, true, reservation));
+        when(numberGeneratorService.generateNextNumbers(2)).thenReturn(numbers);
+        when(encoderService.encode(numbers[0])).thenReturn("O9Oz9L1");
+        when(encoderService.encode(numbers[1])).thenReturn("P9Oz9L1");
+        when(urlDatabaseService.saveUrls(anyList())).thenReturn(List.of(UrlSaveStatus.SAVED, UrlSaveStatus.DUPLICATE, UrlSaveStatus.FAILED));
+
+        final var request = new BulkShortUrlRequest(List.of(
+                new ShortUrlRequest(userId, "https://www.google.com", null, null),
+                new ShortUrlRequest(userId, "https://www.google.com/search", "my-alias", null),
+                new ShortUrlRequest(userId, "https://www.google.com/maps", null, null)
+        ));
+        urlService.generateShortUrls(RequestMetadata.from(httpRequest), request);
+
+        verify(subscriptionService, times(1)).commitQuota(new QuotaReservation("quota-key", 1, 0));
+        verify(subscriptionService, times(1)).releaseQuota(new QuotaReservation("quota-key", 2, 1));
+    }
+
+    @Test
+    void getOriginalUrlAsync_ShouldReturnOriginalUrl_FromAsyncLookup() {
+        final var urlMetadata = FakerService.fakeUrlMetadata();
+
+        when(urlDatabaseService.getUrlByShortUrlAsync(urlMetadata.getShortUrl()))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(urlMetadata)));
+
+        final var response = urlService.getOriginalUrlAsync(RequestMetadata.from(httpRequest), urlMetadata.getShortUrl()).join();
+
+        assertEquals(200, response.statusCode());
+        assertEquals(URI.create(urlMetadata.getOriginalUrl()), response.data());
+        verify(urlDatabaseService, never()).getUrlByShortUrl(any());
     }
 
     @Test
     void getShortUrl_ShouldReturn_OriginalUrl() {
         final var urlMetadata = FakerService.fakeUrlMetadata();
+        final var requestId = UUID.randomUUID().toString();
         final var userAgent = "Mozilla/5.0 (Windows NT 10.0; Win64; x64";
         final var shortUrl = urlMetadata.getShortUrl();
         final var expectedOriginalUrl = URI.create(urlMetadata.getOriginalUrl());
 
         when(urlDatabaseService.getUrlByShortUrl(shortUrl)).thenReturn(Optional.of(urlMetadata));
-        when(httpRequest.getHeader("USER-AGENT")).thenReturn(userAgent);
+        stubRequestHeaders(requestId, null, userAgent);
 
-        final var originalUrlFromUrlService = urlService.getOriginalUrl(httpRequest, shortUrl);
+        final var originalUrlFromUrlService = urlService.getOriginalUrl(RequestMetadata.from(httpRequest), shortUrl);
 
         assertInstanceOf(URI.class, originalUrlFromUrlService.data(), "URI should return original url");
 
@@ -199,26 +421,40 @@ final class UrlServiceTest {
         );
 
         verify(urlDatabaseService, times(1)).getUrlByShortUrl(shortUrl);
-        verify(httpRequest, times(2)).getAttribute(ATTRIBUTE_REQUEST_ID);
-        verify(httpRequest, times(1)).getHeader(HEADER_USER_AGENT);
+        verifyRequestHeadersRead();
+        verify(statisticsEventService, times(1)).publishEvent(argThat(event -> event.eventType() == EventType.URL_GET_SUCCESS &&
+                requestId.equals(event.requestId())));
     }
 
     @Test
-    void getShortUrl_ShouldThrowUrlShortenerException_WhenUrlMetadataNotFound() {
+    void getShortUrl_ShouldReturnNotFound_WhenUrlMetadataNotFound() {
+        final var requestId = UUID.randomUUID().toString();
         final var userAgent = "Mozilla/5.0 (Windows NT 10.0; Win64; x64";
         final var shortUrl = "O9Oz9L1";
 
         when(urlDatabaseService.getUrlByShortUrl(shortUrl)).thenReturn(Optional.empty());
-        when(httpRequest.getHeader("USER-AGENT")).thenReturn(userAgent);
+        stubRequestHeaders(requestId, null, userAgent);
 
-        assertThrowsExactly(
-                UrlShortenerException.class,
-                () -> urlService.getOriginalUrl(httpRequest, shortUrl),
-                "getOriginalUrl method should throw UrlShortenerException when url metadata not found"
-        );
+        final var response = urlService.getOriginalUrl(RequestMetadata.from(httpRequest), shortUrl);
+
+        assertEquals(404, response.statusCode(), "getOriginalUrl method should return 404 when url metadata not found");
+        assertInstanceOf(ApiErrorResponse.class, response.data());
 
         verify(urlDatabaseService, times(1)).getUrlByShortUrl(shortUrl);
-        verify(httpRequest, times(2)).getAttribute(ATTRIBUTE_REQUEST_ID);
+        verifyRequestHeadersRead();
+        verify(statisticsEventService, times(1)).publishEvent(argThat(event -> event.eventType() == EventType.URL_GET_FAILED));
+    }
+
+    private void stubRequestHeaders(final String requestId, final String userId, final String userAgent) {
+        when(httpRequest.getHeader(HEADER_REQUEST_ID)).thenReturn(requestId);
+        when(httpRequest.getHeader(HEADER_USER_ID)).thenReturn(userId);
+        when(httpRequest.getHeader(HEADER_USER_AGENT)).thenReturn(userAgent);
+    }
+
+    // the request metadata is read once, up front
+    private void verifyRequestHeadersRead() {
+        verify(httpRequest, times(1)).getHeader(HEADER_REQUEST_ID);
+        verify(httpRequest, times(1)).getHeader(HEADER_USER_ID);
         verify(httpRequest, times(1)).getHeader(HEADER_USER_AGENT);
     }
 
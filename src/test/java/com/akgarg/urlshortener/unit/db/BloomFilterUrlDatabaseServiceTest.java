@@ -0,0 +1,144 @@
+package com.akgarg.urlshortener.unit.db;
+
+import com.akgarg.urlshortener.unit.faker.FakerService;
+import com.akgarg.urlshortener.v1.db.InMemoryUrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.UrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.cache.BloomFilterUrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.cache.LocalShortUrlBroadcaster;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+final class BloomFilterUrlDatabaseServiceTest {
+
+    private UrlDatabaseService delegate;
+    private LocalShortUrlBroadcaster broadcaster;
+    private SimpleMeterRegistry meterRegistry;
+    private BloomFilterUrlDatabaseService bloomFilterUrlDatabaseService;
+
+    @BeforeEach
+    void setUp() {
+        delegate = spy(new InMemoryUrlDatabaseService());
+        broadcaster = new LocalShortUrlBroadcaster();
+        meterRegistry = new SimpleMeterRegistry();
+        bloomFilterUrlDatabaseService = new BloomFilterUrlDatabaseService(
+                delegate,
+                broadcaster,
+                10_000,
+                0.01,
+                Duration.ofMinutes(1),
+                1_000,
+                meterRegistry
+        );
+    }
+
+    @Test
+    void getUrlsByShortUrls_ShouldQueryDelegateOnlyForPossibleHits() {
+        final var url = FakerService.fakeUrlMetadata();
+        delegate.saveUrl(url);
+        bloomFilterUrlDatabaseService.rebuildBloomFilter();
+
+        final var urls = bloomFilterUrlDatabaseService.getUrlsByShortUrls(List.of(url.getShortUrl(), "unknown1", "unknown2"));
+
+        assertEquals(1, urls.size());
+        assertSame(url, urls.get(url.getShortUrl()));
+        verify(delegate).getUrlsByShortUrls(List.of(url.getShortUrl()));
+    }
+
+    @Test
+    void getUrlByShortUrl_ShouldNotQueryDelegate_ForDefiniteMisses() {
+        final var url = FakerService.fakeUrlMetadata();
+        delegate.saveUrl(url);
+        bloomFilterUrlDatabaseService.rebuildBloomFilter();
+
+        for (int i = 0; i < 1_000; i++) {
+            bloomFilterUrlDatabaseService.getUrlByShortUrl("unknown" + i);
+        }
+
+        assertTrue(bloomFilterUrlDatabaseService.getUrlByShortUrl(url.getShortUrl()).isPresent());
+        verify(delegate, atMost(30)).getUrlByShortUrl(startsWith("unknown"));
+        assertTrue(meterRegistry.get("url.bloom.filter.definite.misses").counter().count() >= 970);
+        assertTrue(meterRegistry.get("url.bloom.filter.memory").gauge().value() > 0);
+    }
+
+    @Test
+    void getUrlByShortUrl_ShouldFindSavedUrl_AfterBloomFilterIsLoaded() {
+        bloomFilterUrlDatabaseService.rebuildBloomFilter();
+
+        final var url = FakerService.fakeUrlMetadata();
+        assertTrue(bloomFilterUrlDatabaseService.getUrlByShortUrl(url.getShortUrl()).isEmpty());
+        assertTrue(bloomFilterUrlDatabaseService.saveUrl(url));
+
+        assertTrue(bloomFilterUrlDatabaseService.getUrlByShortUrl(url.getShortUrl()).isPresent());
+    }
+
+    @Test
+    void getUrlByShortUrl_ShouldFindUrlsSavedByOtherInstances_WhenBroadcast() {
+        bloomFilterUrlDatabaseService.rebuildBloomFilter();
+
+        final var url = FakerService.fakeUrlMetadata();
+        assertTrue(bloomFilterUrlDatabaseService.getUrlByShortUrl(url.getShortUrl()).isEmpty());
+
+        delegate.saveUrl(url);
+        broadcaster.broadcast(url.getShortUrl());
+
+        assertTrue(bloomFilterUrlDatabaseService.getUrlByShortUrl(url.getShortUrl()).isPresent());
+    }
+
+    @Test
+    void getUrlByShortUrl_ShouldNotCacheMiss_WhenShortUrlIsRegisteredDuringLookup() {
+        final var url = FakerService.fakeUrlMetadata();
+        doAnswer(invocation -> {
+            // created on another instance after the storage was queried
+            final var result = invocation.callRealMethod();
+            delegate.saveUrl(url);
+            broadcaster.broadcast(url.getShortUrl());
+            return result;
+        }).doCallRealMethod().when(delegate).getUrlByShortUrl(url.getShortUrl());
+
+        assertTrue(bloomFilterUrlDatabaseService.getUrlByShortUrl(url.getShortUrl()).isEmpty());
+        assertTrue(bloomFilterUrlDatabaseService.getUrlByShortUrl(url.getShortUrl()).isPresent());
+    }
+
+    @Test
+    void getUrlByShortUrl_ShouldQueryDelegate_WhenBloomFilterWasLoadedBeforeBroadcastsWereReceived() {
+        final var unsubscribedBroadcaster = mock(LocalShortUrlBroadcaster.class);
+        final var service = new BloomFilterUrlDatabaseService(delegate, unsubscribedBroadcaster, 10_000, 0.01, Duration.ofMinutes(1), 1_000, meterRegistry);
+        service.rebuildBloomFilter();
+
+        final var url = FakerService.fakeUrlMetadata();
+        delegate.saveUrl(url);
+
+        assertTrue(service.getUrlByShortUrl(url.getShortUrl()).isPresent());
+        assertEquals(0, meterRegistry.get("url.bloom.filter.definite.misses").counter().count());
+    }
+
+    @Test
+    void saveUrls_ShouldBroadcastSavedShortUrlsTogether() {
+        final var batchBroadcaster = mock(LocalShortUrlBroadcaster.class);
+        final var service = new BloomFilterUrlDatabaseService(delegate, batchBroadcaster, 10_000, 0.01, Duration.ofMinutes(1), 1_000, meterRegistry);
+        final var first = FakerService.fakeUrlMetadata();
+        final var second = FakerService.fakeUrlMetadata();
+        second.setShortUrl("second");
+
+        service.saveUrls(List.of(first, second));
+
+        verify(batchBroadcaster).broadcast(List.of(first.getShortUrl(), "second"));
+        verify(batchBroadcaster, never()).broadcast(anyString());
+    }
+
+    @Test
+    void getUrlByShortUrl_ShouldCacheMisses_BeforeBloomFilterIsLoaded() {
+        bloomFilterUrlDatabaseService.getUrlByShortUrl("missing");
+        bloomFilterUrlDatabaseService.getUrlByShortUrl("missing");
+
+        verify(delegate, times(1)).getUrlByShortUrl("missing");
+    }
+
+}
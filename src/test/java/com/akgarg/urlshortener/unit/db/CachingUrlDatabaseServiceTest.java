@@ -0,0 +1,107 @@
+package com.akgarg.urlshortener.unit.db;
+
+import com.akgarg.urlshortener.unit.faker.FakerService;
+import com.akgarg.urlshortener.v1.db.UrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.cache.CachingUrlDatabaseService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+final class CachingUrlDatabaseServiceTest {
+
+    private UrlDatabaseService delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private CachingUrlDatabaseService cachingUrlDatabaseService;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(UrlDatabaseService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cachingUrlDatabaseService = new CachingUrlDatabaseService(delegate, 1024 * 1024, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    @Test
+    void getUrlByShortUrl_ShouldHitDelegateOnlyOnce_ForRepeatedLookups() {
+        final var url = FakerService.fakeUrlMetadata();
+        url.setExpiresAt(System.currentTimeMillis() + 60_000);
+        when(delegate.getUrlByShortUrl(url.getShortUrl())).thenReturn(Optional.of(url));
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Optional.of(url), cachingUrlDatabaseService.getUrlByShortUrl(url.getShortUrl()));
+        }
+
+        verify(delegate, times(1)).getUrlByShortUrl(url.getShortUrl());
+        assertEquals(9.0, meterRegistry.get("cache.gets").tag("cache", "urls").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void getCachedUrlByShortUrl_ShouldOnlyAnswerFromLocalCache() {
+        final var url = FakerService.fakeUrlMetadata();
+        when(delegate.saveUrl(url)).thenReturn(true);
+
+        assertEquals(Optional.empty(), cachingUrlDatabaseService.getCachedUrlByShortUrl(url.getShortUrl()));
+        cachingUrlDatabaseService.saveUrl(url);
+
+        assertEquals(Optional.of(url), cachingUrlDatabaseService.getCachedUrlByShortUrl(url.getShortUrl()));
+        verify(delegate, never()).getUrlByShortUrl(anyString());
+    }
+
+    @Test
+    void getUrlsByShortUrls_ShouldServeCachedUrls_AndLoadOnlyMissesFromDelegate() {
+        final var cachedUrl = FakerService.fakeUrlMetadata();
+        final var missingUrl = FakerService.fakeUrlMetadata();
+        missingUrl.setShortUrl("P9Oz9L1");
+        when(delegate.saveUrl(cachedUrl)).thenReturn(true);
+        when(delegate.getUrlsByShortUrls(List.of(missingUrl.getShortUrl()))).thenReturn(Map.of(missingUrl.getShortUrl(), missingUrl));
+        cachingUrlDatabaseService.saveUrl(cachedUrl);
+
+        final var urls = cachingUrlDatabaseService.getUrlsByShortUrls(List.of(cachedUrl.getShortUrl(), missingUrl.getShortUrl()));
+
+        assertEquals(Map.of(cachedUrl.getShortUrl(), cachedUrl, missingUrl.getShortUrl(), missingUrl), urls);
+        assertEquals(Optional.of(missingUrl), cachingUrlDatabaseService.getUrlByShortUrl(missingUrl.getShortUrl()));
+        verify(delegate, never()).getUrlByShortUrl(anyString());
+    }
+
+    @Test
+    void getUrlByShortUrl_ShouldNotCacheMisses() {
+        when(delegate.getUrlByShortUrl("missing")).thenReturn(Optional.empty());
+
+        assertTrue(cachingUrlDatabaseService.getUrlByShortUrl("missing").isEmpty());
+        assertTrue(cachingUrlDatabaseService.getUrlByShortUrl("missing").isEmpty());
+
+        verify(delegate, times(2)).getUrlByShortUrl("missing");
+    }
+
+    @Test
+    void getUrlByShortUrl_ShouldNotCacheExpiredUrls() {
+        final var url = FakerService.fakeUrlMetadata();
+        url.setExpiresAt(System.currentTimeMillis() - 1);
+        when(delegate.getUrlByShortUrl(url.getShortUrl())).thenReturn(Optional.of(url));
+
+        cachingUrlDatabaseService.getUrlByShortUrl(url.getShortUrl());
+        cachingUrlDatabaseService.getUrlByShortUrl(url.getShortUrl());
+
+        verify(delegate, times(2)).getUrlByShortUrl(url.getShortUrl());
+    }
+
+    @Test
+    void saveUrl_ShouldPopulateCache_WhenDelegateSaves() {
+        final var url = FakerService.fakeUrlMetadata();
+        url.setExpiresAt(System.currentTimeMillis() + 60_000);
+        when(delegate.saveUrl(url)).thenReturn(true);
+
+        assertTrue(cachingUrlDatabaseService.saveUrl(url));
+        assertEquals(Optional.of(url), cachingUrlDatabaseService.getUrlByShortUrl(url.getShortUrl()));
+
+        verify(delegate, never()).getUrlByShortUrl(anyString());
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.akgarg.urlshortener.unit.db;
+
+import com.akgarg.urlshortener.exception.UrlShortenerException;
+import com.akgarg.urlshortener.unit.faker.FakerService;
+import com.akgarg.urlshortener.v1.db.GroupCommitUrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.InMemoryUrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.Url;
+import com.akgarg.urlshortener.v1.db.UrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.cache.CachingUrlDatabaseService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+final class GroupCommitUrlDatabaseServiceTest {
+
+    private UrlDatabaseService delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private GroupCommitUrlDatabaseService groupCommitUrlDatabaseService;
+
+    @BeforeEach
+    void setUp() {
+        delegate = spy(new InMemoryUrlDatabaseService());
+        meterRegistry = new SimpleMeterRegistry();
+        groupCommitUrlDatabaseService = new GroupCommitUrlDatabaseService(delegate, 64, Duration.ofMillis(5), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        groupCommitUrlDatabaseService.close();
+    }
+
+    @Test
+    void saveUrl_ShouldWriteConcurrentSavesInFewerBatches() throws Exception {
+        final var callers = 64;
+        final var start = new CountDownLatch(1);
+
+        try (final var executorService = Executors.newFixedThreadPool(callers)) {
+            final var results = new ArrayList<Future<Boolean>>();
+
+            for (int i = 0; i < callers; i++) {
+                final var url = url("code" + i);
+                results.add(executorService.submit(() -> {
+                    start.await();
+                    return groupCommitUrlDatabaseService.saveUrl(url);
+                }));
+            }
+
+            start.countDown();
+
+            for (final var result : results) {
+                assertTrue(result.get());
+            }
+        }
+
+        final var batchSizes = meterRegistry.get("url.storage.group.commit.batch.size").summary();
+        assertEquals(callers, (long) batchSizes.totalAmount());
+        assertTrue(batchSizes.count() < callers, "Concurrent saves should share batches: " + batchSizes.count());
+        assertEquals(batchSizes.count(), meterRegistry.get("url.storage.group.commit.flush.latency").timer().count());
+        verify(delegate, never()).saveUrl(any());
+        assertTrue(groupCommitUrlDatabaseService.getUrlByShortUrl("code0").isPresent());
+    }
+
+    @Test
+    void saveUrl_ShouldThrowConflictOnlyForDuplicateCustomAlias() throws Exception {
+        final var alias = url("my-alias");
+        alias.setCustomAlias(true);
+        assertTrue(groupCommitUrlDatabaseService.saveUrl(alias));
+
+        final var duplicateAlias = url("my-alias");
+        duplicateAlias.setCustomAlias(true);
+        final var otherUrl = url("other");
+
+        try (final var executorService = Executors.newFixedThreadPool(2)) {
+            final var duplicateResult = executorService.submit(() -> groupCommitUrlDatabaseService.saveUrl(duplicateAlias));
+            final var otherResult = executorService.submit(() -> groupCommitUrlDatabaseService.saveUrl(otherUrl));
+
+            final var exception = assertThrows(Exception.class, duplicateResult::get);
+            assertInstanceOf(UrlShortenerException.class, exception.getCause());
+            assertEquals(409, ((UrlShortenerException) exception.getCause()).getErrorCode());
+            assertTrue(otherResult.get());
+        }
+    }
+
+    @Test
+    void saveUrlAsync_ShouldRunFollowOnWorkOffTheFlusherThread() {
+        final var savedOn = groupCommitUrlDatabaseService.saveUrlAsync(url("saved")).thenApply(saved -> Thread.currentThread());
+        assertTrue(savedOn.join().isVirtual(), "Saved callers should continue on a virtual thread");
+
+        doThrow(new IllegalStateException("database unavailable")).when(delegate).saveUrls(anyList());
+        final var failedOn = groupCommitUrlDatabaseService.saveUrlAsync(url("failed")).handle((saved, e) -> Thread.currentThread());
+        assertTrue(failedOn.join().isVirtual(), "Failed callers should continue on a virtual thread");
+    }
+
+    @Test
+    void saveUrl_ShouldPropagateBatchFailureToEveryCaller() {
+        doThrow(new IllegalStateException("database unavailable")).when(delegate).saveUrls(anyList());
+
+        assertThrows(IllegalStateException.class, () -> groupCommitUrlDatabaseService.saveUrl(url("failing")));
+    }
+
+    @Test
+    void saveUrl_ShouldFailBatchAndKeepFlushing_WhenDelegateThrowsError() {
+        doThrow(new AssertionError("driver bug")).doCallRealMethod().when(delegate).saveUrls(anyList());
+
+        final var exception = assertThrows(CompletionException.class, () -> groupCommitUrlDatabaseService.saveUrlAsync(url("failing")).join());
+        assertInstanceOf(AssertionError.class, exception.getCause());
+        assertTrue(groupCommitUrlDatabaseService.saveUrlAsync(url("next")).join());
+    }
+
+    @Test
+    void saveUrl_ShouldFailBatch_WhenDelegateReturnsTooFewStatuses() {
+        doReturn(List.of()).doCallRealMethod().when(delegate).saveUrls(anyList());
+
+        assertThrows(IllegalStateException.class, () -> groupCommitUrlDatabaseService.saveUrl(url("short")));
+        assertTrue(groupCommitUrlDatabaseService.saveUrl(url("next")));
+    }
+
+    @Test
+    void close_ShouldFlushPendingSavesAndCloseDelegate_WhenOuterDecoratorIsClosed() {
+        final var chain = new CachingUrlDatabaseService(groupCommitUrlDatabaseService, 1024 * 1024, Duration.ofMinutes(1), meterRegistry);
+        final var pendingSave = chain.saveUrlAsync(url("pending"));
+
+        chain.close();
+
+        assertTrue(pendingSave.join());
+        verify(delegate).close();
+    }
+
+    @Test
+    void saveUrl_ShouldWriteDirectly_AfterClose() {
+        groupCommitUrlDatabaseService.close();
+
+        assertTrue(groupCommitUrlDatabaseService.saveUrl(url("after-close")));
+        verify(delegate).saveUrl(any());
+    }
+
+    private static Url url(final String shortUrl) {
+        final var url = FakerService.fakeUrlMetadata();
+        url.setShortUrl(shortUrl);
+        return url;
+    }
+
+}
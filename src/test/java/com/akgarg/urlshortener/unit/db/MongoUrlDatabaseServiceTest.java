@@ -0,0 +1,254 @@
+package com.akgarg.urlshortener.unit.db;
+
+import com.akgarg.urlshortener.encoding.Base62EncoderService;
+import com.akgarg.urlshortener.exception.UrlShortenerException;
+import com.akgarg.urlshortener.unit.faker.FakerService;
+import com.akgarg.urlshortener.v1.db.MongoUrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.MongoUrlRepository;
+import com.akgarg.urlshortener.v1.db.UrlSaveStatus;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteError;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+final class MongoUrlDatabaseServiceTest {
+
+    private static final long NUMBER = 1_00_00_00_00_000L;
+    private static final String SHORT_URL = "O9Oz9L1";
+
+    private MongoUrlRepository mongoUrlRepository;
+    private MongoCollection<Document> urlsCollection;
+    private MongoUrlDatabaseService mongoUrlDatabaseService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        final var mappingContext = new MongoMappingContext();
+        final var converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+
+        final var mongoTemplate = mock(MongoTemplate.class);
+        mongoUrlRepository = mock(MongoUrlRepository.class);
+        urlsCollection = mock(MongoCollection.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.getCollection("urls")).thenReturn(urlsCollection);
+
+        mongoUrlDatabaseService = new MongoUrlDatabaseService(mongoUrlRepository, mongoTemplate, new Base62EncoderService());
+        ReflectionTestUtils.setField(mongoUrlDatabaseService, "numericIdEnabled", true);
+    }
+
+    @Test
+    void saveUrl_ShouldUseDecodedNumberAsId_ForGeneratedShortUrl() {
+        final var url = FakerService.fakeUrlMetadata();
+        final var documentCaptor = ArgumentCaptor.forClass(Document.class);
+
+        assertTrue(mongoUrlDatabaseService.saveUrl(url));
+
+        verify(urlsCollection).insertOne(documentCaptor.capture());
+        assertEquals(NUMBER, documentCaptor.getValue().get("_id"));
+        assertEquals(SHORT_URL, documentCaptor.getValue().getString("short_url"));
+        assertEquals(String.valueOf(NUMBER), url.getId());
+        verify(mongoUrlRepository, never()).save(any());
+    }
+
+    @Test
+    void saveUrl_ShouldUseRepository_ForCustomAliasThatIsNotBase62() {
+        final var url = FakerService.fakeUrlMetadata();
+        url.setShortUrl("my-alias");
+        url.setCustomAlias(true);
+
+        assertTrue(mongoUrlDatabaseService.saveUrl(url));
+
+        verify(mongoUrlRepository).save(url);
+        verify(urlsCollection, never()).insertOne(any());
+    }
+
+    @Test
+    void saveUrl_ShouldUseDecodedNumberAsId_ForBase62CustomAlias() {
+        final var url = FakerService.fakeUrlMetadata();
+        url.setCustomAlias(true);
+        final var documentCaptor = ArgumentCaptor.forClass(Document.class);
+
+        assertTrue(mongoUrlDatabaseService.saveUrl(url));
+
+        verify(urlsCollection).insertOne(documentCaptor.capture());
+        assertEquals(NUMBER, documentCaptor.getValue().get("_id"));
+        verify(mongoUrlRepository, never()).save(any());
+    }
+
+    @Test
+    void saveUrl_ShouldThrowConflict_WhenNumericIdAlreadyExists() {
+        final var duplicateKeyError = new MongoWriteException(new WriteError(11000, "E11000 duplicate key", new BsonDocument()), new ServerAddress());
+        when(urlsCollection.insertOne(any())).thenThrow(duplicateKeyError);
+
+        final var exception = assertThrows(UrlShortenerException.class, () -> mongoUrlDatabaseService.saveUrl(FakerService.fakeUrlMetadata()));
+        assertEquals(409, exception.getErrorCode());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveUrls_ShouldInsertAllUrlsWithOneUnorderedInsertMany() {
+        final var first = FakerService.fakeUrlMetadata();
+        final var second = FakerService.fakeUrlMetadata();
+        second.setShortUrl(new Base62EncoderService().encode(NUMBER + 1));
+        final var documentsCaptor = ArgumentCaptor.forClass(List.class);
+        final var optionsCaptor = ArgumentCaptor.forClass(InsertManyOptions.class);
+
+        assertEquals(List.of(UrlSaveStatus.SAVED, UrlSaveStatus.SAVED), mongoUrlDatabaseService.saveUrls(List.of(first, second)));
+
+        verify(urlsCollection).insertMany(documentsCaptor.capture(), optionsCaptor.capture());
+        assertFalse(optionsCaptor.getValue().isOrdered());
+        final var documents = (List<Document>) documentsCaptor.getValue();
+        assertEquals(NUMBER, documents.get(0).get("_id"));
+        assertEquals(NUMBER + 1, documents.get(1).get("_id"));
+        assertEquals(String.valueOf(NUMBER + 1), second.getId());
+        verify(urlsCollection, never()).insertOne(any());
+    }
+
+    @Test
+    void saveUrls_ShouldReportDuplicatesPerItem_WhenBulkWriteFailsPartially() {
+        final var urls = List.of(FakerService.fakeUrlMetadata(), FakerService.fakeUrlMetadata(), FakerService.fakeUrlMetadata());
+        final var writeErrors = List.of(
+                new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1),
+                new BulkWriteError(121, "Document failed validation", new BsonDocument(), 2)
+        );
+        final var bulkWriteException = new MongoBulkWriteException(
+                BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()),
+                writeErrors,
+                null,
+                new ServerAddress(),
+                Set.of()
+        );
+        when(urlsCollection.insertMany(anyList(), any(InsertManyOptions.class))).thenThrow(bulkWriteException);
+
+        final var statuses = mongoUrlDatabaseService.saveUrls(urls);
+
+        assertEquals(List.of(UrlSaveStatus.SAVED, UrlSaveStatus.DUPLICATE, UrlSaveStatus.FAILED), statuses);
+        assertEquals(String.valueOf(NUMBER), urls.get(0).getId());
+        assertNull(urls.get(1).getId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getUrlByShortUrl_ShouldReadByNumericId_WithoutShortUrlIndex() {
+        final var document = new Document("_id", NUMBER)
+                .append("short_url", SHORT_URL)
+                .append("original_url", "https://www.google.com")
+                .append("custom_alias", false);
+        final var findIterable = mock(FindIterable.class);
+        when(urlsCollection.find(any(Bson.class))).thenReturn(findIterable);
+        when(findIterable.first()).thenReturn(document);
+
+        final var url = mongoUrlDatabaseService.getUrlByShortUrl(SHORT_URL).orElseThrow();
+
+        assertEquals(String.valueOf(NUMBER), url.getId());
+        assertEquals(SHORT_URL, url.getShortUrl());
+        assertEquals("https://www.google.com", url.getOriginalUrl());
+        verify(mongoUrlRepository, never()).findByShortUrl(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getUrlByShortUrl_ShouldNotQueryShortUrlIndex_WhenNumericIdIsNotFound() {
+        final var findIterable = mock(FindIterable.class);
+        when(urlsCollection.find(any(Bson.class))).thenReturn(findIterable);
+        when(findIterable.first()).thenReturn(null);
+
+        assertTrue(mongoUrlDatabaseService.getUrlByShortUrl(SHORT_URL).isEmpty());
+        verify(urlsCollection, times(1)).find(any(Bson.class));
+        verify(mongoUrlRepository, never()).findByShortUrl(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getUrlByShortUrl_ShouldFallBackToShortUrlIndex_WhenFallbackLookupIsEnabled() {
+        ReflectionTestUtils.setField(mongoUrlDatabaseService, "numericIdFallbackLookup", true);
+        final var legacyUrl = FakerService.fakeUrlMetadata();
+        final var findIterable = mock(FindIterable.class);
+        when(urlsCollection.find(any(Bson.class))).thenReturn(findIterable);
+        when(findIterable.first()).thenReturn(null);
+        when(mongoUrlRepository.findByShortUrl(SHORT_URL)).thenReturn(Optional.of(legacyUrl));
+
+        assertSame(legacyUrl, mongoUrlDatabaseService.getUrlByShortUrl(SHORT_URL).orElseThrow());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getUrlsByShortUrls_ShouldQueryNumericIdsFirst_ThenShortUrlsInOneQuery() {
+        final var byId = mock(FindIterable.class);
+        final var byShortUrl = mock(FindIterable.class);
+        final var document = new Document("_id", NUMBER)
+                .append("short_url", SHORT_URL)
+                .append("original_url", "https://www.google.com")
+                .append("custom_alias", false);
+        final var aliasDocument = new Document("_id", "alias-id")
+                .append("short_url", "my-alias")
+                .append("original_url", "https://www.google.com/maps")
+                .append("custom_alias", true);
+        final var filterCaptor = ArgumentCaptor.forClass(Bson.class);
+        when(urlsCollection.find(any(Bson.class))).thenReturn(byId, byShortUrl);
+        when(byId.iterator()).thenAnswer(invocation -> cursor(document));
+        when(byShortUrl.iterator()).thenAnswer(invocation -> cursor(aliasDocument));
+
+        final var urls = mongoUrlDatabaseService.getUrlsByShortUrls(List.of(SHORT_URL, "my-alias"));
+
+        assertEquals(2, urls.size());
+        assertEquals(String.valueOf(NUMBER), urls.get(SHORT_URL).getId());
+        assertTrue(urls.get("my-alias").isCustomAlias());
+        verify(urlsCollection, times(2)).find(filterCaptor.capture());
+        assertEquals("{\"_id\": {\"$in\": [" + NUMBER + "]}}", filterCaptor.getAllValues().get(0).toBsonDocument().toJson());
+        assertEquals("{\"short_url\": {\"$in\": [\"my-alias\"]}}", filterCaptor.getAllValues().get(1).toBsonDocument().toJson());
+        verify(mongoUrlRepository, never()).findByShortUrl(any());
+    }
+
+    @Test
+    void getUrlByShortUrl_ShouldUseShortUrlIndex_WhenShortUrlIsNotBase62() {
+        when(mongoUrlRepository.findByShortUrl("my-alias")).thenReturn(Optional.empty());
+
+        assertTrue(mongoUrlDatabaseService.getUrlByShortUrl("my-alias").isEmpty());
+        verify(urlsCollection, never()).find(any(Bson.class));
+    }
+
+    @Test
+    void getUrlByShortUrl_ShouldThrow_WhenQueryFails() {
+        when(mongoUrlRepository.findByShortUrl("my-alias")).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class, () -> mongoUrlDatabaseService.getUrlByShortUrl("my-alias"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MongoCursor<Document> cursor(final Document... documents) {
+        final var iterator = List.of(documents).iterator();
+        final var cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        return cursor;
+    }
+
+}
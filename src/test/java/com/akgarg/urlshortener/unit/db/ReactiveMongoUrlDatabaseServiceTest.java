@@ -0,0 +1,173 @@
+package com.akgarg.urlshortener.unit.db;
+
+import com.akgarg.urlshortener.encoding.Base62EncoderService;
+import com.akgarg.urlshortener.exception.UrlShortenerException;
+import com.akgarg.urlshortener.unit.faker.FakerService;
+import com.akgarg.urlshortener.v1.db.MongoUrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.MongoUrlRepository;
+import com.akgarg.urlshortener.v1.db.ReactiveMongoUrlDatabaseService;
+import com.mongodb.MongoWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteError;
+import com.mongodb.client.result.InsertOneResult;
+import com.mongodb.reactivestreams.client.FindPublisher;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+final class ReactiveMongoUrlDatabaseServiceTest {
+
+    private static final long NUMBER = 1_00_00_00_00_000L;
+    private static final String SHORT_URL = "O9Oz9L1";
+
+    private MongoUrlRepository mongoUrlRepository;
+    private MongoCollection<Document> urlsCollection;
+    private MongoUrlDatabaseService mongoUrlDatabaseService;
+    private ReactiveMongoUrlDatabaseService reactiveMongoUrlDatabaseService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        final var mappingContext = new MongoMappingContext();
+        final var converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+
+        final var mongoTemplate = mock(MongoTemplate.class);
+        final var reactiveMongoTemplate = mock(ReactiveMongoTemplate.class);
+        mongoUrlRepository = mock(MongoUrlRepository.class);
+        urlsCollection = mock(MongoCollection.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(reactiveMongoTemplate.getCollection("urls")).thenReturn(Mono.just(urlsCollection));
+
+        mongoUrlDatabaseService = new MongoUrlDatabaseService(mongoUrlRepository, mongoTemplate, new Base62EncoderService());
+        ReflectionTestUtils.setField(mongoUrlDatabaseService, "numericIdEnabled", true);
+        reactiveMongoUrlDatabaseService = new ReactiveMongoUrlDatabaseService(mongoUrlDatabaseService, reactiveMongoTemplate);
+    }
+
+    @Test
+    void saveUrlAsync_ShouldInsertWithDecodedNumberAsId_ThroughReactiveDriver() {
+        final var url = FakerService.fakeUrlMetadata();
+        final var documentCaptor = ArgumentCaptor.forClass(Document.class);
+        when(urlsCollection.insertOne(any(Document.class))).thenReturn(Mono.just(InsertOneResult.acknowledged(null)));
+
+        assertTrue(reactiveMongoUrlDatabaseService.saveUrlAsync(url).join());
+
+        verify(urlsCollection).insertOne(documentCaptor.capture());
+        assertEquals(NUMBER, documentCaptor.getValue().get("_id"));
+        assertEquals(SHORT_URL, documentCaptor.getValue().getString("short_url"));
+        assertEquals(String.valueOf(NUMBER), url.getId());
+        verify(mongoUrlRepository, never()).save(any());
+    }
+
+    @Test
+    void saveUrlAsync_ShouldFailWithConflict_WhenShortUrlAlreadyExists() {
+        final var duplicateKeyError = new MongoWriteException(new WriteError(11000, "E11000 duplicate key", new BsonDocument()), new ServerAddress());
+        when(urlsCollection.insertOne(any(Document.class))).thenReturn(Mono.error(duplicateKeyError));
+
+        final var future = reactiveMongoUrlDatabaseService.saveUrlAsync(FakerService.fakeUrlMetadata());
+
+        final var exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(UrlShortenerException.class, exception.getCause());
+        assertEquals(409, ((UrlShortenerException) exception.getCause()).getErrorCode());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getUrlByShortUrlAsync_ShouldReadByNumericId() {
+        final var document = new Document("_id", NUMBER)
+                .append("short_url", SHORT_URL)
+                .append("original_url", "https://www.google.com")
+                .append("custom_alias", false);
+        final var findPublisher = mock(FindPublisher.class);
+        when(urlsCollection.find(any(Bson.class))).thenReturn(findPublisher);
+        when(findPublisher.first()).thenReturn(Mono.just(document));
+
+        final var url = reactiveMongoUrlDatabaseService.getUrlByShortUrlAsync(SHORT_URL).join().orElseThrow();
+
+        assertEquals(String.valueOf(NUMBER), url.getId());
+        assertEquals("https://www.google.com", url.getOriginalUrl());
+        verify(urlsCollection, times(1)).find(any(Bson.class));
+        verify(mongoUrlRepository, never()).findByShortUrl(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getUrlByShortUrlAsync_ShouldNotQueryShortUrlIndex_WhenNumericIdIsNotFound() {
+        final var findPublisher = mock(FindPublisher.class);
+        when(urlsCollection.find(any(Bson.class))).thenReturn(findPublisher);
+        when(findPublisher.first()).thenReturn(Mono.empty());
+
+        assertTrue(reactiveMongoUrlDatabaseService.getUrlByShortUrlAsync(SHORT_URL).join().isEmpty());
+        verify(urlsCollection, times(1)).find(any(Bson.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getUrlByShortUrlAsync_ShouldFallBackToShortUrlIndex_WhenFallbackLookupIsEnabled() {
+        ReflectionTestUtils.setField(mongoUrlDatabaseService, "numericIdFallbackLookup", true);
+        final var aliasDocument = new Document("_id", "alias-id")
+                .append("short_url", SHORT_URL)
+                .append("original_url", "https://www.google.com/maps")
+                .append("custom_alias", true);
+        final var byId = mock(FindPublisher.class);
+        final var byShortUrl = mock(FindPublisher.class);
+        final var filterCaptor = ArgumentCaptor.forClass(Bson.class);
+        when(urlsCollection.find(any(Bson.class))).thenReturn(byId, byShortUrl);
+        when(byId.first()).thenReturn(Mono.empty());
+        when(byShortUrl.first()).thenReturn(Mono.just(aliasDocument));
+
+        final var url = reactiveMongoUrlDatabaseService.getUrlByShortUrlAsync(SHORT_URL).join().orElseThrow();
+
+        assertTrue(url.isCustomAlias());
+        verify(urlsCollection, times(2)).find(filterCaptor.capture());
+        assertEquals("{\"_id\": " + NUMBER + "}", filterCaptor.getAllValues().get(0).toBsonDocument().toJson());
+        assertEquals("{\"short_url\": \"" + SHORT_URL + "\"}", filterCaptor.getAllValues().get(1).toBsonDocument().toJson());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getUrlByShortUrlAsync_ShouldCompleteOffTheDriverThreads() {
+        final var document = new Document("_id", NUMBER)
+                .append("short_url", SHORT_URL)
+                .append("original_url", "https://www.google.com")
+                .append("custom_alias", false);
+        final var findPublisher = mock(FindPublisher.class);
+        when(urlsCollection.find(any(Bson.class))).thenReturn(findPublisher);
+        // emitted later on a reactor thread standing in for the driver's threads
+        when(findPublisher.first()).thenReturn(Mono.just(document).delayElement(Duration.ofMillis(50)));
+
+        final var completedOn = reactiveMongoUrlDatabaseService.getUrlByShortUrlAsync(SHORT_URL).thenApply(url -> Thread.currentThread());
+
+        assertTrue(completedOn.join().isVirtual(), "Lookups should complete on a virtual thread");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getUrlByShortUrlAsync_ShouldFail_WhenDriverFails() {
+        final var findPublisher = mock(FindPublisher.class);
+        when(urlsCollection.find(any(Bson.class))).thenReturn(findPublisher);
+        when(findPublisher.first()).thenReturn(Mono.error(new IllegalStateException("database down")));
+
+        final var exception = assertThrows(CompletionException.class, () -> reactiveMongoUrlDatabaseService.getUrlByShortUrlAsync(SHORT_URL).join());
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+}
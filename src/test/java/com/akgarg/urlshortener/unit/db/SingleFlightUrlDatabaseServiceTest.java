@@ -0,0 +1,143 @@
+package com.akgarg.urlshortener.unit.db;
+
+import com.akgarg.urlshortener.unit.faker.FakerService;
+import com.akgarg.urlshortener.v1.db.SingleFlightUrlDatabaseService;
+import com.akgarg.urlshortener.v1.db.Url;
+import com.akgarg.urlshortener.v1.db.UrlDatabaseService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+final class SingleFlightUrlDatabaseServiceTest {
+
+    @Test
+    void getUrlByShortUrl_ShouldCollapseConcurrentLookups_ForSameShortUrl() throws Exception {
+        final var url = FakerService.fakeUrlMetadata();
+        final var lookupStarted = new CountDownLatch(1);
+        final var releaseLookup = new CountDownLatch(1);
+        final var delegate = mock(UrlDatabaseService.class);
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var singleFlightUrlDatabaseService = new SingleFlightUrlDatabaseService(delegate, meterRegistry);
+
+        when(delegate.getUrlByShortUrl(url.getShortUrl())).thenAnswer(invocation -> {
+            lookupStarted.countDown();
+            releaseLookup.await();
+            return Optional.of(url);
+        });
+
+        final var threads = 32;
+
+        try (final var executorService = Executors.newFixedThreadPool(threads)) {
+            final var results = new ArrayList<Future<Optional<Url>>>();
+            results.add(executorService.submit(() -> singleFlightUrlDatabaseService.getUrlByShortUrl(url.getShortUrl())));
+            lookupStarted.await();
+
+            for (int i = 1; i < threads; i++) {
+                results.add(executorService.submit(() -> singleFlightUrlDatabaseService.getUrlByShortUrl(url.getShortUrl())));
+            }
+
+            while (meterRegistry.get("url.lookup.single.flight.collapsed").counter().count() < threads - 1) {
+                Thread.onSpinWait();
+            }
+            releaseLookup.countDown();
+
+            for (final var result : results) {
+                assertSame(url, result.get().orElseThrow());
+            }
+        }
+
+        verify(delegate, times(1)).getUrlByShortUrl(url.getShortUrl());
+        assertEquals(1.0, meterRegistry.get("url.lookup.single.flight.loads").counter().count());
+    }
+
+    @Test
+    void getUrlByShortUrl_ShouldPropagateFailure_WithoutRememberingIt() {
+        final var delegate = mock(UrlDatabaseService.class);
+        final var singleFlightUrlDatabaseService = new SingleFlightUrlDatabaseService(delegate, new SimpleMeterRegistry());
+
+        when(delegate.getUrlByShortUrl("failing")).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class, () -> singleFlightUrlDatabaseService.getUrlByShortUrl("failing"));
+        assertThrows(IllegalStateException.class, () -> singleFlightUrlDatabaseService.getUrlByShortUrl("failing"));
+        verify(delegate, times(2)).getUrlByShortUrl("failing");
+    }
+
+    @Test
+    void getUrlByShortUrl_ShouldFailFollowers_WhenLeaderThrowsError() throws Exception {
+        final var lookupStarted = new CountDownLatch(1);
+        final var releaseLookup = new CountDownLatch(1);
+        final var delegate = mock(UrlDatabaseService.class);
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var singleFlightUrlDatabaseService = new SingleFlightUrlDatabaseService(delegate, meterRegistry);
+
+        when(delegate.getUrlByShortUrl("failing")).thenAnswer(invocation -> {
+            lookupStarted.countDown();
+            releaseLookup.await();
+            throw new StackOverflowError();
+        });
+
+        try (final var executorService = Executors.newFixedThreadPool(2)) {
+            final var leader = executorService.submit(() -> singleFlightUrlDatabaseService.getUrlByShortUrl("failing"));
+            lookupStarted.await();
+            final var follower = executorService.submit(() -> singleFlightUrlDatabaseService.getUrlByShortUrl("failing"));
+
+            while (meterRegistry.get("url.lookup.single.flight.collapsed").counter().count() < 1) {
+                Thread.onSpinWait();
+            }
+            releaseLookup.countDown();
+
+            assertInstanceOf(StackOverflowError.class, assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+            assertInstanceOf(StackOverflowError.class, assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS)).getCause());
+        }
+    }
+
+    @Test
+    void getUrlByShortUrlAsync_ShouldShareInFlightFuture_ForSameShortUrl() {
+        final var url = FakerService.fakeUrlMetadata();
+        final var storageLookup = new CompletableFuture<Optional<Url>>();
+        final var delegate = mock(UrlDatabaseService.class);
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var singleFlightUrlDatabaseService = new SingleFlightUrlDatabaseService(delegate, meterRegistry);
+
+        when(delegate.getUrlByShortUrlAsync(url.getShortUrl())).thenReturn(storageLookup);
+
+        final var leader = singleFlightUrlDatabaseService.getUrlByShortUrlAsync(url.getShortUrl());
+        final var follower = singleFlightUrlDatabaseService.getUrlByShortUrlAsync(url.getShortUrl());
+
+        assertFalse(leader.isDone());
+        storageLookup.complete(Optional.of(url));
+
+        assertSame(url, leader.join().orElseThrow());
+        assertSame(url, follower.join().orElseThrow());
+        verify(delegate, times(1)).getUrlByShortUrlAsync(url.getShortUrl());
+        assertEquals(1.0, meterRegistry.get("url.lookup.single.flight.collapsed").counter().count());
+
+        // the completed lookup is not remembered
+        singleFlightUrlDatabaseService.getUrlByShortUrlAsync(url.getShortUrl());
+        verify(delegate, times(2)).getUrlByShortUrlAsync(url.getShortUrl());
+    }
+
+    @Test
+    void getUrlByShortUrlAsync_ShouldFailWithStorageFailure() {
+        final var delegate = mock(UrlDatabaseService.class);
+        final var singleFlightUrlDatabaseService = new SingleFlightUrlDatabaseService(delegate, new SimpleMeterRegistry());
+
+        when(delegate.getUrlByShortUrlAsync("failing")).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("database down")));
+
+        final var exception = assertThrows(CompletionException.class, () -> singleFlightUrlDatabaseService.getUrlByShortUrlAsync("failing").join());
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+}
@@ -5,8 +5,9 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 final class Base62EncoderServiceTest {
 
@@ -50,4 +51,37 @@ final class Base62EncoderServiceTest {
         assertEquals(expectedEncodeOutputLength, encodeResult.length(), "Actual and expected encode output length are not same");
     }
 
+    @Test
+    void decodeMethod_ShouldReturn_EncodedNumber() {
+        assertEquals(1_00_00_00_00_000L, encoderService.decode("O9Oz9L1"), "Actual and expected decode output are not same");
+        assertEquals(Long.MAX_VALUE, encoderService.decode(encoderService.encode(Long.MAX_VALUE)));
+
+        for (int i = 0; i < 10_000; i++) {
+            final var number = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+            assertEquals(number, encoderService.decode(encoderService.encode(number)));
+        }
+    }
+
+    @Test
+    void decodeMethod_ShouldThrowIllegalArgumentException_WhenInputIsInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> encoderService.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> encoderService.decode("O9Oz-L1"));
+        assertThrows(IllegalArgumentException.class, () -> encoderService.decode("ZZZZZZZZZZZ"));
+        assertThrows(IllegalArgumentException.class, () -> encoderService.decode("000000000000"));
+    }
+
+    @Test
+    void decodeMethod_ShouldThrowIllegalArgumentException_WhenInputHasLeadingZeroDigit() {
+        assertEquals(10, encoderService.decode("a"));
+        assertThrows(IllegalArgumentException.class, () -> encoderService.decode("a0"));
+        assertThrows(IllegalArgumentException.class, () -> encoderService.decode("0"));
+    }
+
+    @Test
+    void encodeMethod_ShouldNotLeakDigits_BetweenCallsOnSameThread() {
+        assertEquals("O9Oz9L1", encoderService.encode(1_00_00_00_00_000L));
+        assertEquals("a", encoderService.encode(10));
+        assertEquals("O9Oz9L1", encoderService.encode(1_00_00_00_00_000L));
+    }
+
 }
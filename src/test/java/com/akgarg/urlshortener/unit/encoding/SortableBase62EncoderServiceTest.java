@@ -0,0 +1,61 @@
+package com.akgarg.urlshortener.unit.encoding;
+
+import com.akgarg.urlshortener.encoding.SortableBase62EncoderService;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class SortableBase62EncoderServiceTest {
+
+    private final SortableBase62EncoderService encoderService = new SortableBase62EncoderService();
+
+    @Test
+    void encodeMethod_ShouldReturn_FixedWidthBigEndianOutput() {
+        assertEquals("00000000001", encoderService.encode(1));
+        assertEquals("0000000000z", encoderService.encode(61));
+        assertEquals("00000000010", encoderService.encode(62));
+        assertEquals(11, encoderService.encode(Long.MAX_VALUE).length());
+    }
+
+    @Test
+    void encodeMethod_ShouldPreserveNumericOrder() {
+        var previousNumber = 1L;
+        var previousEncoded = encoderService.encode(previousNumber);
+
+        for (int i = 0; i < 10_000; i++) {
+            final var number = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+            final var encoded = encoderService.encode(number);
+            assertEquals(Long.signum(Long.compare(number, previousNumber)), Integer.signum(encoded.compareTo(previousEncoded)));
+            previousNumber = number;
+            previousEncoded = encoded;
+        }
+    }
+
+    @Test
+    void decodeMethod_ShouldReturn_EncodedNumber() {
+        assertEquals(Long.MAX_VALUE, encoderService.decode(encoderService.encode(Long.MAX_VALUE)));
+
+        for (int i = 0; i < 10_000; i++) {
+            final var number = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+            assertEquals(number, encoderService.decode(encoderService.encode(number)));
+        }
+    }
+
+    @Test
+    void encodeAndDecodeMethods_ShouldThrowIllegalArgumentException_WhenInputIsInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> encoderService.encode(0));
+        assertThrows(IllegalArgumentException.class, () -> encoderService.decode("0000000000-"));
+        assertThrows(IllegalArgumentException.class, () -> encoderService.decode("zzzzzzzzzzz"));
+        assertThrows(IllegalArgumentException.class, () -> encoderService.decode("00000000000"));
+    }
+
+    @Test
+    void decodeMethod_ShouldThrowIllegalArgumentException_WhenInputIsNotFullWidth() {
+        assertEquals(1, encoderService.decode("00000000001"));
+        assertThrows(IllegalArgumentException.class, () -> encoderService.decode("1"));
+        assertThrows(IllegalArgumentException.class, () -> encoderService.decode("0000000001"));
+    }
+
+}
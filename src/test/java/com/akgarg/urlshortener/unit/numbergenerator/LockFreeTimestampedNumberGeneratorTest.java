@@ -0,0 +1,174 @@
+package com.akgarg.urlshortener.unit.numbergenerator;
+
+import com.akgarg.urlshortener.numbergenerator.LockFreeTimestampedNumberGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class LockFreeTimestampedNumberGeneratorTest {
+
+    private static final long CUSTOM_EPOCH = 1704067200000L;
+    private static final int NODE_ID = 10;
+
+    @Test
+    void constructor_ShouldThrowIllegalArgumentException_WhenNodeIdIsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new LockFreeTimestampedNumberGenerator(-1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new LockFreeTimestampedNumberGenerator(1024, 10));
+    }
+
+    @Test
+    void generateNextNumber_ShouldUseSameLayout_AsTimestampedNumberGenerator() {
+        final var clock = new AtomicLong(System.currentTimeMillis());
+        final var generator = new LockFreeTimestampedNumberGenerator(NODE_ID, 10, clock::get);
+
+        final var first = generator.generateNextNumber();
+        final var second = generator.generateNextNumber();
+
+        assertEquals(clock.get() - CUSTOM_EPOCH, first >>> 22);
+        assertEquals(NODE_ID, (first >>> 12) & 1023);
+        assertEquals(0, first & 4095);
+        assertEquals(first + 1, second);
+    }
+
+    @Test
+    void generateNextNumber_ShouldBorrowNextMillisecond_WhenSequenceIsExhausted() {
+        final var clock = new AtomicLong(System.currentTimeMillis());
+        final var generator = new LockFreeTimestampedNumberGenerator(NODE_ID, 10, clock::get);
+
+        var previous = generator.generateNextNumber();
+        for (int i = 0; i < 4096; i++) {
+            final var next = generator.generateNextNumber();
+            assertTrue(next > previous, "Generated numbers should be increasing");
+            previous = next;
+        }
+
+        assertEquals(clock.get() - CUSTOM_EPOCH + 1, previous >>> 22);
+        assertEquals(0, previous & 4095);
+    }
+
+    @Test
+    void generateNextNumber_ShouldKeepIncreasing_WhenClockMovesBackwardsWithinTolerance() {
+        final var clock = new AtomicLong(System.currentTimeMillis());
+        final var generator = new LockFreeTimestampedNumberGenerator(NODE_ID, 10, clock::get);
+
+        final var beforeRegression = generator.generateNextNumber();
+        clock.addAndGet(-5);
+        final var afterRegression = generator.generateNextNumber();
+
+        assertEquals(beforeRegression + 1, afterRegression);
+    }
+
+    @Test
+    void generateNextNumber_ShouldWaitForClock_WhenClockMovesBackwardsBeyondTolerance() throws Exception {
+        final var clock = new AtomicLong(System.currentTimeMillis());
+        final var generator = new LockFreeTimestampedNumberGenerator(NODE_ID, 10, clock::get);
+
+        final var beforeRegression = generator.generateNextNumber();
+        clock.addAndGet(-1_000);
+
+        final var releaser = Thread.ofPlatform().start(() -> {
+            sleep(50);
+            clock.addAndGet(1_000);
+        });
+        final var afterRegression = generator.generateNextNumber();
+        releaser.join();
+
+        assertTrue(afterRegression > beforeRegression, "Generated numbers should be increasing after clock regression");
+    }
+
+    @Test
+    void generateNextNumber_ShouldThrowIllegalStateException_WhenClockDoesNotCatchUpWithinMaxWait() {
+        final var clock = new AtomicLong(System.currentTimeMillis());
+        final var generator = new LockFreeTimestampedNumberGenerator(NODE_ID, 10, 50, clock::get);
+
+        final var beforeRegression = generator.generateNextNumber();
+        clock.addAndGet(-1_000);
+
+        assertThrows(IllegalStateException.class, generator::generateNextNumber);
+
+        clock.addAndGet(1_000);
+        assertTrue(generator.generateNextNumber() > beforeRegression, "Generator should recover once the clock catches up");
+    }
+
+    @Test
+    void generateNextNumbers_ShouldReserveConsecutiveBlock_ContinuingFromLastNumber() {
+        final var clock = new AtomicLong(System.currentTimeMillis());
+        final var generator = new LockFreeTimestampedNumberGenerator(NODE_ID, 10, clock::get);
+
+        final var first = generator.generateNextNumber();
+        final var block = generator.generateNextNumbers(4096);
+        final var next = generator.generateNextNumber();
+
+        assertEquals(first + 1, block[0]);
+        for (int i = 1; i < block.length; i++) {
+            assertTrue(block[i] > block[i - 1], "Numbers in a block should be increasing");
+        }
+        // the block spills into the next millisecond once the sequence is exhausted
+        assertEquals(clock.get() - CUSTOM_EPOCH + 1, block[block.length - 1] >>> 22);
+        assertEquals(block[block.length - 1] + 1, next);
+        assertThrows(IllegalArgumentException.class, () -> generator.generateNextNumbers(0));
+    }
+
+    @Test
+    void generateNextNumbers_ShouldReserveInChunks_WhenCountExceedsSequence() {
+        final var clock = new AtomicLong(System.currentTimeMillis());
+        final var generator = new LockFreeTimestampedNumberGenerator(NODE_ID, 10, clock::get);
+
+        final var block = generator.generateNextNumbers(3 * 4096 + 1);
+
+        assertEquals(3 * 4096 + 1, Arrays.stream(block).distinct().count());
+        for (int i = 1; i < block.length; i++) {
+            assertTrue(block[i] > block[i - 1], "Numbers in a block should be increasing");
+        }
+        assertEquals(clock.get() - CUSTOM_EPOCH + 3, block[block.length - 1] >>> 22);
+    }
+
+    @Test
+    void generateNextNumber_ShouldGenerateUniqueNumbers_AcrossThreads() throws Exception {
+        final var generator = new LockFreeTimestampedNumberGenerator(NODE_ID, 10);
+        final var threads = 16;
+        final var numbersPerThread = 50_000;
+        final var start = new CountDownLatch(1);
+
+        try (final var executorService = Executors.newFixedThreadPool(threads)) {
+            final var results = new ArrayList<Future<long[]>>();
+
+            for (int i = 0; i < threads; i++) {
+                results.add(executorService.submit(() -> {
+                    start.await();
+                    final var numbers = new long[numbersPerThread];
+                    for (int j = 0; j < numbersPerThread; j++) {
+                        numbers[j] = generator.generateNextNumber();
+                        assertTrue(j == 0 || numbers[j] > numbers[j - 1], "Generated numbers should be increasing per thread");
+                    }
+                    return numbers;
+                }));
+            }
+
+            start.countDown();
+
+            final var allNumbers = new long[threads * numbersPerThread];
+            for (int i = 0; i < threads; i++) {
+                System.arraycopy(results.get(i).get(), 0, allNumbers, i * numbersPerThread, numbersPerThread);
+            }
+
+            assertEquals(allNumbers.length, Arrays.stream(allNumbers).distinct().count(), "Generated numbers should be unique");
+        }
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.akgarg.urlshortener.unit.shortcode;
+
+import com.akgarg.urlshortener.shortcode.PooledShortCodeService;
+import com.akgarg.urlshortener.shortcode.ShortCodeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class PooledShortCodeServiceTest {
+
+    @Test
+    void nextShortCode_ShouldServeUniqueCodesFromPool_AndRefillBelowLowWaterMark() {
+        final var generatedCodes = new AtomicLong();
+        final ShortCodeService delegate = () -> Long.toString(generatedCodes.incrementAndGet(), 36);
+        final var meterRegistry = new SimpleMeterRegistry();
+
+        try (final var pooledShortCodeService = new PooledShortCodeService(delegate, 10, 100, meterRegistry)) {
+            awaitPoolSize(pooledShortCodeService, 100);
+
+            final var shortCodes = new HashSet<String>();
+            for (int i = 0; i < 95; i++) {
+                assertTrue(shortCodes.add(pooledShortCodeService.nextShortCode()), "Short codes should be unique");
+            }
+
+            // the refill may complete while the last codes are taken, so the pool ends up between 95 and 100
+            awaitRefills(meterRegistry, 2);
+            assertTrue(pooledShortCodeService.poolSize() >= 95, "Pool should be refilled above the low water mark");
+            assertEquals(0.0, meterRegistry.get("short.code.pool.exhausted").counter().count());
+        }
+    }
+
+    @Test
+    void nextShortCode_ShouldGenerateInline_WhenPoolIsExhausted() {
+        final var meterRegistry = new SimpleMeterRegistry();
+        final ShortCodeService failingDelegate = () -> null;
+
+        try (final var pooledShortCodeService = new PooledShortCodeService(failingDelegate, 10, 100, meterRegistry)) {
+            assertNull(pooledShortCodeService.nextShortCode());
+            assertEquals(1.0, meterRegistry.get("short.code.pool.exhausted").counter().count());
+            assertEquals(0, pooledShortCodeService.poolSize());
+        }
+    }
+
+    @Test
+    void nextShortCodes_ShouldDrainPoolFirst_AndGenerateRemainderFromDelegate() {
+        final var generatedCodes = new AtomicLong();
+        final ShortCodeService delegate = () -> Long.toString(generatedCodes.incrementAndGet(), 36);
+        final var meterRegistry = new SimpleMeterRegistry();
+
+        try (final var pooledShortCodeService = new PooledShortCodeService(delegate, 10, 100, meterRegistry)) {
+            awaitPoolSize(pooledShortCodeService, 100);
+
+            final var shortCodes = pooledShortCodeService.nextShortCodes(150);
+
+            assertEquals(150, shortCodes.size());
+            assertEquals(150, new HashSet<>(shortCodes).size(), "Short codes should be unique");
+            assertEquals(1.0, meterRegistry.get("short.code.pool.exhausted").counter().count());
+        }
+    }
+
+    @Test
+    void constructor_ShouldThrowIllegalArgumentException_WhenWaterMarksAreInvalid() {
+        final ShortCodeService delegate = () -> "code";
+        assertThrows(IllegalArgumentException.class, () -> new PooledShortCodeService(delegate, 100, 100, new SimpleMeterRegistry()));
+        assertThrows(IllegalArgumentException.class, () -> new PooledShortCodeService(delegate, -1, 100, new SimpleMeterRegistry()));
+    }
+
+    private static void awaitRefills(final SimpleMeterRegistry meterRegistry, final int refills) {
+        final var deadline = System.currentTimeMillis() + 5_000;
+        while (meterRegistry.get("short.code.pool.refills").counter().count() < refills) {
+            assertTrue(System.currentTimeMillis() < deadline, "Pool was not refilled in time");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void awaitPoolSize(final PooledShortCodeService pooledShortCodeService, final int poolSize) {
+        final var deadline = System.currentTimeMillis() + 5_000;
+        while (pooledShortCodeService.poolSize() < poolSize) {
+            assertTrue(System.currentTimeMillis() < deadline, "Pool was not refilled in time");
+            Thread.onSpinWait();
+        }
+    }
+
+}
@@ -0,0 +1,215 @@
+package com.akgarg.urlshortener.unit.statistics;
+
+import com.akgarg.urlshortener.events.AsyncStatisticsEventService;
+import com.akgarg.urlshortener.events.AsyncStatisticsEventService.OverflowPolicy;
+import com.akgarg.urlshortener.events.StatisticsEvent;
+import com.akgarg.urlshortener.events.StatisticsEventService;
+import com.akgarg.urlshortener.events.StatisticsEventSpillFile;
+import com.akgarg.urlshortener.unit.faker.FakerService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class AsyncStatisticsEventServiceTest {
+
+    @Test
+    void publishEvent_ShouldPublishOnPublisherThread() throws Exception {
+        final var publishingThreads = new CopyOnWriteArrayList<String>();
+        final var published = new CountDownLatch(1);
+        final StatisticsEventService delegate = event -> {
+            publishingThreads.add(Thread.currentThread().getName());
+            published.countDown();
+        };
+
+        try (final var asyncStatisticsEventService = newAsyncStatisticsEventService(delegate, 10, OverflowPolicy.DROP, null, new SimpleMeterRegistry())) {
+            asyncStatisticsEventService.publishEvent(FakerService.fakeStatisticsEvent());
+            published.await();
+        }
+
+        assertTrue(publishingThreads.getFirst().startsWith("statistics-publisher-"));
+    }
+
+    @Test
+    void publishEvent_ShouldDropEvents_WhenQueueIsFullAndPolicyIsDrop() throws Exception {
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var blockingDelegate = new BlockingStatisticsEventService();
+
+        try (final var asyncStatisticsEventService = newAsyncStatisticsEventService(blockingDelegate, 2, OverflowPolicy.DROP, null, meterRegistry)) {
+            asyncStatisticsEventService.publishEvent(FakerService.fakeStatisticsEvent());
+            blockingDelegate.publishStarted.await();
+
+            for (int i = 0; i < 5; i++) {
+                asyncStatisticsEventService.publishEvent(FakerService.fakeStatisticsEvent());
+            }
+
+            assertEquals(2, asyncStatisticsEventService.queueDepth());
+            assertEquals(3.0, meterRegistry.get("statistics.events.dropped").counter().count());
+            assertEquals(2.0, meterRegistry.get("statistics.events.queue.depth").gauge().value());
+            blockingDelegate.release.countDown();
+        }
+
+        assertEquals(3, blockingDelegate.events.size());
+    }
+
+    @Test
+    void publishEvent_ShouldSpillAndReplayEvents_WhenQueueIsFullAndPolicyIsSpill(@TempDir final Path spillDirectory) throws Exception {
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var blockingDelegate = new BlockingStatisticsEventService();
+        final var spillFile = new StatisticsEventSpillFile(spillDirectory, new ObjectMapper());
+
+        try (final var asyncStatisticsEventService = newAsyncStatisticsEventService(blockingDelegate, 1, OverflowPolicy.SPILL, spillFile, meterRegistry)) {
+            asyncStatisticsEventService.publishEvent(FakerService.fakeStatisticsEvent());
+            blockingDelegate.publishStarted.await();
+
+            final var spilledEvent = FakerService.fakeStatisticsEvent();
+            asyncStatisticsEventService.publishEvent(FakerService.fakeStatisticsEvent());
+            asyncStatisticsEventService.publishEvent(spilledEvent);
+
+            while (meterRegistry.get("statistics.events.spilled").counter().count() < 1.0) {
+                Thread.onSpinWait();
+            }
+            blockingDelegate.release.countDown();
+
+            while (blockingDelegate.events.size() < 3) {
+                Thread.onSpinWait();
+            }
+
+            assertEquals(spilledEvent, blockingDelegate.events.get(2));
+        }
+
+        assertEquals(0.0, meterRegistry.get("statistics.events.dropped").counter().count());
+    }
+
+    @Test
+    void publishEvent_ShouldNotSerializeSpilledEvents_OnCallerThread(@TempDir final Path spillDirectory) throws Exception {
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var blockingDelegate = new BlockingStatisticsEventService();
+        final var serializingThreads = new CopyOnWriteArrayList<Thread>();
+        final var objectMapper = new ObjectMapper() {
+            @Override
+            public String writeValueAsString(final Object value) throws JsonProcessingException {
+                serializingThreads.add(Thread.currentThread());
+                return super.writeValueAsString(value);
+            }
+        };
+        final var spillFile = new StatisticsEventSpillFile(spillDirectory, objectMapper);
+
+        try (final var asyncStatisticsEventService = newAsyncStatisticsEventService(blockingDelegate, 1, OverflowPolicy.SPILL, spillFile, meterRegistry)) {
+            asyncStatisticsEventService.publishEvent(FakerService.fakeStatisticsEvent());
+            blockingDelegate.publishStarted.await();
+
+            asyncStatisticsEventService.publishEvent(FakerService.fakeStatisticsEvent());
+            asyncStatisticsEventService.publishEvent(FakerService.fakeStatisticsEvent());
+
+            while (meterRegistry.get("statistics.events.spilled").counter().count() < 1.0) {
+                Thread.onSpinWait();
+            }
+            blockingDelegate.release.countDown();
+        }
+
+        assertFalse(serializingThreads.isEmpty());
+        assertFalse(serializingThreads.contains(Thread.currentThread()));
+        assertTrue(serializingThreads.stream().allMatch(thread -> thread.getName().equals("statistics-spill")));
+    }
+
+    @Test
+    void replay_ShouldResumeAfterLastPublishedEvent_WhenInterrupted(@TempDir final Path spillDirectory) {
+        final var spillFile = new StatisticsEventSpillFile(spillDirectory, new ObjectMapper());
+        final var events = List.of(FakerService.fakeStatisticsEvent(), FakerService.fakeStatisticsEvent(), FakerService.fakeStatisticsEvent());
+        final var published = new ArrayList<StatisticsEvent>();
+        spillFile.append(events);
+
+        spillFile.replay(event -> {
+            if (published.size() == 2) {
+                throw new IllegalStateException("publisher crashed");
+            }
+            published.add(event);
+        });
+        spillFile.close();
+
+        final var restartedSpillFile = new StatisticsEventSpillFile(spillDirectory, new ObjectMapper());
+        assertTrue(restartedSpillFile.hasSpilledEvents());
+        restartedSpillFile.replay(published::add);
+
+        assertEquals(events, published);
+    }
+
+    @Test
+    void publishEvent_ShouldWaitForQueueSpace_WhenPolicyIsBlock() throws Exception {
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var blockingDelegate = new BlockingStatisticsEventService();
+
+        try (final var asyncStatisticsEventService = newAsyncStatisticsEventService(blockingDelegate, 1, OverflowPolicy.BLOCK, null, meterRegistry)) {
+            asyncStatisticsEventService.publishEvent(FakerService.fakeStatisticsEvent());
+            blockingDelegate.publishStarted.await();
+            asyncStatisticsEventService.publishEvent(FakerService.fakeStatisticsEvent());
+
+            final var releaser = Thread.ofPlatform().start(() -> {
+                sleep(100);
+                blockingDelegate.release.countDown();
+            });
+            asyncStatisticsEventService.publishEvent(FakerService.fakeStatisticsEvent());
+            releaser.join();
+        }
+
+        assertEquals(3, blockingDelegate.events.size());
+        assertEquals(0.0, meterRegistry.get("statistics.events.dropped").counter().count());
+    }
+
+    private static AsyncStatisticsEventService newAsyncStatisticsEventService(
+            final StatisticsEventService delegate,
+            final int queueCapacity,
+            final OverflowPolicy overflowPolicy,
+            final StatisticsEventSpillFile spillFile,
+            final SimpleMeterRegistry meterRegistry
+    ) {
+        return new AsyncStatisticsEventService(
+                delegate,
+                queueCapacity,
+                1,
+                overflowPolicy,
+                Duration.ofSeconds(5),
+                spillFile,
+                meterRegistry
+        );
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class BlockingStatisticsEventService implements StatisticsEventService {
+
+        private final List<StatisticsEvent> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch publishStarted = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void publishEvent(final StatisticsEvent statisticsEvent) {
+            publishStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(statisticsEvent);
+        }
+
+    }
+
+}
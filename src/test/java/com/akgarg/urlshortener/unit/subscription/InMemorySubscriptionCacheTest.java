@@ -0,0 +1,101 @@
+package com.akgarg.urlshortener.unit.subscription;
+
+import com.akgarg.urlshortener.v1.subscription.Subscription;
+import com.akgarg.urlshortener.v1.subscription.cache.CachedSubscription;
+import com.akgarg.urlshortener.v1.subscription.cache.InMemorySubscriptionCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class InMemorySubscriptionCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void getSubscription_ShouldReturnEmpty_OnceTtlAndStaleGraceOrSubscriptionExpired() throws InterruptedException {
+        final var cache = cache(100, 100, 1_000);
+        final var expiringSubscription = subscription("expiring-user");
+        expiringSubscription.subscription().setExpiresAt(System.currentTimeMillis() + 50);
+        cache.addSubscription(subscription("user"));
+        cache.addSubscription(expiringSubscription);
+
+        TimeUnit.MILLISECONDS.sleep(120);
+        assertTrue(cache.getSubscription("user").isPresent(), "Stale subscriptions should be kept for the grace window");
+        assertTrue(cache.getSubscription("expiring-user").isEmpty());
+
+        TimeUnit.MILLISECONDS.sleep(150);
+        assertTrue(cache.getSubscription("user").isEmpty());
+    }
+
+    @Test
+    void removeSubscription_ShouldEvictSubscription() {
+        final var cache = cache(60_000, 30_000, 1_000);
+        cache.addSubscription(subscription("user"));
+
+        cache.removeSubscription("user");
+
+        assertTrue(cache.getSubscription("user").isEmpty());
+    }
+
+    @Test
+    void addSubscription_ShouldStayBounded_AndExportSizeAndEvictions_UnderConcurrentUse() throws Exception {
+        final var maximumSize = 100;
+        final var users = 10_000;
+        final var cache = cache(60_000, 30_000, maximumSize);
+        final var tasks = new ArrayList<CompletableFuture<Void>>();
+
+        try (final var executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < users; i++) {
+                final var userId = "user-" + i;
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    cache.addSubscription(subscription(userId));
+                    cache.getSubscription(userId);
+                }, executor));
+            }
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        }
+
+        final var size = meterRegistry.get("cache.size").tag("cache", "subscriptions").gauge();
+        final var evictions = meterRegistry.get("cache.evictions").tag("cache", "subscriptions").functionCounter();
+
+        // eviction runs asynchronously after writes
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (size.value() > maximumSize && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+
+        assertTrue(size.value() <= maximumSize, "Cache should be bounded: " + size.value());
+        assertTrue(evictions.count() >= users - maximumSize, "Evictions should be exported: " + evictions.count());
+    }
+
+    private InMemorySubscriptionCache cache(final long ttl, final long staleGrace, final long maximumSize) {
+        final var environment = new MockEnvironment()
+                .withProperty("subscription.cache.ttl", String.valueOf(ttl))
+                .withProperty("subscription.cache.stale-grace", String.valueOf(staleGrace))
+                .withProperty("subscription.cache.local.max-size", String.valueOf(maximumSize));
+        return new InMemorySubscriptionCache(environment, meterRegistry);
+    }
+
+    private static CachedSubscription subscription(final String userId) {
+        final var subscription = new Subscription();
+        subscription.setSubscriptionId("s1");
+        subscription.setUserId(userId);
+        subscription.setActivatedAt(0);
+        subscription.setExpiresAt(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(30));
+        return new CachedSubscription(subscription, System.currentTimeMillis());
+    }
+
+}
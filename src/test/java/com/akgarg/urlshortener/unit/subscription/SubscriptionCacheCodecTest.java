@@ -0,0 +1,84 @@
+package com.akgarg.urlshortener.unit.subscription;
+
+import com.akgarg.urlshortener.v1.subscription.Subscription;
+import com.akgarg.urlshortener.v1.subscription.SubscriptionEntitlements;
+import com.akgarg.urlshortener.v1.subscription.SubscriptionPack;
+import com.akgarg.urlshortener.v1.subscription.cache.CachedSubscription;
+import com.akgarg.urlshortener.v1.subscription.cache.JsonSubscriptionCacheCodec;
+import com.akgarg.urlshortener.v1.subscription.cache.SubscriptionCacheCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class SubscriptionCacheCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SubscriptionCacheCodec binaryCodec = new SubscriptionCacheCodec();
+    private final JsonSubscriptionCacheCodec jsonCodec = new JsonSubscriptionCacheCodec(objectMapper);
+
+    @Test
+    void decode_ShouldRestoreEncodedSubscription_WithPackAndEntitlements() throws IOException {
+        final var subscription = subscription();
+
+        final var decoded = binaryCodec.decode(binaryCodec.encode(subscription));
+
+        assertEquals(objectMapper.writeValueAsString(subscription), objectMapper.writeValueAsString(decoded));
+        assertEquals(new SubscriptionEntitlements(0, 10, 1), decoded.subscription().getPack().getEntitlements());
+    }
+
+    @Test
+    void decode_ShouldRestoreNullFieldsAndMissingPack() throws IOException {
+        final var subscription = new Subscription();
+        subscription.setUserId("4b34ed1400fd06ef21f");
+        final var withoutPack = new CachedSubscription(subscription, 1);
+
+        final var decoded = binaryCodec.decode(binaryCodec.encode(withoutPack));
+
+        assertNull(decoded.subscription().getPack());
+        assertNull(decoded.subscription().getSubscriptionId());
+        assertEquals(objectMapper.writeValueAsString(withoutPack), objectMapper.writeValueAsString(decoded));
+    }
+
+    @Test
+    void decode_ShouldReturnNull_ForValuesOfOtherVersionsOrCodecs() {
+        final var binary = binaryCodec.encode(subscription());
+        final var json = jsonCodec.encode(subscription());
+        final var otherVersion = binary.clone();
+        otherVersion[0] = 2;
+
+        assertNull(binaryCodec.decode(otherVersion));
+        assertNull(binaryCodec.decode(json));
+        assertNull(binaryCodec.decode(new byte[0]));
+        assertNull(jsonCodec.decode(binary));
+        assertEquals("s1", jsonCodec.decode(json).subscription().getSubscriptionId());
+    }
+
+    @Test
+    void decode_ShouldReturnNull_ForUnreadableJson() {
+        assertNull(jsonCodec.decode("{\"subscription\": {\"user_id\": ".getBytes(StandardCharsets.UTF_8)));
+        assertNull(jsonCodec.decode("{\"subscription\": [1, 2]}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static CachedSubscription subscription() {
+        final var pack = new SubscriptionPack();
+        pack.setId("67a3b3a1c39fdd2e1b5bfa80");
+        pack.setName("PRO");
+        pack.setPrivileges(List.of("short_url:unlimited", "custom_alias:10"));
+        pack.setFeatures(List.of("Unlimited short urls", "10 custom aliases", "Advanced analytics"));
+        pack.setEntitlements(SubscriptionEntitlements.fromPrivileges(pack.getPrivileges()));
+
+        final var subscription = new Subscription();
+        subscription.setSubscriptionId("s1");
+        subscription.setUserId("4b34ed1400fd06ef21f");
+        subscription.setActivatedAt(1738000000000L);
+        subscription.setExpiresAt(1740592000000L);
+        subscription.setPack(pack);
+        return new CachedSubscription(subscription, 1738000060000L);
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.akgarg.urlshortener.unit.subscription;
+
+import com.akgarg.urlshortener.v1.subscription.Subscription;
+import com.akgarg.urlshortener.v1.subscription.SubscriptionEntitlements;
+import com.akgarg.urlshortener.v1.subscription.SubscriptionPack;
+import com.akgarg.urlshortener.v1.subscription.cache.CachedSubscription;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class SubscriptionEntitlementsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void fromPrivileges_ShouldParseLimitsAndUnlimitedFlags() {
+        final var entitlements = SubscriptionEntitlements.fromPrivileges(List.of("short_url:unlimited", "custom_alias: 10 ", "analytics:basic"));
+
+        assertTrue(entitlements.hasUnlimitedShortUrls());
+        assertFalse(entitlements.hasUnlimitedCustomAliases());
+        assertEquals(Integer.MAX_VALUE, entitlements.allowedShortUrls());
+        assertEquals(10, entitlements.allowedCustomAliases());
+    }
+
+    @Test
+    void fromPrivileges_ShouldAllowNothing_WhenPrivilegeIsMissingOrMalformed() {
+        final var entitlements = SubscriptionEntitlements.fromPrivileges(List.of("short_url:many"));
+
+        assertEquals(SubscriptionEntitlements.NONE, entitlements);
+        assertEquals(SubscriptionEntitlements.NONE, SubscriptionEntitlements.fromPrivileges(null));
+    }
+
+    @Test
+    void fromPrivileges_ShouldUseFirstPrivilegeOfEachKind() {
+        final var entitlements = SubscriptionEntitlements.fromPrivileges(List.of("custom_alias:5", "short_url:100", "custom_alias:unlimited", "short_url:1"));
+
+        assertEquals(new SubscriptionEntitlements(100, 5, 0), entitlements);
+    }
+
+    @Test
+    void cachedSubscription_ShouldKeepParsedEntitlements_ThroughJson() throws Exception {
+        final var pack = new SubscriptionPack();
+        pack.setPrivileges(List.of("short_url:100", "custom_alias:unlimited"));
+        pack.setEntitlements(SubscriptionEntitlements.fromPrivileges(pack.getPrivileges()));
+        final var subscription = new Subscription();
+        subscription.setUserId("4b34ed1400fd06ef21f");
+        subscription.setPack(pack);
+
+        final var json = objectMapper.writeValueAsString(new CachedSubscription(subscription, 1));
+        final var cachedPack = objectMapper.readValue(json, CachedSubscription.class).subscription().getPack();
+
+        assertTrue(json.contains("\"entitlements\":{\"short_urls\":100,\"custom_aliases\":0,\"flags\":2}"), json);
+        assertEquals(100, cachedPack.getEntitlements().allowedShortUrls());
+        assertEquals(Integer.MAX_VALUE, cachedPack.getEntitlements().allowedCustomAliases());
+    }
+
+    @Test
+    void getEntitlements_ShouldParsePrivileges_OfPacksCachedWithoutEntitlements() throws Exception {
+        final var json = """
+                {"subscription": {"user_id": "4b34ed1400fd06ef21f", "pack": {"privileges": ["short_url:7", "custom_alias:3"]}},
+                 "cached_at": 1}
+                """;
+
+        final var pack = objectMapper.readValue(json, CachedSubscription.class).subscription().getPack();
+
+        assertEquals(new SubscriptionEntitlements(7, 3, 0), pack.getEntitlements());
+    }
+
+}
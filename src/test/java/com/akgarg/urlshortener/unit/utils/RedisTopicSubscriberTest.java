@@ -0,0 +1,53 @@
+package com.akgarg.urlshortener.unit.utils;
+
+import com.akgarg.urlshortener.utils.RedisTopicSubscriber;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+final class RedisTopicSubscriberTest {
+
+    private static final ChannelTopic FIRST_TOPIC = new ChannelTopic("first");
+    private static final ChannelTopic SECOND_TOPIC = new ChannelTopic("second");
+
+    private final RedisMessageListenerContainer listenerContainer = mock(RedisMessageListenerContainer.class);
+    private final MessageListener messageListener = mock(MessageListener.class);
+
+    @Test
+    void subscribe_ShouldAddListenerForEveryTopic_InTheBackground() throws InterruptedException {
+        final var subscriber = new RedisTopicSubscriber(listenerContainer, messageListener, "test-subscriber", FIRST_TOPIC, SECOND_TOPIC);
+        assertFalse(subscriber.isSubscribed());
+
+        subscriber.subscribe();
+
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!subscriber.isSubscribed() && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+
+        assertTrue(subscriber.isSubscribed());
+        verify(listenerContainer).addMessageListener(messageListener, List.of(FIRST_TOPIC, SECOND_TOPIC));
+    }
+
+    @Test
+    void subscribe_ShouldNotFail_AndStayUnsubscribed_WhenRedisIsUnavailable() {
+        doThrow(new IllegalStateException("redis unavailable")).when(listenerContainer).addMessageListener(any(), anyCollection());
+        final var subscriber = new RedisTopicSubscriber(listenerContainer, messageListener, "test-subscriber", FIRST_TOPIC);
+
+        subscriber.subscribe();
+
+        verify(listenerContainer, timeout(5_000)).addMessageListener(messageListener, List.of(FIRST_TOPIC));
+        assertFalse(subscriber.isSubscribed());
+    }
+
+}
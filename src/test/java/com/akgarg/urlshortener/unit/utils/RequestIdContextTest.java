@@ -0,0 +1,59 @@
+package com.akgarg.urlshortener.unit.utils;
+
+import com.akgarg.urlshortener.utils.RequestIdContext;
+import org.apache.logging.log4j.ThreadContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class RequestIdContextTest {
+
+    @AfterEach
+    void tearDown() {
+        ThreadContext.remove(RequestIdContext.REQUEST_ID_KEY);
+    }
+
+    @Test
+    void withCurrentRequestId_ShouldRunTasksWithCallersRequestId_OnVirtualThread() {
+        try (final var virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            ThreadContext.put(RequestIdContext.REQUEST_ID_KEY, "request-id");
+            final var executor = RequestIdContext.withCurrentRequestId(virtualThreads);
+            ThreadContext.put(RequestIdContext.REQUEST_ID_KEY, "other-request-id");
+
+            final var requestId = CompletableFuture.supplyAsync(() -> ThreadContext.get(RequestIdContext.REQUEST_ID_KEY), executor).join();
+            final var requestIdAfterTask = CompletableFuture.supplyAsync(() -> ThreadContext.get(RequestIdContext.REQUEST_ID_KEY), virtualThreads).join();
+
+            assertEquals("request-id", requestId);
+            assertNull(requestIdAfterTask);
+        }
+    }
+
+    @Test
+    void withCurrentRequestId_ShouldRestorePreviousRequestId_AfterTaskRunsOnCallingThread() {
+        ThreadContext.put(RequestIdContext.REQUEST_ID_KEY, "request-id");
+        final var executor = RequestIdContext.withCurrentRequestId(Runnable::run);
+        ThreadContext.put(RequestIdContext.REQUEST_ID_KEY, "other-request-id");
+
+        executor.execute(() -> assertEquals("request-id", ThreadContext.get(RequestIdContext.REQUEST_ID_KEY)));
+
+        assertEquals("other-request-id", ThreadContext.get(RequestIdContext.REQUEST_ID_KEY));
+    }
+
+    @Test
+    void withCurrentRequestId_ShouldReturnExecutor_WhenThereIsNoRequestId() {
+        final var executor = Executors.newSingleThreadExecutor();
+
+        try {
+            assertSame(executor, RequestIdContext.withCurrentRequestId(executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}